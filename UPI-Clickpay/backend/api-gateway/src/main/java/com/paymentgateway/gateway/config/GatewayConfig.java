@@ -0,0 +1,16 @@
+package com.paymentgateway.gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class GatewayConfig {
+
+    @Bean
+    public WebClient merchantServiceClient(WebClient.Builder builder, RateLimitProperties properties) {
+        return builder.baseUrl(properties.getMerchantServiceUrl()).build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.paymentgateway.gateway.config;
+
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // How often local buckets publish their consumption to Redis
+    private Duration syncInterval = Duration.ofMillis(500);
+
+    // Buckets untouched for this long are dropped from memory
+    private Duration idleEviction = Duration.ofMinutes(10);
+
+    // How long a merchant's tier limits are trusted before re-fetching
+    private Duration policyTtl = Duration.ofMinutes(5);
+
+    private String merchantServiceUrl = "http://localhost:8082";
+
+    // Used until the merchant's tier policy has been fetched, or when merchant-service is down
+    private Map<String, RateLimitPolicy.RouteLimit> defaultLimits = new HashMap<>();
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getSyncInterval() { return syncInterval; }
+    public void setSyncInterval(Duration syncInterval) { this.syncInterval = syncInterval; }
+
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration idleEviction) { this.idleEviction = idleEviction; }
+
+    public Duration getPolicyTtl() { return policyTtl; }
+    public void setPolicyTtl(Duration policyTtl) { this.policyTtl = policyTtl; }
+
+    public String getMerchantServiceUrl() { return merchantServiceUrl; }
+    public void setMerchantServiceUrl(String merchantServiceUrl) { this.merchantServiceUrl = merchantServiceUrl; }
+
+    public Map<String, RateLimitPolicy.RouteLimit> getDefaultLimits() { return defaultLimits; }
+    public void setDefaultLimits(Map<String, RateLimitPolicy.RouteLimit> defaultLimits) { this.defaultLimits = defaultLimits; }
+}
@@ -0,0 +1,108 @@
+package com.paymentgateway.gateway.filter;
+
+import com.paymentgateway.common.security.AuthState;
+import com.paymentgateway.common.security.JwtPrincipal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the revoked tokens and changed users auth-service keeps in Redis (see
+ * {@link AuthState}), so every JWT is checked against them without a Redis call per request.
+ * Changes arrive over pub/sub; both are re-read every couple of seconds in case a message
+ * is missed. If Redis is unreachable the last copy keeps being enforced.
+ */
+@Component
+public class AuthStateMirror {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthStateMirror.class);
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    // token digest -> expiry millis
+    private volatile Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // username -> encoded state, only users that were deactivated or changed password
+    private volatile Map<String, String> userStates = new ConcurrentHashMap<>();
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void subscribe() {
+        subscription = redisTemplate.listenToChannel(AuthState.TOKEN_REVOKED_CHANNEL, AuthState.USER_STATUS_CHANNEL)
+            .doOnNext(message -> {
+                if (AuthState.TOKEN_REVOKED_CHANNEL.equals(message.getChannel())) {
+                    onRevocation(message.getMessage());
+                } else {
+                    reloadUser(message.getMessage());
+                }
+            })
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * False if the token was revoked, its user is deactivated, or it predates the user's
+     * last password change
+     */
+    public boolean accepts(String token, JwtPrincipal principal) {
+        if (!revoked.isEmpty() && revoked.containsKey(AuthState.tokenDigest(token))) {
+            return false;
+        }
+        String username = principal.getUsername();
+        return username == null
+            || AuthState.acceptsUserState(userStates.get(username), principal.getIssuedAtMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.auth-state.refresh-interval:2s}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet()
+            .rangeByScoreWithScores(AuthState.REVOKED_TOKENS_KEY, Range.closed((double) now, Double.POSITIVE_INFINITY))
+            .collectMap(entry -> entry.getValue(), entry -> entry.getScore().longValue(), ConcurrentHashMap::new)
+            .subscribe(snapshot -> revoked = snapshot, e -> {
+                revoked.values().removeIf(expiry -> expiry <= now);
+                log.warn("Could not refresh revoked tokens, enforcing the last copy: {}", e.getMessage());
+            });
+
+        redisTemplate.<String, String>opsForHash()
+            .entries(AuthState.USER_STATE_KEY)
+            .collectMap(Map.Entry::getKey, Map.Entry::getValue, ConcurrentHashMap::new)
+            .subscribe(snapshot -> userStates = snapshot,
+                e -> log.warn("Could not refresh user states, enforcing the last copy: {}", e.getMessage()));
+    }
+
+    private void onRevocation(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator > 0) {
+            revoked.put(message.substring(0, separator), Long.parseLong(message.substring(separator + 1)));
+        }
+    }
+
+    private void reloadUser(String username) {
+        redisTemplate.<String, String>opsForHash()
+            .get(AuthState.USER_STATE_KEY, username)
+            .subscribe(state -> userStates.put(username, state),
+                e -> log.warn("Could not reload state of user {}: {}", username, e.getMessage()));
+    }
+}
@@ -0,0 +1,106 @@
+package com.paymentgateway.gateway.filter;
+
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.JwtPrincipal;
+import com.paymentgateway.common.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Verifies bearer JWTs once at the edge and forwards the identity to services as
+ * trusted headers, so downstream controllers do not parse or verify the token again.
+ * Revoked tokens, deactivated users and tokens issued before a password change are
+ * rejected here too (see {@link AuthStateMirror}).
+ */
+@Component
+public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = -100;
+    public static final String IDENTITY_ATTR = JwtAuthenticationFilter.class.getName() + ".identity";
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private AuthStateMirror authState;
+
+    @Value("${gateway.internal-secret:}")
+    private String internalSecret;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String token = bearerJwt(authorization);
+
+        JwtPrincipal identity = null;
+        if (token != null) {
+            identity = verify(token);
+            if (identity == null || !authState.accepts(token, identity)) {
+                exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                return exchange.getResponse().setComplete();
+            }
+            exchange.getAttributes().put(IDENTITY_ATTR, identity);
+        }
+
+        JwtPrincipal verified = identity;
+        ServerHttpRequest forwarded = request.mutate().headers(headers -> {
+            // Never let a client supply its own identity headers
+            headers.remove(GatewayHeaders.USER_ID);
+            headers.remove(GatewayHeaders.USER_ROLE);
+            headers.remove(GatewayHeaders.USERNAME);
+            headers.remove(GatewayHeaders.INTERNAL_SECRET);
+
+            if (verified != null) {
+                headers.set(GatewayHeaders.USER_ID, String.valueOf(verified.getUserId()));
+                if (verified.getRole() != null) {
+                    headers.set(GatewayHeaders.USER_ROLE, verified.getRole());
+                }
+                if (verified.getUsername() != null) {
+                    headers.set(GatewayHeaders.USERNAME, verified.getUsername());
+                }
+                if (!internalSecret.isEmpty()) {
+                    headers.set(GatewayHeaders.INTERNAL_SECRET, internalSecret);
+                }
+            }
+        }).build();
+
+        return chain.filter(exchange.mutate().request(forwarded).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private JwtPrincipal verify(String token) {
+        try {
+            // Served from JwtUtil's verified-token cache (jwt.cache.max-size) on repeat calls
+            return jwtUtil.verify(token);
+        } catch (Exception e) {
+            // Bad signature, malformed or expired
+            return null;
+        }
+    }
+
+    /**
+     * The bearer credential if it is a JWT; API keys are passed through untouched
+     */
+    static String bearerJwt(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        String token = authorization.substring(7);
+        int first = token.indexOf('.');
+        return first > 0 && token.indexOf('.', first + 1) > first ? token : null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.paymentgateway.gateway.filter;
+
+/**
+ * Who a request is billed to for rate limiting: a merchant id, from a JWT or a resolved
+ * API key, or an opaque digest of an API key whose merchant is not known yet.
+ */
+public class MerchantIdentity {
+    private final String key;
+    private final Long merchantId;
+
+    private MerchantIdentity(String key, Long merchantId) {
+        this.key = key;
+        this.merchantId = merchantId;
+    }
+
+    public static MerchantIdentity ofMerchant(Long merchantId) {
+        return new MerchantIdentity("m" + merchantId, merchantId);
+    }
+
+    public static MerchantIdentity ofApiKey(String keyDigest) {
+        return new MerchantIdentity("k" + keyDigest, null);
+    }
+
+    public String getKey() { return key; }
+
+    public Long getMerchantId() { return merchantId; }
+
+    /**
+     * Value used for metric tags
+     */
+    public String getTag() {
+        return merchantId != null ? merchantId.toString() : "api-key";
+    }
+}
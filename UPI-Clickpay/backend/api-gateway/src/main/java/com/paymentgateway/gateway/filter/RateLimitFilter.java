@@ -0,0 +1,109 @@
+package com.paymentgateway.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import com.paymentgateway.gateway.config.RateLimitProperties;
+import com.paymentgateway.gateway.ratelimit.MerchantPolicyResolver;
+import com.paymentgateway.gateway.ratelimit.MerchantRateLimiter;
+import com.paymentgateway.gateway.ratelimit.RateLimitDecision;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-merchant, per-route token bucket admission. Rejected requests get 429 with Retry-After
+ * and are counted in gateway.ratelimit.rejected{merchant,route}.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = -50;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MerchantKeyResolver merchantKeyResolver;
+
+    @Autowired
+    private MerchantPolicyResolver policyResolver;
+
+    @Autowired
+    private MerchantRateLimiter rateLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        MerchantIdentity identity = merchantKeyResolver.resolve(exchange);
+        if (identity == null) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : RateLimitPolicy.DEFAULT_ROUTE;
+
+        RateLimitPolicy.RouteLimit limit = policyResolver.limitFor(identity.getMerchantId(), routeId);
+        RateLimitDecision decision = rateLimiter.tryAcquire(identity.getKey(), routeId, limit);
+
+        if (decision.isAllowed()) {
+            if (decision.getRemaining() >= 0) {
+                exchange.getResponse().getHeaders().set("X-RateLimit-Remaining", String.valueOf(decision.getRemaining()));
+            }
+            return chain.filter(exchange);
+        }
+
+        rejectedCounter(identity, routeId).increment();
+        return reject(exchange.getResponse(), decision);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private Counter rejectedCounter(MerchantIdentity identity, String routeId) {
+        return Counter.builder("gateway.ratelimit.rejected")
+            .description("Requests rejected by the per-merchant rate limiter")
+            .tag("merchant", identity.getTag())
+            .tag("route", routeId)
+            .register(meterRegistry);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, RateLimitDecision decision) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set("Retry-After", String.valueOf(decision.getRetryAfterSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(ApiResponse.error("Rate limit exceeded"));
+        } catch (JsonProcessingException e) {
+            return response.setComplete();
+        }
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
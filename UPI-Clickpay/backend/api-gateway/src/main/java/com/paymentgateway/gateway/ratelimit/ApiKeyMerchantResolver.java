@@ -0,0 +1,97 @@
+package com.paymentgateway.gateway.ratelimit;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.gateway.config.RateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches which merchant each API key belongs to, so API-key callers share their merchant's
+ * bucket and tier limits with its JWT traffic. Like {@link MerchantPolicyResolver}, lookups
+ * never block: until a key is resolved it is limited on its own with the gateway defaults.
+ */
+@Component
+public class ApiKeyMerchantResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiKeyMerchantResolver.class);
+
+    private static final ParameterizedTypeReference<ApiResponse<Long>> MERCHANT_RESPONSE =
+        new ParameterizedTypeReference<>() {};
+
+    // Unknown keys are remembered too; past this many entries the cache starts over
+    private static final int MAX_KEYS = 100_000;
+
+    @Autowired
+    @Qualifier("merchantServiceClient")
+    private WebClient merchantServiceClient;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final ConcurrentHashMap<String, CachedMerchant> merchants = new ConcurrentHashMap<>();
+    private final Set<String> fetching = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param keyDigest {@link com.paymentgateway.common.security.ApiKeyDigests#digest} of the key
+     * @return the merchant (user) id, or null while unknown or for keys that are not usable
+     */
+    public Long merchantFor(String keyDigest) {
+        CachedMerchant cached = merchants.get(keyDigest);
+        if (cached == null || cached.isExpired(System.nanoTime())) {
+            refreshAsync(keyDigest);
+        }
+        return cached != null ? cached.merchantId : null;
+    }
+
+    private void refreshAsync(String keyDigest) {
+        if (!fetching.add(keyDigest)) {
+            return;
+        }
+
+        merchantServiceClient.get()
+            .uri("/api/merchant/config/api-keys/{keyHash}/merchant", keyDigest)
+            .retrieve()
+            .bodyToMono(MERCHANT_RESPONSE)
+            // merchant-service answers 400 for unknown, revoked and expired keys
+            .onErrorResume(WebClientResponseException.BadRequest.class,
+                e -> Mono.just(ApiResponse.error("API key not found")))
+            .timeout(Duration.ofSeconds(2))
+            .doFinally(signal -> fetching.remove(keyDigest))
+            .subscribe(
+                response -> {
+                    if (merchants.size() >= MAX_KEYS) {
+                        merchants.clear();
+                    }
+                    Long merchantId = response.isSuccess() ? response.getData() : null;
+                    long expiresAt = System.nanoTime() + properties.getPolicyTtl().toNanos();
+                    merchants.put(keyDigest, new CachedMerchant(merchantId, expiresAt));
+                },
+                e -> log.debug("Could not resolve the merchant of an API key: {}", e.getMessage())
+            );
+    }
+
+    private static class CachedMerchant {
+        private final Long merchantId;
+        private final long expiresAtNanos;
+
+        CachedMerchant(Long merchantId, long expiresAtNanos) {
+            this.merchantId = merchantId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.paymentgateway.gateway.ratelimit;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import com.paymentgateway.gateway.config.RateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches each merchant's tier limits from merchant-service. Lookups never block the
+ * request: on a miss the gateway defaults apply while the policy is fetched in the background.
+ */
+@Component
+public class MerchantPolicyResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(MerchantPolicyResolver.class);
+
+    private static final ParameterizedTypeReference<ApiResponse<RateLimitPolicy>> POLICY_RESPONSE =
+        new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    @Qualifier("merchantServiceClient")
+    private WebClient merchantServiceClient;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final ConcurrentHashMap<Long, CachedPolicy> policies = new ConcurrentHashMap<>();
+    private final Set<Long> fetching = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Limit for the given merchant on the given gateway route
+     * @param merchantId merchant (user) id, or null for an API key not resolved to its merchant yet
+     */
+    public RateLimitPolicy.RouteLimit limitFor(Long merchantId, String routeId) {
+        if (merchantId == null) {
+            return defaultLimit(routeId);
+        }
+
+        CachedPolicy cached = policies.get(merchantId);
+        long now = System.nanoTime();
+        if (cached == null || cached.isExpired(now)) {
+            refreshAsync(merchantId);
+        }
+        if (cached == null) {
+            return defaultLimit(routeId);
+        }
+
+        RateLimitPolicy.RouteLimit limit = cached.policy.limitFor(routeId);
+        return limit != null ? limit : defaultLimit(routeId);
+    }
+
+    public void invalidate(Long merchantId) {
+        policies.remove(merchantId);
+    }
+
+    private RateLimitPolicy.RouteLimit defaultLimit(String routeId) {
+        RateLimitPolicy.RouteLimit limit = properties.getDefaultLimits().get(routeId);
+        return limit != null ? limit : properties.getDefaultLimits().get(RateLimitPolicy.DEFAULT_ROUTE);
+    }
+
+    private void refreshAsync(Long merchantId) {
+        if (!fetching.add(merchantId)) {
+            return;
+        }
+
+        merchantServiceClient.get()
+            .uri("/api/merchant/config/{merchantId}/rate-limits", merchantId)
+            .retrieve()
+            .bodyToMono(POLICY_RESPONSE)
+            .timeout(Duration.ofSeconds(2))
+            .doFinally(signal -> fetching.remove(merchantId))
+            .subscribe(
+                response -> {
+                    if (response != null && response.isSuccess() && response.getData() != null) {
+                        long expiresAt = System.nanoTime() + properties.getPolicyTtl().toNanos();
+                        policies.put(merchantId, new CachedPolicy(response.getData(), expiresAt));
+                    }
+                },
+                e -> log.debug("Could not fetch rate limit policy for merchant {}: {}", merchantId, e.getMessage())
+            );
+    }
+
+    private static class CachedPolicy {
+        private final RateLimitPolicy policy;
+        private final long expiresAtNanos;
+
+        CachedPolicy(RateLimitPolicy policy, long expiresAtNanos) {
+            this.policy = policy;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
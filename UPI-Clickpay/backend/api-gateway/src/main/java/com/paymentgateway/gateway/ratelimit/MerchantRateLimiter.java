@@ -0,0 +1,55 @@
+package com.paymentgateway.gateway.ratelimit;
+
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds one token bucket per (merchant, route). A request costs a map lookup and a
+ * short synchronized section on its own bucket - no network I/O.
+ */
+@Component
+public class MerchantRateLimiter {
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimitDecision tryAcquire(String merchantKey, String routeId, RateLimitPolicy.RouteLimit limit) {
+        if (limit == null) {
+            return RateLimitDecision.unlimited();
+        }
+
+        long now = System.nanoTime();
+        String key = merchantKey + ":" + routeId;
+
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null || !bucket.hasLimits(limit.getReplenishRate(), limit.getBurstCapacity())) {
+            // First request, or the merchant's tier changed since the bucket was created
+            bucket = buckets.compute(key, (k, existing) ->
+                existing != null && existing.hasLimits(limit.getReplenishRate(), limit.getBurstCapacity())
+                    ? existing
+                    : new TokenBucket(k, limit.getReplenishRate(), limit.getBurstCapacity(), now));
+        }
+
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos == 0) {
+            return RateLimitDecision.allowed(bucket.availableTokens());
+        }
+        return RateLimitDecision.rejected((long) Math.ceil((double) waitNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    Collection<TokenBucket> buckets() {
+        return buckets.values();
+    }
+
+    void evictIdle(long idleNanos) {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.paymentgateway.gateway.ratelimit;
+
+public class RateLimitDecision {
+    private static final RateLimitDecision UNLIMITED = new RateLimitDecision(true, 0, -1);
+
+    private final boolean allowed;
+    private final long retryAfterSeconds;
+    private final long remaining;
+
+    private RateLimitDecision(boolean allowed, long retryAfterSeconds, long remaining) {
+        this.allowed = allowed;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.remaining = remaining;
+    }
+
+    public static RateLimitDecision allowed(long remaining) {
+        return new RateLimitDecision(true, 0, remaining);
+    }
+
+    public static RateLimitDecision rejected(long retryAfterSeconds) {
+        return new RateLimitDecision(false, Math.max(1, retryAfterSeconds), 0);
+    }
+
+    public static RateLimitDecision unlimited() {
+        return UNLIMITED;
+    }
+
+    public boolean isAllowed() { return allowed; }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+
+    /**
+     * Tokens left after this request, or -1 when no limit applies
+     */
+    public long getRemaining() { return remaining; }
+}
@@ -0,0 +1,104 @@
+package com.paymentgateway.gateway.ratelimit;
+
+import com.paymentgateway.gateway.config.RateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Periodically publishes each bucket's local consumption to a per-second Redis counter
+ * and pulls back the cluster-wide total, so N gateway nodes share one merchant budget
+ * while paying one Redis round trip per active bucket per sync interval instead of per
+ * request; buckets with no new consumption are read back in batches.
+ */
+@Component
+public class RedisRateLimitSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimitSynchronizer.class);
+
+    private static final RedisScript<Long> INCREMENT_WINDOW = RedisScript.of(
+        "local v = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+        "if v == tonumber(ARGV[1]) then redis.call('EXPIRE', KEYS[1], ARGV[2]) end " +
+        "return v", Long.class);
+
+    private static final String KEY_PREFIX = "ratelimit:";
+    private static final String WINDOW_TTL_SECONDS = "5";
+    private static final int READ_BATCH = 500;
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Autowired
+    private MerchantRateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    private final AtomicBoolean syncInProgress = new AtomicBoolean(false);
+
+    @Scheduled(fixedDelayString = "${gateway.rate-limit.sync-interval:500ms}")
+    public void synchronize() {
+        if (!properties.isEnabled() || !syncInProgress.compareAndSet(false, true)) {
+            return;
+        }
+
+        long window = System.currentTimeMillis() / 1000;
+
+        // Drain every bucket before evicting any, so an idle bucket's last requests still count
+        List<Map.Entry<TokenBucket, Long>> consumed = new ArrayList<>();
+        List<TokenBucket> unchanged = new ArrayList<>();
+        for (TokenBucket bucket : rateLimiter.buckets()) {
+            long delta = bucket.drainUnsynced();
+            if (delta > 0) {
+                consumed.add(Map.entry(bucket, delta));
+            } else {
+                unchanged.add(bucket);
+            }
+        }
+
+        Flux<Long> increments = Flux.fromIterable(consumed)
+            .flatMap(entry -> {
+                TokenBucket bucket = entry.getKey();
+                String delta = String.valueOf(entry.getValue());
+                return redisTemplate.execute(INCREMENT_WINDOW, List.of(windowKey(bucket, window)), List.of(delta, WINDOW_TTL_SECONDS))
+                    .next()
+                    .doOnNext(bucket::applyClusterUsage);
+            }, 64);
+
+        // Buckets with nothing to publish only read the other nodes' usage, a batch at a time
+        Flux<List<String>> reads = Flux.fromIterable(unchanged)
+            .buffer(READ_BATCH)
+            .flatMap(batch -> redisTemplate.opsForValue()
+                .multiGet(batch.stream().map(bucket -> windowKey(bucket, window)).toList())
+                .doOnNext(values -> {
+                    for (int i = 0; i < batch.size(); i++) {
+                        String value = values.get(i);
+                        if (value != null) {
+                            batch.get(i).applyClusterUsage(Long.parseLong(value));
+                        }
+                    }
+                }), 8);
+
+        Flux.merge(increments, reads)
+            .doOnError(e -> log.warn("Rate limit sync with Redis failed, enforcing local limits only: {}", e.getMessage()))
+            .doFinally(signal -> {
+                rateLimiter.evictIdle(properties.getIdleEviction().toNanos());
+                syncInProgress.set(false);
+            })
+            .subscribe(v -> {}, e -> {});
+    }
+
+    private static String windowKey(TokenBucket bucket, long window) {
+        return KEY_PREFIX + bucket.getSyncKey() + ":" + window;
+    }
+}
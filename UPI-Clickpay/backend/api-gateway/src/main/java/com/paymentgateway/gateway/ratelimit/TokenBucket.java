@@ -0,0 +1,95 @@
+package com.paymentgateway.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local token bucket. Admission is decided entirely in memory; consumption is
+ * accumulated and published to Redis by {@link RedisRateLimitSynchronizer}, which feeds
+ * the cluster-wide usage back through {@link #applyClusterUsage(long)}.
+ */
+public class TokenBucket {
+
+    private final String syncKey;
+    private final long replenishRate;
+    private final long capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastAccessNanos;
+
+    private final AtomicLong unsyncedConsumption = new AtomicLong();
+
+    public TokenBucket(String syncKey, long replenishRate, long capacity, long nowNanos) {
+        this.syncKey = syncKey;
+        this.replenishRate = Math.max(1, replenishRate);
+        this.capacity = Math.max(1, capacity);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    /**
+     * Take one token.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a token is available
+     */
+    public synchronized long tryConsume(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        refill(nowNanos);
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            unsyncedConsumption.incrementAndGet();
+            return 0;
+        }
+
+        double missing = 1.0 - tokens;
+        return (long) Math.ceil(missing * TimeUnit.SECONDS.toNanos(1) / replenishRate);
+    }
+
+    /**
+     * Reconcile with the cluster: if all nodes together have used more than one second's
+     * allowance in the current window, drain this bucket so the excess is paid back.
+     */
+    public synchronized void applyClusterUsage(long clusterConsumed) {
+        long allowance = replenishRate + capacity;
+        if (clusterConsumed > allowance) {
+            // Negative balance is debt; cap it so a spike cannot lock a merchant out for long
+            double balance = Math.max(-capacity, allowance - clusterConsumed);
+            tokens = Math.min(tokens, balance);
+        }
+    }
+
+    /**
+     * Consumption since the last call, reset to zero
+     */
+    public long drainUnsynced() {
+        return unsyncedConsumption.getAndSet(0);
+    }
+
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - lastAccessNanos > idleNanos;
+    }
+
+    public boolean hasLimits(long replenishRate, long capacity) {
+        return this.replenishRate == Math.max(1, replenishRate) && this.capacity == Math.max(1, capacity);
+    }
+
+    public synchronized long availableTokens() {
+        return (long) Math.max(0, Math.floor(tokens));
+    }
+
+    public String getSyncKey() { return syncKey; }
+
+    public long getReplenishRate() { return replenishRate; }
+
+    public long getCapacity() { return capacity; }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + (double) elapsed * replenishRate / TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.paymentgateway.auth.config;
+
+import com.paymentgateway.auth.service.TokenRevocationService;
+import com.paymentgateway.auth.service.UserStatusCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class RedisConfig {
+
+    /**
+     * Subscribes every instance to user-status and revocation changes made on any instance
+     */
+    @Bean
+    public RedisMessageListenerContainer authEventListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    UserStatusCache userStatusCache,
+                                                                    TokenRevocationService tokenRevocationService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+            (message, pattern) -> userStatusCache.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(UserStatusCache.INVALIDATION_CHANNEL));
+        container.addMessageListener(
+            (message, pattern) -> tokenRevocationService.onRevocationMessage(
+                new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(TokenRevocationService.REVOCATION_CHANNEL));
+        return container;
+    }
+}
@@ -1,12 +1,18 @@
 package com.paymentgateway.auth.controller;
 
 import com.paymentgateway.auth.dto.AuthResponse;
+import com.paymentgateway.auth.dto.ChangePasswordRequest;
 import com.paymentgateway.auth.dto.LoginRequest;
 import com.paymentgateway.auth.dto.SignupRequest;
+import com.paymentgateway.auth.exception.HashingCapacityExceededException;
+import com.paymentgateway.auth.exception.TooManyAttemptsException;
 import com.paymentgateway.auth.service.AuthService;
 import com.paymentgateway.common.dto.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,21 +24,42 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Value("${auth.trusted-proxy-hops:1}")
+    private int trustedProxyHops;
+
     @PostMapping("/signup")
-    public ResponseEntity<ApiResponse<AuthResponse>> signup(@Valid @RequestBody SignupRequest request) {
+    public ResponseEntity<ApiResponse<AuthResponse>> signup(@Valid @RequestBody SignupRequest request,
+                                                            HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.signup(request);
+            AuthResponse response = authService.signup(request, clientIp(httpRequest));
             return ResponseEntity.ok(ApiResponse.success("User registered successfully", response));
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (HashingCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                           HttpServletRequest httpRequest) {
         try {
-            AuthResponse response = authService.login(request);
+            AuthResponse response = authService.login(request, clientIp(httpRequest));
             return ResponseEntity.ok(ApiResponse.success("Login successful", response));
+        } catch (TooManyAttemptsException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (HashingCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
         }
@@ -43,4 +70,62 @@ public class AuthController {
         boolean isValid = authService.validateToken(token);
         return ResponseEntity.ok(ApiResponse.success(isValid));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<String>> logout(@RequestHeader("Authorization") String authorization) {
+        try {
+            authService.logout(bearerToken(authorization));
+            return ResponseEntity.ok(ApiResponse.success("Logged out", null));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/change-password")
+    public ResponseEntity<ApiResponse<String>> changePassword(@RequestHeader("Authorization") String authorization,
+                                                              @Valid @RequestBody ChangePasswordRequest request) {
+        try {
+            authService.changePassword(bearerToken(authorization), request.getCurrentPassword(), request.getNewPassword());
+            return ResponseEntity.ok(ApiResponse.success("Password changed, please log in again", null));
+        } catch (HashingCapacityExceededException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @PutMapping("/users/{userId}/status")
+    public ResponseEntity<ApiResponse<String>> updateUserStatus(@RequestHeader("Authorization") String authorization,
+                                                                @PathVariable Long userId,
+                                                                @RequestParam boolean active) {
+        try {
+            authService.setUserActive(bearerToken(authorization), userId, active);
+            return ResponseEntity.ok(ApiResponse.success(active ? "User activated" : "User deactivated", null));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    private String bearerToken(String authorization) {
+        return authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization;
+    }
+
+    /**
+     * Client address: the entry trustedProxyHops from the right of X-Forwarded-For. Each trusted
+     * proxy (api-gateway and any load balancer before it) appends its peer, so the entries to the
+     * left of those are the client's own and can be forged.
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwarded = request.getHeader("X-Forwarded-For");
+        if (forwarded != null && !forwarded.isBlank() && trustedProxyHops > 0) {
+            String[] hops = forwarded.split(",");
+            String client = hops[Math.max(0, hops.length - trustedProxyHops)].trim();
+            if (!client.isEmpty()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,10 @@
+package com.paymentgateway.auth.exception;
+
+/**
+ * The password hashing pool and its queue are full, or a queued job waited too long
+ */
+public class HashingCapacityExceededException extends RuntimeException {
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.paymentgateway.auth.exception;
+
+/**
+ * Login or signup rejected by admission control before any password hashing ran
+ */
+public class TooManyAttemptsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
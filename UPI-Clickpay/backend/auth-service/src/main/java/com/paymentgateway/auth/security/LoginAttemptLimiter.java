@@ -0,0 +1,128 @@
+package com.paymentgateway.auth.security;
+
+import com.paymentgateway.auth.exception.TooManyAttemptsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory admission control for login and signup. Counts failed attempts per username
+ * and per client IP, plus all attempts per IP, over a sliding window; callers over a limit
+ * are turned away before bcrypt runs, so a credential-stuffing burst costs almost no CPU.
+ */
+@Component
+public class LoginAttemptLimiter {
+
+    private static final int BUCKETS = 12;
+
+    @Value("${auth.login-limits.window:5m}")
+    private Duration window;
+
+    @Value("${auth.login-limits.max-failures-per-username:5}")
+    private long maxFailuresPerUsername;
+
+    @Value("${auth.login-limits.max-failures-per-ip:30}")
+    private long maxFailuresPerIp;
+
+    @Value("${auth.login-limits.max-attempts-per-ip:100}")
+    private long maxAttemptsPerIp;
+
+    // Cap on tracked keys so a spray of random usernames cannot exhaust memory
+    @Value("${auth.login-limits.max-tracked-keys:200000}")
+    private int maxTrackedKeys;
+
+    private final Map<String, SlidingWindowCounter> usernameFailures = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindowCounter> ipFailures = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindowCounter> ipAttempts = new ConcurrentHashMap<>();
+
+    public LoginAttemptLimiter(MeterRegistry meterRegistry) {
+        Gauge.builder("auth.login.tracked.keys", this, limiter ->
+                limiter.usernameFailures.size() + limiter.ipFailures.size() + limiter.ipAttempts.size())
+            .description("Usernames and IPs currently tracked by login admission control")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Admit or reject a login before the password is checked
+     * @throws TooManyAttemptsException if the username or IP is over its limit
+     */
+    public void checkLogin(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        String user = normalize(username);
+
+        check(ipAttempts, clientIp, maxAttemptsPerIp, now, "Too many login attempts from this address");
+        check(ipFailures, clientIp, maxFailuresPerIp, now, "Too many failed login attempts from this address");
+        check(usernameFailures, user, maxFailuresPerUsername, now, "Too many failed login attempts for this account");
+
+        counter(ipAttempts, clientIp).increment(now);
+    }
+
+    /**
+     * Admit or reject a signup; signups hash a password too, so they share the per-IP budget
+     */
+    public void checkSignup(String clientIp) {
+        long now = System.currentTimeMillis();
+        check(ipAttempts, clientIp, maxAttemptsPerIp, now, "Too many requests from this address");
+        counter(ipAttempts, clientIp).increment(now);
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        counter(usernameFailures, normalize(username)).increment(now);
+        counter(ipFailures, clientIp).increment(now);
+    }
+
+    public void recordSuccess(String username) {
+        SlidingWindowCounter failures = usernameFailures.remove(normalize(username));
+        if (failures != null) {
+            failures.reset();
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        long idle = window.toMillis();
+        usernameFailures.values().removeIf(c -> c.isIdle(now, idle));
+        ipFailures.values().removeIf(c -> c.isIdle(now, idle));
+        ipAttempts.values().removeIf(c -> c.isIdle(now, idle));
+    }
+
+    private void check(Map<String, SlidingWindowCounter> counters, String key, long limit, long now, String message) {
+        if (key == null) {
+            return;
+        }
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter != null && counter.count(now) >= limit) {
+            long retryAfter = TimeUnit.MILLISECONDS.toSeconds(counter.millisUntilDecay(now)) + 1;
+            throw new TooManyAttemptsException(message, retryAfter);
+        }
+    }
+
+    private SlidingWindowCounter counter(Map<String, SlidingWindowCounter> counters, String key) {
+        if (key == null) {
+            // Nothing to key on; count into a throwaway counter
+            return new SlidingWindowCounter(window.toMillis(), BUCKETS);
+        }
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= maxTrackedKeys) {
+            evictIdle();
+        }
+        return counters.computeIfAbsent(key, k -> new SlidingWindowCounter(window.toMillis(), BUCKETS));
+    }
+
+    private static String normalize(String username) {
+        return username != null ? username.trim().toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.paymentgateway.auth.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate sliding-window event count made of fixed time buckets. Each bucket
+ * remembers which epoch it belongs to, so stale buckets are recycled lazily on write
+ * and ignored on read; no background thread or lock is needed.
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray epochs;
+    private volatile long lastUpdateMillis;
+
+    public SlidingWindowCounter(long windowMillis, int buckets) {
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.counts = new AtomicLongArray(buckets);
+        this.epochs = new AtomicLongArray(buckets);
+    }
+
+    public void increment(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        int index = (int) (epoch % buckets);
+
+        long current = epochs.get(index);
+        if (current != epoch && epochs.compareAndSet(index, current, epoch)) {
+            counts.set(index, 0);
+        }
+        counts.incrementAndGet(index);
+        lastUpdateMillis = nowMillis;
+    }
+
+    public long count(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            if (epoch - epochs.get(i) < buckets) {
+                total += counts.get(i);
+            }
+        }
+        return total;
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Milliseconds until the oldest bucket still in the window rolls off
+     */
+    public long millisUntilDecay(long nowMillis) {
+        return bucketMillis - (nowMillis % bucketMillis);
+    }
+
+    public boolean isIdle(long nowMillis, long idleMillis) {
+        return nowMillis - lastUpdateMillis > idleMillis;
+    }
+}
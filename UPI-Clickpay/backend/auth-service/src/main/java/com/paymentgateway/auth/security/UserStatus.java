@@ -0,0 +1,50 @@
+package com.paymentgateway.auth.security;
+
+import com.paymentgateway.auth.entity.User;
+import com.paymentgateway.common.security.AuthState;
+
+import java.time.ZoneId;
+
+/**
+ * The slice of a user that token validation needs, cached in memory
+ */
+public final class UserStatus {
+    private final Long userId;
+    private final boolean active;
+    private final User.Role role;
+    private final long passwordChangedAtMillis;
+    private final long loadedAtMillis;
+
+    public UserStatus(Long userId, boolean active, User.Role role, long passwordChangedAtMillis, long loadedAtMillis) {
+        this.userId = userId;
+        this.active = active;
+        this.role = role;
+        this.passwordChangedAtMillis = passwordChangedAtMillis;
+        this.loadedAtMillis = loadedAtMillis;
+    }
+
+    public static UserStatus of(User user, long nowMillis) {
+        long passwordChangedAt = user.getPasswordChangedAt() != null
+            ? user.getPasswordChangedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : 0L;
+        return new UserStatus(user.getId(), Boolean.TRUE.equals(user.getIsActive()), user.getRole(),
+            passwordChangedAt, nowMillis);
+    }
+
+    /**
+     * Same rule api-gateway applies, see {@link AuthState#accepts}
+     */
+    public boolean accepts(long tokenIssuedAtMillis) {
+        return AuthState.accepts(active, passwordChangedAtMillis, tokenIssuedAtMillis);
+    }
+
+    public Long getUserId() { return userId; }
+
+    public boolean isActive() { return active; }
+
+    public User.Role getRole() { return role; }
+
+    public long getPasswordChangedAtMillis() { return passwordChangedAtMillis; }
+
+    public long getLoadedAtMillis() { return loadedAtMillis; }
+}
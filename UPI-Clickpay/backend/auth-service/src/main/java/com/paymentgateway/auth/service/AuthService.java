@@ -5,11 +5,15 @@ import com.paymentgateway.auth.dto.LoginRequest;
 import com.paymentgateway.auth.dto.SignupRequest;
 import com.paymentgateway.auth.entity.User;
 import com.paymentgateway.auth.repository.UserRepository;
+import com.paymentgateway.auth.security.LoginAttemptLimiter;
+import com.paymentgateway.auth.security.UserStatus;
+import com.paymentgateway.common.security.JwtPrincipal;
 import com.paymentgateway.common.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class AuthService {
 
@@ -17,12 +21,23 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Autowired
+    private UserStatusCache userStatusCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    public AuthResponse signup(SignupRequest request) {
+    public AuthResponse signup(SignupRequest request, String clientIp) {
+        loginAttemptLimiter.checkSignup(clientIp);
+
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new RuntimeException("Username already exists");
         }
@@ -34,7 +49,7 @@ public class AuthService {
         User user = new User(
             request.getUsername(),
             request.getEmail(),
-            passwordEncoder.encode(request.getPassword()),
+            passwordHashingService.encode(request.getPassword()),
             request.getRole()
         );
 
@@ -45,14 +60,23 @@ public class AuthService {
         return new AuthResponse(token, user.getUsername(), user.getEmail(), user.getRole(), user.getId());
     }
 
-    public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
-            .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        // Reject stuffing bursts before any bcrypt work is queued
+        loginAttemptLimiter.checkLogin(request.getUsername(), clientIp);
+
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        if (user == null) {
+            loginAttemptLimiter.recordFailure(request.getUsername(), clientIp);
+            throw new RuntimeException("Invalid credentials");
+        }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+            loginAttemptLimiter.recordFailure(request.getUsername(), clientIp);
             throw new RuntimeException("Invalid credentials");
         }
 
+        loginAttemptLimiter.recordSuccess(request.getUsername());
+
         if (!user.getIsActive()) {
             throw new RuntimeException("Account is deactivated");
         }
@@ -62,13 +86,55 @@ public class AuthService {
         return new AuthResponse(token, user.getUsername(), user.getEmail(), user.getRole(), user.getId());
     }
 
+    /**
+     * Signature and expiry are checked once, then revocation and user status are read
+     * from memory; the database is only hit when a user's cached status is missing or stale.
+     */
     public boolean validateToken(String token) {
         try {
-            String username = jwtUtil.extractUsername(token);
-            User user = userRepository.findByUsername(username).orElse(null);
-            return user != null && jwtUtil.validateToken(token, username);
+            JwtPrincipal principal = jwtUtil.verify(token);
+            if (tokenRevocationService.isRevoked(token)) {
+                return false;
+            }
+            UserStatus status = userStatusCache.get(principal.getUsername());
+            return status != null && status.accepts(principal.getIssuedAtMillis());
         } catch (Exception e) {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    public void logout(String token) {
+        JwtPrincipal principal = jwtUtil.verify(token);
+        tokenRevocationService.revoke(token, principal.getExpiresAtMillis());
+    }
+
+    public void changePassword(String token, String currentPassword, String newPassword) {
+        if (!validateToken(token)) {
+            throw new RuntimeException("Invalid token");
+        }
+        User user = userRepository.findByUsername(jwtUtil.verify(token).getUsername())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (!passwordHashingService.matches(currentPassword, user.getPassword())) {
+            throw new RuntimeException("Invalid credentials");
+        }
+
+        user.setPassword(passwordHashingService.encode(newPassword));
+        // Every token issued before now, including the caller's, stops validating
+        user.setPasswordChangedAt(LocalDateTime.now());
+        userRepository.save(user);
+        userStatusCache.invalidate(user);
+    }
+
+    public void setUserActive(String adminToken, Long userId, boolean active) {
+        if (!validateToken(adminToken) || !User.Role.ADMIN.name().equals(jwtUtil.verify(adminToken).getRole())) {
+            throw new RuntimeException("Admin access required");
+        }
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        user.setIsActive(active);
+        userRepository.save(user);
+        userStatusCache.invalidate(user);
+    }
+}
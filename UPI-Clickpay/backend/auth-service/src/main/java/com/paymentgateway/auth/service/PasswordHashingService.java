@@ -0,0 +1,120 @@
+package com.paymentgateway.auth.service;
+
+import com.paymentgateway.auth.exception.HashingCapacityExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs bcrypt on a small dedicated pool instead of on Tomcat request threads. At most
+ * {@code auth.hashing.threads} hashes run at once, leaving the remaining cores for
+ * token validation; once the queue is full further work is rejected immediately.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitMillis;
+
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer queueWaitTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.max-wait-ms:2000}") long maxWaitMillis) {
+        this.passwordEncoder = passwordEncoder;
+        this.maxWaitMillis = maxWaitMillis;
+
+        // Default to half the cores so hashing can never starve the rest of the service
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.encodeTimer = Timer.builder("auth.hashing.latency")
+            .description("Time spent computing bcrypt hashes")
+            .tag("operation", "encode")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.hashing.latency")
+            .description("Time spent computing bcrypt hashes")
+            .tag("operation", "matches")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("auth.hashing.queue.wait")
+            .description("Time hashing jobs spend queued before a worker picks them up")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+            .description("Hashing jobs waiting for a worker")
+            .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .description("Hashing jobs currently running")
+            .register(meterRegistry);
+    }
+
+    public String encode(String rawPassword) {
+        return submit(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return submit(() -> matchTimer.recordCallable(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> job) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return job.call();
+            });
+        } catch (RejectedExecutionException e) {
+            throw new HashingCapacityExceededException("Authentication is temporarily overloaded, please retry");
+        }
+
+        try {
+            return future.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new HashingCapacityExceededException("Authentication is temporarily overloaded, please retry");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+}
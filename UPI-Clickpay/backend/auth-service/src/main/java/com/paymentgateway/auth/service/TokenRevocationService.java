@@ -0,0 +1,84 @@
+package com.paymentgateway.auth.service;
+
+import com.paymentgateway.common.security.AuthState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked tokens, kept in a Redis sorted set scored by the token's expiry so entries
+ * age out on their own. Each instance mirrors the set in memory: revocations are pushed
+ * over pub/sub and the whole set is re-read every couple of seconds in case one is missed.
+ */
+@Service
+public class TokenRevocationService {
+
+    public static final String REVOKED_KEY = AuthState.REVOKED_TOKENS_KEY;
+    public static final String REVOCATION_CHANNEL = AuthState.TOKEN_REVOKED_CHANNEL;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    // token digest -> expiry millis
+    private volatile Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public boolean isRevoked(String token) {
+        return !revoked.isEmpty() && revoked.containsKey(digest(token));
+    }
+
+    public void revoke(String token, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        String digest = digest(token);
+        revoked.put(digest, expiresAtMillis);
+        redisTemplate.opsForZSet().add(REVOKED_KEY, digest, expiresAtMillis);
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, digest + ":" + expiresAtMillis);
+    }
+
+    /**
+     * Apply a revocation published by another instance
+     */
+    public void onRevocationMessage(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator > 0) {
+            revoked.put(message.substring(0, separator), Long.parseLong(message.substring(separator + 1)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.refresh-interval-ms:2000}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, Double.NEGATIVE_INFINITY, now);
+            Set<ZSetOperations.TypedTuple<String>> live =
+                redisTemplate.opsForZSet().rangeByScoreWithScores(REVOKED_KEY, now, Double.POSITIVE_INFINITY);
+
+            Map<String, Long> snapshot = new ConcurrentHashMap<>();
+            if (live != null) {
+                for (ZSetOperations.TypedTuple<String> entry : live) {
+                    snapshot.put(entry.getValue(), entry.getScore().longValue());
+                }
+            }
+            revoked = snapshot;
+        } catch (Exception e) {
+            // Keep serving from the last snapshot; just drop what has expired
+            revoked.values().removeIf(expiry -> expiry <= now);
+            System.out.println("Could not refresh revoked tokens: " + e.getMessage());
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private static String digest(String token) {
+        return AuthState.tokenDigest(token);
+    }
+}
@@ -0,0 +1,120 @@
+package com.paymentgateway.auth.service;
+
+import com.paymentgateway.auth.entity.User;
+import com.paymentgateway.auth.repository.UserRepository;
+import com.paymentgateway.auth.security.UserStatus;
+import com.paymentgateway.common.security.AuthState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-username status (active flag, role, password-change epoch) so /validate does not
+ * query the database on every call. Changes are pushed to every auth-service instance
+ * over Redis pub/sub; the TTL only bounds staleness if a notification is lost.
+ *
+ * The active flag and password-change time of changed users are also written to
+ * {@link AuthState#USER_STATE_KEY}, which api-gateway mirrors to check every token.
+ */
+@Service
+public class UserStatusCache {
+
+    public static final String INVALIDATION_CHANNEL = AuthState.USER_STATUS_CHANNEL;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${auth.user-cache.ttl:60s}")
+    private Duration ttl;
+
+    @Value("${auth.user-cache.max-size:100000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, UserStatus> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * @return the user's status, or null if no such user exists
+     */
+    public UserStatus get(String username) {
+        long now = System.currentTimeMillis();
+        UserStatus status = statuses.get(username);
+        if (status == null || now - status.getLoadedAtMillis() > ttl.toMillis()) {
+            status = load(username, now);
+        }
+        // Unknown usernames are cached as a placeholder so they stay off the database too
+        return status.getUserId() != null ? status : null;
+    }
+
+    /**
+     * Publish the user's new state and drop the cached entry here and on every other instance
+     */
+    public void invalidate(User user) {
+        String username = user.getUsername();
+        evictLocal(username);
+        try {
+            // State first, so a gateway reacting to the message reads the new value
+            redisTemplate.opsForHash().put(AuthState.USER_STATE_KEY, username, encode(user));
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, username);
+        } catch (Exception e) {
+            // Other instances fall back to the TTL, gateways to their periodic refresh
+            System.out.println("Could not publish user status invalidation: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write the state of every deactivated or password-changed user, so a fresh Redis or
+     * users changed before gateways checked state are still enforced at the edge
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishChangedUsers() {
+        try {
+            List<User> changed = userRepository.findByIsActiveFalseOrPasswordChangedAtIsNotNull();
+            Map<String, String> states = new HashMap<>();
+            for (User user : changed) {
+                states.put(user.getUsername(), encode(user));
+            }
+            if (!states.isEmpty()) {
+                redisTemplate.opsForHash().putAll(AuthState.USER_STATE_KEY, states);
+            }
+        } catch (Exception e) {
+            System.out.println("Could not publish user states: " + e.getMessage());
+        }
+    }
+
+    public void evictLocal(String username) {
+        statuses.remove(username);
+    }
+
+    public int size() {
+        return statuses.size();
+    }
+
+    private static String encode(User user) {
+        UserStatus status = UserStatus.of(user, 0L);
+        return AuthState.encodeUserState(status.isActive(), status.getPasswordChangedAtMillis());
+    }
+
+    private UserStatus load(String username, long now) {
+        UserStatus status = userRepository.findByUsername(username)
+            .map(user -> UserStatus.of(user, now))
+            .orElse(new UserStatus(null, false, null, Long.MAX_VALUE, now));
+        if (statuses.size() >= maxSize) {
+            // Crude but bounded; entries are cheap to reload
+            statuses.clear();
+        }
+        statuses.put(username, status);
+        return status;
+    }
+}
@@ -0,0 +1,16 @@
+package com.paymentgateway.simulator;
+
+import com.paymentgateway.simulator.config.SimulatorProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+@EnableConfigurationProperties(SimulatorProperties.class)
+public class BankSimulatorApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(BankSimulatorApplication.class, args);
+    }
+}
@@ -0,0 +1,151 @@
+package com.paymentgateway.simulator.bank;
+
+/**
+ * Field names and webhook route of one bank's API, exactly as the matching
+ * adapter in payment-service reads and writes them (HdfcBankApiService and friends). Create
+ * requests are signed with HMAC-SHA256 over merchant id, order id, amount and timestamp,
+ * joined with the bank's separator (none for HDFC and ICICI, "|" for Kotak and Axis);
+ * webhook bodies are signed with HMAC-SHA256 over the raw JSON. Both are Base64.
+ */
+public final class BankDialect {
+
+    public static final BankDialect HDFC = new BankDialect("hdfc", "HDFC")
+        .request("merchant_id", "order_id", "amount", "currency", "timestamp", "signature")
+        .created("transaction_id", "payment_url", "qr_code")
+        .refund("transaction_id", "refund_amount", "refund_id", "refund_id")
+        .webhook("/api/webhooks/hdfc", "X-HDFC-Signature", false, "order_id", "failure_reason");
+
+    // ICICI reuses reference_no for its own id in responses, so webhooks carry the order as merchant_reference
+    public static final BankDialect ICICI = new BankDialect("icici", "ICICI")
+        .request("merchant_code", "reference_no", "amount", "currency_code", "request_time", "secure_hash")
+        .created("reference_no", "payment_url", "qr_string")
+        .refund("original_reference", "refund_amount", "refund_reference", "refund_reference")
+        .webhook("/api/webhooks/icici", "X-ICICI-Signature", false, "merchant_reference", "failure_reason");
+
+    // payment-service has no Kotak route of its own, so Kotak webhooks go through /generic
+    public static final BankDialect KOTAK = new BankDialect("kotak", "KOTAK")
+        .request("merchantId", "transactionId", "amount", "currency", "timestamp", "signature")
+        .signedWith("|")
+        .created("transactionId", "paymentUrl", "qrCode")
+        .refund("originalTransactionId", "refundAmount", "refundId", "refundId")
+        .webhook("/api/webhooks/generic", "X-Signature", true, "merchantTransactionId", "failureReason");
+
+    // Axis takes refundReference but answers with refundId
+    public static final BankDialect AXIS = new BankDialect("axis", "AXIS")
+        .request("merchantId", "orderId", "amount", "currency", "timestamp", "checksum")
+        .signedWith("|")
+        .created("transactionId", "paymentUrl", "qrCode")
+        .refund("transactionId", "refundAmount", "refundReference", "refundId")
+        .webhook("/api/webhooks/axis", "X-AXIS-Signature", false, "orderId", "failureReason");
+
+    private final String key;
+    private final String name;
+
+    private String merchantField;
+    private String orderField;
+    private String amountField;
+    private String currencyField;
+    private String timestampField;
+    private String signatureField;
+    private String signatureSeparator = "";
+
+    private String transactionIdField;
+    private String paymentUrlField;
+    private String qrField;
+
+    private String refundTransactionField;
+    private String refundAmountField;
+    private String refundIdRequestField;
+    private String refundIdResponseField;
+
+    private String webhookPath;
+    private String webhookSignatureHeader;
+    private boolean webhookNamesBank;
+    private String webhookOrderField;
+    private String failureReasonField;
+
+    private BankDialect(String key, String name) {
+        this.key = key;
+        this.name = name;
+    }
+
+    private BankDialect request(String merchant, String order, String amount, String currency,
+                                String timestamp, String signature) {
+        this.merchantField = merchant;
+        this.orderField = order;
+        this.amountField = amount;
+        this.currencyField = currency;
+        this.timestampField = timestamp;
+        this.signatureField = signature;
+        return this;
+    }
+
+    private BankDialect signedWith(String separator) {
+        this.signatureSeparator = separator;
+        return this;
+    }
+
+    private BankDialect created(String transactionId, String paymentUrl, String qr) {
+        this.transactionIdField = transactionId;
+        this.paymentUrlField = paymentUrl;
+        this.qrField = qr;
+        return this;
+    }
+
+    private BankDialect refund(String transaction, String amount, String requestId, String responseId) {
+        this.refundTransactionField = transaction;
+        this.refundAmountField = amount;
+        this.refundIdRequestField = requestId;
+        this.refundIdResponseField = responseId;
+        return this;
+    }
+
+    private BankDialect webhook(String path, String signatureHeader, boolean namesBank, String order,
+                                String failureReason) {
+        this.webhookPath = path;
+        this.webhookSignatureHeader = signatureHeader;
+        this.webhookNamesBank = namesBank;
+        this.webhookOrderField = order;
+        this.failureReasonField = failureReason;
+        return this;
+    }
+
+    // Lower-case key used in configuration and stats
+    public String getKey() { return key; }
+
+    // Bank name as the adapters report it and the X-Bank-Name header carries it
+    public String getName() { return name; }
+
+    public String getMerchantField() { return merchantField; }
+    public String getOrderField() { return orderField; }
+    public String getAmountField() { return amountField; }
+    public String getCurrencyField() { return currencyField; }
+    public String getTimestampField() { return timestampField; }
+    public String getSignatureField() { return signatureField; }
+
+    /**
+     * The string a create request's signature covers
+     */
+    public String signedData(String merchant, String orderId, String amount, String timestamp) {
+        return String.join(signatureSeparator, merchant, orderId, amount, timestamp);
+    }
+
+    public String getTransactionIdField() { return transactionIdField; }
+    public String getPaymentUrlField() { return paymentUrlField; }
+    public String getQrField() { return qrField; }
+
+    public String getRefundTransactionField() { return refundTransactionField; }
+    public String getRefundAmountField() { return refundAmountField; }
+    public String getRefundIdRequestField() { return refundIdRequestField; }
+    public String getRefundIdResponseField() { return refundIdResponseField; }
+
+    public String getWebhookPath() { return webhookPath; }
+    public String getWebhookSignatureHeader() { return webhookSignatureHeader; }
+    public boolean isWebhookNamesBank() { return webhookNamesBank; }
+    public String getWebhookOrderField() { return webhookOrderField; }
+    public String getFailureReasonField() { return failureReasonField; }
+
+    public static BankDialect[] all() {
+        return new BankDialect[] { HDFC, ICICI, KOTAK, AXIS };
+    }
+}
@@ -0,0 +1,42 @@
+package com.paymentgateway.simulator.bank;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Base64 HMAC-SHA256 with one bank's secret. Keeps an initialised Mac per thread, since
+ * Mac.getInstance and init cost more than signing a request body.
+ */
+public class Signer {
+
+    private final ThreadLocal<Mac> mac;
+
+    public Signer(String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance("HmacSHA256");
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new RuntimeException("Error initialising HMAC", e);
+            }
+        });
+    }
+
+    public String sign(String data) {
+        return Base64.getEncoder().encodeToString(mac.get().doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public boolean verify(String data, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(data).getBytes(StandardCharsets.UTF_8),
+            signature.getBytes(StandardCharsets.UTF_8));
+    }
+}
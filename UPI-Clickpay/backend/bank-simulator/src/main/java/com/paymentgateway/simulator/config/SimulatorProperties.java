@@ -0,0 +1,118 @@
+package com.paymentgateway.simulator.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "simulator")
+public class SimulatorProperties {
+
+    // Where webhooks are delivered (payment-service's /api/webhooks endpoints)
+    private String paymentServiceUrl = "http://localhost:8081";
+
+    // Connections kept open to payment-service for webhook delivery
+    private int webhookMaxConnections = 500;
+
+    // Webhooks waiting for their delivery time; beyond this they are dropped and counted
+    private int webhookMaxPending = 200000;
+
+    // Extra delivery attempts when payment-service does not answer 2xx
+    private int webhookRetries = 2;
+
+    // Per-bank behaviour keyed by hdfc, icici, kotak, axis; unset values keep the BankProfile defaults
+    private Map<String, BankProfile> banks = new HashMap<>();
+
+    private final BankProfile defaults = new BankProfile();
+
+    public BankProfile profile(String bank) {
+        return banks.getOrDefault(bank, defaults);
+    }
+
+    // Getters and setters
+    public String getPaymentServiceUrl() { return paymentServiceUrl; }
+    public void setPaymentServiceUrl(String paymentServiceUrl) { this.paymentServiceUrl = paymentServiceUrl; }
+
+    public int getWebhookMaxConnections() { return webhookMaxConnections; }
+    public void setWebhookMaxConnections(int webhookMaxConnections) { this.webhookMaxConnections = webhookMaxConnections; }
+
+    public int getWebhookMaxPending() { return webhookMaxPending; }
+    public void setWebhookMaxPending(int webhookMaxPending) { this.webhookMaxPending = webhookMaxPending; }
+
+    public int getWebhookRetries() { return webhookRetries; }
+    public void setWebhookRetries(int webhookRetries) { this.webhookRetries = webhookRetries; }
+
+    public Map<String, BankProfile> getBanks() { return banks; }
+    public void setBanks(Map<String, BankProfile> banks) { this.banks = banks; }
+
+    /**
+     * How one simulated bank behaves. Latency is log-normal, fitted to the median and p99;
+     * error and timeout rates are fractions of API calls. Each payment settles to SUCCESS or,
+     * for declineRate of them, FAILED after a delay drawn uniformly from the webhook delay
+     * range, and its webhook is sent at that moment unless dropped.
+     */
+    public static class BankProfile {
+
+        // HMAC key shared with the adapter (bank.<name>.api.secret); defaults to the adapter's default
+        private String secret;
+
+        private boolean verifySignatures = true;
+
+        private Duration latencyMedian = Duration.ofMillis(40);
+        private Duration latencyP99 = Duration.ofMillis(250);
+
+        private double errorRate = 0.0;
+        private int errorStatus = 500;
+
+        // Calls that hang for the timeout and then answer 504
+        private double timeoutRate = 0.0;
+        private Duration timeout = Duration.ofSeconds(30);
+
+        private double declineRate = 0.05;
+
+        private boolean webhooksEnabled = true;
+        private Duration webhookDelayMin = Duration.ofSeconds(1);
+        private Duration webhookDelayMax = Duration.ofSeconds(5);
+        private double webhookDropRate = 0.0;
+
+        public String getSecret() { return secret; }
+        public void setSecret(String secret) { this.secret = secret; }
+
+        public boolean isVerifySignatures() { return verifySignatures; }
+        public void setVerifySignatures(boolean verifySignatures) { this.verifySignatures = verifySignatures; }
+
+        public Duration getLatencyMedian() { return latencyMedian; }
+        public void setLatencyMedian(Duration latencyMedian) { this.latencyMedian = latencyMedian; }
+
+        public Duration getLatencyP99() { return latencyP99; }
+        public void setLatencyP99(Duration latencyP99) { this.latencyP99 = latencyP99; }
+
+        public double getErrorRate() { return errorRate; }
+        public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+
+        public int getErrorStatus() { return errorStatus; }
+        public void setErrorStatus(int errorStatus) { this.errorStatus = errorStatus; }
+
+        public double getTimeoutRate() { return timeoutRate; }
+        public void setTimeoutRate(double timeoutRate) { this.timeoutRate = timeoutRate; }
+
+        public Duration getTimeout() { return timeout; }
+        public void setTimeout(Duration timeout) { this.timeout = timeout; }
+
+        public double getDeclineRate() { return declineRate; }
+        public void setDeclineRate(double declineRate) { this.declineRate = declineRate; }
+
+        public boolean isWebhooksEnabled() { return webhooksEnabled; }
+        public void setWebhooksEnabled(boolean webhooksEnabled) { this.webhooksEnabled = webhooksEnabled; }
+
+        public Duration getWebhookDelayMin() { return webhookDelayMin; }
+        public void setWebhookDelayMin(Duration webhookDelayMin) { this.webhookDelayMin = webhookDelayMin; }
+
+        public Duration getWebhookDelayMax() { return webhookDelayMax; }
+        public void setWebhookDelayMax(Duration webhookDelayMax) { this.webhookDelayMax = webhookDelayMax; }
+
+        public double getWebhookDropRate() { return webhookDropRate; }
+        public void setWebhookDropRate(double webhookDropRate) { this.webhookDropRate = webhookDropRate; }
+    }
+}
@@ -0,0 +1,85 @@
+package com.paymentgateway.simulator.controller;
+
+import com.paymentgateway.simulator.bank.BankDialect;
+import com.paymentgateway.simulator.service.SimulatedBank;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * The bank endpoints the payment-service adapters call, at the paths they call them on.
+ * Point bank.<name>.api.url at this service for all four banks; the paths do not overlap.
+ */
+@RestController
+public class BankApiController {
+
+    @Autowired
+    private SimulatedBank simulatedBank;
+
+    // HDFC
+    @PostMapping("/api/v1/payments/create")
+    public Mono<ResponseEntity<Map<String, Object>>> hdfcCreate(@RequestBody Map<String, Object> body) {
+        return simulatedBank.create(BankDialect.HDFC, body);
+    }
+
+    @GetMapping("/api/v1/payments/status/{transactionId}")
+    public Mono<ResponseEntity<Map<String, Object>>> hdfcStatus(@PathVariable String transactionId) {
+        return simulatedBank.status(BankDialect.HDFC, transactionId);
+    }
+
+    @PostMapping("/api/v1/payments/refund")
+    public Mono<ResponseEntity<Map<String, Object>>> hdfcRefund(@RequestBody Map<String, Object> body) {
+        return simulatedBank.refund(BankDialect.HDFC, body);
+    }
+
+    // ICICI
+    @PostMapping("/api/v1/payment/initiate")
+    public Mono<ResponseEntity<Map<String, Object>>> iciciCreate(@RequestBody Map<String, Object> body) {
+        return simulatedBank.create(BankDialect.ICICI, body);
+    }
+
+    @GetMapping("/api/v1/payment/inquiry/{referenceNo}")
+    public Mono<ResponseEntity<Map<String, Object>>> iciciStatus(@PathVariable String referenceNo) {
+        return simulatedBank.status(BankDialect.ICICI, referenceNo);
+    }
+
+    @PostMapping("/api/v1/payment/refund")
+    public Mono<ResponseEntity<Map<String, Object>>> iciciRefund(@RequestBody Map<String, Object> body) {
+        return simulatedBank.refund(BankDialect.ICICI, body);
+    }
+
+    // Kotak
+    @PostMapping("/payments/v2/create")
+    public Mono<ResponseEntity<Map<String, Object>>> kotakCreate(@RequestBody Map<String, Object> body) {
+        return simulatedBank.create(BankDialect.KOTAK, body);
+    }
+
+    @GetMapping("/payments/v2/status/{transactionId}")
+    public Mono<ResponseEntity<Map<String, Object>>> kotakStatus(@PathVariable String transactionId) {
+        return simulatedBank.status(BankDialect.KOTAK, transactionId);
+    }
+
+    @PostMapping("/payments/v2/refund")
+    public Mono<ResponseEntity<Map<String, Object>>> kotakRefund(@RequestBody Map<String, Object> body) {
+        return simulatedBank.refund(BankDialect.KOTAK, body);
+    }
+
+    // Axis
+    @PostMapping("/api/v2/payments/initiate")
+    public Mono<ResponseEntity<Map<String, Object>>> axisCreate(@RequestBody Map<String, Object> body) {
+        return simulatedBank.create(BankDialect.AXIS, body);
+    }
+
+    @GetMapping("/api/v2/payments/status/{transactionId}")
+    public Mono<ResponseEntity<Map<String, Object>>> axisStatus(@PathVariable String transactionId) {
+        return simulatedBank.status(BankDialect.AXIS, transactionId);
+    }
+
+    @PostMapping("/api/v2/payments/refund")
+    public Mono<ResponseEntity<Map<String, Object>>> axisRefund(@RequestBody Map<String, Object> body) {
+        return simulatedBank.refund(BankDialect.AXIS, body);
+    }
+}
@@ -0,0 +1,26 @@
+package com.paymentgateway.simulator.controller;
+
+import com.paymentgateway.simulator.service.SimulatorStats;
+import com.paymentgateway.simulator.service.TransactionStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/simulator")
+public class SimulatorController {
+
+    @Autowired
+    private SimulatorStats stats;
+
+    @Autowired
+    private TransactionStore store;
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return stats.snapshot(store.size());
+    }
+}
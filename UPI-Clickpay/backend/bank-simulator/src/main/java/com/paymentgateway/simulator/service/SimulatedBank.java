@@ -0,0 +1,236 @@
+package com.paymentgateway.simulator.service;
+
+import com.paymentgateway.simulator.bank.BankDialect;
+import com.paymentgateway.simulator.bank.Signer;
+import com.paymentgateway.simulator.config.SimulatorProperties;
+import com.paymentgateway.simulator.config.SimulatorProperties.BankProfile;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Create, status and refund for every simulated bank, parameterised by its
+ * {@link BankDialect}. Nothing here blocks: latency and timeouts are timers, state is in
+ * {@link TransactionStore}, and webhooks are handed to {@link WebhookDispatcher}.
+ */
+@Service
+public class SimulatedBank {
+
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_99 = 2.3263;
+
+    @Autowired
+    private SimulatorProperties properties;
+
+    @Autowired
+    private SimulatorStats stats;
+
+    @Autowired
+    private TransactionStore store;
+
+    @Autowired
+    private WebhookDispatcher webhooks;
+
+    private final Map<String, Signer> signers = new HashMap<>();
+
+    // Bank ids are unique across restarts without the cost of UUID.randomUUID per call
+    private final String idPrefix = Long.toString(System.currentTimeMillis(), 36).toUpperCase();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        for (BankDialect dialect : BankDialect.all()) {
+            String secret = properties.profile(dialect.getKey()).getSecret();
+            // Same default as the adapter's bank.<name>.api.secret
+            signers.put(dialect.getKey(), new Signer(secret != null ? secret : dialect.getKey() + "_api_secret"));
+        }
+    }
+
+    public Mono<ResponseEntity<Map<String, Object>>> create(BankDialect dialect, Map<String, Object> body) {
+        stats.creates.increment();
+        BankProfile profile = properties.profile(dialect.getKey());
+        return respond(profile, () -> doCreate(dialect, profile, body));
+    }
+
+    public Mono<ResponseEntity<Map<String, Object>>> status(BankDialect dialect, String bankTransactionId) {
+        stats.statusChecks.increment();
+        return respond(properties.profile(dialect.getKey()), () -> doStatus(dialect, bankTransactionId));
+    }
+
+    public Mono<ResponseEntity<Map<String, Object>>> refund(BankDialect dialect, Map<String, Object> body) {
+        stats.refunds.increment();
+        return respond(properties.profile(dialect.getKey()), () -> doRefund(dialect, body));
+    }
+
+    private ResponseEntity<Map<String, Object>> doCreate(BankDialect dialect, BankProfile profile, Map<String, Object> body) {
+        String merchant = text(body, dialect.getMerchantField());
+        String orderId = text(body, dialect.getOrderField());
+        String amount = text(body, dialect.getAmountField());
+        String timestamp = text(body, dialect.getTimestampField());
+        if (merchant == null || orderId == null || amount == null || timestamp == null) {
+            return reject(HttpStatus.BAD_REQUEST, "MISSING_FIELDS", "Merchant, order, amount and timestamp are required");
+        }
+
+        Signer signer = signers.get(dialect.getKey());
+        if (profile.isVerifySignatures()
+                && !signer.verify(dialect.signedData(merchant, orderId, amount, timestamp),
+                    text(body, dialect.getSignatureField()))) {
+            stats.rejectedSignatures.increment();
+            return reject(HttpStatus.UNAUTHORIZED, "INVALID_SIGNATURE", "Signature does not match request");
+        }
+
+        long paise = toPaise(amount);
+        if (paise <= 0) {
+            return reject(HttpStatus.BAD_REQUEST, "INVALID_AMOUNT", "Amount must be positive with at most 2 decimals");
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        long minDelay = profile.getWebhookDelayMin().toMillis();
+        long maxDelay = Math.max(minDelay, profile.getWebhookDelayMax().toMillis());
+        long settleAt = now + (maxDelay > minDelay ? random.nextLong(minDelay, maxDelay + 1) : minDelay);
+        boolean declined = random.nextDouble() < profile.getDeclineRate();
+
+        String currency = text(body, dialect.getCurrencyField());
+        String bankTransactionId = dialect.getName() + "_" + idPrefix + "_" + Long.toString(sequence.incrementAndGet(), 36).toUpperCase();
+        SimulatedTransaction transaction = new SimulatedTransaction(bankTransactionId, orderId, amount, paise,
+            currency != null ? currency : "INR", settleAt,
+            declined ? "FAILED" : "SUCCESS", declined ? "Declined by issuing bank" : null);
+        store.put(transaction);
+
+        if (profile.isWebhooksEnabled()) {
+            if (random.nextDouble() < profile.getWebhookDropRate()) {
+                stats.webhooksDropped.increment();
+            } else {
+                webhooks.schedule(dialect, signer, transaction, settleAt - now);
+            }
+        }
+
+        String upiUrl = "upi://pay?pa=merchant@" + dialect.getKey() + "&am=" + amount + "&tr=" + orderId;
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put(dialect.getTransactionIdField(), bankTransactionId);
+        response.put("status", "PENDING");
+        response.put(dialect.getAmountField(), amount);
+        response.put(dialect.getPaymentUrlField(), upiUrl);
+        response.put(dialect.getQrField(), upiUrl);
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> doStatus(BankDialect dialect, String bankTransactionId) {
+        SimulatedTransaction transaction = store.get(bankTransactionId);
+        if (transaction == null) {
+            stats.unknownTransactions.increment();
+            return reject(HttpStatus.NOT_FOUND, "TRANSACTION_NOT_FOUND", "Unknown transaction " + bankTransactionId);
+        }
+        String status = transaction.statusAt(System.currentTimeMillis());
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put(dialect.getTransactionIdField(), bankTransactionId);
+        response.put("status", status);
+        response.put(dialect.getAmountField(), transaction.getAmount());
+        if ("FAILED".equals(status)) {
+            response.put(dialect.getFailureReasonField(), transaction.getFailureReason());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> doRefund(BankDialect dialect, Map<String, Object> body) {
+        String bankTransactionId = text(body, dialect.getRefundTransactionField());
+        SimulatedTransaction transaction = bankTransactionId != null ? store.get(bankTransactionId) : null;
+        if (transaction == null) {
+            stats.unknownTransactions.increment();
+            return reject(HttpStatus.NOT_FOUND, "TRANSACTION_NOT_FOUND", "Unknown transaction " + bankTransactionId);
+        }
+        if (!"SUCCESS".equals(transaction.statusAt(System.currentTimeMillis()))) {
+            return reject(HttpStatus.BAD_REQUEST, "NOT_REFUNDABLE", "Only successful payments can be refunded");
+        }
+        long paise = toPaise(text(body, dialect.getRefundAmountField()));
+        if (paise <= 0 || !transaction.reserveRefund(paise)) {
+            return reject(HttpStatus.BAD_REQUEST, "INVALID_REFUND_AMOUNT", "Refund exceeds the amount paid");
+        }
+
+        String refundId = text(body, dialect.getRefundIdRequestField());
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put(dialect.getRefundIdResponseField(),
+            refundId != null ? refundId : "REF_" + idPrefix + "_" + Long.toString(sequence.incrementAndGet(), 36));
+        response.put("status", "SUCCESS");
+        response.put(dialect.getRefundAmountField(), text(body, dialect.getRefundAmountField()));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Apply the profile's injected timeout, error and latency around a handler
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> respond(BankProfile profile,
+                                                              Supplier<ResponseEntity<Map<String, Object>>> handler) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < profile.getTimeoutRate()) {
+            stats.injectedTimeouts.increment();
+            return Mono.delay(profile.getTimeout())
+                .map(tick -> reject(HttpStatus.GATEWAY_TIMEOUT, "TIMEOUT", "Simulated bank timeout"));
+        }
+
+        Mono<ResponseEntity<Map<String, Object>>> response;
+        if (roll < profile.getTimeoutRate() + profile.getErrorRate()) {
+            stats.injectedErrors.increment();
+            HttpStatus status = HttpStatus.valueOf(profile.getErrorStatus());
+            response = Mono.fromSupplier(() -> reject(status, "BANK_ERROR", "Simulated bank error"));
+        } else {
+            response = Mono.fromSupplier(handler);
+        }
+
+        long latencyNanos = sampleLatencyNanos(profile, random);
+        return latencyNanos > 0 ? Mono.delay(Duration.ofNanos(latencyNanos)).then(response) : response;
+    }
+
+    /**
+     * Log-normal latency with the profile's median and p99, capped at 4x the p99
+     */
+    private static long sampleLatencyNanos(BankProfile profile, ThreadLocalRandom random) {
+        double median = profile.getLatencyMedian().toNanos();
+        if (median <= 0) {
+            return 0;
+        }
+        double p99 = Math.max(median, profile.getLatencyP99().toNanos());
+        double sigma = Math.log(p99 / median) / Z_99;
+        double sample = median * Math.exp(sigma * random.nextGaussian());
+        return (long) Math.min(sample, p99 * 4);
+    }
+
+    private static ResponseEntity<Map<String, Object>> reject(HttpStatus status, String errorCode, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "FAILED");
+        body.put("error_code", errorCode);
+        body.put("error_message", message);
+        return ResponseEntity.status(status).body(body);
+    }
+
+    private static String text(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    // -1 for anything that is not a positive rupee amount with at most two decimals
+    private static long toPaise(String amount) {
+        if (amount == null) {
+            return -1;
+        }
+        try {
+            return new BigDecimal(amount).movePointRight(2).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.paymentgateway.simulator.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One payment as the simulated bank sees it. The outcome is drawn when the payment is
+ * created; it reads as PENDING until settleAtMillis, when its webhook is also due.
+ */
+public class SimulatedTransaction {
+
+    private final String bankTransactionId;
+    private final String orderId;
+    private final String amount;
+    private final long amountPaise;
+    private final String currency;
+    private final long settleAtMillis;
+    private final String finalStatus;
+    private final String failureReason;
+    private final AtomicLong refundedPaise = new AtomicLong();
+
+    public SimulatedTransaction(String bankTransactionId, String orderId, String amount, long amountPaise,
+                                String currency, long settleAtMillis, String finalStatus, String failureReason) {
+        this.bankTransactionId = bankTransactionId;
+        this.orderId = orderId;
+        this.amount = amount;
+        this.amountPaise = amountPaise;
+        this.currency = currency;
+        this.settleAtMillis = settleAtMillis;
+        this.finalStatus = finalStatus;
+        this.failureReason = failureReason;
+    }
+
+    public String statusAt(long nowMillis) {
+        return nowMillis >= settleAtMillis ? finalStatus : "PENDING";
+    }
+
+    /**
+     * Reserve part of the amount for a refund
+     * @return false if that would refund more than was paid
+     */
+    public boolean reserveRefund(long paise) {
+        long refunded;
+        do {
+            refunded = refundedPaise.get();
+            if (refunded + paise > amountPaise) {
+                return false;
+            }
+        } while (!refundedPaise.compareAndSet(refunded, refunded + paise));
+        return true;
+    }
+
+    public String getBankTransactionId() { return bankTransactionId; }
+    public String getOrderId() { return orderId; }
+    public String getAmount() { return amount; }
+    public String getCurrency() { return currency; }
+    public long getSettleAtMillis() { return settleAtMillis; }
+    public String getFinalStatus() { return finalStatus; }
+    public String getFailureReason() { return failureReason; }
+}
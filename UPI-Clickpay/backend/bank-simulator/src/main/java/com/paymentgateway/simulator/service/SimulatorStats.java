@@ -0,0 +1,44 @@
+package com.paymentgateway.simulator.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for what the simulator did, so a load test can tell injected faults from real ones
+ */
+@Component
+public class SimulatorStats {
+
+    final LongAdder creates = new LongAdder();
+    final LongAdder statusChecks = new LongAdder();
+    final LongAdder refunds = new LongAdder();
+    final LongAdder injectedErrors = new LongAdder();
+    final LongAdder injectedTimeouts = new LongAdder();
+    final LongAdder rejectedSignatures = new LongAdder();
+    final LongAdder unknownTransactions = new LongAdder();
+    final LongAdder webhooksDelivered = new LongAdder();
+    final LongAdder webhooksFailed = new LongAdder();
+    final LongAdder webhooksDropped = new LongAdder();
+    final AtomicInteger webhooksPending = new AtomicInteger();
+
+    public Map<String, Object> snapshot(int storedTransactions) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("creates", creates.sum());
+        stats.put("statusChecks", statusChecks.sum());
+        stats.put("refunds", refunds.sum());
+        stats.put("injectedErrors", injectedErrors.sum());
+        stats.put("injectedTimeouts", injectedTimeouts.sum());
+        stats.put("rejectedSignatures", rejectedSignatures.sum());
+        stats.put("unknownTransactions", unknownTransactions.sum());
+        stats.put("webhooksDelivered", webhooksDelivered.sum());
+        stats.put("webhooksFailed", webhooksFailed.sum());
+        stats.put("webhooksDropped", webhooksDropped.sum());
+        stats.put("webhooksPending", webhooksPending.get());
+        stats.put("storedTransactions", storedTransactions);
+        return stats;
+    }
+}
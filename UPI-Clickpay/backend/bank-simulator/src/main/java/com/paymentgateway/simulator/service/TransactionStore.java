@@ -0,0 +1,39 @@
+package com.paymentgateway.simulator.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory transactions in two generations. New ones go into the current map; on every
+ * rotation the previous map is dropped whole and the current one takes its place, so a
+ * transaction stays visible for one to two rotation intervals without any per-entry
+ * expiry bookkeeping. At 20k creates a second the default 5 minutes keeps 6-12M entries.
+ */
+@Component
+public class TransactionStore {
+
+    private volatile ConcurrentHashMap<String, SimulatedTransaction> current = new ConcurrentHashMap<>(1 << 16);
+    private volatile ConcurrentHashMap<String, SimulatedTransaction> previous = new ConcurrentHashMap<>();
+
+    public void put(SimulatedTransaction transaction) {
+        current.put(transaction.getBankTransactionId(), transaction);
+    }
+
+    public SimulatedTransaction get(String bankTransactionId) {
+        SimulatedTransaction transaction = current.get(bankTransactionId);
+        return transaction != null ? transaction : previous.get(bankTransactionId);
+    }
+
+    public int size() {
+        return current.size() + previous.size();
+    }
+
+    @Scheduled(fixedDelayString = "${simulator.store.rotate-interval-ms:300000}",
+               initialDelayString = "${simulator.store.rotate-interval-ms:300000}")
+    public synchronized void rotate() {
+        previous = current;
+        current = new ConcurrentHashMap<>(Math.max(1 << 16, previous.size()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.paymentgateway.simulator.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymentgateway.simulator.bank.BankDialect;
+import com.paymentgateway.simulator.bank.Signer;
+import com.paymentgateway.simulator.config.SimulatorProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Posts payment outcomes to payment-service at each transaction's settle time. Waiting
+ * webhooks are only timers, so a backlog of them costs no threads; delivery shares a
+ * bounded connection pool and is retried on 5xx and connection errors.
+ */
+@Component
+public class WebhookDispatcher {
+
+    @Autowired
+    private SimulatorProperties properties;
+
+    @Autowired
+    private SimulatorStats stats;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        ConnectionProvider pool = ConnectionProvider.builder("webhooks")
+            .maxConnections(properties.getWebhookMaxConnections())
+            .pendingAcquireMaxCount(-1)
+            .build();
+        HttpClient httpClient = HttpClient.create(pool).responseTimeout(Duration.ofSeconds(10));
+        webClient = WebClient.builder()
+            .baseUrl(properties.getPaymentServiceUrl())
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+    }
+
+    public void schedule(BankDialect dialect, Signer signer, SimulatedTransaction transaction, long delayMillis) {
+        if (stats.webhooksPending.incrementAndGet() > properties.getWebhookMaxPending()) {
+            stats.webhooksPending.decrementAndGet();
+            stats.webhooksDropped.increment();
+            return;
+        }
+        Mono.delay(Duration.ofMillis(Math.max(0, delayMillis)))
+            .then(Mono.defer(() -> deliver(dialect, signer, transaction)))
+            .retryWhen(Retry.backoff(properties.getWebhookRetries(), Duration.ofSeconds(1))
+                .filter(WebhookDispatcher::isRetryable))
+            .doFinally(signal -> stats.webhooksPending.decrementAndGet())
+            .subscribe(
+                response -> stats.webhooksDelivered.increment(),
+                error -> stats.webhooksFailed.increment());
+    }
+
+    private Mono<?> deliver(BankDialect dialect, Signer signer, SimulatedTransaction transaction) {
+        // Signed over the exact bytes sent; payment-service re-serialises the parsed body the same way
+        String body = payload(dialect, transaction);
+        WebClient.RequestBodySpec request = webClient.post()
+            .uri(dialect.getWebhookPath())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(dialect.getWebhookSignatureHeader(), signer.sign(body));
+        if (dialect.isWebhookNamesBank()) {
+            request = request.header("X-Bank-Name", dialect.getName());
+        }
+        return request.bodyValue(body).retrieve().toBodilessEntity();
+    }
+
+    /**
+     * Webhook body in the bank's field names. Every value is a string so the JSON
+     * round-trips through a Map unchanged.
+     */
+    String payload(BankDialect dialect, SimulatedTransaction transaction) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put(dialect.getTransactionIdField(), transaction.getBankTransactionId());
+        payload.put(dialect.getWebhookOrderField(), transaction.getOrderId());
+        payload.put("status", transaction.getFinalStatus());
+        payload.put(dialect.getAmountField(), transaction.getAmount());
+        payload.put(dialect.getCurrencyField(), transaction.getCurrency());
+        payload.put(dialect.getTimestampField(), String.valueOf(transaction.getSettleAtMillis()));
+        if (transaction.getFailureReason() != null) {
+            payload.put(dialect.getFailureReasonField(), transaction.getFailureReason());
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serialising webhook", e);
+        }
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        return !(error instanceof WebClientResponseException)
+            || ((WebClientResponseException) error).getStatusCode().is5xxServerError();
+    }
+}
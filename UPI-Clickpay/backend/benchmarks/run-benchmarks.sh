@@ -0,0 +1,8 @@
+#!/bin/sh
+# Run every suite (or those matching the given JMH options) with the GC profiler, so each
+# result includes allocation rate (gc.alloc.rate.norm = bytes per operation), and write
+# the results as JSON to benchmarks/results/ for comparison against earlier runs.
+set -e
+cd "$(dirname "$0")"
+mkdir -p results
+java -jar target/benchmarks.jar -prof gc -rf json -rff "results/jmh-$(date +%Y%m%d-%H%M%S).json" "$@"
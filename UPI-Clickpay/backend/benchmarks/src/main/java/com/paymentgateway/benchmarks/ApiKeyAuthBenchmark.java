@@ -0,0 +1,63 @@
+package com.paymentgateway.benchmarks;
+
+import com.paymentgateway.common.security.ApiKeyDigests;
+import com.paymentgateway.payment.security.ApiKeyEntry;
+import com.paymentgateway.payment.security.ApiKeyIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * API key authentication against the in-memory digest index, sized like a large deployment
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiKeyAuthBenchmark {
+
+    @Param({"100000"})
+    public int keyCount;
+
+    private ApiKeyIndex index;
+    private String[] keys;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Map<String, ApiKeyEntry> entries = new ConcurrentHashMap<>();
+        keys = new String[1024];
+        Set<String> scopes = Set.of(ApiKeyIndex.SCOPE_PAYMENTS_WRITE, ApiKeyIndex.SCOPE_PAYMENTS_READ);
+        for (int i = 0; i < keyCount; i++) {
+            String key = ApiKeyDigests.generate();
+            entries.put(ApiKeyDigests.digest(key), new ApiKeyEntry((long) i, scopes, Long.MAX_VALUE));
+            if (i < keys.length) {
+                keys[i] = key;
+            }
+        }
+        // Built without a Spring context, so the index is filled directly rather than from the database
+        index = new ApiKeyIndex();
+        Fields.set(index, "entries", entries);
+    }
+
+    @Benchmark
+    public String digest() {
+        return ApiKeyDigests.digest(nextKey());
+    }
+
+    @Benchmark
+    public Long authenticate() {
+        return index.authenticate(nextKey(), ApiKeyIndex.SCOPE_PAYMENTS_WRITE);
+    }
+
+    private String nextKey() {
+        String key = keys[next];
+        next = (next + 1) & (keys.length - 1);
+        return key;
+    }
+}
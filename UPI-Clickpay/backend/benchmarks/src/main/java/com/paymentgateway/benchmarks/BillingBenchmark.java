@@ -0,0 +1,89 @@
+package com.paymentgateway.benchmarks;
+
+import com.paymentgateway.merchant.billing.BillingEngine;
+import com.paymentgateway.merchant.billing.BillingTotals;
+import com.paymentgateway.merchant.billing.FeeSchedule;
+import com.paymentgateway.merchant.billing.ReferenceFeeCalculator;
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.Merchant;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A month of billing: the fixed-point engine (serial and parallel) against the BigDecimal
+ * reference, over the same synthetic transactions
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BillingBenchmark {
+
+    @Param({"1000000"})
+    public int transactions;
+
+    @Param({"100"})
+    public int merchants;
+
+    private final Map<Long, long[]> amounts = new HashMap<>();
+    private final Map<Long, FeeSchedule> schedules = new HashMap<>();
+    private final Map<Long, ReferenceFeeCalculator> references = new HashMap<>();
+    private BillingEngine serialEngine;
+    private BillingEngine parallelEngine;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        FeeStructure fees = new FeeStructure(BigDecimal.ZERO, new BigDecimal("999.00"),
+            new BigDecimal("2.00"), new BigDecimal("1.75"));
+        Merchant.OperationMode[] modes = Merchant.OperationMode.values();
+        int perMerchant = transactions / merchants;
+
+        for (long merchantId = 1; merchantId <= merchants; merchantId++) {
+            long[] merchantAmounts = new long[perMerchant];
+            for (int i = 0; i < perMerchant; i++) {
+                // 1 to 5,000 rupees
+                merchantAmounts[i] = 100 + random.nextLong(500_000);
+            }
+            Merchant.OperationMode mode = modes[(int) (merchantId % modes.length)];
+            amounts.put(merchantId, merchantAmounts);
+            schedules.put(merchantId, FeeSchedule.of(mode, fees, 200_000));
+            references.put(merchantId, new ReferenceFeeCalculator(mode, fees, 200_000));
+        }
+        serialEngine = new BillingEngine(1, 65_536, false);
+        parallelEngine = new BillingEngine(0, 65_536, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serialEngine.shutdown();
+        parallelEngine.shutdown();
+    }
+
+    @Benchmark
+    public Map<Long, BillingTotals> fixedPointSerial() {
+        return serialEngine.bill(amounts, schedules);
+    }
+
+    @Benchmark
+    public Map<Long, BillingTotals> fixedPointParallel() {
+        return parallelEngine.bill(amounts, schedules);
+    }
+
+    @Benchmark
+    public Map<Long, BillingTotals> bigDecimalReference() {
+        Map<Long, BillingTotals> totals = new HashMap<>();
+        for (Map.Entry<Long, long[]> entry : amounts.entrySet()) {
+            long[] merchantAmounts = entry.getValue();
+            totals.put(entry.getKey(), references.get(entry.getKey()).compute(merchantAmounts, 0, merchantAmounts.length));
+        }
+        return totals;
+    }
+}
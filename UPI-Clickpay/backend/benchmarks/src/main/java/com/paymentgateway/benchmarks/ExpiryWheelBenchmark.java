@@ -0,0 +1,54 @@
+package com.paymentgateway.benchmarks;
+
+import com.paymentgateway.payment.expiry.TimingWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Scheduling a payment's expiry, and a one-second tick, with a million payments pending.
+ * Ticks re-schedule what they expire so the wheel stays at a steady size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpiryWheelBenchmark {
+
+    private static final long FIFTEEN_MINUTES = TimeUnit.MINUTES.toMillis(15);
+
+    private TimingWheel wheel;
+    private long now;
+    private long nextId;
+    private int expired;
+    private final LongConsumer reschedule = id -> {
+        expired++;
+        wheel.schedule(id, now + FIFTEEN_MINUTES);
+    };
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        now = 1_700_000_000_000L;
+        wheel = new TimingWheel(1000, now);
+        // A million payments spread over the next 15 minutes
+        for (nextId = 0; nextId < 1_000_000; nextId++) {
+            wheel.schedule(nextId, now + 1000 + (nextId * 7919) % FIFTEEN_MINUTES);
+        }
+    }
+
+    @Benchmark
+    public boolean schedule() {
+        return wheel.schedule(nextId++, now + FIFTEEN_MINUTES);
+    }
+
+    @Benchmark
+    public int tick() {
+        now += 1000;
+        expired = 0;
+        wheel.advanceTo(now, reschedule);
+        return expired;
+    }
+}
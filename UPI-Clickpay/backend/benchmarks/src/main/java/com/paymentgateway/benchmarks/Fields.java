@@ -0,0 +1,28 @@
+package com.paymentgateway.benchmarks;
+
+import java.lang.reflect.Field;
+
+/**
+ * Fills in @Value and @Autowired fields on beans built without a Spring context
+ */
+public final class Fields {
+
+    private Fields() {}
+
+    public static void set(Object target, String name, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+            }
+        }
+        throw new RuntimeException("No field " + name + " on " + target.getClass().getSimpleName());
+    }
+}
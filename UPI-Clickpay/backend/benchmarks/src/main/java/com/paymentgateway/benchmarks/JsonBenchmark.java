@@ -0,0 +1,97 @@
+package com.paymentgateway.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.merchant.dto.MerchantConfigRequest;
+import com.paymentgateway.merchant.entity.BankConfig;
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.SettlementConfig;
+import com.paymentgateway.payment.dto.PaymentResponse;
+import com.paymentgateway.payment.entity.Payment;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization in payment-service and the merchant config JSON that
+ * merchant-service reads from its JSONB columns and config API
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final String FEE_STRUCTURE_JSON =
+        "{\"setupFee\":0.00,\"monthlyFee\":999.00,\"transactionFee\":2.00,\"percentageFee\":1.75}";
+    private static final String BANK_CONFIG_JSON =
+        "{\"provider\":\"HDFC\",\"merchantId\":\"HDFC_M_001\",\"apiKey\":\"key\",\"apiSecret\":\"secret\"," +
+        "\"apiUrl\":\"https://api.hdfcbank.com\",\"directSettlement\":false}";
+    private static final String SETTLEMENT_CONFIG_JSON =
+        "{\"settlementMode\":\"POOLED\",\"settlementCycle\":\"T+1\",\"autoSettlement\":true," +
+        "\"minimumSettlementAmount\":100.00,\"settlementAccount\":\"HDFC0001234:50100012345678\"}";
+    private static final String CONFIG_REQUEST_JSON =
+        "{\"operationMode\":\"FULL_PROCESSOR\",\"preferredBank\":\"HDFC\"," +
+        "\"feeStructure\":" + FEE_STRUCTURE_JSON + ",\"settlementConfig\":" + SETTLEMENT_CONFIG_JSON + "}";
+
+    // Configured like Spring Boot's auto-configured mapper
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private PaymentResponse paymentResponse;
+
+    @Setup
+    public void setup() {
+        Payment payment = new Payment();
+        payment.setId(1_000_042L);
+        payment.setMerchantId(42L);
+        payment.setTransactionId("TXN1700000000000ABC123");
+        payment.setAmount(Money.inr(149_900));
+        payment.setCurrency(Money.INR);
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        payment.setPaymentMethod(Payment.PaymentMethod.UPI_INTENT);
+        payment.setPaymentUrl("upi://pay?pa=merchant@hdfc&pn=Payment%20Gateway&am=1499.00&tr=TXN1700000000000ABC123");
+        payment.setCreatedAt(LocalDateTime.now());
+        payment.setExpiresAt(LocalDateTime.now().plusMinutes(15));
+        payment.setBankProvider("HDFC");
+        payment.setBankTransactionId("HDFC1700000000000");
+        paymentResponse = new PaymentResponse(payment);
+    }
+
+    @Benchmark
+    public byte[] paymentResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(paymentResponse);
+    }
+
+    @Benchmark
+    public byte[] apiResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponse.success("Payment created", paymentResponse));
+    }
+
+    @Benchmark
+    public FeeStructure parseFeeStructure() throws Exception {
+        return objectMapper.readValue(FEE_STRUCTURE_JSON, FeeStructure.class);
+    }
+
+    @Benchmark
+    public BankConfig parseBankConfig() throws Exception {
+        return objectMapper.readValue(BANK_CONFIG_JSON, BankConfig.class);
+    }
+
+    @Benchmark
+    public SettlementConfig parseSettlementConfig() throws Exception {
+        return objectMapper.readValue(SETTLEMENT_CONFIG_JSON, SettlementConfig.class);
+    }
+
+    @Benchmark
+    public MerchantConfigRequest parseConfigRequest() throws Exception {
+        return objectMapper.readValue(CONFIG_REQUEST_JSON, MerchantConfigRequest.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.paymentgateway.benchmarks;
+
+import com.paymentgateway.common.security.JwtPrincipal;
+import com.paymentgateway.common.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification, with and without the verified-token cache
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "mySecretKeyForPaymentGatewayApplicationBenchmarks";
+
+    private JwtUtil uncached;
+    private JwtUtil cached;
+    private String token;
+
+    @Setup
+    public void setup() {
+        uncached = new JwtUtil(SECRET, 86_400_000L, 0);
+        cached = new JwtUtil(SECRET, 86_400_000L, 100_000);
+        token = uncached.generateToken("testmerchant", "MERCHANT", 42L);
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public String generate() {
+        return uncached.generateToken("testmerchant", "MERCHANT", 42L);
+    }
+
+    @Benchmark
+    public JwtPrincipal verify() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyCached() {
+        return cached.verify(token);
+    }
+}
@@ -0,0 +1,179 @@
+package com.paymentgateway.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymentgateway.common.rpc.InternalRpc;
+import com.paymentgateway.common.rpc.merchant.BatchGetMerchantsRequest;
+import com.paymentgateway.common.rpc.merchant.BatchGetMerchantsResponse;
+import com.paymentgateway.common.rpc.merchant.GetMerchantRequest;
+import com.paymentgateway.common.rpc.merchant.MerchantDirectoryGrpc;
+import com.paymentgateway.common.rpc.merchant.MerchantInfo;
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.entity.Merchant;
+import com.paymentgateway.merchant.rpc.MerchantDirectoryService;
+import com.paymentgateway.merchant.service.MerchantConfigCache;
+import com.paymentgateway.payment.service.MerchantService;
+import com.sun.net.httpserver.HttpServer;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * payment-service's merchant lookup over the REST/JSON path and over gRPC, both against a
+ * local server answering from a warm cache, so the difference is transport and encoding.
+ * CPU per call (client and server together, since both run in this process) is printed
+ * after each iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MerchantLookupBenchmark {
+
+    @Param({"50"})
+    public int batchSize;
+
+    private HttpServer httpServer;
+    private Server grpcServer;
+    private ManagedChannel channel;
+    private MerchantService merchantService;
+    private MerchantDirectoryGrpc.MerchantDirectoryBlockingStub stub;
+    private BatchGetMerchantsRequest batchRequest;
+    private final LongAdder calls = new LongAdder();
+    private long cpuAtStart;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<Long, MerchantConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+        for (long merchantId = 1; merchantId <= batchSize; merchantId++) {
+            snapshots.put(merchantId, new MerchantConfigSnapshot(merchant(merchantId), System.currentTimeMillis()));
+        }
+        MerchantConfigCache cache = new MerchantConfigCache();
+        Fields.set(cache, "snapshots", snapshots);
+        Fields.set(cache, "ttl", Duration.ofDays(1));
+
+        // Same flat JSON the REST lookup is mapped from
+        ObjectMapper objectMapper = new ObjectMapper();
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/merchants/", exchange -> {
+            Long merchantId = Long.valueOf(exchange.getRequestURI().getPath().split("/")[2]);
+            MerchantConfigSnapshot snapshot = cache.get(merchantId);
+            Map<String, Object> body = new HashMap<>();
+            body.put("id", snapshot.getMerchantId());
+            body.put("businessName", snapshot.getBusinessName());
+            body.put("upiId", snapshot.getUpiId());
+            body.put("webhookUrl", snapshot.getWebhookUrl());
+            body.put("preferredBank", snapshot.getPreferredBank().name());
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        httpServer.start();
+
+        merchantService = new MerchantService();
+        Fields.set(merchantService, "merchantServiceUrl", "http://localhost:" + httpServer.getAddress().getPort());
+        Fields.set(merchantService, "restTemplate", new RestTemplate());
+
+        MerchantDirectoryService directory = new MerchantDirectoryService();
+        Fields.set(directory, "merchantConfigCache", cache);
+        grpcServer = NettyServerBuilder.forAddress(new InetSocketAddress("localhost", 0))
+            .addService(directory)
+            .build()
+            .start();
+        channel = InternalRpc.channel("localhost:" + grpcServer.getPort());
+        stub = MerchantDirectoryGrpc.newBlockingStub(channel);
+
+        List<Long> merchantIds = new ArrayList<>();
+        for (long merchantId = 1; merchantId <= batchSize; merchantId++) {
+            merchantIds.add(merchantId);
+        }
+        batchRequest = BatchGetMerchantsRequest.newBuilder().addAllMerchantIds(merchantIds).build();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        grpcServer.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        httpServer.stop(0);
+    }
+
+    @Setup(Level.Iteration)
+    public void startCpu() {
+        calls.reset();
+        cpuAtStart = processCpuNanos();
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportCpu() {
+        long count = calls.sum();
+        if (count > 0) {
+            System.out.printf("%n  cpu/call: %.1f us over %d calls%n",
+                (processCpuNanos() - cpuAtStart) / 1000.0 / count, count);
+        }
+    }
+
+    @Benchmark
+    public MerchantService.MerchantInfo json() {
+        calls.increment();
+        return merchantService.getMerchantInfo(1 + (calls.sum() % batchSize));
+    }
+
+    @Benchmark
+    public MerchantInfo rpc() {
+        calls.increment();
+        return stub.getMerchant(GetMerchantRequest.newBuilder().setMerchantId(1 + (calls.sum() % batchSize)).build());
+    }
+
+    @Benchmark
+    public BatchGetMerchantsResponse rpcBatch() {
+        calls.increment();
+        return stub.batchGetMerchants(batchRequest);
+    }
+
+    @Benchmark
+    public int rpcSequential() {
+        calls.increment();
+        int found = 0;
+        for (long merchantId = 1; merchantId <= batchSize; merchantId++) {
+            stub.getMerchant(GetMerchantRequest.newBuilder().setMerchantId(merchantId).build());
+            found++;
+        }
+        return found;
+    }
+
+    private static Merchant merchant(long userId) {
+        Merchant merchant = new Merchant();
+        merchant.setUserId(userId);
+        merchant.setBusinessName("Merchant " + userId);
+        merchant.setUpiId("merchant" + userId + "@hdfc");
+        merchant.setWebhookUrl("https://merchant" + userId + ".example.com/webhooks/payments");
+        merchant.setIsActive(true);
+        merchant.setConfigVersion(1L);
+        merchant.setOperationMode(Merchant.OperationMode.GATEWAY_ONLY);
+        merchant.setPreferredBank(Merchant.BankProvider.HDFC);
+        return merchant;
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+            .getProcessCpuTime();
+    }
+}
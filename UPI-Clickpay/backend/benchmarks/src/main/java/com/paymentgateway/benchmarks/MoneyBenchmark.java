@@ -0,0 +1,70 @@
+package com.paymentgateway.benchmarks;
+
+import com.paymentgateway.common.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Money (long paise) against the BigDecimal code it replaced: parsing bank amounts,
+ * formatting for bank requests and building the string a request signature covers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private final String text = "1499.50";
+    private final Money money = Money.inr(149_950);
+    private final BigDecimal decimal = new BigDecimal("1499.50");
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    @Benchmark
+    public Money parseMoney() {
+        return Money.parse(text);
+    }
+
+    @Benchmark
+    public BigDecimal parseBigDecimal() {
+        return new BigDecimal(text).setScale(2, RoundingMode.UNNECESSARY);
+    }
+
+    @Benchmark
+    public String formatMoney() {
+        return money.toPlainString();
+    }
+
+    @Benchmark
+    public String formatBigDecimal() {
+        return decimal.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    @Benchmark
+    public int signaturePayloadMoney() {
+        buffer.setLength(0);
+        buffer.append("MERCHANT001").append("TXN1700000000000ABC123");
+        money.appendTo(buffer).append("1700000000000");
+        return buffer.length();
+    }
+
+    @Benchmark
+    public String signaturePayloadBigDecimal() {
+        return "MERCHANT001" + "TXN1700000000000ABC123" + decimal.setScale(2, RoundingMode.HALF_UP).toPlainString()
+            + "1700000000000";
+    }
+
+    @Benchmark
+    public Money addMoney() {
+        return money.add(money);
+    }
+
+    @Benchmark
+    public BigDecimal addBigDecimal() {
+        return decimal.add(decimal);
+    }
+}
@@ -0,0 +1,77 @@
+package com.paymentgateway.payment.service;
+
+import com.paymentgateway.benchmarks.Fields;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and webhook signatures for each bank adapter. Lives in the adapters' package
+ * to reach their package-private signing methods.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankSignatureBenchmark {
+
+    @Param({"HDFC", "ICICI", "KOTAK", "AXIS"})
+    public String bank;
+
+    private HdfcBankApiService hdfc;
+    private IciciBankApiService icici;
+    private KotakBankApiService kotak;
+    private AxisBankApiService axis;
+
+    private final String orderId = "TXN1700000000000ABC123";
+    private final String amount = "1499.00";
+    private final String timestamp = "1700000000000";
+    private final String webhookPayload =
+        "{\"transactionId\":\"TXN1700000000000ABC123\",\"status\":\"SUCCESS\",\"amount\":1499.00,\"bankReference\":\"HDFC98765\"}";
+
+    @Setup
+    public void setup() {
+        hdfc = configure(new HdfcBankApiService());
+        icici = configure(new IciciBankApiService());
+        kotak = configure(new KotakBankApiService());
+        axis = configure(new AxisBankApiService());
+    }
+
+    @Benchmark
+    public String requestSignature() {
+        switch (bank) {
+            case "HDFC":
+                return hdfc.generateSignature(orderId, amount, timestamp);
+            case "ICICI":
+                return icici.generateSecureHash(orderId, amount, timestamp);
+            case "KOTAK":
+                return kotak.generateSignature(orderId, amount, timestamp);
+            default:
+                return axis.generateChecksum(orderId, amount, timestamp);
+        }
+    }
+
+    @Benchmark
+    public String webhookSignature() {
+        switch (bank) {
+            case "HDFC":
+                return hdfc.generateWebhookSignature(webhookPayload);
+            case "ICICI":
+                return icici.generateWebhookSignature(webhookPayload);
+            case "KOTAK":
+                return kotak.generateWebhookSignature(webhookPayload);
+            default:
+                return axis.generateWebhookSignature(webhookPayload);
+        }
+    }
+
+    private static <T> T configure(T adapter) {
+        Fields.set(adapter, "apiSecret", "benchmark-secret-0123456789abcdef");
+        Fields.set(adapter, "merchantId", "MERCHANT001");
+        Fields.set(adapter, "apiKey", "benchmark-key");
+        Fields.set(adapter, "bankApiUrl", "http://localhost:9999");
+        return adapter;
+    }
+}
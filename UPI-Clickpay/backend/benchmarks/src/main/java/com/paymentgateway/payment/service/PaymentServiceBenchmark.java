@@ -0,0 +1,45 @@
+package com.paymentgateway.payment.service;
+
+import com.paymentgateway.benchmarks.Fields;
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU-bound pieces of payment creation: transaction ids and QR codes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    private QRCodeService qrCodeService;
+    private final Money amount = Money.inr(149_900);
+
+    @Setup
+    public void setup() {
+        qrCodeService = new QRCodeService();
+        Fields.set(qrCodeService, "paymentMetrics", new PaymentMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public String generateTransactionId() {
+        return PaymentRules.generateTransactionId(1042);
+    }
+
+    @Benchmark
+    public String generateUPIQRCode() {
+        return qrCodeService.generateUPIQRCode("merchant@hdfc", amount, "TXN1700000000000ABC123", "Order #1042");
+    }
+
+    @Benchmark
+    public String upiUrl() {
+        return QRCodeService.upiUrl("merchant@hdfc", amount, "TXN1700000000000ABC123", "Order #1042");
+    }
+}
@@ -0,0 +1,72 @@
+package com.paymentgateway.common.archive;
+
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Which archived payments a scan wants: optionally one merchant and a created_at range
+ * (from inclusive, to exclusive). Segments whose min/max entries rule the range out are
+ * never opened.
+ */
+public class ArchiveFilter {
+
+    private final Long merchantId;
+    private final Long createdFrom;
+    private final Long createdTo;
+
+    public ArchiveFilter(Long merchantId, LocalDateTime createdFrom, LocalDateTime createdTo) {
+        this.merchantId = merchantId;
+        this.createdFrom = createdFrom != null ? PaymentColumn.micros(createdFrom) : null;
+        this.createdTo = createdTo != null ? PaymentColumn.micros(createdTo) : null;
+    }
+
+    public static ArchiveFilter all() {
+        return new ArchiveFilter(null, null, null);
+    }
+
+    /**
+     * Columns the filter reads for each row
+     */
+    Set<PaymentColumn> columns() {
+        Set<PaymentColumn> columns = EnumSet.noneOf(PaymentColumn.class);
+        if (merchantId != null) {
+            columns.add(PaymentColumn.MERCHANT_ID);
+        }
+        if (createdFrom != null || createdTo != null) {
+            columns.add(PaymentColumn.CREATED_AT);
+        }
+        return columns;
+    }
+
+    boolean mayMatch(Segment segment) {
+        if (segment.getRowCount() == 0) {
+            return false;
+        }
+        if (merchantId != null && !segment.mayContain(PaymentColumn.MERCHANT_ID, merchantId, merchantId)) {
+            return false;
+        }
+        if (createdFrom != null || createdTo != null) {
+            long from = createdFrom != null ? createdFrom : Long.MIN_VALUE;
+            long to = createdTo != null ? createdTo - 1 : Long.MAX_VALUE;
+            return segment.mayContain(PaymentColumn.CREATED_AT, from, to);
+        }
+        return true;
+    }
+
+    BitSet select(int rowCount, SegmentColumn merchants, SegmentColumn created) {
+        BitSet selected = new BitSet(rowCount);
+        selected.set(0, rowCount);
+        for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+            if (merchantId != null && (merchants.isNull(row) || merchants.number(row) != merchantId)) {
+                selected.clear(row);
+            } else if (created != null && (created.isNull(row)
+                    || (createdFrom != null && created.number(row) < createdFrom)
+                    || (createdTo != null && created.number(row) >= createdTo))) {
+                selected.clear(row);
+            }
+        }
+        return selected;
+    }
+}
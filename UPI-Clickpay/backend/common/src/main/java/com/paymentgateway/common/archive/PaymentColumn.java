@@ -0,0 +1,114 @@
+package com.paymentgateway.common.archive;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * The payments columns kept in archive segments, in file order. Rows go in and come out
+ * keyed by column name with the types ColumnMapRowMapper gives for the payments table, so
+ * an archived payment reads the same as a live one. Indexed columns get a min/max entry
+ * in each segment's footer.
+ */
+public enum PaymentColumn {
+    ID("id", Kind.INT64, true),
+    MERCHANT_ID("merchant_id", Kind.INT64, true),
+    TRANSACTION_ID("transaction_id", Kind.TEXT, true),
+    AMOUNT("amount", Kind.MONEY, true),
+    CURRENCY("currency", Kind.TEXT, false),
+    STATUS("status", Kind.TEXT, true),
+    PAYMENT_METHOD("payment_method", Kind.TEXT, false),
+    UPI_ID("upi_id", Kind.TEXT, false),
+    UPI_PROVIDER("upi_provider", Kind.TEXT, false),
+    BANK_PROVIDER("bank_provider", Kind.TEXT, false),
+    BANK_REFERENCE("bank_reference", Kind.TEXT, false),
+    BANK_TRANSACTION_ID("bank_transaction_id", Kind.TEXT, false),
+    DESCRIPTION("description", Kind.TEXT, false),
+    CANCELLATION_REASON("cancellation_reason", Kind.TEXT, false),
+    FAILURE_REASON("failure_reason", Kind.TEXT, false),
+    CANCELLED_BY("cancelled_by", Kind.TEXT, false),
+    REFUND_AMOUNT("refund_amount", Kind.MONEY, false),
+    CREATED_AT("created_at", Kind.TIMESTAMP, true),
+    UPDATED_AT("updated_at", Kind.TIMESTAMP, false),
+    COMPLETED_AT("completed_at", Kind.TIMESTAMP, true),
+    REFUNDED_AT("refunded_at", Kind.TIMESTAMP, false),
+    SHARD_SLOT("shard_slot", Kind.INT32, false);
+
+    /**
+     * How a column is stored. Everything but text is a long: money in paise, timestamps in
+     * microseconds of the wall-clock time, so they come back exactly as Postgres had them.
+     */
+    public enum Kind {
+        INT32, INT64, MONEY, TIMESTAMP, TEXT;
+
+        long encode(Object value) {
+            switch (this) {
+                case MONEY:
+                    return ((BigDecimal) value).setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+                case TIMESTAMP:
+                    return micros(value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value);
+                default:
+                    return ((Number) value).longValue();
+            }
+        }
+
+        Object decode(long value) {
+            switch (this) {
+                case INT32:
+                    return (int) value;
+                case MONEY:
+                    return BigDecimal.valueOf(value, 2);
+                case TIMESTAMP:
+                    return Timestamp.valueOf(LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000L),
+                        (int) Math.floorMod(value, 1_000_000L) * 1000, ZoneOffset.UTC));
+                default:
+                    return value;
+            }
+        }
+    }
+
+    private final String name;
+    private final Kind kind;
+    private final boolean indexed;
+
+    PaymentColumn(String name, Kind kind, boolean indexed) {
+        this.name = name;
+        this.kind = kind;
+        this.indexed = indexed;
+    }
+
+    public String getName() { return name; }
+
+    public Kind getKind() { return kind; }
+
+    public boolean isIndexed() { return indexed; }
+
+    public boolean isText() { return kind == Kind.TEXT; }
+
+    public static PaymentColumn forName(String name) {
+        for (PaymentColumn column : values()) {
+            if (column.name.equals(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Every archived column, for a SELECT from payments
+     */
+    public static String selectList() {
+        return Arrays.stream(values()).map(PaymentColumn::getName).collect(Collectors.joining(", "));
+    }
+
+    /**
+     * A timestamp as stored in TIMESTAMP columns, for comparing with min/max entries
+     */
+    public static long micros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1000;
+    }
+}
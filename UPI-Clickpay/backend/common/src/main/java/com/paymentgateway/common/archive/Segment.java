@@ -0,0 +1,178 @@
+package com.paymentgateway.common.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A segment file opened for reading. Only the footer is read up front, and it is all that
+ * is kept in memory; each scan inflates just the columns it filters on or returns, and
+ * only when the footer's min/max entries do not already rule the segment out.
+ */
+public class Segment {
+
+    private static class ColumnBlock {
+        long offset;
+        int length;
+        int rawLength;
+        boolean hasStats;
+        long minNumber;
+        long maxNumber;
+        String minText;
+        String maxText;
+    }
+
+    private final Path path;
+    private final int rowCount;
+    private final Map<PaymentColumn, ColumnBlock> blocks = new EnumMap<>(PaymentColumn.class);
+
+    private Segment(Path path, int rowCount) {
+        this.path = path;
+        this.rowCount = rowCount;
+    }
+
+    public static Segment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SegmentFormat.MAGIC.length + SegmentFormat.TRAILER_LENGTH) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            ByteBuffer trailer = read(channel, size - SegmentFormat.TRAILER_LENGTH, SegmentFormat.TRAILER_LENGTH);
+            long footerOffset = trailer.getLong();
+            int footerLength = trailer.getInt();
+            byte[] magic = new byte[SegmentFormat.MAGIC.length];
+            trailer.get(magic);
+            if (!Arrays.equals(magic, SegmentFormat.MAGIC)) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+
+            DataInputStream footer = new DataInputStream(new ByteArrayInputStream(
+                read(channel, footerOffset, footerLength).array()));
+            int version = footer.readInt();
+            if (version != SegmentFormat.VERSION) {
+                throw new IOException("Archive segment " + path + " has unsupported version " + version);
+            }
+            Segment segment = new Segment(path, footer.readInt());
+            int columnCount = footer.readInt();
+            for (int i = 0; i < columnCount; i++) {
+                String name = footer.readUTF();
+                ColumnBlock block = new ColumnBlock();
+                block.offset = footer.readLong();
+                block.length = footer.readInt();
+                block.rawLength = footer.readInt();
+                boolean text = footer.readBoolean();
+                block.hasStats = footer.readBoolean();
+                if (block.hasStats && text) {
+                    block.minText = footer.readUTF();
+                    block.maxText = footer.readUTF();
+                } else if (block.hasStats) {
+                    block.minNumber = footer.readLong();
+                    block.maxNumber = footer.readLong();
+                }
+                PaymentColumn column = PaymentColumn.forName(name);
+                // Columns since dropped from PaymentColumn are skipped
+                if (column != null) {
+                    segment.blocks.put(column, block);
+                }
+            }
+            return segment;
+        }
+    }
+
+    public Path getPath() { return path; }
+
+    public int getRowCount() { return rowCount; }
+
+    /**
+     * Whether the segment may hold values of the column in [from, to]; true without a min/max entry
+     */
+    public boolean mayContain(PaymentColumn column, long from, long to) {
+        ColumnBlock block = blocks.get(column);
+        if (block == null || !block.hasStats || column.isText()) {
+            return true;
+        }
+        return block.maxNumber >= from && block.minNumber <= to;
+    }
+
+    public boolean mayContain(PaymentColumn column, String value) {
+        ColumnBlock block = blocks.get(column);
+        if (block == null || !block.hasStats || !column.isText()) {
+            return true;
+        }
+        return value.compareTo(block.minText) >= 0 && value.compareTo(block.maxText) <= 0;
+    }
+
+    /**
+     * Smallest value of an indexed numeric column, e.g. the earliest created_at for ordering segments
+     */
+    public long min(PaymentColumn column) {
+        ColumnBlock block = blocks.get(column);
+        return block != null && block.hasStats && !column.isText() ? block.minNumber : Long.MIN_VALUE;
+    }
+
+    public boolean mayMatch(ArchiveFilter filter) {
+        return filter.mayMatch(this);
+    }
+
+    /**
+     * Hand every row matching the filter to the consumer, with only the given columns filled in
+     * @return rows matched
+     */
+    public int scan(ArchiveFilter filter, Set<PaymentColumn> columns, Consumer<Map<String, Object>> consumer) throws IOException {
+        if (!filter.mayMatch(this)) {
+            return 0;
+        }
+        Set<PaymentColumn> needed = EnumSet.copyOf(filter.columns());
+        needed.addAll(columns);
+        Map<PaymentColumn, SegmentColumn> decoded = new EnumMap<>(PaymentColumn.class);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (PaymentColumn column : needed) {
+                decoded.put(column, decode(channel, column));
+            }
+        }
+
+        BitSet selected = filter.select(rowCount, decoded.get(PaymentColumn.MERCHANT_ID), decoded.get(PaymentColumn.CREATED_AT));
+        SegmentColumn[] wanted = columns.stream().map(decoded::get).toArray(SegmentColumn[]::new);
+        PaymentColumn[] names = columns.toArray(new PaymentColumn[0]);
+        for (int row = selected.nextSetBit(0); row >= 0; row = selected.nextSetBit(row + 1)) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int c = 0; c < wanted.length; c++) {
+                values.put(names[c].getName(), wanted[c].value(row));
+            }
+            consumer.accept(values);
+        }
+        return selected.cardinality();
+    }
+
+    private SegmentColumn decode(FileChannel channel, PaymentColumn column) throws IOException {
+        ColumnBlock block = blocks.get(column);
+        if (block == null) {
+            return SegmentColumn.missing(column, rowCount);
+        }
+        byte[] raw = SegmentFormat.inflate(read(channel, block.offset, block.length).array(), block.rawLength);
+        return SegmentColumn.decode(column, raw, rowCount);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Archive segment ends early");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,90 @@
+package com.paymentgateway.common.archive;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+
+/**
+ * One column of a segment, inflated and decoded for a scan
+ */
+final class SegmentColumn {
+
+    private final PaymentColumn column;
+    private final BitSet nulls;
+    private final long[] numbers;
+    private final String[] texts;
+
+    private SegmentColumn(PaymentColumn column, BitSet nulls, long[] numbers, String[] texts) {
+        this.column = column;
+        this.nulls = nulls;
+        this.numbers = numbers;
+        this.texts = texts;
+    }
+
+    static SegmentColumn decode(PaymentColumn column, byte[] raw, int rowCount) {
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        if (column.isText()) {
+            return new SegmentColumn(column, null, null, decodeText(in, rowCount));
+        }
+        BitSet nulls = new BitSet();
+        if (SegmentFormat.readVarLong(in) > 0) {
+            byte[] bitmap = new byte[(int) SegmentFormat.readVarLong(in)];
+            in.get(bitmap);
+            nulls = BitSet.valueOf(bitmap);
+        }
+        long[] numbers = new long[rowCount];
+        long previous = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!nulls.get(row)) {
+                previous += SegmentFormat.unzigzag(SegmentFormat.readVarLong(in));
+                numbers[row] = previous;
+            }
+        }
+        return new SegmentColumn(column, nulls, numbers, null);
+    }
+
+    /**
+     * A column the segment was written without, e.g. one added to PaymentColumn later
+     */
+    static SegmentColumn missing(PaymentColumn column, int rowCount) {
+        BitSet nulls = new BitSet();
+        nulls.set(0, rowCount);
+        return new SegmentColumn(column, nulls, new long[rowCount], new String[rowCount]);
+    }
+
+    private static String[] decodeText(ByteBuffer in, int rowCount) {
+        String[] texts = new String[rowCount];
+        if (in.get() == SegmentFormat.DICTIONARY) {
+            String[] dictionary = new String[(int) SegmentFormat.readVarLong(in)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = SegmentFormat.readText(in);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                int code = (int) SegmentFormat.readVarLong(in);
+                texts[row] = code == 0 ? null : dictionary[code - 1];
+            }
+        } else {
+            for (int row = 0; row < rowCount; row++) {
+                texts[row] = in.get() == 0 ? null : SegmentFormat.readText(in);
+            }
+        }
+        return texts;
+    }
+
+    boolean isNull(int row) {
+        return texts != null ? texts[row] == null : nulls.get(row);
+    }
+
+    long number(int row) {
+        return numbers[row];
+    }
+
+    /**
+     * The row's value as the payments table would return it
+     */
+    Object value(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        return column.isText() ? texts[row] : column.getKind().decode(numbers[row]);
+    }
+}
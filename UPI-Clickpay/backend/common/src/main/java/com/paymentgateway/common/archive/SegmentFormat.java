@@ -0,0 +1,113 @@
+package com.paymentgateway.common.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Layout of a segment file:
+ *
+ *   magic | column block ... | footer | footer offset (long) | footer length (int) | magic
+ *
+ * Each column block is deflated on its own so a scan inflates only the columns it reads.
+ * Inside a block, numbers are a null bitmap followed by zigzag varint deltas of the
+ * non-null values; text is either a dictionary and one varint code per row, or each
+ * row's UTF-8 bytes with a varint length. The footer lists every column's block and,
+ * for indexed columns, its min and max.
+ */
+final class SegmentFormat {
+
+    static final byte[] MAGIC = "CPSEG001".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES + MAGIC.length;
+
+    static final byte PLAIN = 0;
+    static final byte DICTIONARY = 1;
+
+    private SegmentFormat() {}
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new RuntimeException("Malformed varint in archive segment");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static void writeText(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    static String readText(ByteBuffer in) {
+        int length = (int) readVarLong(in);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static byte[] inflate(byte[] packed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed);
+            byte[] raw = new byte[rawLength];
+            int filled = 0;
+            while (filled < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, filled, rawLength - filled);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                filled += n;
+            }
+            if (filled != rawLength) {
+                throw new IOException("Archive column block is truncated");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Archive column block is corrupt: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
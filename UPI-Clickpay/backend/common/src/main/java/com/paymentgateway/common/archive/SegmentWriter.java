@@ -0,0 +1,210 @@
+package com.paymentgateway.common.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects payments column by column, then writes them as one immutable segment. The
+ * file appears under its final name only once it is complete and on disk.
+ */
+public class SegmentWriter {
+
+    private static final PaymentColumn[] COLUMNS = PaymentColumn.values();
+
+    private final long[][] numbers = new long[COLUMNS.length][];
+    private final String[][] texts = new String[COLUMNS.length][];
+    private final BitSet[] nulls = new BitSet[COLUMNS.length];
+    private int rows;
+
+    public SegmentWriter(int expectedRows) {
+        int capacity = Math.max(16, expectedRows);
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (COLUMNS[c].isText()) {
+                texts[c] = new String[capacity];
+            } else {
+                numbers[c] = new long[capacity];
+            }
+            nulls[c] = new BitSet();
+        }
+    }
+
+    /**
+     * @param row one payment keyed by column name, as read from the payments table or a segment
+     */
+    public void add(Map<String, Object> row) {
+        if (rows == capacity()) {
+            grow();
+        }
+        for (int c = 0; c < COLUMNS.length; c++) {
+            Object value = row.get(COLUMNS[c].getName());
+            if (value == null) {
+                nulls[c].set(rows);
+            } else if (COLUMNS[c].isText()) {
+                texts[c][rows] = value.toString();
+            } else {
+                numbers[c][rows] = COLUMNS[c].getKind().encode(value);
+            }
+        }
+        rows++;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public void writeTo(Path file) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(SegmentFormat.VERSION);
+        footer.writeInt(rows);
+        footer.writeInt(COLUMNS.length);
+
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long offset = write(channel, SegmentFormat.MAGIC);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                byte[] raw = COLUMNS[c].isText() ? encodeText(c) : encodeNumbers(c);
+                byte[] packed = SegmentFormat.deflate(raw);
+                footer.writeUTF(COLUMNS[c].getName());
+                footer.writeLong(offset);
+                footer.writeInt(packed.length);
+                footer.writeInt(raw.length);
+                footer.writeBoolean(COLUMNS[c].isText());
+                writeStats(footer, c);
+                offset += write(channel, packed);
+            }
+            footer.flush();
+            byte[] footerArray = footerBytes.toByteArray();
+            write(channel, footerArray);
+            ByteBuffer trailer = ByteBuffer.allocate(SegmentFormat.TRAILER_LENGTH);
+            trailer.putLong(offset).putInt(footerArray.length).put(SegmentFormat.MAGIC).flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+        Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private int capacity() {
+        return COLUMNS[0].isText() ? texts[0].length : numbers[0].length;
+    }
+
+    private void grow() {
+        int capacity = capacity() * 2;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            if (COLUMNS[c].isText()) {
+                texts[c] = Arrays.copyOf(texts[c], capacity);
+            } else {
+                numbers[c] = Arrays.copyOf(numbers[c], capacity);
+            }
+        }
+    }
+
+    private byte[] encodeNumbers(int c) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows * 2);
+        BitSet columnNulls = nulls[c];
+        SegmentFormat.writeVarLong(out, columnNulls.cardinality());
+        if (!columnNulls.isEmpty()) {
+            byte[] bitmap = columnNulls.toByteArray();
+            SegmentFormat.writeVarLong(out, bitmap.length);
+            out.write(bitmap, 0, bitmap.length);
+        }
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            if (!columnNulls.get(row)) {
+                long value = numbers[c][row];
+                SegmentFormat.writeVarLong(out, SegmentFormat.zigzag(value - previous));
+                previous = value;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] encodeText(int c) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows * 4);
+        Map<String, Integer> dictionary = new HashMap<>();
+        String[] entries = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            String value = texts[c][row];
+            if (value != null && !dictionary.containsKey(value)) {
+                entries[dictionary.size()] = value;
+                dictionary.put(value, dictionary.size());
+            }
+        }
+        // Status, currency, bank and the like repeat; ids and references do not
+        if (dictionary.size() <= Math.max(16, rows / 4)) {
+            out.write(SegmentFormat.DICTIONARY);
+            SegmentFormat.writeVarLong(out, dictionary.size());
+            for (int i = 0; i < dictionary.size(); i++) {
+                SegmentFormat.writeText(out, entries[i]);
+            }
+            for (int row = 0; row < rows; row++) {
+                String value = texts[c][row];
+                SegmentFormat.writeVarLong(out, value == null ? 0 : dictionary.get(value) + 1);
+            }
+        } else {
+            out.write(SegmentFormat.PLAIN);
+            for (int row = 0; row < rows; row++) {
+                String value = texts[c][row];
+                out.write(value == null ? 0 : 1);
+                if (value != null) {
+                    SegmentFormat.writeText(out, value);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private void writeStats(DataOutputStream footer, int c) throws IOException {
+        boolean hasStats = COLUMNS[c].isIndexed() && nulls[c].cardinality() < rows;
+        footer.writeBoolean(hasStats);
+        if (!hasStats) {
+            return;
+        }
+        if (COLUMNS[c].isText()) {
+            String min = null;
+            String max = null;
+            for (int row = 0; row < rows; row++) {
+                String value = texts[c][row];
+                if (value != null) {
+                    min = min == null || value.compareTo(min) < 0 ? value : min;
+                    max = max == null || value.compareTo(max) > 0 ? value : max;
+                }
+            }
+            footer.writeUTF(min);
+            footer.writeUTF(max);
+        } else {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int row = 0; row < rows; row++) {
+                if (!nulls[c].get(row)) {
+                    min = Math.min(min, numbers[c][row]);
+                    max = Math.max(max, numbers[c][row]);
+                }
+            }
+            footer.writeLong(min);
+            footer.writeLong(max);
+        }
+    }
+
+    private static long write(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return bytes.length;
+    }
+}
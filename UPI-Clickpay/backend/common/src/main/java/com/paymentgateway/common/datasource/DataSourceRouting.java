@@ -0,0 +1,44 @@
+package com.paymentgateway.common.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-call freshness requirements for read-only transactions. Inside {@link #freshAsOf}
+ * a read is only sent to a replica that has replayed everything committed before the
+ * given time, and inside {@link #onPrimary} it is not sent to a replica at all. Without
+ * replica routing both simply run the work.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Long> FRESH_AS_OF = new ThreadLocal<>();
+
+    private DataSourceRouting() {}
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        return freshAsOf(Long.MAX_VALUE, work);
+    }
+
+    /**
+     * @param writtenAtMillis when the data to be read was written; null places no requirement
+     */
+    public static <T> T freshAsOf(Long writtenAtMillis, Supplier<T> work) {
+        if (writtenAtMillis == null) {
+            return work.get();
+        }
+        Long outer = FRESH_AS_OF.get();
+        FRESH_AS_OF.set(outer != null ? Math.max(outer, writtenAtMillis) : writtenAtMillis);
+        try {
+            return work.get();
+        } finally {
+            if (outer != null) {
+                FRESH_AS_OF.set(outer);
+            } else {
+                FRESH_AS_OF.remove();
+            }
+        }
+    }
+
+    static Long requiredFreshness() {
+        return FRESH_AS_OF.get();
+    }
+}
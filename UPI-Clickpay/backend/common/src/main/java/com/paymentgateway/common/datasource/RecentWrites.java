@@ -0,0 +1,59 @@
+package com.paymentgateway.common.datasource;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * When this instance last wrote each record, for the recent-write window, so a read of
+ * the same record can ask for a replica that has caught up with it. If more records are
+ * written within the window than fit, all of them are forgotten and every lookup reports
+ * the overflow time until the window has passed, which sends those reads to the primary
+ * rather than risk a stale answer.
+ */
+public class RecentWrites {
+
+    private final long windowMillis;
+    private final int capacity;
+    private final ConcurrentHashMap<String, Long> writes = new ConcurrentHashMap<>();
+    private volatile long overflowAtMillis;
+
+    public RecentWrites(long windowMillis, int capacity) {
+        this.windowMillis = windowMillis;
+        this.capacity = capacity;
+    }
+
+    public void record(String key) {
+        long now = System.currentTimeMillis();
+        if (writes.size() >= capacity) {
+            purge(now);
+            if (writes.size() >= capacity) {
+                writes.clear();
+                overflowAtMillis = now;
+            }
+        }
+        writes.put(key, now);
+    }
+
+    /**
+     * @return when the record was last written within the window, or null
+     */
+    public Long lastWrite(String key) {
+        long now = System.currentTimeMillis();
+        Long writtenAt = writes.get(key);
+        if (writtenAt != null && now - writtenAt > windowMillis) {
+            writtenAt = null;
+        }
+        long overflowAt = overflowAtMillis;
+        if (now - overflowAt <= windowMillis) {
+            writtenAt = writtenAt != null ? Math.max(writtenAt, overflowAt) : overflowAt;
+        }
+        return writtenAt;
+    }
+
+    public int size() {
+        return writes.size();
+    }
+
+    void purge(long now) {
+        writes.values().removeIf(writtenAt -> now - writtenAt > windowMillis);
+    }
+}
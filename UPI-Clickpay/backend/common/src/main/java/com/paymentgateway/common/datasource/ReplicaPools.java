@@ -0,0 +1,182 @@
+package com.paymentgateway.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The primary's pool and one pool per replica, with each replica's replication lag.
+ *
+ * Lag is measured from the primary's side: every check reads the primary's current WAL
+ * position, then asks each replica whether it has replayed that far. A replica that has
+ * is current as of the start of the check; one that has not is current as of its last
+ * replayed commit. This stays accurate on an idle primary, where the replay timestamp
+ * alone would make a fully caught-up replica look further and further behind.
+ */
+public class ReplicaPools implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final String REPLAY_QUERY =
+        "SELECT COALESCE(pg_last_wal_replay_lsn() >= ?::pg_lsn, TRUE), " +
+        "(EXTRACT(EPOCH FROM pg_last_xact_replay_timestamp()) * 1000)::bigint";
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+    private final Map<String, ReplicaState> states = new ConcurrentHashMap<>();
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final RecentWrites recentWrites;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaPools(HikariDataSource primary, DataSourceProperties primaryProperties,
+                        ReplicaRoutingProperties properties, RecentWrites recentWrites, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLagMillis = properties.getMaxLag().toMillis();
+        this.checkIntervalMillis = properties.getLagCheckInterval().toMillis();
+        this.recentWrites = recentWrites;
+
+        primary.setPoolName(PRIMARY);
+        if (meterRegistry != null) {
+            primary.setMetricRegistry(meterRegistry);
+        }
+
+        List<ReplicaRoutingProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaRoutingProperties.Replica replica = configured.get(i);
+            String poolName = "replica-" + (replica.getName() != null ? replica.getName() : String.valueOf(i + 1));
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(poolName);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername());
+            pool.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword());
+            pool.setDriverClassName(primaryProperties.determineDriverClassName());
+            pool.setMaximumPoolSize(replica.getMaxPoolSize());
+            pool.setReadOnly(true);
+            // Replica pools fill on first use, so a replica that is down does not stop startup
+            pool.setInitializationFailTimeout(-1);
+            if (meterRegistry != null) {
+                pool.setMetricRegistry(meterRegistry);
+            }
+            replicas.put(poolName, pool);
+
+            ReplicaState state = new ReplicaState();
+            states.put(poolName, state);
+            if (meterRegistry != null) {
+                Gauge.builder("db.replica.lag", state, s -> s.healthy ? lagMillis(s) / 1000.0 : Double.NaN)
+                    .description("How far the replica's replay is behind the primary")
+                    .baseUnit("seconds")
+                    .tag("pool", poolName)
+                    .register(meterRegistry);
+            }
+        }
+    }
+
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public Map<String, HikariDataSource> getReplicas() {
+        return Collections.unmodifiableMap(replicas);
+    }
+
+    /**
+     * Whether the replica may serve a read now: reachable, within the lag limit, and past
+     * freshAsOf (epoch millis) when that is given
+     */
+    public boolean isUsable(String poolName, Long freshAsOf) {
+        ReplicaState state = states.get(poolName);
+        if (state == null || !state.healthy || lagMillis(state) > maxLagMillis) {
+            return false;
+        }
+        return freshAsOf == null || state.replayedThroughMillis >= freshAsOf;
+    }
+
+    void checkLag() {
+        long checkedAt = System.currentTimeMillis();
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            rs.next();
+            primaryLsn = rs.getString(1);
+        } catch (SQLException e) {
+            // Nothing to compare with; lag keeps growing from the last check until the primary is back
+            System.out.println("Replica lag check skipped, primary unavailable: " + e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<String, HikariDataSource> replica : replicas.entrySet()) {
+            ReplicaState state = states.get(replica.getKey());
+            try (Connection connection = replica.getValue().getConnection();
+                 PreparedStatement statement = connection.prepareStatement(REPLAY_QUERY)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    boolean caughtUp = rs.getBoolean(1);
+                    long replayedAt = rs.getLong(2);
+                    state.replayedThroughMillis = caughtUp ? checkedAt : replayedAt;
+                }
+                if (!state.healthy) {
+                    System.out.println("Replica " + replica.getKey() + " available for reads");
+                }
+                state.healthy = true;
+            } catch (SQLException e) {
+                if (state.healthy) {
+                    System.out.println("Replica " + replica.getKey() + " unavailable: " + e.getMessage());
+                }
+                state.healthy = false;
+            }
+        }
+        recentWrites.purge(checkedAt);
+    }
+
+    private static long lagMillis(ReplicaState state) {
+        return Math.max(0, System.currentTimeMillis() - state.replayedThroughMillis);
+    }
+
+    private static final class ReplicaState {
+        volatile boolean healthy;
+        // Everything the primary committed before this time has been replayed
+        volatile long replayedThroughMillis;
+    }
+}
@@ -0,0 +1,57 @@
+package com.paymentgateway.common.datasource;
+
+import com.paymentgateway.common.threads.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Read/write splitting for the JDBC services, switched on per service with
+ * datasource.routing.enabled=true. @Transactional(readOnly = true) work (including Spring
+ * Data's inherited finders such as findById) is served by a replica that is within
+ * datasource.routing.max-lag of the primary; writes, reads in read-write transactions and
+ * reads outside any transaction use spring.datasource as before. With no replica usable,
+ * reads fall back to the primary.
+ */
+@Configuration
+@ConditionalOnClass(HikariDataSource.class)
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public RecentWrites recentWrites(ReplicaRoutingProperties properties) {
+        return new RecentWrites(properties.getRecentWriteWindow().toMillis(), properties.getRecentWriteCapacity());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaPools replicaPools(DataSourceProperties dataSourceProperties, ReplicaRoutingProperties properties,
+                                     RecentWrites recentWrites, ObjectProvider<MeterRegistry> meterRegistry,
+                                     Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // The spring.datasource.hikari settings the auto-configured pool would have had
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        return new ReplicaPools(primary, dataSourceProperties, properties, recentWrites, meterRegistry.getIfAvailable());
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource(ReplicaPools replicaPools, ObjectProvider<MeterRegistry> meterRegistry,
+                                 Environment environment) {
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource(replicaPools, meterRegistry.getIfAvailable(),
+            pool -> BoundedDataSource.forPool(pool, environment)));
+    }
+}
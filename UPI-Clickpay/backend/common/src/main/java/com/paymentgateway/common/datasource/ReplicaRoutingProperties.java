@@ -0,0 +1,74 @@
+package com.paymentgateway.common.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "datasource.routing")
+public class ReplicaRoutingProperties {
+
+    // Send read-only transactions to the replicas below; spring.datasource stays the primary
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    // A replica further behind the primary than this gets no reads until it catches up
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    // How often each replica's replay position is compared with the primary's
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    // How long a write is remembered for read-your-writes routing; longer than any lag a
+    // replica is still used at
+    private Duration recentWriteWindow = Duration.ofSeconds(30);
+
+    // Writes remembered at once; past this every read in the window goes to the primary
+    private int recentWriteCapacity = 100_000;
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public List<Replica> getReplicas() { return replicas; }
+    public void setReplicas(List<Replica> replicas) { this.replicas = replicas; }
+
+    public Duration getMaxLag() { return maxLag; }
+    public void setMaxLag(Duration maxLag) { this.maxLag = maxLag; }
+
+    public Duration getLagCheckInterval() { return lagCheckInterval; }
+    public void setLagCheckInterval(Duration lagCheckInterval) { this.lagCheckInterval = lagCheckInterval; }
+
+    public Duration getRecentWriteWindow() { return recentWriteWindow; }
+    public void setRecentWriteWindow(Duration recentWriteWindow) { this.recentWriteWindow = recentWriteWindow; }
+
+    public int getRecentWriteCapacity() { return recentWriteCapacity; }
+    public void setRecentWriteCapacity(int recentWriteCapacity) { this.recentWriteCapacity = recentWriteCapacity; }
+
+    public static class Replica {
+        // Used as the pool name: hikaricp metrics are tagged pool=replica-<name>
+        private String name;
+        private String url;
+        // Default to spring.datasource's credentials
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public int getMaxPoolSize() { return maxPoolSize; }
+        public void setMaxPoolSize(int maxPoolSize) { this.maxPoolSize = maxPoolSize; }
+    }
+}
@@ -0,0 +1,87 @@
+package com.paymentgateway.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Picks the pool for each new connection: read-only transactions round-robin over the
+ * usable replicas, everything else goes to the primary. Only correct behind a
+ * LazyConnectionDataSourceProxy, which delays taking the connection until the
+ * transaction's read-only flag has been set.
+ *
+ * Each choice is counted as db.routing.connections, tagged with the pool and the reason.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaPools pools;
+    private final List<String> replicaNames;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param poolWrapper applied to each pool before it is routed to, e.g. to bound its waiters
+     */
+    public RoutingDataSource(ReplicaPools pools, MeterRegistry meterRegistry, UnaryOperator<DataSource> poolWrapper) {
+        this.pools = pools;
+        this.replicaNames = new ArrayList<>(pools.getReplicas().keySet());
+        this.meterRegistry = meterRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        pools.getReplicas().forEach((name, pool) -> targets.put(name, poolWrapper.apply(pool)));
+        DataSource primary = poolWrapper.apply(pools.getPrimary());
+        targets.put(ReplicaPools.PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return route(ReplicaPools.PRIMARY, "write");
+        }
+        Long freshAsOf = DataSourceRouting.requiredFreshness();
+        int count = replicaNames.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            String replica = replicaNames.get((start + i) % count);
+            if (pools.isUsable(replica, freshAsOf)) {
+                return route(replica, "read");
+            }
+        }
+        return route(ReplicaPools.PRIMARY, freshAsOf != null && anyUsable() ? "read_your_writes" : "no_replica");
+    }
+
+    private boolean anyUsable() {
+        for (String replica : replicaNames) {
+            if (pools.isUsable(replica, null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String route(String pool, String reason) {
+        if (meterRegistry != null) {
+            counters.computeIfAbsent(pool + '|' + reason, key -> Counter.builder("db.routing.connections")
+                .description("Connections taken, by the pool chosen and why")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+        }
+        return pool;
+    }
+}
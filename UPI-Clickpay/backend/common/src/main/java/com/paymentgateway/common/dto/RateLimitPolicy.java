@@ -0,0 +1,60 @@
+package com.paymentgateway.common.dto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-route token bucket limits for a merchant, resolved from the merchant's tier.
+ * Served by merchant-service and enforced by api-gateway.
+ */
+public class RateLimitPolicy {
+    public static final String DEFAULT_ROUTE = "default";
+
+    private Long merchantId;
+    private String tier;
+    private Map<String, RouteLimit> routes = new HashMap<>();
+
+    public RateLimitPolicy() {}
+
+    public RateLimitPolicy(Long merchantId, String tier, Map<String, RouteLimit> routes) {
+        this.merchantId = merchantId;
+        this.tier = tier;
+        this.routes = routes;
+    }
+
+    /**
+     * Limit for a gateway route id, falling back to the tier's "default" entry
+     */
+    public RouteLimit limitFor(String routeId) {
+        RouteLimit limit = routes.get(routeId);
+        return limit != null ? limit : routes.get(DEFAULT_ROUTE);
+    }
+
+    // Getters and setters
+    public Long getMerchantId() { return merchantId; }
+    public void setMerchantId(Long merchantId) { this.merchantId = merchantId; }
+
+    public String getTier() { return tier; }
+    public void setTier(String tier) { this.tier = tier; }
+
+    public Map<String, RouteLimit> getRoutes() { return routes; }
+    public void setRoutes(Map<String, RouteLimit> routes) { this.routes = routes; }
+
+    public static class RouteLimit {
+        private long replenishRate;   // tokens per second
+        private long burstCapacity;   // bucket size
+
+        public RouteLimit() {}
+
+        public RouteLimit(long replenishRate, long burstCapacity) {
+            this.replenishRate = replenishRate;
+            this.burstCapacity = burstCapacity;
+        }
+
+        public long getReplenishRate() { return replenishRate; }
+        public void setReplenishRate(long replenishRate) { this.replenishRate = replenishRate; }
+
+        public long getBurstCapacity() { return burstCapacity; }
+        public void setBurstCapacity(long burstCapacity) { this.burstCapacity = burstCapacity; }
+    }
+}
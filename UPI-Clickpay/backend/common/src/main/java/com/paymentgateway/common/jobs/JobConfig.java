@@ -0,0 +1,42 @@
+package com.paymentgateway.common.jobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Job coordination for the services that run on Postgres. Nothing connects until a
+ * service registers its first job.
+ */
+@Configuration
+@ConditionalOnClass(name = "org.postgresql.PGConnection")
+@EnableConfigurationProperties(JobProperties.class)
+public class JobConfig {
+
+    @Bean(destroyMethod = "close")
+    public JobCoordinator jobCoordinator(DataSource dataSource, JobProperties properties,
+                                         ObjectProvider<MeterRegistry> meterRegistry, Environment environment) {
+        String nodeName = properties.getNodeName();
+        if (nodeName == null || nodeName.isBlank()) {
+            nodeName = environment.getProperty("spring.application.name", "service") + "@" + hostName()
+                + ":" + ProcessHandle.current().pid();
+        }
+        return new JobCoordinator(dataSource, properties, nodeName, meterRegistry.getIfAvailable());
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.paymentgateway.common.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides which node runs which background job, using nothing but Postgres session
+ * advisory locks held on one dedicated connection per node:
+ *
+ *   - partition p of a job is the lock (job key, p); whoever holds it owns the partition
+ *   - every node taking part in a job holds the lock (job key, backend pid) as a 64-bit
+ *     key, so each can count the job's members and keep only its fair share
+ *
+ * A job with one partition is leader-elected. When a node dies, Postgres closes its
+ * connection (TCP keepalives are set from the heartbeat) and the survivors take its
+ * partitions on their next heartbeat. A node that cannot confirm its locks for
+ * jobs.lease stops running its jobs on its own.
+ *
+ * Meters per job: jobs.partitions.owned, jobs.members and jobs.ownership.changes. Which
+ * node owns what is in {@link #status()}, also visible as pg_locks joined to
+ * pg_stat_activity.application_name.
+ */
+public class JobCoordinator {
+
+    // A job's key is its name's hash, kept positive to compare directly with pg_locks.classid
+    private static final int KEY_MASK = 0x7fffffff;
+
+    private final DataSource dataSource;
+    private final JobProperties properties;
+    private final String nodeName;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, JobPartitions> jobs = new ConcurrentHashMap<>();
+
+    // Held across JDBC calls; see VirtualThreadConfig
+    private final ReentrantLock lock = new ReentrantLock();
+    private Connection connection;
+    private int generation;
+    private volatile long confirmedAt;
+    private ScheduledExecutorService heartbeat;
+
+    public JobCoordinator(DataSource dataSource, JobProperties properties, String nodeName, MeterRegistry meterRegistry) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+        this.nodeName = nodeName;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * A job whose partitions are spread over the nodes that register it
+     */
+    public JobPartitions partitioned(String job, int partitions) {
+        if (partitions < 1) {
+            throw new RuntimeException("Job " + job + " needs at least one partition");
+        }
+        JobPartitions existing = jobs.get(job);
+        if (existing != null) {
+            if (existing.getPartitionCount() != partitions) {
+                throw new RuntimeException("Job " + job + " is already registered with "
+                    + existing.getPartitionCount() + " partitions");
+            }
+            return existing;
+        }
+        JobPartitions registered = new JobPartitions(job, job.hashCode() & KEY_MASK, partitions, this, meterRegistry);
+        if (jobs.putIfAbsent(job, registered) != null) {
+            return jobs.get(job);
+        }
+        registerMeters(registered);
+        if (!properties.isEnabled()) {
+            BitSet all = new BitSet();
+            all.set(0, partitions);
+            registered.setOwned(all);
+            registered.members = 1;
+            return registered;
+        }
+        start();
+        // Take a share right away rather than a heartbeat later
+        beat();
+        return registered;
+    }
+
+    /**
+     * A job run by exactly one node at a time
+     */
+    public JobPartitions leader(String job) {
+        return partitioned(job, 1);
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    /**
+     * Owner of every partition of every registered job, as seen by Postgres
+     */
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("node", nodeName);
+        status.put("leaseValid", leaseValid());
+        Map<String, Object> jobStatus = new LinkedHashMap<>();
+        for (JobPartitions job : jobs.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("partitions", job.getPartitionCount());
+            entry.put("members", job.members);
+            entry.put("ownedHere", job.owned().length);
+            entry.put("owners", properties.isEnabled() ? owners(job) : Map.of(nodeName, job.getPartitionCount()));
+            jobStatus.put(job.getName(), entry);
+        }
+        status.put("jobs", jobStatus);
+        return status;
+    }
+
+    public void close() {
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        lock.lock();
+        try {
+            closeQuietly();
+            jobs.values().forEach(job -> job.setOwned(new BitSet()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean leaseValid() {
+        return !properties.isEnabled()
+            || System.currentTimeMillis() - confirmedAt < properties.getLease().toMillis();
+    }
+
+    private synchronized void start() {
+        if (heartbeat != null) {
+            return;
+        }
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "job-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getHeartbeat().toMillis();
+        heartbeat.scheduleWithFixedDelay(this::beat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Confirm the connection, then rebalance every job
+     */
+    private void beat() {
+        lock.lock();
+        try {
+            if (connection == null || !connection.isValid(2)) {
+                connect();
+            }
+            for (JobPartitions job : jobs.values()) {
+                rebalance(job);
+            }
+            confirmedAt = System.currentTimeMillis();
+        } catch (SQLException e) {
+            System.out.println("Job coordinator lost its connection, releasing all jobs: " + e.getMessage());
+            closeQuietly();
+        } catch (Exception e) {
+            System.out.println("Job coordinator heartbeat failed: " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebalance(JobPartitions job) throws SQLException {
+        if (!job.memberLocked) {
+            advisory("SELECT pg_try_advisory_lock((?::bigint << 32) | pg_backend_pid()::bigint)", job.getKey(), null);
+            job.memberLocked = true;
+        }
+        int nodes = Math.max(1, countMembers(job));
+        job.members = nodes;
+        int partitions = job.getPartitionCount();
+        int fairShare = (partitions + nodes - 1) / nodes;
+        BitSet next = (BitSet) job.owned.clone();
+
+        // Give up the excess first so a node that just joined can take it
+        for (int p = next.length() - 1; p >= 0 && next.cardinality() > fairShare; p--) {
+            if (next.get(p) && advisory("SELECT pg_advisory_unlock(?, ?)", job.getKey(), p)) {
+                next.clear(p);
+                change(job, "released");
+            }
+        }
+        // Start at a random partition so nodes that start together do not contend for the same ones
+        int start = ThreadLocalRandom.current().nextInt(partitions);
+        for (int i = 0; i < partitions && next.cardinality() < fairShare; i++) {
+            int p = (start + i) % partitions;
+            if (!next.get(p) && advisory("SELECT pg_try_advisory_lock(?, ?)", job.getKey(), p)) {
+                next.set(p);
+                change(job, "acquired");
+            }
+        }
+        job.setOwned(next);
+    }
+
+    private void connect() throws SQLException {
+        closeQuietly();
+        connection = dataSource.getConnection();
+        connection.setAutoCommit(true);
+        long heartbeatSeconds = Math.max(1, properties.getHeartbeat().toSeconds());
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT set_config('application_name', ?, false), set_config('tcp_keepalives_idle', ?, false), " +
+                "set_config('tcp_keepalives_interval', ?, false), set_config('tcp_keepalives_count', '3', false)")) {
+            ps.setString(1, nodeName);
+            ps.setString(2, String.valueOf(heartbeatSeconds * 2));
+            ps.setString(3, String.valueOf(heartbeatSeconds));
+            ps.execute();
+        }
+        generation++;
+        for (JobPartitions job : jobs.values()) {
+            job.generation = generation;
+            job.memberLocked = false;
+        }
+    }
+
+    private int countMembers(JobPartitions job) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "SELECT COUNT(*) FROM pg_locks WHERE locktype = 'advisory' AND objsubid = 1 AND classid = ? AND granted")) {
+            ps.setInt(1, job.getKey());
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private Map<String, Integer> owners(JobPartitions job) {
+        Map<String, Integer> owners = new LinkedHashMap<>();
+        try (Connection query = dataSource.getConnection();
+             PreparedStatement ps = query.prepareStatement(
+                 "SELECT COALESCE(a.application_name, l.pid::text), COUNT(*) FROM pg_locks l " +
+                 "LEFT JOIN pg_stat_activity a ON a.pid = l.pid " +
+                 "WHERE l.locktype = 'advisory' AND l.objsubid = 2 AND l.classid = ? AND l.granted " +
+                 "GROUP BY 1 ORDER BY 1")) {
+            ps.setInt(1, job.getKey());
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    owners.put(rs.getString(1), rs.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read owners of job " + job.getName() + ": " + e.getMessage());
+        }
+        return owners;
+    }
+
+    private boolean advisory(String sql, int key, Integer partition) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, key);
+            if (partition != null) {
+                ps.setInt(2, partition);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void change(JobPartitions job, String change) {
+        if (meterRegistry != null) {
+            Counter.builder("jobs.ownership.changes")
+                .description("Job partitions this node took or gave up")
+                .tag("job", job.getName())
+                .tag("change", change)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    private void registerMeters(JobPartitions job) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Gauge.builder("jobs.partitions.owned", job, j -> j.owned().length)
+            .description("Partitions of the job this node owns; 1 on the leader of a single-partition job")
+            .tag("job", job.getName())
+            .register(meterRegistry);
+        Gauge.builder("jobs.members", job, j -> j.members)
+            .description("Nodes taking part in the job")
+            .tag("job", job.getName())
+            .register(meterRegistry);
+    }
+
+    private void closeQuietly() {
+        List<JobPartitions> lost = new ArrayList<>();
+        for (JobPartitions job : jobs.values()) {
+            if (!job.owned.isEmpty()) {
+                lost.add(job);
+            }
+            job.setOwned(new BitSet());
+        }
+        lost.forEach(job -> change(job, "lost"));
+        confirmedAt = 0;
+        if (connection != null) {
+            try {
+                // Returned to the pool, so drop our session locks explicitly
+                try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock_all()")) {
+                    ps.execute();
+                }
+            } catch (SQLException ignored) {
+                // Connection is already gone; the server has released its locks
+            }
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+            connection = null;
+        }
+    }
+}
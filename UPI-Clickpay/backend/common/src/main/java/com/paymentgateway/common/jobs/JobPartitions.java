@@ -0,0 +1,141 @@
+package com.paymentgateway.common.jobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This node's share of one job, as maintained by {@link JobCoordinator}. A job with a
+ * single partition is a leader-elected job: exactly one live node owns partition 0.
+ * Ownership reads as empty once the node's lease has run out, even before the
+ * coordinator has noticed that its connection is gone.
+ */
+public class JobPartitions {
+
+    /**
+     * Partitions gained and lost since the previous {@link #takeChanges()}
+     */
+    public static class Change {
+        private final List<Integer> acquired;
+        private final List<Integer> released;
+        private final boolean reset;
+
+        Change(List<Integer> acquired, List<Integer> released, boolean reset) {
+            this.acquired = acquired;
+            this.released = released;
+            this.reset = reset;
+        }
+
+        public List<Integer> getAcquired() { return acquired; }
+
+        public List<Integer> getReleased() { return released; }
+
+        // Ownership was lost in between (connection or lease): start over from the acquired ones
+        public boolean isReset() { return reset; }
+
+        public boolean isEmpty() { return acquired.isEmpty() && released.isEmpty() && !reset; }
+    }
+
+    private static final int[] NONE = new int[0];
+
+    private final String name;
+    private final int key;
+    private final int partitionCount;
+    private final JobCoordinator coordinator;
+    private final MeterRegistry meterRegistry;
+
+    // Written by the coordinator's heartbeat only, through setOwned
+    volatile BitSet owned = new BitSet();
+    private volatile int[] ownedArray = NONE;
+    volatile int generation;
+    volatile int members;
+    boolean memberLocked;
+
+    // Consumer side of takeChanges()
+    private BitSet seen = new BitSet();
+    private int seenGeneration;
+
+    JobPartitions(String name, int key, int partitionCount, JobCoordinator coordinator, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.key = key;
+        this.partitionCount = partitionCount;
+        this.coordinator = coordinator;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String getName() { return name; }
+
+    public int getPartitionCount() { return partitionCount; }
+
+    int getKey() { return key; }
+
+    public boolean owns(int partition) {
+        return coordinator.leaseValid() && owned.get(partition);
+    }
+
+    /**
+     * Owned partitions in ascending order; shared, so callers must not modify it
+     */
+    public int[] owned() {
+        return coordinator.leaseValid() ? ownedArray : NONE;
+    }
+
+    void setOwned(BitSet partitions) {
+        owned = partitions;
+        ownedArray = partitions.stream().toArray();
+    }
+
+    public boolean isLeader() {
+        return owns(0);
+    }
+
+    /**
+     * Run the work if this node leads the job, timed as jobs.runs
+     * @return whether it ran
+     */
+    public boolean runIfLeader(Runnable work) {
+        if (!isLeader()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            work.run();
+            outcome = "success";
+        } finally {
+            if (meterRegistry != null) {
+                Timer.builder("jobs.runs")
+                    .description("Runs of coordinated jobs on this node")
+                    .tag("job", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * For a single consumer that keeps per-partition state, e.g. a cache of the work in the
+     * partitions it owns
+     */
+    public synchronized Change takeChanges() {
+        BitSet now = coordinator.leaseValid() ? owned : new BitSet();
+        int currentGeneration = generation;
+        boolean reset = currentGeneration != seenGeneration && !seen.isEmpty();
+
+        List<Integer> acquired = new ArrayList<>();
+        List<Integer> released = new ArrayList<>();
+        BitSet previous = reset ? new BitSet() : seen;
+        now.stream().filter(p -> !previous.get(p)).forEach(acquired::add);
+        previous.stream().filter(p -> !now.get(p)).forEach(released::add);
+
+        seen = (BitSet) now.clone();
+        seenGeneration = currentGeneration;
+        return new Change(acquired, released, reset);
+    }
+}
@@ -0,0 +1,37 @@
+package com.paymentgateway.common.jobs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "jobs")
+public class JobProperties {
+
+    // Off, this node owns every job and partition, as a single instance would
+    private boolean enabled = true;
+
+    // How often ownership is confirmed with Postgres and partitions are rebalanced
+    private Duration heartbeat = Duration.ofSeconds(5);
+
+    // A node stops running its jobs this long after its last confirmed heartbeat. Postgres
+    // drops a silent node's connection, and so its locks, after about 5 heartbeats, so
+    // keep this well below that to never have two owners.
+    private Duration lease = Duration.ofSeconds(15);
+
+    // Shown as the owner in pg_stat_activity and the job status; defaults to
+    // <spring.application.name>@<host>:<pid>
+    private String nodeName;
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getHeartbeat() { return heartbeat; }
+    public void setHeartbeat(Duration heartbeat) { this.heartbeat = heartbeat; }
+
+    public Duration getLease() { return lease; }
+    public void setLease(Duration lease) { this.lease = lease; }
+
+    public String getNodeName() { return nodeName; }
+    public void setNodeName(String nodeName) { this.nodeName = nodeName; }
+}
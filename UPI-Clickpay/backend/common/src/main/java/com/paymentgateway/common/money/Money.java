@@ -0,0 +1,252 @@
+package com.paymentgateway.common.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An exact amount of money held as a long count of minor units (paise for INR).
+ * Immutable. The canonical text form always has two decimals ("100.50"), which is
+ * what goes into UPI URIs and bank signatures, and parsing rejects anything more
+ * precise than a paisa instead of rounding it.
+ *
+ * Serialized to JSON as a plain number with two decimals; accepted from JSON as a
+ * number or a string.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+    public static final String INR = "INR";
+
+    private static final Money ZERO_INR = new Money(0L, INR);
+
+    private final long paise;
+    private final String currency;
+
+    private Money(long paise, String currency) {
+        this.paise = paise;
+        this.currency = currency;
+    }
+
+    public static Money ofPaise(long paise, String currency) {
+        if (currency == null || currency.length() != 3) {
+            throw new IllegalArgumentException("Currency must be a 3-letter ISO code: " + currency);
+        }
+        return INR.equals(currency) ? inr(paise) : new Money(paise, currency);
+    }
+
+    public static Money inr(long paise) {
+        return paise == 0 ? ZERO_INR : new Money(paise, INR);
+    }
+
+    public static Money zero(String currency) {
+        return ofPaise(0L, currency);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has more than 2 decimal places or does not fit
+     */
+    public static Money of(BigDecimal amount, String currency) {
+        try {
+            return ofPaise(amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most 2 decimal places: " + amount.toPlainString());
+        }
+    }
+
+    public static Money parse(CharSequence text) {
+        return parse(text, INR);
+    }
+
+    /**
+     * Parse "123", "123.4" or "123.45" (optionally negative). No exponents, no grouping,
+     * no more than 2 decimals.
+     * @throws IllegalArgumentException on anything else
+     */
+    public static Money parse(CharSequence text, String currency) {
+        int length = text != null ? text.length() : 0;
+        if (length == 0) {
+            throw new IllegalArgumentException("Amount is empty");
+        }
+
+        int i = 0;
+        boolean negative = text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+
+        long units = 0;
+        int integerDigits = 0;
+        while (i < length && text.charAt(i) != '.') {
+            units = Math.addExact(Math.multiplyExact(units, 10L), digit(text, i));
+            integerDigits++;
+            i++;
+        }
+        if (integerDigits == 0) {
+            throw invalid(text);
+        }
+
+        int fractionDigits = 0;
+        long fraction = 0;
+        if (i < length) {
+            i++; // '.'
+            while (i < length) {
+                if (++fractionDigits > 2) {
+                    throw new IllegalArgumentException("Amount must have at most 2 decimal places: " + text);
+                }
+                fraction = fraction * 10 + digit(text, i);
+                i++;
+            }
+            if (fractionDigits == 0) {
+                throw invalid(text);
+            }
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+
+        long paise = Math.addExact(Math.multiplyExact(units, 100L), fraction);
+        return ofPaise(negative ? -paise : paise, currency);
+    }
+
+    public long getPaise() { return paise; }
+
+    public String getCurrency() { return currency; }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    public boolean isPositive() {
+        return paise > 0;
+    }
+
+    public boolean isZero() {
+        return paise == 0;
+    }
+
+    public Money add(Money other) {
+        requireSameCurrency(other);
+        return ofPaise(Math.addExact(paise, other.paise), currency);
+    }
+
+    public Money subtract(Money other) {
+        requireSameCurrency(other);
+        return ofPaise(Math.subtractExact(paise, other.paise), currency);
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    /**
+     * Canonical two-decimal form, e.g. "100.50", "-0.05"
+     */
+    public String toPlainString() {
+        return appendTo(new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Append the canonical form without allocating an intermediate String
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        long value = paise;
+        if (value < 0) {
+            out.append('-');
+            if (value == Long.MIN_VALUE) {
+                // -Long.MIN_VALUE overflows; never a real amount but keep the formatter total
+                return out.append(toBigDecimal().negate().toPlainString());
+            }
+            value = -value;
+        }
+        long rupees = value / 100;
+        int fraction = (int) (value % 100);
+        out.append(rupees).append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        return out.append(fraction);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return paise == other.paise && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(paise) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    private static long digit(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw invalid(text);
+        }
+        return c - '0';
+    }
+
+    private static IllegalArgumentException invalid(CharSequence text) {
+        return new IllegalArgumentException("Invalid amount: " + text);
+    }
+
+    public static class Serializer extends JsonSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            // Written as a raw number so "100.50" keeps its trailing zero
+            gen.writeNumber(value.toPlainString());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT
+                    && token != JsonToken.VALUE_STRING) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            try {
+                // getText() returns the literal as written, so no binary floating point is involved
+                return Money.parse(p.getText().trim());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, p.getText(), e.getMessage());
+            }
+        }
+    }
+}
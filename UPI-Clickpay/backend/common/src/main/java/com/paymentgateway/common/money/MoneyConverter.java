@@ -0,0 +1,25 @@
+package com.paymentgateway.common.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Money} to a DECIMAL(p, 2) column. The column holds only the amount, so
+ * values are read back as INR, the only currency UPI settles in; entities that store
+ * another currency keep it in their own column.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount != null ? Money.of(amount, Money.INR) : null;
+    }
+}
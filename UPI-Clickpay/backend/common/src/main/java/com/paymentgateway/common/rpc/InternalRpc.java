@@ -0,0 +1,84 @@
+package com.paymentgateway.common.rpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plumbing shared by the gRPC servers and clients between services (protos in
+ * src/main/proto). Calls carry the cluster's internal secret, the same one api-gateway
+ * sends, so only our own services can use them. One channel per target is kept for the
+ * life of the client; it holds a single HTTP/2 connection that all calls multiplex over.
+ */
+public final class InternalRpc {
+
+    public static final Metadata.Key<String> SECRET_HEADER =
+        Metadata.Key.of("x-internal-secret", Metadata.ASCII_STRING_MARSHALLER);
+
+    private InternalRpc() {}
+
+    /**
+     * Plaintext channel to host:port. Keepalive pings hold the idle connection open through
+     * NATs and load balancers, so a call after a quiet period does not pay for a reconnect.
+     */
+    public static ManagedChannel channel(String target, ClientInterceptor... interceptors) {
+        return NettyChannelBuilder.forTarget(target)
+            .usePlaintext()
+            .keepAliveTime(30, TimeUnit.SECONDS)
+            .keepAliveWithoutCalls(true)
+            .intercept(interceptors)
+            .build();
+    }
+
+    public static ClientInterceptor secretClientInterceptor(String secret) {
+        return new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                       CallOptions callOptions, Channel next) {
+                return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+                    @Override
+                    public void start(Listener<RespT> responseListener, Metadata headers) {
+                        if (secret != null && !secret.isEmpty()) {
+                            headers.put(SECRET_HEADER, secret);
+                        }
+                        super.start(responseListener, headers);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Rejects calls without the secret. With no secret configured every call is rejected.
+     */
+    public static ServerInterceptor secretServerInterceptor(String secret) {
+        byte[] expected = secret != null && !secret.isBlank() ? secret.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                         ServerCallHandler<ReqT, RespT> next) {
+                String presented = headers.get(SECRET_HEADER);
+                if (expected.length == 0 || presented == null
+                        || !MessageDigest.isEqual(expected, presented.getBytes(StandardCharsets.UTF_8))) {
+                    call.close(Status.UNAUTHENTICATED.withDescription("Missing or invalid internal secret"), new Metadata());
+                    return new ServerCall.Listener<>() {};
+                }
+                return next.startCall(call, headers);
+            }
+        };
+    }
+}
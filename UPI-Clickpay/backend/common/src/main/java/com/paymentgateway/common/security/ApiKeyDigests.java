@@ -0,0 +1,50 @@
+package com.paymentgateway.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Merchant API keys are stored and looked up only by their SHA-256 digest. Keys are
+ * 256 bits of randomness, so a fast unsalted hash is enough; bcrypt would cost
+ * milliseconds on every server-to-server call for no extra safety.
+ */
+public final class ApiKeyDigests {
+
+    public static final String KEY_PREFIX = "pk_live_";
+
+    // Characters of the raw key kept in clear text so merchants can tell their keys apart
+    public static final int DISPLAY_PREFIX_LENGTH = 12;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private ApiKeyDigests() {}
+
+    /**
+     * Lowercase hex SHA-256 of the raw key, the form stored in api_keys.key_hash
+     */
+    public static String digest(String rawKey) {
+        return HexFormat.of().formatHex(SHA256.get().digest(rawKey.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public static String generate() {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        return KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    }
+
+    public static String displayPrefix(String rawKey) {
+        return rawKey.substring(0, Math.min(DISPLAY_PREFIX_LENGTH, rawKey.length()));
+    }
+}
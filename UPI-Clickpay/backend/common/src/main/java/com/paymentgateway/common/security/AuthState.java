@@ -0,0 +1,64 @@
+package com.paymentgateway.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Redis layout of the token and user state auth-service publishes, shared with api-gateway
+ * so a revoked token, a deactivated user or a token older than the last password change is
+ * turned away at the edge exactly as /api/auth/validate would.
+ *
+ *   - {@link #REVOKED_TOKENS_KEY}: sorted set of token digests scored by token expiry
+ *   - {@link #USER_STATE_KEY}: hash of username to "active:passwordChangedAtMillis", for
+ *     users that were ever deactivated or changed their password
+ */
+public final class AuthState {
+
+    public static final String REVOKED_TOKENS_KEY = "auth:revoked";
+    public static final String TOKEN_REVOKED_CHANNEL = "auth:token-revoked";
+    public static final String USER_STATE_KEY = "auth:user-state";
+    public static final String USER_STATUS_CHANNEL = "auth:user-status";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private AuthState() {}
+
+    public static String tokenDigest(String token) {
+        return HexFormat.of().formatHex(SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * A token stays valid only while its user is active and if it was issued after the last
+     * password change. JWT iat has second precision, so compare at that precision.
+     */
+    public static boolean accepts(boolean active, long passwordChangedAtMillis, long tokenIssuedAtMillis) {
+        return active && tokenIssuedAtMillis >= (passwordChangedAtMillis / 1000) * 1000;
+    }
+
+    public static String encodeUserState(boolean active, long passwordChangedAtMillis) {
+        return (active ? "1" : "0") + ":" + passwordChangedAtMillis;
+    }
+
+    /**
+     * @param encoded a {@link #USER_STATE_KEY} value, or null for a user with no recorded change
+     */
+    public static boolean acceptsUserState(String encoded, long tokenIssuedAtMillis) {
+        if (encoded == null) {
+            return true;
+        }
+        int separator = encoded.indexOf(':');
+        if (separator < 0) {
+            return false;
+        }
+        return accepts("1".equals(encoded.substring(0, separator)),
+            Long.parseLong(encoded.substring(separator + 1)), tokenIssuedAtMillis);
+    }
+}
@@ -0,0 +1,15 @@
+package com.paymentgateway.common.security;
+
+/**
+ * Headers api-gateway attaches after verifying a JWT at the edge. The gateway strips
+ * any client-supplied copies, and services only trust them when the internal hop
+ * secret matches (see {@link TrustedIdentityResolver}).
+ */
+public final class GatewayHeaders {
+    public static final String USER_ID = "X-Auth-User-Id";
+    public static final String USER_ROLE = "X-Auth-User-Role";
+    public static final String USERNAME = "X-Auth-Username";
+    public static final String INTERNAL_SECRET = "X-Internal-Auth";
+
+    private GatewayHeaders() {}
+}
@@ -0,0 +1,57 @@
+package com.paymentgateway.common.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Immutable result of verifying a JWT: everything services read from the token,
+ * extracted in a single parse.
+ */
+public final class JwtPrincipal {
+    private final Long userId;
+    private final String role;
+    private final String username;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+
+    public JwtPrincipal(Long userId, String role, String username, long issuedAtMillis, long expiresAtMillis) {
+        this.userId = userId;
+        this.role = role;
+        this.username = username;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public static JwtPrincipal from(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(
+            claims.get("userId", Long.class),
+            claims.get("role", String.class),
+            claims.getSubject(),
+            issuedAt != null ? issuedAt.getTime() : 0L,
+            expiration != null ? expiration.getTime() : Long.MAX_VALUE
+        );
+    }
+
+    public boolean isExpired() {
+        return isExpired(System.currentTimeMillis());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public Long getUserId() { return userId; }
+
+    public String getRole() { return role; }
+
+    public String getUsername() { return username; }
+
+    public long getIssuedAtMillis() { return issuedAtMillis; }
+
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+
+    public Date getExpiration() { return new Date(expiresAtMillis); }
+}
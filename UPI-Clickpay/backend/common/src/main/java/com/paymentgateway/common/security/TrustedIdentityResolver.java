@@ -0,0 +1,99 @@
+package com.paymentgateway.common.security;
+
+import com.paymentgateway.common.util.JwtUtil;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Resolves the calling user for downstream services. Requests that came through
+ * api-gateway carry an already verified identity, so no JWT work is repeated; direct
+ * calls still fall back to verifying the bearer token.
+ */
+@Component
+public class TrustedIdentityResolver {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    // Shared with api-gateway; leave empty to always verify the JWT locally
+    @Value("${gateway.internal-secret:}")
+    private String internalSecret;
+
+    @PostConstruct
+    public void reportMode() {
+        if (internalSecret == null || internalSecret.isEmpty()) {
+            System.out.println("gateway.internal-secret is not set; gateway identity headers are ignored"
+                + " and every bearer token is verified locally");
+        }
+    }
+
+    /**
+     * @param trustedUserId value of {@link GatewayHeaders#USER_ID}, may be null
+     * @param internalAuth value of {@link GatewayHeaders#INTERNAL_SECRET}, may be null
+     * @param authorization the Authorization header, may be null when the gateway identity is present
+     */
+    public Long resolveUserId(String trustedUserId, String internalAuth, String authorization) {
+        if (trustedUserId != null && isFromGateway(internalAuth)) {
+            return Long.valueOf(trustedUserId);
+        }
+
+        if (authorization == null || authorization.isBlank()) {
+            throw new RuntimeException("Missing Authorization header");
+        }
+        return jwtUtil.extractUserId(authorization.replace("Bearer ", ""));
+    }
+
+    /**
+     * Role of the caller, from {@link GatewayHeaders#USER_ROLE} or the bearer token
+     */
+    public String resolveRole(String trustedRole, String internalAuth, String authorization) {
+        if (trustedRole != null && isFromGateway(internalAuth)) {
+            return trustedRole;
+        }
+
+        if (authorization == null || authorization.isBlank()) {
+            throw new RuntimeException("Missing Authorization header");
+        }
+        return jwtUtil.extractRole(authorization.replace("Bearer ", ""));
+    }
+
+    /**
+     * @throws RuntimeException unless the caller is an ADMIN
+     */
+    public void requireAdmin(String trustedRole, String internalAuth, String authorization) {
+        if (!"ADMIN".equals(resolveRole(trustedRole, internalAuth, authorization))) {
+            throw new RuntimeException("Admin access required");
+        }
+    }
+
+    /**
+     * Merchant a report or query is limited to: admins may name any merchant or none (all of
+     * them), merchants always get their own id
+     * @throws RuntimeException when a merchant asks for another merchant's data
+     */
+    public Long resolveMerchantScope(Long merchantId, String trustedUserId, String trustedRole,
+                                     String internalAuth, String authorization) {
+        if ("ADMIN".equals(resolveRole(trustedRole, internalAuth, authorization))) {
+            return merchantId;
+        }
+        Long caller = resolveUserId(trustedUserId, internalAuth, authorization);
+        if (merchantId != null && !merchantId.equals(caller)) {
+            throw new RuntimeException("Merchants can only see their own payments");
+        }
+        return caller;
+    }
+
+    private boolean isFromGateway(String internalAuth) {
+        if (internalSecret == null || internalSecret.isEmpty() || internalAuth == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+            internalSecret.getBytes(StandardCharsets.UTF_8),
+            internalAuth.getBytes(StandardCharsets.UTF_8));
+    }
+}
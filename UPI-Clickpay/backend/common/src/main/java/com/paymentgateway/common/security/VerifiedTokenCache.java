@@ -0,0 +1,97 @@
+package com.paymentgateway.common.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of recently verified tokens, keyed by the token's SHA-256 so raw tokens
+ * are not retained. Split into independently locked stripes to keep contention low;
+ * an entry is never returned once the token it came from has expired.
+ */
+public class VerifiedTokenCache {
+
+    private static final int STRIPES = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public VerifiedTokenCache(int maxSize) {
+        int perStripe = Math.max(1, maxSize / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public JwtPrincipal get(String token) {
+        String key = keyOf(token);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            JwtPrincipal principal = stripe.get(key);
+            if (principal != null && principal.isExpired()) {
+                stripe.remove(key);
+                return null;
+            }
+            return principal;
+        }
+    }
+
+    public void put(String token, JwtPrincipal principal) {
+        String key = keyOf(token);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, principal);
+        }
+    }
+
+    public void invalidate(String token) {
+        String key = keyOf(token);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static String keyOf(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static class Stripe extends LinkedHashMap<String, JwtPrincipal> {
+        private final int maxSize;
+
+        Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JwtPrincipal> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.paymentgateway.common.threads;
+
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many threads may wait for a pooled connection at once. With a fixed request
+ * pool the thread count bounded the queue in front of Hikari; with virtual threads it is
+ * unbounded, and thousands of waiters would each sit out the full connection timeout.
+ * Callers past the cap fail immediately with a transient exception instead.
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedDataSource(DataSource target, int maxPending) {
+        super(target);
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        enter();
+        try {
+            return super.getConnection();
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        enter();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * For pools a routing DataSource creates for itself, which are not beans and so are not
+     * seen by {@link VirtualThreadConfig}: bounded the same way in virtual-thread mode,
+     * returned as they are otherwise
+     */
+    public static DataSource forPool(DataSource pool, Environment environment) {
+        if (!environment.getProperty("threads.virtual.enabled", Boolean.class, false)) {
+            return pool;
+        }
+        int maxPending = environment.getProperty("threads.virtual.max-pending-connections", Integer.class, 200);
+        if (maxPending < 1) {
+            throw new RuntimeException("threads.virtual.max-pending-connections must be at least 1");
+        }
+        return new BoundedDataSource(pool, maxPending);
+    }
+
+    public int getPending() { return pending.get(); }
+
+    public long getRejected() { return rejected.sum(); }
+
+    private void enter() throws SQLException {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new SQLTransientConnectionException("Connection pool busy: " + maxPending + " threads already waiting");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.paymentgateway.common.threads;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier (inside synchronized
+ * or a native frame), from the JDK's own jdk.VirtualThreadPinned events. Each event is
+ * attributed to the first frame outside the JDK. A site's first occurrence is logged with
+ * its stack, then every 1000th; per-site totals are logged on shutdown.
+ */
+public class PinnedThreadMonitor {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        System.out.println("Reporting virtual thread pinning longer than " + threshold.toMillis() + " ms");
+    }
+
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+        if (!sites.isEmpty()) {
+            System.out.println("Virtual thread pinning by site: " + getCounts());
+        }
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        sites.forEach((site, count) -> counts.put(site, count.sum()));
+        return counts;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String site = siteOf(stackTrace);
+        LongAdder count = sites.computeIfAbsent(site, k -> new LongAdder());
+        count.increment();
+        long total = count.sum();
+        if (total == 1 || total % 1000 == 0) {
+            StringBuilder message = new StringBuilder("Virtual thread pinned for ")
+                .append(event.getDuration().toMillis()).append(" ms at ").append(site)
+                .append(" (").append(total).append(" times)");
+            if (total == 1 && stackTrace != null) {
+                int depth = 0;
+                for (RecordedFrame frame : stackTrace.getFrames()) {
+                    if (depth++ == STACK_DEPTH) {
+                        break;
+                    }
+                    message.append("\n    at ").append(format(frame));
+                }
+            }
+            System.out.println(message);
+        }
+    }
+
+    private static String siteOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return format(frame);
+            }
+        }
+        return format(stackTrace.getFrames().get(0));
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+}
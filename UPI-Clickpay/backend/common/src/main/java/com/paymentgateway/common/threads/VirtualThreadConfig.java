@@ -0,0 +1,92 @@
+package com.paymentgateway.common.threads;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual-thread mode for the servlet services, switched on per service with
+ * threads.virtual.enabled=true. Tomcat, @Async and @Scheduled work then run on virtual
+ * threads; connection pools get a cap on waiting threads and pinning is reported. Needs a
+ * Java 21 runtime; startup fails on an older one rather than silently staying on platform threads.
+ *
+ * A virtual thread blocking inside synchronized keeps its carrier, so code that may run here
+ * holds a monitor only around in-memory work. A lock held across JDBC or other blocking I/O
+ * is a ReentrantLock.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+@EnableConfigurationProperties(VirtualThreadProperties.class)
+public class VirtualThreadConfig {
+
+    public VirtualThreadConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new RuntimeException("threads.virtual.enabled needs Java 21 or later, running " + Runtime.version());
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newPerTaskExecutor("tomcat-"));
+    }
+
+    /**
+     * Used for @Async methods and async MVC handlers
+     */
+    @Primary
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newPerTaskExecutor("async-"));
+    }
+
+    /**
+     * Scheduled jobs fire from a small pool of virtual threads, so a job blocked on the
+     * database does not hold a platform thread
+     */
+    @Bean
+    public TaskScheduler taskScheduler() {
+        return new ConcurrentTaskScheduler(Executors.newScheduledThreadPool(4, VirtualThreads.factory("scheduling-")));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public PinnedThreadMonitor pinnedThreadMonitor(VirtualThreadProperties properties) {
+        return new PinnedThreadMonitor(properties.getPinnedThreshold());
+    }
+
+    /**
+     * Bounds the auto-configured pool. Only real pools are wrapped: routing DataSources are
+     * injected by their own type and bound the pools they create themselves (see
+     * {@link BoundedDataSource#forPool}), and a LazyConnectionDataSourceProxy hands out
+     * connections without waiting, so a cap in front of it would never apply.
+     */
+    // Static, and reading the raw property, so it is registered before the DataSource is created
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(
+            @Value("${threads.virtual.max-pending-connections:200}") int maxPendingConnections) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof HikariDataSource) {
+                    return new BoundedDataSource((DataSource) bean, maxPendingConnections);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.paymentgateway.common.threads;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "threads.virtual")
+public class VirtualThreadProperties {
+
+    // Run Tomcat requests, @Async and @Scheduled work on virtual threads (Java 21+ runtime)
+    private boolean enabled = false;
+
+    // Threads allowed inside DataSource.getConnection() at once; beyond this callers fail fast
+    // instead of queueing on the Hikari pool. Matches the 200 Tomcat threads that used to bound it.
+    private int maxPendingConnections = 200;
+
+    // Pinned sections shorter than this are not reported
+    private Duration pinnedThreshold = Duration.ofMillis(20);
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxPendingConnections() { return maxPendingConnections; }
+    public void setMaxPendingConnections(int maxPendingConnections) { this.maxPendingConnections = maxPendingConnections; }
+
+    public Duration getPinnedThreshold() { return pinnedThreshold; }
+    public void setPinnedThreshold(Duration pinnedThreshold) { this.pinnedThreshold = pinnedThreshold; }
+}
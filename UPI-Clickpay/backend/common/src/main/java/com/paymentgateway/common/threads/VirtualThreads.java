@@ -0,0 +1,65 @@
+package com.paymentgateway.common.threads;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads while the build still targets Java 17. The Java 21 API is
+ * looked up reflectively, so the services compile as before and can use virtual threads
+ * when run on a 21+ JVM.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = find(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Factory for virtual threads named prefix0, prefix1, ...
+     */
+    public static ThreadFactory factory(String prefix) {
+        requireSupported();
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("Error creating virtual thread factory", e);
+        }
+    }
+
+    /**
+     * Executor that starts a new virtual thread for every task
+     */
+    public static ExecutorService newPerTaskExecutor(String prefix) {
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory(prefix));
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("Error creating virtual thread executor", e);
+        }
+    }
+
+    private static void requireSupported() {
+        if (!isSupported()) {
+            throw new RuntimeException("Virtual threads need Java 21 or later, running " + Runtime.version());
+        }
+    }
+
+    private static Method find(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.paymentgateway.common.util;
 
+import com.paymentgateway.common.security.JwtPrincipal;
+import com.paymentgateway.common.security.VerifiedTokenCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,16 +24,56 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // Recently verified tokens to keep; 0 disables the cache
+    @Value("${jwt.cache.max-size:0}")
+    private int cacheMaxSize;
+
+    // Built once; both are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
+
+    public JwtUtil() {}
+
+    public JwtUtil(String secret, Long expiration, int cacheMaxSize) {
+        this.secret = secret;
+        this.expiration = expiration;
+        this.cacheMaxSize = cacheMaxSize;
+        init();
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        verifiedTokens = cacheMaxSize > 0 ? new VerifiedTokenCache(cacheMaxSize) : null;
+    }
+
+    /**
+     * Verify signature and expiry and extract all claims in one pass.
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtPrincipal verify(String token) {
+        if (verifiedTokens != null) {
+            JwtPrincipal cached = verifiedTokens.get(token);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        JwtPrincipal principal = JwtPrincipal.from(extractAllClaims(token));
+        if (verifiedTokens != null) {
+            verifiedTokens.put(token, principal);
+        }
+        return principal;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).getUsername();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).getExpiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -38,15 +82,7 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String generateToken(String username, String role, Long userId) {
@@ -57,25 +93,26 @@ public class JwtUtil {
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
+        final JwtPrincipal principal = verify(token);
+        return (principal.getUsername().equals(username) && !principal.isExpired());
     }
 
     public String extractRole(String token) {
-        return extractClaim(token, claims -> claims.get("role", String.class));
+        return verify(token).getRole();
     }
 
     public Long extractUserId(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        return verify(token).getUserId();
     }
-}
\ No newline at end of file
+}
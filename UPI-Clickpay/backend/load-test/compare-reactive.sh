@@ -0,0 +1,46 @@
+#!/bin/sh
+# Compare memory per in-flight payment and maximum throughput of the servlet and the
+# reactive payment-service.
+#
+#   1. Start bank-simulator with SPRING_PROFILES_ACTIVE=slow-banks, api-gateway with
+#      GATEWAY_RATELIMIT_ENABLED=false and payment-service with SPRING_PROFILES_ACTIVE=simulator,
+#      the same -Xmx in both runs.
+#   2. ./compare-reactive.sh servlet
+#   3. Restart payment-service with SPRING_PROFILES_ACTIVE=simulator,reactive.
+#   4. ./compare-reactive.sh reactive
+#
+# Each mode gets two runs under results/reactive/<mode>/: "memory" holds a 300/s plateau and
+# reports the heap per in-flight request; "throughput" ramps far past saturation and holds,
+# so its create OK/s is the most the stack sustains. Once both modes exist their rows are
+# printed side by side.
+set -e
+cd "$(dirname "$0")"
+
+mode="$1"
+if [ "$mode" != "servlet" ] && [ "$mode" != "reactive" ]; then
+    echo "usage: $0 servlet|reactive" >&2
+    exit 2
+fi
+
+JAVA_OPTS="$JAVA_OPTS -Dloadtest.results-dir=results/reactive/$mode/memory" \
+    ./run-load-test.sh reactive.properties || true
+
+JAVA_OPTS="$JAVA_OPTS -Dloadtest.results-dir=results/reactive/$mode/throughput \
+    -Dloadtest.profile=100-3000:120s,3000:120s -Dloadtest.warmup=150s -Dloadtest.max-polls=5" \
+    ./run-load-test.sh reactive.properties || true
+
+latest() {
+    ls -1d results/reactive/"$1"/"$2"/*/ 2>/dev/null | sort | tail -n 1
+}
+
+for run in memory throughput; do
+    servlet=$(latest servlet $run)
+    reactive=$(latest reactive $run)
+    if [ -n "$servlet" ] && [ -n "$reactive" ]; then
+        for dir in "$servlet" "$reactive"; do
+            echo
+            echo "== $dir"
+            grep -E '^\| (Endpoint|Idle heap|create_|[0-9.]+ \|)' "$dir/report.md"
+        done
+    fi
+done
@@ -0,0 +1,36 @@
+#!/bin/sh
+# Compare payment-service throughput on platform and virtual threads with slow banks.
+#
+#   1. Start bank-simulator with SPRING_PROFILES_ACTIVE=slow-banks and payment-service on
+#      the "simulator" profile under a Java 21 JVM with VIRTUAL_THREADS_ENABLED=false.
+#   2. ./compare-virtual-threads.sh platform
+#   3. Restart payment-service with VIRTUAL_THREADS_ENABLED=true.
+#   4. ./compare-virtual-threads.sh virtual
+#
+# Each run lands in results/virtual-threads/<mode>/; once both exist the create rows of
+# the latest report of each are printed side by side.
+set -e
+cd "$(dirname "$0")"
+
+mode="$1"
+if [ "$mode" != "platform" ] && [ "$mode" != "virtual" ]; then
+    echo "usage: $0 platform|virtual" >&2
+    exit 2
+fi
+
+JAVA_OPTS="$JAVA_OPTS -Dloadtest.results-dir=results/virtual-threads/$mode" \
+    ./run-load-test.sh virtual-threads.properties || true
+
+latest() {
+    ls -1d results/virtual-threads/"$1"/*/ 2>/dev/null | sort | tail -n 1
+}
+
+platform=$(latest platform)
+virtual=$(latest virtual)
+if [ -n "$platform" ] && [ -n "$virtual" ]; then
+    for run in "$platform" "$virtual"; do
+        echo
+        echo "== $run"
+        grep -E '^\| (Endpoint|create_|status|completion)' "$run/report.md"
+    done
+fi
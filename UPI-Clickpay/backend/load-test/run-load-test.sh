@@ -0,0 +1,7 @@
+#!/bin/sh
+# Drive the payment flow through api-gateway and write the SLO report to load-test/results/.
+# Expects the stack from docker-compose plus bank-simulator, with payment-service on the
+# "simulator" profile. Pass a properties file to override loadtest.properties.
+set -e
+cd "$(dirname "$0")"
+exec java -XX:+UseParallelGC -Xms2g -Xmx2g $JAVA_OPTS -jar target/load-test.jar "$@"
@@ -0,0 +1,90 @@
+package com.paymentgateway.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts for one endpoint. Response time is measured from when the
+ * request was meant to start under the arrival schedule, so a stalled system is charged
+ * for every request it delayed (coordinated omission corrected); service time is from
+ * when it was actually sent. Values are in microseconds.
+ */
+public class EndpointStats {
+
+    public enum Outcome { OK, ERROR, RATE_LIMITED, TIMEOUT }
+
+    private final String name;
+    private final Recorder responseRecorder = new Recorder(3);
+    private final Recorder serviceRecorder = new Recorder(3);
+    private final Histogram responseTotal = new Histogram(3);
+    private final Histogram serviceTotal = new Histogram(3);
+    private Histogram responseInterval;
+    private Histogram serviceInterval;
+
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    // Requests meant to start before this (the warmup) are not recorded
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public void record(long intendedNanos, long sentNanos, long doneNanos, Outcome outcome) {
+        if (intendedNanos < measureFromNanos) {
+            return;
+        }
+        switch (outcome) {
+            case OK:
+                ok.increment();
+                break;
+            case RATE_LIMITED:
+                rateLimited.increment();
+                break;
+            case TIMEOUT:
+                timeouts.increment();
+                break;
+            default:
+                errors.increment();
+        }
+        responseRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, doneNanos - intendedNanos)));
+        serviceRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, doneNanos - sentNanos)));
+    }
+
+    /**
+     * Move what was recorded since the last call into the totals
+     * @return response times recorded since the last call
+     */
+    public synchronized Histogram harvest() {
+        responseInterval = responseRecorder.getIntervalHistogram(responseInterval);
+        serviceInterval = serviceRecorder.getIntervalHistogram(serviceInterval);
+        responseTotal.add(responseInterval);
+        serviceTotal.add(serviceInterval);
+        return responseInterval;
+    }
+
+    public void setMeasureFromNanos(long measureFromNanos) { this.measureFromNanos = measureFromNanos; }
+
+    public String getName() { return name; }
+    public Histogram getResponseTotal() { return responseTotal; }
+    public Histogram getServiceTotal() { return serviceTotal; }
+    public long getOk() { return ok.sum(); }
+    public long getErrors() { return errors.sum(); }
+    public long getRateLimited() { return rateLimited.sum(); }
+    public long getTimeouts() { return timeouts.sum(); }
+
+    public long getTotal() {
+        return getOk() + getErrors() + getRateLimited() + getTimeouts();
+    }
+
+    public double getErrorRate() {
+        long total = getTotal();
+        return total == 0 ? 0 : (double) (total - getOk()) / total;
+    }
+}
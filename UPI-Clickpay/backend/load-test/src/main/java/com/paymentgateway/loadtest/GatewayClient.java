@@ -0,0 +1,153 @@
+package com.paymentgateway.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking calls to api-gateway that record their latency and outcome
+ */
+public class GatewayClient {
+
+    /**
+     * Outcome of one call; body is the parsed JSON of a 2xx response, otherwise null
+     */
+    public static class Result {
+        private final EndpointStats.Outcome outcome;
+        private final int status;
+        private final JsonNode body;
+
+        Result(EndpointStats.Outcome outcome, int status, JsonNode body) {
+            this.outcome = outcome;
+            this.status = status;
+            this.body = body;
+        }
+
+        public boolean isOk() { return outcome == EndpointStats.Outcome.OK; }
+        public EndpointStats.Outcome getOutcome() { return outcome; }
+        public int getStatus() { return status; }
+        public JsonNode getBody() { return body; }
+
+        // ApiResponse.data
+        public JsonNode data() {
+            return body != null ? body.path("data") : null;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http;
+    private final ExecutorService executor;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    public GatewayClient(String baseUrl, int threads, Duration timeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "load-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    }
+
+    public CompletableFuture<Result> post(EndpointStats stats, long intendedNanos, String path, String token, Object body) {
+        return send(stats, intendedNanos, request(path, token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json(body)))
+            .build());
+    }
+
+    public CompletableFuture<Result> get(EndpointStats stats, long intendedNanos, String path, String token) {
+        return send(stats, intendedNanos, request(path, token).GET().build());
+    }
+
+    /**
+     * Unrecorded blocking POST, for setting up merchants before the run
+     */
+    public Result postNow(String path, Object body) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(request(path, null)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json(body)))
+            .build(), HttpResponse.BodyHandlers.ofByteArray());
+        return toResult(response);
+    }
+
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Result> send(EndpointStats stats, long intendedNanos, HttpRequest request) {
+        long sentNanos = System.nanoTime();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).handle((response, error) -> {
+            long doneNanos = System.nanoTime();
+            Result result;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                result = new Result(cause instanceof HttpTimeoutException
+                    ? EndpointStats.Outcome.TIMEOUT : EndpointStats.Outcome.ERROR, 0, null);
+            } else {
+                result = toResult(response);
+            }
+            stats.record(intendedNanos, sentNanos, doneNanos, result.getOutcome());
+            return result;
+        });
+    }
+
+    private Result toResult(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status == 429) {
+            return new Result(EndpointStats.Outcome.RATE_LIMITED, status, null);
+        }
+        if (status < 200 || status >= 300) {
+            return new Result(EndpointStats.Outcome.ERROR, status, parse(response.body()));
+        }
+        JsonNode body = parse(response.body());
+        // Services answer 200 with success=false for some failures
+        boolean success = body != null && body.path("success").asBoolean(true);
+        return new Result(success ? EndpointStats.Outcome.OK : EndpointStats.Outcome.ERROR, status, body);
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body == null || body.length == 0) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing request", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.paymentgateway.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load test of the payment flow through api-gateway. New checkouts arrive on
+ * a schedule set by the rate profile, whether or not earlier ones have finished, so a
+ * slow system faces a growing backlog as it would in production instead of slowing the
+ * generator down. Exits non-zero when an SLO is missed.
+ */
+public class LoadTest {
+
+    private static final long IDLE_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load(args);
+        RateProfile profile = config.getProfile();
+        GatewayClient client = new GatewayClient(config.getGatewayUrl(), config.getHttpThreads(), config.getRequestTimeout());
+
+        System.out.println("Preparing " + config.getMerchants() + " merchants against " + config.getGatewayUrl());
+        List<String> tokens = Merchants.prepare(client, config);
+        PaymentFlow flow = new PaymentFlow(config, client, tokens);
+
+        ServiceSampler sampler = null;
+        long idleFromNanos = System.nanoTime();
+        if (config.getSampleServiceUrl() != null) {
+            System.out.println("Sampling " + config.getSampleServiceUrl() + " idle for " + config.getSampleIdle().getSeconds() + "s");
+            sampler = new ServiceSampler(config.getSampleServiceUrl(), config.getSampleInterval());
+            sampler.start();
+            Thread.sleep(config.getSampleIdle().toMillis());
+        }
+
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + config.getWarmup().toNanos();
+        flow.setMeasureFromNanos(measureFromNanos);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "load-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long reportMillis = config.getReportInterval().toMillis();
+        reporter.scheduleAtFixedRate(() -> progress(flow, startNanos, reportMillis), reportMillis, reportMillis,
+            TimeUnit.MILLISECONDS);
+
+        System.out.println("Running " + profile + " (" + (config.isPoissonArrivals() ? "poisson" : "uniform")
+            + " arrivals, warmup " + config.getWarmup().getSeconds() + "s)");
+        generateArrivals(flow, profile, startNanos, config.isPoissonArrivals());
+        long endNanos = System.nanoTime();
+        ServiceSampler.Resources resources = null;
+        if (sampler != null) {
+            sampler.stop();
+            resources = sampler.resources(idleFromNanos, startNanos, measureFromNanos, endNanos);
+        }
+
+        // Let started checkouts finish their polls and refunds
+        long drainDeadline = endNanos + config.getPollInterval().toNanos() * (config.getMaxPolls() + 1)
+            + config.getRequestTimeout().toNanos() * 2;
+        while (flow.getInFlight() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(200);
+        }
+        if (flow.getInFlight() > 0) {
+            System.out.println(flow.getInFlight() + " checkouts still in flight after draining; not counted");
+        }
+        reporter.shutdownNow();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+        for (EndpointStats stats : flow.getStats()) {
+            stats.harvest();
+        }
+
+        double measuredSeconds = Math.max(1e-9, (endNanos - Math.min(measureFromNanos, endNanos)) / 1e9);
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path dir = Path.of(config.getResultsDir(), runId);
+        boolean passed = new SloReport(config, flow, profile.toString(), measuredSeconds, resources).write(dir);
+        System.out.println("Report written to " + dir.toAbsolutePath());
+
+        flow.close();
+        client.close();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Start checkouts at the profile's rate until it ends. Each one is stamped with the time
+     * it was due, so if this thread falls behind the lateness shows up in the latencies.
+     */
+    private static void generateArrivals(PaymentFlow flow, RateProfile profile, long startNanos, boolean poisson) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long nextNanos = startNanos;
+        while (nextNanos - startNanos < profile.getDurationNanos()) {
+            double rate = profile.rateAt(nextNanos - startNanos);
+            if (rate <= 0) {
+                nextNanos += IDLE_STEP_NANOS;
+                continue;
+            }
+            long now;
+            while ((now = System.nanoTime()) < nextNanos) {
+                LockSupport.parkNanos(nextNanos - now);
+            }
+            flow.start(nextNanos);
+            double gapSeconds = poisson ? -Math.log(1.0 - random.nextDouble()) / rate : 1.0 / rate;
+            nextNanos += (long) (gapSeconds * 1_000_000_000L);
+        }
+    }
+
+    private static void progress(PaymentFlow flow, long startNanos, long intervalMillis) {
+        StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "t=%4ds in-flight=%d",
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos), flow.getInFlight()));
+        for (EndpointStats stats : flow.getStats()) {
+            Histogram interval = stats.harvest();
+            if (interval.getTotalCount() > 0) {
+                line.append(String.format(Locale.ROOT, " | %s %.0f/s p50=%.1fms p99=%.1fms", stats.getName(),
+                    interval.getTotalCount() * 1000.0 / intervalMillis,
+                    interval.getValueAtPercentile(50.0) / 1000.0,
+                    interval.getValueAtPercentile(99.0) / 1000.0));
+            }
+        }
+        System.out.println(line);
+    }
+}
@@ -0,0 +1,136 @@
+package com.paymentgateway.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Settings from loadtest.properties on the classpath, then an optional file given as the
+ * first argument, then -Dloadtest.<key> system properties.
+ */
+public class LoadTestConfig {
+
+    private static final String SYSTEM_PREFIX = "loadtest.";
+
+    private final Properties properties;
+
+    private LoadTestConfig(Properties properties) {
+        this.properties = properties;
+    }
+
+    public static LoadTestConfig load(String[] args) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            properties.load(in);
+        }
+        if (args.length > 0) {
+            try (Reader reader = Files.newBufferedReader(Path.of(args[0]))) {
+                properties.load(reader);
+            }
+        }
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(SYSTEM_PREFIX)) {
+                properties.setProperty(name.substring(SYSTEM_PREFIX.length()), System.getProperty(name));
+            }
+        }
+        return new LoadTestConfig(properties);
+    }
+
+    public String getGatewayUrl() { return require("gateway-url"); }
+    public int getMerchants() { return Integer.parseInt(require("merchants")); }
+    public String getMerchantPrefix() { return require("merchant-prefix"); }
+    public String getMerchantPassword() { return require("merchant-password"); }
+    public RateProfile getProfile() { return RateProfile.parse(require("profile")); }
+    public boolean isPoissonArrivals() { return "poisson".equalsIgnoreCase(require("arrivals")); }
+    public Duration getWarmup() { return duration("warmup"); }
+    public String getAmountMin() { return require("amount-min"); }
+    public String getAmountMax() { return require("amount-max"); }
+    public Duration getPollInterval() { return duration("poll-interval"); }
+    public int getMaxPolls() { return Integer.parseInt(require("max-polls")); }
+    public double getRefundRatio() { return Double.parseDouble(require("refund-ratio")); }
+    public int getHttpThreads() { return Integer.parseInt(require("http-threads")); }
+    public Duration getRequestTimeout() { return duration("request-timeout"); }
+    public int getMaxInFlight() { return Integer.parseInt(require("max-in-flight")); }
+    public Duration getReportInterval() { return duration("report-interval"); }
+    public String getResultsDir() { return require("results-dir"); }
+    public Duration getSampleInterval() { return duration("sample.interval"); }
+    public Duration getSampleIdle() { return duration("sample.idle"); }
+
+    /**
+     * Service whose actuator is sampled for heap and threads, or null when not sampling
+     */
+    public String getSampleServiceUrl() {
+        String value = properties.getProperty("sample.service-url");
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    /**
+     * Payment method to relative weight, from method-weight.<METHOD> entries
+     */
+    public Map<String, Integer> getMethodWeights() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("method-weight.")) {
+                int weight = Integer.parseInt(properties.getProperty(name).trim());
+                if (weight > 0) {
+                    weights.put(name.substring("method-weight.".length()), weight);
+                }
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("At least one method-weight.<METHOD> must be positive");
+        }
+        return weights;
+    }
+
+    /**
+     * Latency SLO in ms for an endpoint and percentile key (p50, p99, p999), or null if unset
+     */
+    public Double getSlo(String endpoint, String percentile) {
+        String value = properties.getProperty("slo." + endpoint + "." + percentile);
+        return value != null ? Double.valueOf(value.trim()) : null;
+    }
+
+    public double getMaxErrorRate() {
+        return Double.parseDouble(properties.getProperty("slo.error-rate", "1").trim());
+    }
+
+    private String require(String key) {
+        String value = properties.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing load test setting: " + key);
+        }
+        return value.trim();
+    }
+
+    private Duration duration(String key) {
+        return parseDuration(require(key));
+    }
+
+    /**
+     * "250ms", "30s", "5m" or "1h"
+     */
+    static Duration parseDuration(String text) {
+        String value = text.trim().toLowerCase();
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return Duration.ofSeconds(amount);
+            case 'm':
+                return Duration.ofMinutes(amount);
+            case 'h':
+                return Duration.ofHours(amount);
+            default:
+                throw new IllegalArgumentException("Invalid duration: " + text);
+        }
+    }
+}
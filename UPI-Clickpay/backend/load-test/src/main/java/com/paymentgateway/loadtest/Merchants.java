@@ -0,0 +1,69 @@
+package com.paymentgateway.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Signs up (or logs in, on later runs) the merchant accounts the load is spread over.
+ * Runs before the clock starts, so auth-service's bcrypt cost is not part of the results.
+ */
+public class Merchants {
+
+    private static final int MAX_ATTEMPTS = 5;
+
+    private Merchants() {
+    }
+
+    /**
+     * @return one bearer token per merchant
+     */
+    public static List<String> prepare(GatewayClient client, LoadTestConfig config) throws Exception {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < config.getMerchants(); i++) {
+            String username = config.getMerchantPrefix() + "-" + i;
+            String token = signUp(client, username, config.getMerchantPassword());
+            if (token == null) {
+                token = logIn(client, username, config.getMerchantPassword());
+            }
+            if (token == null) {
+                throw new IllegalStateException("Could not sign up or log in merchant " + username);
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private static String signUp(GatewayClient client, String username, String password) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("email", username + "@loadtest.local");
+        body.put("password", password);
+        body.put("role", "MERCHANT");
+        return token(client, "/api/auth/signup", body);
+    }
+
+    private static String logIn(GatewayClient client, String username, String password) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("password", password);
+        return token(client, "/api/auth/login", body);
+    }
+
+    // null when the call is rejected (e.g. signup for an existing username)
+    private static String token(GatewayClient client, String path, Map<String, Object> body) throws Exception {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            GatewayClient.Result result = client.postNow(path, body);
+            if (result.isOk()) {
+                return result.data().path("token").asText(null);
+            }
+            if (result.getStatus() != 429 && result.getStatus() != 503) {
+                return null;
+            }
+            // Admission control or bcrypt pool saturated; back off and retry
+            Thread.sleep(1000L * attempt);
+        }
+        return null;
+    }
+}
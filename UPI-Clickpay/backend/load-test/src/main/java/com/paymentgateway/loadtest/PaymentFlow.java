@@ -0,0 +1,244 @@
+package com.paymentgateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One checkout per arrival: a merchant creates a payment, the customer's checkout page
+ * polls its status until the bank's webhook completes it, and a share of successful
+ * payments is then refunded. Every step is asynchronous; polls are scheduled at fixed
+ * offsets from the create response and measured from those times.
+ */
+public class PaymentFlow {
+
+    public static final String STATUS = "status";
+    public static final String REFUND = "refund";
+    public static final String COMPLETION = "completion";
+
+    private final GatewayClient client;
+    private final List<String> merchantTokens;
+
+    private final String[] methods;
+    private final int[] cumulativeWeights;
+    private final long amountMinPaise;
+    private final long amountMaxPaise;
+    private final long pollIntervalNanos;
+    private final int maxPolls;
+    private final double refundRatio;
+    private final int maxInFlight;
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final Map<String, LongAdder> finalStatuses = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder skipped = new LongAdder();
+    private final ScheduledExecutorService poller = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "load-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Journeys started before this are run but their final status is not counted
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+
+    public PaymentFlow(LoadTestConfig config, GatewayClient client, List<String> merchantTokens) {
+        this.client = client;
+        this.merchantTokens = merchantTokens;
+
+        Map<String, Integer> weights = config.getMethodWeights();
+        this.methods = new String[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            methods[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            stats.put(createEndpoint(entry.getKey()), new EndpointStats(createEndpoint(entry.getKey())));
+            i++;
+        }
+        stats.put(STATUS, new EndpointStats(STATUS));
+        stats.put(REFUND, new EndpointStats(REFUND));
+        stats.put(COMPLETION, new EndpointStats(COMPLETION));
+
+        this.amountMinPaise = toPaise(config.getAmountMin());
+        this.amountMaxPaise = Math.max(amountMinPaise, toPaise(config.getAmountMax()));
+        this.pollIntervalNanos = config.getPollInterval().toNanos();
+        this.maxPolls = config.getMaxPolls();
+        this.refundRatio = config.getRefundRatio();
+        this.maxInFlight = config.getMaxInFlight();
+    }
+
+    /**
+     * Start one checkout whose create call was due at intendedNanos
+     */
+    public void start(long intendedNanos) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (intendedNanos >= measureFromNanos) {
+                skipped.increment();
+            }
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String token = merchantTokens.get(random.nextInt(merchantTokens.size()));
+        String method = pickMethod(random);
+        long amountPaise = random.nextLong(amountMinPaise, amountMaxPaise + 1);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("amount", formatPaise(amountPaise));
+        body.put("currency", "INR");
+        body.put("paymentMethod", method);
+        if ("UPI_ID".equals(method)) {
+            body.put("upiId", "loadtest" + random.nextInt(100000) + "@upi");
+        }
+        body.put("description", "Load test checkout");
+
+        client.post(stats.get(createEndpoint(method)), intendedNanos, "/api/payments/create", token, body)
+            .whenComplete((result, error) -> {
+                JsonNode data = result != null && result.isOk() ? result.data() : null;
+                String transactionId = data != null ? data.path("transactionId").asText(null) : null;
+                if (transactionId == null) {
+                    finish();
+                    return;
+                }
+                Checkout checkout = new Checkout(token, transactionId, amountPaise, intendedNanos, System.nanoTime());
+                schedulePoll(checkout, 1);
+            });
+    }
+
+    public void setMeasureFromNanos(long measureFromNanos) {
+        this.measureFromNanos = measureFromNanos;
+        for (EndpointStats endpoint : stats.values()) {
+            endpoint.setMeasureFromNanos(measureFromNanos);
+        }
+    }
+
+    public Collection<EndpointStats> getStats() { return stats.values(); }
+    public Map<String, LongAdder> getFinalStatuses() { return finalStatuses; }
+    public int getInFlight() { return inFlight.get(); }
+    public long getSkipped() { return skipped.sum(); }
+
+    public void close() {
+        poller.shutdownNow();
+    }
+
+    private void schedulePoll(Checkout checkout, int attempt) {
+        long intendedNanos = checkout.createdNanos + attempt * pollIntervalNanos;
+        poller.schedule(() -> poll(checkout, attempt, intendedNanos),
+            intendedNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private void poll(Checkout checkout, int attempt, long intendedNanos) {
+        // The checkout page is public, so polls go out without the merchant's token
+        client.get(stats.get(STATUS), intendedNanos, "/api/payments/status/" + checkout.transactionId, null)
+            .whenComplete((result, error) -> {
+                String status = result != null && result.isOk() ? result.data().path("status").asText(null) : null;
+                if ("PENDING".equals(status)) {
+                    if (attempt < maxPolls) {
+                        schedulePoll(checkout, attempt + 1);
+                    } else {
+                        complete(checkout, "PENDING_AFTER_" + maxPolls + "_POLLS", false);
+                        finish();
+                    }
+                    return;
+                }
+                if (status == null) {
+                    // Failed poll; the next one may still see the outcome
+                    if (attempt < maxPolls) {
+                        schedulePoll(checkout, attempt + 1);
+                    } else {
+                        complete(checkout, "POLL_FAILED", false);
+                        finish();
+                    }
+                    return;
+                }
+                boolean settled = "SUCCESS".equals(status) || "FAILED".equals(status);
+                complete(checkout, status, settled);
+                if ("SUCCESS".equals(status) && ThreadLocalRandom.current().nextDouble() < refundRatio) {
+                    refund(checkout, intendedNanos);
+                } else {
+                    finish();
+                }
+            });
+    }
+
+    /**
+     * Refund issued by the poll that saw SUCCESS, so it is due at that poll's scheduled time;
+     * a slow status answer delays the refund and counts against it, as for the polls themselves.
+     */
+    private void refund(Checkout checkout, long intendedNanos) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("amount", formatPaise(Math.max(1, checkout.amountPaise / 2)));
+        body.put("reason", "Load test refund");
+        client.post(stats.get(REFUND), intendedNanos, "/api/payments/" + checkout.transactionId + "/refund",
+                checkout.token, body)
+            .whenComplete((result, error) -> finish());
+    }
+
+    /**
+     * Record the time from the create's intended start to the first poll that saw the final
+     * status. Resolution is one poll interval; EXPIRED and never-settled payments count as errors.
+     */
+    private void complete(Checkout checkout, String finalStatus, boolean settled) {
+        stats.get(COMPLETION).record(checkout.intendedNanos, checkout.createdNanos, System.nanoTime(),
+            settled ? EndpointStats.Outcome.OK : EndpointStats.Outcome.ERROR);
+        if (checkout.intendedNanos >= measureFromNanos) {
+            finalStatuses.computeIfAbsent(finalStatus, k -> new LongAdder()).increment();
+        }
+    }
+
+    private void finish() {
+        inFlight.decrementAndGet();
+    }
+
+    private String pickMethod(ThreadLocalRandom random) {
+        int roll = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return methods[i];
+            }
+        }
+        return methods[methods.length - 1];
+    }
+
+    static String createEndpoint(String method) {
+        return "create_" + method.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toPaise(String amount) {
+        return new BigDecimal(amount).movePointRight(2).longValueExact();
+    }
+
+    private static String formatPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2).toPlainString();
+    }
+
+    private static final class Checkout {
+        final String token;
+        final String transactionId;
+        final long amountPaise;
+        final long intendedNanos;
+        final long createdNanos;
+
+        Checkout(String token, String transactionId, long amountPaise, long intendedNanos, long createdNanos) {
+            this.token = token;
+            this.transactionId = transactionId;
+            this.amountPaise = amountPaise;
+            this.intendedNanos = intendedNanos;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.paymentgateway.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Target arrival rate over time: constant stages ("200:120s") and linear ramps
+ * ("10-200:60s"), run back to back.
+ */
+public class RateProfile {
+
+    private final double[] fromRates;
+    private final double[] toRates;
+    private final long[] startNanos;
+    private final long[] lengthNanos;
+    private final long durationNanos;
+
+    private RateProfile(double[] fromRates, double[] toRates, long[] lengthNanos) {
+        this.fromRates = fromRates;
+        this.toRates = toRates;
+        this.lengthNanos = lengthNanos;
+        this.startNanos = new long[lengthNanos.length];
+        long total = 0;
+        for (int i = 0; i < lengthNanos.length; i++) {
+            startNanos[i] = total;
+            total += lengthNanos[i];
+        }
+        this.durationNanos = total;
+    }
+
+    public static RateProfile parse(String spec) {
+        List<String> stages = new ArrayList<>();
+        for (String stage : spec.split(",")) {
+            if (!stage.isBlank()) {
+                stages.add(stage.trim());
+            }
+        }
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Empty load profile");
+        }
+        double[] from = new double[stages.size()];
+        double[] to = new double[stages.size()];
+        long[] length = new long[stages.size()];
+        for (int i = 0; i < stages.size(); i++) {
+            String stage = stages.get(i);
+            int colon = stage.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Stage needs <rate>:<duration>: " + stage);
+            }
+            String rates = stage.substring(0, colon).trim();
+            int dash = rates.indexOf('-');
+            from[i] = Double.parseDouble(dash < 0 ? rates : rates.substring(0, dash));
+            to[i] = dash < 0 ? from[i] : Double.parseDouble(rates.substring(dash + 1));
+            length[i] = LoadTestConfig.parseDuration(stage.substring(colon + 1)).toNanos();
+            if (from[i] < 0 || to[i] < 0 || length[i] <= 0) {
+                throw new IllegalArgumentException("Invalid stage: " + stage);
+            }
+        }
+        return new RateProfile(from, to, length);
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Arrivals per second at the given time since the start; 0 once the profile is over
+     */
+    public double rateAt(long elapsedNanos) {
+        for (int i = startNanos.length - 1; i >= 0; i--) {
+            if (elapsedNanos >= startNanos[i]) {
+                if (elapsedNanos >= startNanos[i] + lengthNanos[i]) {
+                    return 0;
+                }
+                double progress = (double) (elapsedNanos - startNanos[i]) / lengthNanos[i];
+                return fromRates[i] + (toRates[i] - fromRates[i]) * progress;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < lengthNanos.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(fromRates[i] == toRates[i] ? fmt(fromRates[i]) : fmt(fromRates[i]) + "->" + fmt(toRates[i]))
+                .append("/s for ").append(fmt(lengthNanos[i] / 1e9)).append('s');
+        }
+        return out.toString();
+    }
+
+    private static String fmt(double rate) {
+        return rate == Math.rint(rate) ? String.valueOf((long) rate) : String.valueOf(rate);
+    }
+}
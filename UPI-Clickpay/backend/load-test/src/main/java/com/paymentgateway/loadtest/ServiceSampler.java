@@ -0,0 +1,140 @@
+package com.paymentgateway.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples one service's heap and live thread count from its actuator while the load runs.
+ * Heap is taken as troughs: the lowest jvm.memory.used of each few-second window, which is
+ * what survived the last young collection. That follows the state retained by in-flight
+ * requests rather than how fast garbage is produced. Thread stacks live outside the heap,
+ * so the thread count is reported beside it.
+ */
+public class ServiceSampler {
+
+    private static final int TROUGH_WINDOW_SAMPLES = 5;
+
+    /**
+     * Heap troughs and threads while idle and under load
+     */
+    public static class Resources {
+        private final double idleHeapMb;
+        private final double loadedHeapMb;
+        private final int idleThreads;
+        private final int loadedThreads;
+
+        Resources(double idleHeapMb, double loadedHeapMb, int idleThreads, int loadedThreads) {
+            this.idleHeapMb = idleHeapMb;
+            this.loadedHeapMb = loadedHeapMb;
+            this.idleThreads = idleThreads;
+            this.loadedThreads = loadedThreads;
+        }
+
+        public double getIdleHeapMb() { return idleHeapMb; }
+        public double getLoadedHeapMb() { return loadedHeapMb; }
+        public int getIdleThreads() { return idleThreads; }
+        public int getLoadedThreads() { return loadedThreads; }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final String baseUrl;
+    private final Duration interval;
+    private final List<long[]> samples = Collections.synchronizedList(new ArrayList<>());
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ServiceSampler(String serviceUrl, Duration interval) {
+        this.baseUrl = serviceUrl.endsWith("/") ? serviceUrl.substring(0, serviceUrl.length() - 1) : serviceUrl;
+        this.interval = interval;
+    }
+
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Median heap trough and highest thread count in the idle window and in the loaded one
+     */
+    public Resources resources(long idleFromNanos, long idleToNanos, long loadedFromNanos, long loadedToNanos) {
+        List<long[]> idle = between(idleFromNanos, idleToNanos);
+        List<long[]> loaded = between(loadedFromNanos, loadedToNanos);
+        return new Resources(medianTroughMb(idle), medianTroughMb(loaded), maxThreads(idle), maxThreads(loaded));
+    }
+
+    private void sample() {
+        try {
+            long heap = (long) metric("jvm.memory.used?tag=area:heap");
+            long threads = (long) metric("jvm.threads.live");
+            samples.add(new long[] { System.nanoTime(), heap, threads });
+        } catch (Exception e) {
+            System.out.println("Sampling " + baseUrl + " failed: " + e.getMessage());
+        }
+    }
+
+    private double metric(String name) throws Exception {
+        HttpResponse<byte[]> response = http.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name)).timeout(interval).GET().build(),
+            HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new RuntimeException("HTTP " + response.statusCode() + " for " + name);
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.path("measurements").path(0).path("value").asDouble();
+    }
+
+    private List<long[]> between(long fromNanos, long toNanos) {
+        List<long[]> window = new ArrayList<>();
+        synchronized (samples) {
+            for (long[] sample : samples) {
+                if (sample[0] >= fromNanos && sample[0] < toNanos) {
+                    window.add(sample);
+                }
+            }
+        }
+        return window;
+    }
+
+    private static double medianTroughMb(List<long[]> window) {
+        List<Long> troughs = new ArrayList<>();
+        for (int i = 0; i < window.size(); i += TROUGH_WINDOW_SAMPLES) {
+            long min = Long.MAX_VALUE;
+            for (int j = i; j < Math.min(i + TROUGH_WINDOW_SAMPLES, window.size()); j++) {
+                min = Math.min(min, window.get(j)[1]);
+            }
+            troughs.add(min);
+        }
+        if (troughs.isEmpty()) {
+            return 0;
+        }
+        Collections.sort(troughs);
+        return troughs.get(troughs.size() / 2) / (1024.0 * 1024.0);
+    }
+
+    private static int maxThreads(List<long[]> window) {
+        long max = 0;
+        for (long[] sample : window) {
+            max = Math.max(max, sample[2]);
+        }
+        return (int) max;
+    }
+}
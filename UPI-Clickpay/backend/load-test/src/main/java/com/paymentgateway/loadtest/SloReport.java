@@ -0,0 +1,201 @@
+package com.paymentgateway.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-of-run report: throughput and coordinated-omission-corrected p50/p99/p999 per
+ * endpoint against the configured SLOs. Written as report.md, summary.json and one
+ * HdrHistogram percentile distribution (.hgrm, in ms) per endpoint. With a sampled service,
+ * also its heap and threads under load and the heap each in-flight request costs.
+ */
+public class SloReport {
+
+    private static final String[] PERCENTILE_KEYS = { "p50", "p99", "p999" };
+    private static final double[] PERCENTILES = { 50.0, 99.0, 99.9 };
+
+    private final LoadTestConfig config;
+    private final PaymentFlow flow;
+    private final String profile;
+    private final double measuredSeconds;
+    private final ServiceSampler.Resources resources;
+    private final List<String> failures = new ArrayList<>();
+
+    /**
+     * @param resources samples of the service under test, or null if none was sampled
+     */
+    public SloReport(LoadTestConfig config, PaymentFlow flow, String profile, double measuredSeconds,
+                     ServiceSampler.Resources resources) {
+        this.config = config;
+        this.flow = flow;
+        this.profile = profile;
+        this.measuredSeconds = measuredSeconds;
+        this.resources = resources;
+    }
+
+    /**
+     * Write the report files into dir
+     * @return true if every configured SLO was met
+     */
+    public boolean write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        failures.clear();
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("profile", profile);
+        summary.put("measuredSeconds", round(measuredSeconds));
+        summary.put("skippedCheckouts", flow.getSkipped());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+
+        StringBuilder md = new StringBuilder();
+        md.append("# Payment flow load test\n\n")
+            .append("Profile: ").append(profile).append("  \n")
+            .append("Measured: ").append(round(measuredSeconds)).append(" s after warmup  \n")
+            .append("Latency is measured from each request's scheduled start (coordinated omission corrected).\n\n")
+            .append("| Endpoint | Requests | OK/s | Errors | 429 | Timeouts | p50 ms | p99 ms | p99.9 ms | Max ms | SLO |\n")
+            .append("|---|---:|---:|---:|---:|---:|---:|---:|---:|---:|---|\n");
+
+        for (EndpointStats stats : flow.getStats()) {
+            Histogram histogram = stats.getResponseTotal();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", stats.getTotal());
+            entry.put("ok", stats.getOk());
+            entry.put("errors", stats.getErrors());
+            entry.put("rateLimited", stats.getRateLimited());
+            entry.put("timeouts", stats.getTimeouts());
+            entry.put("okPerSecond", round(stats.getOk() / measuredSeconds));
+            entry.put("errorRate", stats.getErrorRate());
+
+            List<String> verdicts = new ArrayList<>();
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                double actual = millis(histogram, PERCENTILES[i]);
+                entry.put(PERCENTILE_KEYS[i] + "Ms", round(actual));
+                entry.put("service" + PERCENTILE_KEYS[i].toUpperCase(Locale.ROOT) + "Ms",
+                    round(millis(stats.getServiceTotal(), PERCENTILES[i])));
+                Double target = config.getSlo(stats.getName(), PERCENTILE_KEYS[i]);
+                if (target != null) {
+                    entry.put(PERCENTILE_KEYS[i] + "SloMs", target);
+                    if (stats.getTotal() > 0 && actual > target) {
+                        verdicts.add(PERCENTILE_KEYS[i] + " " + round(actual) + " > " + fmt(target));
+                    }
+                }
+            }
+            entry.put("maxMs", round(histogram.getMaxValue() / 1000.0));
+            if (stats.getErrorRate() > config.getMaxErrorRate()) {
+                verdicts.add("error rate " + fmt(stats.getErrorRate()) + " > " + fmt(config.getMaxErrorRate()));
+            }
+            boolean passed = verdicts.isEmpty();
+            entry.put("sloMet", passed);
+            endpoints.put(stats.getName(), entry);
+            for (String verdict : verdicts) {
+                failures.add(stats.getName() + ": " + verdict);
+            }
+
+            md.append("| ").append(stats.getName())
+                .append(" | ").append(stats.getTotal())
+                .append(" | ").append(fmt(stats.getOk() / measuredSeconds))
+                .append(" | ").append(stats.getErrors())
+                .append(" | ").append(stats.getRateLimited())
+                .append(" | ").append(stats.getTimeouts())
+                .append(" | ").append(fmt(millis(histogram, 50.0)))
+                .append(" | ").append(fmt(millis(histogram, 99.0)))
+                .append(" | ").append(fmt(millis(histogram, 99.9)))
+                .append(" | ").append(fmt(histogram.getMaxValue() / 1000.0))
+                .append(" | ").append(passed ? "met" : "**missed**")
+                .append(" |\n");
+
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(stats.getName() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        summary.put("endpoints", endpoints);
+
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> status : flow.getFinalStatuses().entrySet()) {
+            statuses.put(status.getKey(), status.getValue().sum());
+        }
+        summary.put("finalStatuses", statuses);
+        summary.put("sloFailures", failures);
+
+        if (resources != null) {
+            writeResources(summary, md);
+        }
+
+        md.append("\nFinal payment statuses: ").append(statuses).append("  \n")
+            .append("Checkouts skipped because the generator hit max-in-flight: ").append(flow.getSkipped()).append("\n\n");
+        if (failures.isEmpty()) {
+            md.append("All SLOs met.\n");
+        } else {
+            md.append("SLOs missed:\n\n");
+            for (String failure : failures) {
+                md.append("- ").append(failure).append('\n');
+            }
+        }
+
+        Files.writeString(dir.resolve("report.md"), md.toString());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(dir.resolve("summary.json").toFile(), summary);
+        System.out.println(md);
+        return failures.isEmpty() && flow.getSkipped() == 0;
+    }
+
+    /**
+     * Requests in flight at the service by Little's law (arrival rate times mean service time,
+     * summed over the request endpoints) and the heap above idle that each one accounts for
+     */
+    private void writeResources(Map<String, Object> summary, StringBuilder md) {
+        double inFlight = 0;
+        for (EndpointStats stats : flow.getStats()) {
+            if (!PaymentFlow.COMPLETION.equals(stats.getName())) {
+                inFlight += stats.getTotal() / measuredSeconds * stats.getServiceTotal().getMean() / 1_000_000.0;
+            }
+        }
+        double heapDeltaMb = Math.max(0, resources.getLoadedHeapMb() - resources.getIdleHeapMb());
+        double heapPerRequestKb = inFlight > 0 ? heapDeltaMb * 1024 / inFlight : 0;
+
+        Map<String, Object> service = new LinkedHashMap<>();
+        service.put("url", config.getSampleServiceUrl());
+        service.put("idleHeapMb", round(resources.getIdleHeapMb()));
+        service.put("loadedHeapMb", round(resources.getLoadedHeapMb()));
+        service.put("idleThreads", resources.getIdleThreads());
+        service.put("loadedThreads", resources.getLoadedThreads());
+        service.put("inFlightRequests", round(inFlight));
+        service.put("heapPerInFlightKb", round(heapPerRequestKb));
+        summary.put("service", service);
+
+        md.append("\nService ").append(config.getSampleServiceUrl()).append(" (heap as median trough):\n\n")
+            .append("| Idle heap MB | Loaded heap MB | Idle threads | Loaded threads | In flight | Heap KB per in-flight request |\n")
+            .append("|---:|---:|---:|---:|---:|---:|\n")
+            .append("| ").append(fmt(resources.getIdleHeapMb()))
+            .append(" | ").append(fmt(resources.getLoadedHeapMb()))
+            .append(" | ").append(resources.getIdleThreads())
+            .append(" | ").append(resources.getLoadedThreads())
+            .append(" | ").append(fmt(inFlight))
+            .append(" | ").append(fmt(heapPerRequestKb))
+            .append(" |\n");
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static String fmt(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+}
@@ -0,0 +1,17 @@
+package com.paymentgateway.merchant;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+@ComponentScan(basePackages = {"com.paymentgateway.merchant", "com.paymentgateway.common"})
+@EntityScan(basePackages = "com.paymentgateway.merchant.entity")
+public class MerchantServiceApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(MerchantServiceApplication.class, args);
+    }
+}
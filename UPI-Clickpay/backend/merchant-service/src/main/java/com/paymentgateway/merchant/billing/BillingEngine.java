@@ -0,0 +1,223 @@
+package com.paymentgateway.merchant.billing;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Computes per-merchant fee totals over transaction amounts held as long paise in
+ * primitive arrays, on a dedicated fork-join pool. Work is split into chunks so a
+ * single very large merchant is spread across all workers too.
+ */
+@Component
+public class BillingEngine {
+
+    // 0 = one worker per core
+    @Value("${billing.parallelism:0}")
+    private int parallelism;
+
+    @Value("${billing.chunk-size:65536}")
+    private int chunkSize;
+
+    // Re-bill every chunk with BigDecimal and fail the run on any difference
+    @Value("${billing.verify-against-reference:false}")
+    private boolean verifyAgainstReference;
+
+    private ForkJoinPool pool;
+
+    public BillingEngine() {}
+
+    public BillingEngine(int parallelism, int chunkSize, boolean verifyAgainstReference) {
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.verifyAgainstReference = verifyAgainstReference;
+        init();
+    }
+
+    @PostConstruct
+    void init() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(workers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Bill amounts that are already in memory, one array per merchant
+     */
+    public Map<Long, BillingTotals> bill(Map<Long, long[]> amountsByMerchant, Map<Long, FeeSchedule> schedules) {
+        Map<Long, BillingTotals> totals = new HashMap<>();
+        List<ChunkTask> tasks = new ArrayList<>();
+        for (Map.Entry<Long, long[]> entry : amountsByMerchant.entrySet()) {
+            BillingTotals merchantTotals = new BillingTotals();
+            totals.put(entry.getKey(), merchantTotals);
+            long[] amounts = entry.getValue();
+            tasks.add(new ChunkTask(amounts, 0, amounts.length, schedules.get(entry.getKey()), merchantTotals));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return totals;
+    }
+
+    /**
+     * Start a streaming run. Rows are pushed in merchant order and billed in the
+     * background while more are read; memory is bounded by the in-flight chunk buffers.
+     */
+    public StreamingRun startRun(Function<Long, FeeSchedule> schedules,
+                                 Function<Long, ReferenceFeeCalculator> references) {
+        return new StreamingRun(schedules, verifyAgainstReference ? references : null);
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Bills amounts[from, to) for one merchant, splitting large ranges
+     */
+    private class ChunkTask extends RecursiveAction {
+        private final long[] amounts;
+        private final int from;
+        private final int to;
+        private final FeeSchedule schedule;
+        private final BillingTotals totals;
+
+        ChunkTask(long[] amounts, int from, int to, FeeSchedule schedule, BillingTotals totals) {
+            this.amounts = amounts;
+            this.from = from;
+            this.to = to;
+            this.schedule = schedule;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                schedule.accumulate(amounts, from, to, totals);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ChunkTask(amounts, from, mid, schedule, totals),
+                      new ChunkTask(amounts, mid, to, schedule, totals));
+        }
+    }
+
+    public class StreamingRun {
+        private final Function<Long, FeeSchedule> schedules;
+        private final Function<Long, ReferenceFeeCalculator> references;
+        private final Map<Long, BillingTotals> totals = new ConcurrentHashMap<>();
+        private final BlockingQueue<long[]> freeBuffers;
+        private final Phaser inFlight = new Phaser(1);
+        private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        private long currentMerchant = Long.MIN_VALUE;
+        private FeeSchedule currentSchedule;
+        private long[] buffer;
+        private int size;
+
+        StreamingRun(Function<Long, FeeSchedule> schedules, Function<Long, ReferenceFeeCalculator> references) {
+            this.schedules = schedules;
+            this.references = references;
+            int buffers = pool.getParallelism() * 4;
+            this.freeBuffers = new ArrayBlockingQueue<>(buffers);
+            for (int i = 0; i < buffers; i++) {
+                freeBuffers.add(new long[chunkSize]);
+            }
+        }
+
+        /**
+         * Add one transaction; rows for a merchant must be contiguous
+         */
+        public void accept(long merchantId, long amountPaise) {
+            if (merchantId != currentMerchant) {
+                flush();
+                currentMerchant = merchantId;
+                currentSchedule = schedules.apply(merchantId);
+                totals.computeIfAbsent(merchantId, id -> new BillingTotals());
+            }
+            if (buffer == null) {
+                buffer = takeBuffer();
+            }
+            buffer[size++] = amountPaise;
+            if (size == buffer.length) {
+                flush();
+            }
+        }
+
+        /**
+         * Wait for all chunks and return totals per merchant
+         * @throws RuntimeException if a chunk failed or disagreed with the reference calculation
+         */
+        public Map<Long, BillingTotals> finish() {
+            flush();
+            inFlight.arriveAndAwaitAdvance();
+            if (!failures.isEmpty()) {
+                throw new RuntimeException("Billing run failed for " + failures.size() + " chunk(s), first: " + failures.peek());
+            }
+            return totals;
+        }
+
+        private void flush() {
+            if (buffer == null || size == 0) {
+                return;
+            }
+            long[] chunk = buffer;
+            int chunkLength = size;
+            long merchantId = currentMerchant;
+            FeeSchedule schedule = currentSchedule;
+            BillingTotals merchantTotals = totals.get(merchantId);
+            buffer = null;
+            size = 0;
+
+            inFlight.register();
+            pool.execute(() -> {
+                try {
+                    BillingTotals partial = new BillingTotals();
+                    schedule.accumulate(chunk, 0, chunkLength, partial);
+                    if (references != null) {
+                        BillingTotals expected = references.apply(merchantId).compute(chunk, 0, chunkLength);
+                        if (!expected.sameAs(partial)) {
+                            failures.add("merchant " + merchantId + ": expected " + expected + ", got " + partial);
+                        }
+                    }
+                    merchantTotals.add(partial);
+                } catch (RuntimeException e) {
+                    failures.add("merchant " + merchantId + ": " + e.getMessage());
+                } finally {
+                    freeBuffers.add(chunk);
+                    inFlight.arriveAndDeregister();
+                }
+            });
+        }
+
+        private long[] takeBuffer() {
+            try {
+                return freeBuffers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Billing run interrupted", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.paymentgateway.merchant.billing;
+
+/**
+ * Running per-merchant totals in paise. Chunks are computed independently and merged here.
+ */
+public class BillingTotals {
+    private long transactionCount;
+    private long volumePaise;
+    private long transactionFeesPaise;
+    private long percentageFeesPaise;
+
+    public synchronized void add(long count, long volume, long transactionFees, long percentageFees) {
+        transactionCount += count;
+        volumePaise += volume;
+        transactionFeesPaise += transactionFees;
+        percentageFeesPaise += percentageFees;
+    }
+
+    public void add(BillingTotals other) {
+        add(other.getTransactionCount(), other.getVolumePaise(),
+            other.getTransactionFeesPaise(), other.getPercentageFeesPaise());
+    }
+
+    public synchronized boolean sameAs(BillingTotals other) {
+        return transactionCount == other.getTransactionCount()
+            && volumePaise == other.getVolumePaise()
+            && transactionFeesPaise == other.getTransactionFeesPaise()
+            && percentageFeesPaise == other.getPercentageFeesPaise();
+    }
+
+    public synchronized long getTransactionCount() { return transactionCount; }
+
+    public synchronized long getVolumePaise() { return volumePaise; }
+
+    public synchronized long getTransactionFeesPaise() { return transactionFeesPaise; }
+
+    public synchronized long getPercentageFeesPaise() { return percentageFeesPaise; }
+
+    @Override
+    public synchronized String toString() {
+        return "BillingTotals{count=" + transactionCount + ", volume=" + volumePaise
+            + ", transactionFees=" + transactionFeesPaise + ", percentageFees=" + percentageFeesPaise + "}";
+    }
+}
@@ -0,0 +1,131 @@
+package com.paymentgateway.merchant.billing;
+
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.Merchant;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * A merchant's fee structure in fixed point: rupee amounts as long paise and the
+ * percentage as parts per million of the transaction amount (1.5% = 15,000 ppm).
+ * Per-transaction percentage fees are rounded half-up to the paisa, exactly as
+ * {@link ReferenceFeeCalculator} does with BigDecimal.
+ */
+public final class FeeSchedule {
+
+    public static final long PPM = 1_000_000L;
+    private static final long HALF_PPM = PPM / 2;
+
+    private final Merchant.OperationMode operationMode;
+    private final long transactionFeePaise;
+    private final long percentagePpm;
+    private final long monthlyFeePaise;
+    // HYBRID only: transactions at or above this are routed gateway-only and carry no percentage fee
+    private final long hybridThresholdPaise;
+
+    public FeeSchedule(Merchant.OperationMode operationMode, long transactionFeePaise, long percentagePpm,
+                       long monthlyFeePaise, long hybridThresholdPaise) {
+        if (percentagePpm < 0 || percentagePpm > PPM) {
+            throw new IllegalArgumentException("Percentage fee must be between 0 and 100");
+        }
+        this.operationMode = operationMode;
+        this.transactionFeePaise = transactionFeePaise;
+        this.percentagePpm = percentagePpm;
+        this.monthlyFeePaise = monthlyFeePaise;
+        this.hybridThresholdPaise = hybridThresholdPaise;
+    }
+
+    /**
+     * @throws RuntimeException if a fee has sub-paisa precision or the percentage has more than 4 decimals
+     */
+    public static FeeSchedule of(Merchant.OperationMode operationMode, FeeStructure fees, long hybridThresholdPaise) {
+        try {
+            return new FeeSchedule(
+                operationMode,
+                toPaise(fees.getTransactionFee()),
+                fees.getPercentageFee() != null ? fees.getPercentageFee().movePointRight(4).longValueExact() : 0L,
+                toPaise(fees.getMonthlyFee()),
+                hybridThresholdPaise
+            );
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Fee structure is more precise than billing supports", e);
+        }
+    }
+
+    public static long toPaise(BigDecimal rupees) {
+        return rupees != null ? rupees.movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact() : 0L;
+    }
+
+    /**
+     * Add the fees for amounts[from, to) to the totals
+     */
+    public void accumulate(long[] amounts, int from, int to, BillingTotals totals) {
+        long volume = 0;
+        long percentageFees = 0;
+
+        // One loop per mode keeps the branch out of the hot loop where possible
+        switch (operationMode) {
+            case GATEWAY_ONLY:
+                for (int i = from; i < to; i++) {
+                    volume += amounts[i];
+                }
+                break;
+
+            case FULL_PROCESSOR:
+                for (int i = from; i < to; i++) {
+                    long amount = amounts[i];
+                    volume += amount;
+                    percentageFees += percentageFee(amount);
+                }
+                break;
+
+            case HYBRID:
+                for (int i = from; i < to; i++) {
+                    long amount = amounts[i];
+                    volume += amount;
+                    if (amount < hybridThresholdPaise) {
+                        percentageFees += percentageFee(amount);
+                    }
+                }
+                break;
+        }
+
+        int count = to - from;
+        totals.add(count, volume, count * transactionFeePaise, percentageFees);
+    }
+
+    /**
+     * Total fee for a single transaction, as deducted at settlement
+     */
+    public long feeFor(long amountPaise) {
+        boolean chargesPercentage = operationMode == Merchant.OperationMode.FULL_PROCESSOR
+            || (operationMode == Merchant.OperationMode.HYBRID && amountPaise < hybridThresholdPaise);
+        return transactionFeePaise + (chargesPercentage ? percentageFee(amountPaise) : 0L);
+    }
+
+    /**
+     * amount * ppm / 1,000,000 rounded half-up, for a non-negative amount
+     */
+    long percentageFee(long amountPaise) {
+        long high = Math.multiplyHigh(amountPaise, percentagePpm);
+        long product = amountPaise * percentagePpm;
+        if (high == 0 && product >= 0 && product <= Long.MAX_VALUE - HALF_PPM) {
+            return (product + HALF_PPM) / PPM;
+        }
+        // Only reachable for amounts far beyond any real payment
+        return BigInteger.valueOf(amountPaise).multiply(BigInteger.valueOf(percentagePpm))
+            .add(BigInteger.valueOf(HALF_PPM)).divide(BigInteger.valueOf(PPM)).longValueExact();
+    }
+
+    public Merchant.OperationMode getOperationMode() { return operationMode; }
+
+    public long getTransactionFeePaise() { return transactionFeePaise; }
+
+    public long getPercentagePpm() { return percentagePpm; }
+
+    public long getMonthlyFeePaise() { return monthlyFeePaise; }
+
+    public long getHybridThresholdPaise() { return hybridThresholdPaise; }
+}
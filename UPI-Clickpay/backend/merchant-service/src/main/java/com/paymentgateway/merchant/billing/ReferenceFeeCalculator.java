@@ -0,0 +1,53 @@
+package com.paymentgateway.merchant.billing;
+
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.Merchant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Straightforward BigDecimal implementation of the billing rules, working from the
+ * merchant's FeeStructure in rupees. Slow, but obviously correct; used to cross-check
+ * the fixed-point engine.
+ */
+public class ReferenceFeeCalculator {
+
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private final Merchant.OperationMode operationMode;
+    private final BigDecimal transactionFee;
+    private final BigDecimal percentageFee;
+    private final BigDecimal hybridThreshold;
+
+    public ReferenceFeeCalculator(Merchant.OperationMode operationMode, FeeStructure fees, long hybridThresholdPaise) {
+        this.operationMode = operationMode;
+        this.transactionFee = fees.getTransactionFee() != null ? fees.getTransactionFee() : BigDecimal.ZERO;
+        this.percentageFee = fees.getPercentageFee() != null ? fees.getPercentageFee() : BigDecimal.ZERO;
+        this.hybridThreshold = BigDecimal.valueOf(hybridThresholdPaise, 2);
+    }
+
+    public BillingTotals compute(long[] amountsPaise, int from, int to) {
+        BigDecimal volume = BigDecimal.ZERO;
+        BigDecimal transactionFees = BigDecimal.ZERO;
+        BigDecimal percentageFees = BigDecimal.ZERO;
+
+        for (int i = from; i < to; i++) {
+            BigDecimal amount = BigDecimal.valueOf(amountsPaise[i], 2);
+            volume = volume.add(amount);
+            transactionFees = transactionFees.add(transactionFee);
+
+            boolean chargesPercentage = operationMode == Merchant.OperationMode.FULL_PROCESSOR
+                || (operationMode == Merchant.OperationMode.HYBRID && amount.compareTo(hybridThreshold) < 0);
+            if (chargesPercentage) {
+                percentageFees = percentageFees.add(
+                    amount.multiply(percentageFee).divide(HUNDRED).setScale(2, RoundingMode.HALF_UP));
+            }
+        }
+
+        BillingTotals totals = new BillingTotals();
+        totals.add(to - from, FeeSchedule.toPaise(volume), FeeSchedule.toPaise(transactionFees),
+            FeeSchedule.toPaise(percentageFees));
+        return totals;
+    }
+}
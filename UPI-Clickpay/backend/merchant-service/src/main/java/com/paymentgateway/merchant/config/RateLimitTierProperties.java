@@ -0,0 +1,30 @@
+package com.paymentgateway.merchant.config;
+
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import com.paymentgateway.merchant.entity.Merchant;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gateway rate limits per merchant tier, keyed by api-gateway route id.
+ * A "default" route entry covers routes that are not listed.
+ */
+@Component
+@ConfigurationProperties(prefix = "merchant.rate-limits")
+public class RateLimitTierProperties {
+
+    private Map<Merchant.RateLimitTier, Map<String, RateLimitPolicy.RouteLimit>> tiers =
+        new EnumMap<>(Merchant.RateLimitTier.class);
+
+    public Map<String, RateLimitPolicy.RouteLimit> limitsFor(Merchant.RateLimitTier tier) {
+        Map<String, RateLimitPolicy.RouteLimit> limits = tiers.get(tier);
+        return limits != null ? limits : tiers.getOrDefault(Merchant.RateLimitTier.STANDARD, new HashMap<>());
+    }
+
+    public Map<Merchant.RateLimitTier, Map<String, RateLimitPolicy.RouteLimit>> getTiers() { return tiers; }
+    public void setTiers(Map<Merchant.RateLimitTier, Map<String, RateLimitPolicy.RouteLimit>> tiers) { this.tiers = tiers; }
+}
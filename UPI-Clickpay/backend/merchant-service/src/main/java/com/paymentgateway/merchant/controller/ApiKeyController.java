@@ -0,0 +1,86 @@
+package com.paymentgateway.merchant.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.merchant.dto.ApiKeyResponse;
+import com.paymentgateway.merchant.service.ApiKeyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/merchant/api-keys")
+@CrossOrigin(origins = "*")
+public class ApiKeyController {
+
+    @Autowired
+    private ApiKeyService apiKeyService;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<ApiKeyResponse>>> listKeys(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(apiKeyService.listKeys(merchantId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to list API keys: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<ApiResponse<ApiKeyResponse>> issueKey(
+            @RequestParam(required = false) String scopes,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+            ApiKeyResponse key = apiKeyService.issueKey(merchantId, scopes);
+            return ResponseEntity.ok(ApiResponse.success("Store this key now, it will not be shown again", key));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to issue API key: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{keyId}/rotate")
+    public ResponseEntity<ApiResponse<ApiKeyResponse>> rotateKey(
+            @PathVariable Long keyId,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+            ApiKeyResponse key = apiKeyService.rotateKey(merchantId, keyId);
+            return ResponseEntity.ok(ApiResponse.success("Store this key now, it will not be shown again", key));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to rotate API key: " + e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{keyId}")
+    public ResponseEntity<ApiResponse<String>> revokeKey(
+            @PathVariable Long keyId,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+            apiKeyService.revokeKey(merchantId, keyId);
+            return ResponseEntity.ok(ApiResponse.success("API key revoked"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to revoke API key: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.paymentgateway.merchant.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.merchant.dto.MonthlyInvoice;
+import com.paymentgateway.merchant.service.BillingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/merchant/billing")
+@CrossOrigin(origins = "*")
+public class BillingController {
+
+    @Autowired
+    private BillingService billingService;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    /**
+     * Bill every merchant for a month (yyyy-MM); re-running replaces that month's invoices
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> runBilling(
+            @RequestParam String month,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+
+            long started = System.currentTimeMillis();
+            List<MonthlyInvoice> invoices = billingService.runMonth(YearMonth.parse(month));
+            long transactions = invoices.stream().mapToLong(MonthlyInvoice::getTransactionCount).sum();
+
+            return ResponseEntity.ok(ApiResponse.success("Billing completed", Map.of(
+                "month", month,
+                "merchants", invoices.size(),
+                "transactions", transactions,
+                "durationMs", System.currentTimeMillis() - started
+            )));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Billing failed: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/invoices")
+    public ResponseEntity<ApiResponse<List<MonthlyInvoice>>> getInvoices(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(billingService.getInvoices(merchantId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get invoices: " + e.getMessage()));
+        }
+    }
+}
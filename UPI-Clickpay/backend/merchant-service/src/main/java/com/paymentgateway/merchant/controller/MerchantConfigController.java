@@ -1,9 +1,12 @@
 package com.paymentgateway.merchant.controller;
 
 import com.paymentgateway.common.dto.ApiResponse;
-import com.paymentgateway.common.util.JwtUtil;
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
 import com.paymentgateway.merchant.dto.MerchantConfigRequest;
 import com.paymentgateway.merchant.entity.Merchant;
+import com.paymentgateway.merchant.service.ApiKeyService;
 import com.paymentgateway.merchant.service.MerchantConfigService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,15 +25,19 @@ public class MerchantConfigController {
     private MerchantConfigService merchantConfigService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private TrustedIdentityResolver identityResolver;
+
+    @Autowired
+    private ApiKeyService apiKeyService;
 
     @PostMapping("/update")
     public ResponseEntity<ApiResponse<String>> updateMerchantConfiguration(
             @Valid @RequestBody MerchantConfigRequest request,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
         try {
-            String jwtToken = token.replace("Bearer ", "");
-            Long merchantId = jwtUtil.extractUserId(jwtToken);
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
 
             // Validate bank configuration if switching to gateway mode
             if (request.getOperationMode() == Merchant.OperationMode.GATEWAY_ONLY && 
@@ -55,10 +62,11 @@ public class MerchantConfigController {
 
     @GetMapping("/current")
     public ResponseEntity<ApiResponse<MerchantConfigRequest>> getCurrentConfiguration(
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
         try {
-            String jwtToken = token.replace("Bearer ", "");
-            Long merchantId = jwtUtil.extractUserId(jwtToken);
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
 
             MerchantConfigRequest config = merchantConfigService.getMerchantConfiguration(merchantId);
             
@@ -147,4 +155,29 @@ public class MerchantConfigController {
                 .body(ApiResponse.error("Failed to get merchant info: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Merchant (user id) of an API key, by its SHA-256 digest; used by api-gateway
+     */
+    @GetMapping("/api-keys/{keyHash}/merchant")
+    public ResponseEntity<ApiResponse<Long>> getApiKeyMerchant(@PathVariable String keyHash) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(apiKeyService.merchantUserIdForKey(keyHash)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to resolve API key: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{merchantId}/rate-limits")
+    public ResponseEntity<ApiResponse<RateLimitPolicy>> getRateLimitPolicy(
+            @PathVariable Long merchantId) {
+        try {
+            RateLimitPolicy policy = merchantConfigService.getRateLimitPolicy(merchantId);
+            return ResponseEntity.ok(ApiResponse.success(policy));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get rate limits: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.paymentgateway.merchant.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.merchant.dto.SettlementSummary;
+import com.paymentgateway.merchant.service.SettlementService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/merchant/settlement")
+@CrossOrigin(origins = "*")
+public class SettlementController {
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    /**
+     * Settle a date (yyyy-MM-dd, default today), including merchants on manual settlement.
+     * Re-running a date resumes it; nothing is paid twice.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<ApiResponse<SettlementSummary>> runSettlement(
+            @RequestParam(required = false) String date,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+
+            LocalDate settlementDate = date != null ? LocalDate.parse(date) : LocalDate.now();
+            SettlementSummary summary = settlementService.runSettlement(settlementDate, true);
+            return ResponseEntity.ok(ApiResponse.success("Settlement completed", summary));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Settlement failed: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/batches")
+    public ResponseEntity<ApiResponse<List<SettlementSummary.Batch>>> getBatches(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(settlementService.getBatches(merchantId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get settlements: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.paymentgateway.merchant.dto;
+
+import com.paymentgateway.merchant.entity.ApiKey;
+
+import java.time.LocalDateTime;
+
+public class ApiKeyResponse {
+    private Long id;
+    private String keyPrefix;
+    private String scopes;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    // Only set in the response that issues the key; it cannot be retrieved later
+    private String apiKey;
+
+    public ApiKeyResponse() {}
+
+    public ApiKeyResponse(ApiKey key) {
+        this.id = key.getId();
+        this.keyPrefix = key.getKeyPrefix();
+        this.scopes = key.getScopes();
+        this.createdAt = key.getCreatedAt();
+        this.expiresAt = key.getExpiresAt();
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getKeyPrefix() { return keyPrefix; }
+    public void setKeyPrefix(String keyPrefix) { this.keyPrefix = keyPrefix; }
+
+    public String getScopes() { return scopes; }
+    public void setScopes(String scopes) { this.scopes = scopes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getApiKey() { return apiKey; }
+    public void setApiKey(String apiKey) { this.apiKey = apiKey; }
+}
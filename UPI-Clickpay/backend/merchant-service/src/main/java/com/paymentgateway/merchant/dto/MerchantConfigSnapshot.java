@@ -0,0 +1,74 @@
+package com.paymentgateway.merchant.dto;
+
+import com.paymentgateway.merchant.entity.BankConfig;
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.Merchant;
+import com.paymentgateway.merchant.entity.SettlementConfig;
+
+/**
+ * Immutable view of a merchant's configuration at one version. Handed out by
+ * {@link com.paymentgateway.merchant.service.MerchantConfigCache} and safe to share.
+ */
+public final class MerchantConfigSnapshot {
+    private final Long merchantId;   // the merchant's user id
+    private final long version;
+    private final String businessName;
+    private final String upiId;
+    private final String webhookUrl;
+    private final boolean active;
+    private final Merchant.OperationMode operationMode;
+    private final Merchant.BankProvider preferredBank;
+    private final FeeStructure feeStructure;
+    private final BankConfig bankConfig;
+    private final SettlementConfig settlementConfig;
+    private final long loadedAtMillis;
+
+    public MerchantConfigSnapshot(Merchant merchant, long loadedAtMillis) {
+        this.merchantId = merchant.getUserId();
+        this.version = merchant.getConfigVersion() != null ? merchant.getConfigVersion() : 0L;
+        this.businessName = merchant.getBusinessName();
+        this.upiId = merchant.getUpiId();
+        this.webhookUrl = merchant.getWebhookUrl();
+        this.active = !Boolean.FALSE.equals(merchant.getIsActive());
+        this.operationMode = merchant.getOperationMode();
+        this.preferredBank = merchant.getPreferredBank();
+        this.feeStructure = merchant.getFeeStructure();
+        this.bankConfig = merchant.getBankConfig();
+        this.settlementConfig = merchant.getSettlementConfig();
+        this.loadedAtMillis = loadedAtMillis;
+    }
+
+    public MerchantConfigRequest toRequest() {
+        MerchantConfigRequest config = new MerchantConfigRequest();
+        config.setOperationMode(operationMode);
+        config.setPreferredBank(preferredBank);
+        config.setFeeStructure(feeStructure != null ? feeStructure.toDto() : null);
+        config.setBankConfig(bankConfig != null ? bankConfig.toDto() : null);
+        config.setSettlementConfig(settlementConfig != null ? settlementConfig.toDto() : null);
+        return config;
+    }
+
+    public Long getMerchantId() { return merchantId; }
+
+    public long getVersion() { return version; }
+
+    public String getBusinessName() { return businessName; }
+
+    public String getUpiId() { return upiId; }
+
+    public String getWebhookUrl() { return webhookUrl; }
+
+    public boolean isActive() { return active; }
+
+    public Merchant.OperationMode getOperationMode() { return operationMode; }
+
+    public Merchant.BankProvider getPreferredBank() { return preferredBank; }
+
+    public FeeStructure getFeeStructure() { return feeStructure; }
+
+    public BankConfig getBankConfig() { return bankConfig; }
+
+    public SettlementConfig getSettlementConfig() { return settlementConfig; }
+
+    public long getLoadedAtMillis() { return loadedAtMillis; }
+}
@@ -0,0 +1,71 @@
+package com.paymentgateway.merchant.dto;
+
+import com.paymentgateway.merchant.billing.BillingTotals;
+import com.paymentgateway.merchant.entity.Merchant;
+
+import java.math.BigDecimal;
+
+/**
+ * One merchant's fees for a calendar month. Amounts are paise; rupee getters are for display.
+ */
+public class MonthlyInvoice {
+    private Long merchantId;
+    private String billingMonth; // yyyy-MM
+    private Merchant.OperationMode operationMode;
+    private long transactionCount;
+    private long volumePaise;
+    private long transactionFeesPaise;
+    private long percentageFeesPaise;
+    private long monthlyFeePaise;
+
+    public MonthlyInvoice() {}
+
+    public MonthlyInvoice(Long merchantId, String billingMonth, Merchant.OperationMode operationMode,
+                          BillingTotals totals, long monthlyFeePaise) {
+        this.merchantId = merchantId;
+        this.billingMonth = billingMonth;
+        this.operationMode = operationMode;
+        this.transactionCount = totals.getTransactionCount();
+        this.volumePaise = totals.getVolumePaise();
+        this.transactionFeesPaise = totals.getTransactionFeesPaise();
+        this.percentageFeesPaise = totals.getPercentageFeesPaise();
+        this.monthlyFeePaise = monthlyFeePaise;
+    }
+
+    public long getTotalFeesPaise() {
+        return transactionFeesPaise + percentageFeesPaise + monthlyFeePaise;
+    }
+
+    public BigDecimal getTotalFees() {
+        return BigDecimal.valueOf(getTotalFeesPaise(), 2);
+    }
+
+    public BigDecimal getVolume() {
+        return BigDecimal.valueOf(volumePaise, 2);
+    }
+
+    // Getters and setters
+    public Long getMerchantId() { return merchantId; }
+    public void setMerchantId(Long merchantId) { this.merchantId = merchantId; }
+
+    public String getBillingMonth() { return billingMonth; }
+    public void setBillingMonth(String billingMonth) { this.billingMonth = billingMonth; }
+
+    public Merchant.OperationMode getOperationMode() { return operationMode; }
+    public void setOperationMode(Merchant.OperationMode operationMode) { this.operationMode = operationMode; }
+
+    public long getTransactionCount() { return transactionCount; }
+    public void setTransactionCount(long transactionCount) { this.transactionCount = transactionCount; }
+
+    public long getVolumePaise() { return volumePaise; }
+    public void setVolumePaise(long volumePaise) { this.volumePaise = volumePaise; }
+
+    public long getTransactionFeesPaise() { return transactionFeesPaise; }
+    public void setTransactionFeesPaise(long transactionFeesPaise) { this.transactionFeesPaise = transactionFeesPaise; }
+
+    public long getPercentageFeesPaise() { return percentageFeesPaise; }
+    public void setPercentageFeesPaise(long percentageFeesPaise) { this.percentageFeesPaise = percentageFeesPaise; }
+
+    public long getMonthlyFeePaise() { return monthlyFeePaise; }
+    public void setMonthlyFeePaise(long monthlyFeePaise) { this.monthlyFeePaise = monthlyFeePaise; }
+}
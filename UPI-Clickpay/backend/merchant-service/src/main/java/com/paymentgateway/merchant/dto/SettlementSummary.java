@@ -0,0 +1,108 @@
+package com.paymentgateway.merchant.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of a settlement run. Amounts are paise; rupee getters are for display.
+ */
+public class SettlementSummary {
+    private Long runId;
+    private String settlementDate; // yyyy-MM-dd
+    private int merchantsEligible;
+    private long lineItems;
+    private List<Batch> batches;
+    private String payoutFile;
+    private long durationMs;
+
+    public SettlementSummary() {}
+
+    public SettlementSummary(Long runId, String settlementDate, int merchantsEligible, long lineItems,
+                             List<Batch> batches, String payoutFile) {
+        this.runId = runId;
+        this.settlementDate = settlementDate;
+        this.merchantsEligible = merchantsEligible;
+        this.lineItems = lineItems;
+        this.batches = batches;
+        this.payoutFile = payoutFile;
+    }
+
+    public long getBatchesPaid() {
+        return batches.stream().filter(batch -> "PAID".equals(batch.getStatus())).count();
+    }
+
+    public BigDecimal getTotalPayout() {
+        long paise = batches.stream().filter(batch -> "PAID".equals(batch.getStatus()))
+            .mapToLong(Batch::getNetPaise).sum();
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    // Getters and setters
+    public Long getRunId() { return runId; }
+    public void setRunId(Long runId) { this.runId = runId; }
+
+    public String getSettlementDate() { return settlementDate; }
+    public void setSettlementDate(String settlementDate) { this.settlementDate = settlementDate; }
+
+    public int getMerchantsEligible() { return merchantsEligible; }
+    public void setMerchantsEligible(int merchantsEligible) { this.merchantsEligible = merchantsEligible; }
+
+    public long getLineItems() { return lineItems; }
+    public void setLineItems(long lineItems) { this.lineItems = lineItems; }
+
+    public List<Batch> getBatches() { return batches; }
+    public void setBatches(List<Batch> batches) { this.batches = batches; }
+
+    public String getPayoutFile() { return payoutFile; }
+    public void setPayoutFile(String payoutFile) { this.payoutFile = payoutFile; }
+
+    public long getDurationMs() { return durationMs; }
+    public void setDurationMs(long durationMs) { this.durationMs = durationMs; }
+
+    /**
+     * One merchant's batch: PAID batches are in the payout file, CARRIED_FORWARD ones
+     * were under the minimum payout and roll into the next cycle.
+     */
+    public static class Batch {
+        private Long batchId;
+        private Long merchantId;
+        private String settlementDate;
+        private String status;
+        private long grossPaise;
+        private long refundPaise;
+        private long feePaise;
+        private long netPaise;
+        private long itemCount;
+
+        public BigDecimal getNetAmount() {
+            return BigDecimal.valueOf(netPaise, 2);
+        }
+
+        public Long getBatchId() { return batchId; }
+        public void setBatchId(Long batchId) { this.batchId = batchId; }
+
+        public Long getMerchantId() { return merchantId; }
+        public void setMerchantId(Long merchantId) { this.merchantId = merchantId; }
+
+        public String getSettlementDate() { return settlementDate; }
+        public void setSettlementDate(String settlementDate) { this.settlementDate = settlementDate; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+
+        public long getGrossPaise() { return grossPaise; }
+        public void setGrossPaise(long grossPaise) { this.grossPaise = grossPaise; }
+
+        public long getRefundPaise() { return refundPaise; }
+        public void setRefundPaise(long refundPaise) { this.refundPaise = refundPaise; }
+
+        public long getFeePaise() { return feePaise; }
+        public void setFeePaise(long feePaise) { this.feePaise = feePaise; }
+
+        public long getNetPaise() { return netPaise; }
+        public void setNetPaise(long netPaise) { this.netPaise = netPaise; }
+
+        public long getItemCount() { return itemCount; }
+        public void setItemCount(long itemCount) { this.itemCount = itemCount; }
+    }
+}
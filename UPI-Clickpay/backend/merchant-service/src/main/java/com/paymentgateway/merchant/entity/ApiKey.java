@@ -0,0 +1,76 @@
+package com.paymentgateway.merchant.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A merchant API key. Only the SHA-256 digest is stored; the raw key is shown once at issue time.
+ */
+@Entity
+@Table(name = "api_keys")
+public class ApiKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // References merchants.id, not the merchant's user id
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    @Column(name = "key_hash", unique = true, nullable = false, length = 64)
+    private String keyHash;
+
+    @Column(name = "key_prefix", length = 12)
+    private String keyPrefix;
+
+    // Comma-separated, e.g. "payments:write,payments:read"
+    @Column(name = "scopes")
+    private String scopes;
+
+    @Column(name = "is_active")
+    private Boolean isActive = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public ApiKey() {}
+
+    public ApiKey(Long merchantId, String keyHash, String keyPrefix, String scopes) {
+        this.merchantId = merchantId;
+        this.keyHash = keyHash;
+        this.keyPrefix = keyPrefix;
+        this.scopes = scopes;
+    }
+
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getMerchantId() { return merchantId; }
+    public void setMerchantId(Long merchantId) { this.merchantId = merchantId; }
+
+    public String getKeyHash() { return keyHash; }
+    public void setKeyHash(String keyHash) { this.keyHash = keyHash; }
+
+    public String getKeyPrefix() { return keyPrefix; }
+    public void setKeyPrefix(String keyPrefix) { this.keyPrefix = keyPrefix; }
+
+    public String getScopes() { return scopes; }
+    public void setScopes(String scopes) { this.scopes = scopes; }
+
+    public Boolean getIsActive() { return isActive; }
+    public void setIsActive(Boolean isActive) { this.isActive = isActive; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
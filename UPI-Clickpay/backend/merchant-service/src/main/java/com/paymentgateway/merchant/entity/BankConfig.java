@@ -0,0 +1,66 @@
+package com.paymentgateway.merchant.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.paymentgateway.merchant.dto.MerchantConfigRequest;
+
+/**
+ * A GATEWAY_ONLY merchant's own bank credentials, stored as JSONB in merchants.bank_config
+ */
+public final class BankConfig {
+    private final String provider; // HDFC, ICICI, KOTAK, AXIS
+    private final String merchantId;
+    private final String apiKey;
+    private final String apiSecret;
+    private final String apiUrl;
+    private final boolean directSettlement;
+    private final String settlementAccount;
+
+    @JsonCreator
+    public BankConfig(@JsonProperty("provider") String provider,
+                      @JsonProperty("merchantId") String merchantId,
+                      @JsonProperty("apiKey") String apiKey,
+                      @JsonProperty("apiSecret") String apiSecret,
+                      @JsonProperty("apiUrl") String apiUrl,
+                      @JsonProperty("directSettlement") boolean directSettlement,
+                      @JsonProperty("settlementAccount") String settlementAccount) {
+        this.provider = provider;
+        this.merchantId = merchantId;
+        this.apiKey = apiKey;
+        this.apiSecret = apiSecret;
+        this.apiUrl = apiUrl;
+        this.directSettlement = directSettlement;
+        this.settlementAccount = settlementAccount;
+    }
+
+    public static BankConfig from(MerchantConfigRequest.BankConfigDto dto) {
+        return new BankConfig(dto.getProvider(), dto.getMerchantId(), dto.getApiKey(), dto.getApiSecret(),
+            dto.getApiUrl(), dto.isDirectSettlement(), dto.getSettlementAccount());
+    }
+
+    public MerchantConfigRequest.BankConfigDto toDto() {
+        MerchantConfigRequest.BankConfigDto dto = new MerchantConfigRequest.BankConfigDto();
+        dto.setProvider(provider);
+        dto.setMerchantId(merchantId);
+        dto.setApiKey(apiKey);
+        dto.setApiSecret(apiSecret);
+        dto.setApiUrl(apiUrl);
+        dto.setDirectSettlement(directSettlement);
+        dto.setSettlementAccount(settlementAccount);
+        return dto;
+    }
+
+    public String getProvider() { return provider; }
+
+    public String getMerchantId() { return merchantId; }
+
+    public String getApiKey() { return apiKey; }
+
+    public String getApiSecret() { return apiSecret; }
+
+    public String getApiUrl() { return apiUrl; }
+
+    public boolean isDirectSettlement() { return directSettlement; }
+
+    public String getSettlementAccount() { return settlementAccount; }
+}
@@ -0,0 +1,50 @@
+package com.paymentgateway.merchant.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.paymentgateway.merchant.dto.MerchantConfigRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * Merchant fee structure, stored as JSONB in merchants.fee_structure. Immutable so cached
+ * instances can be shared between threads.
+ */
+public final class FeeStructure {
+    private final BigDecimal setupFee;
+    private final BigDecimal monthlyFee;
+    private final BigDecimal transactionFee;
+    private final BigDecimal percentageFee;
+
+    @JsonCreator
+    public FeeStructure(@JsonProperty("setupFee") BigDecimal setupFee,
+                        @JsonProperty("monthlyFee") BigDecimal monthlyFee,
+                        @JsonProperty("transactionFee") BigDecimal transactionFee,
+                        @JsonProperty("percentageFee") BigDecimal percentageFee) {
+        this.setupFee = setupFee;
+        this.monthlyFee = monthlyFee;
+        this.transactionFee = transactionFee;
+        this.percentageFee = percentageFee;
+    }
+
+    public static FeeStructure from(MerchantConfigRequest.FeeStructureDto dto) {
+        return new FeeStructure(dto.getSetupFee(), dto.getMonthlyFee(), dto.getTransactionFee(), dto.getPercentageFee());
+    }
+
+    public MerchantConfigRequest.FeeStructureDto toDto() {
+        MerchantConfigRequest.FeeStructureDto dto = new MerchantConfigRequest.FeeStructureDto();
+        dto.setSetupFee(setupFee);
+        dto.setMonthlyFee(monthlyFee);
+        dto.setTransactionFee(transactionFee);
+        dto.setPercentageFee(percentageFee);
+        return dto;
+    }
+
+    public BigDecimal getSetupFee() { return setupFee; }
+
+    public BigDecimal getMonthlyFee() { return monthlyFee; }
+
+    public BigDecimal getTransactionFee() { return transactionFee; }
+
+    public BigDecimal getPercentageFee() { return percentageFee; }
+}
@@ -2,7 +2,9 @@ package com.paymentgateway.merchant.entity;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
@@ -35,19 +37,31 @@ public class Merchant {
     @Column(name = "operation_mode")
     private OperationMode operationMode = OperationMode.FULL_PROCESSOR;
     
-    @Column(name = "fee_structure", columnDefinition = "TEXT")
-    private String feeStructure;
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "fee_structure", columnDefinition = "jsonb")
+    private FeeStructure feeStructure;
     
-    @Column(name = "bank_config", columnDefinition = "TEXT")
-    private String bankConfig;
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "bank_config", columnDefinition = "jsonb")
+    private BankConfig bankConfig;
     
-    @Column(name = "settlement_config", columnDefinition = "TEXT")
-    private String settlementConfig;
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "settlement_config", columnDefinition = "jsonb")
+    private SettlementConfig settlementConfig;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "preferred_bank")
     private BankProvider preferredBank = BankProvider.AXIS;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rate_limit_tier")
+    private RateLimitTier rateLimitTier = RateLimitTier.STANDARD;
+
+    // Bumped on every update; cached config snapshots carry it so stale ones can be told apart
+    @Version
+    @Column(name = "config_version")
+    private Long configVersion;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -96,24 +110,36 @@ public class Merchant {
     public OperationMode getOperationMode() { return operationMode; }
     public void setOperationMode(OperationMode operationMode) { this.operationMode = operationMode; }
 
-    public String getFeeStructure() { return feeStructure; }
-    public void setFeeStructure(String feeStructure) { this.feeStructure = feeStructure; }
+    public FeeStructure getFeeStructure() { return feeStructure; }
+    public void setFeeStructure(FeeStructure feeStructure) { this.feeStructure = feeStructure; }
+
+    public BankConfig getBankConfig() { return bankConfig; }
+    public void setBankConfig(BankConfig bankConfig) { this.bankConfig = bankConfig; }
 
-    public String getBankConfig() { return bankConfig; }
-    public void setBankConfig(String bankConfig) { this.bankConfig = bankConfig; }
+    public SettlementConfig getSettlementConfig() { return settlementConfig; }
+    public void setSettlementConfig(SettlementConfig settlementConfig) { this.settlementConfig = settlementConfig; }
 
-    public String getSettlementConfig() { return settlementConfig; }
-    public void setSettlementConfig(String settlementConfig) { this.settlementConfig = settlementConfig; }
+    public Long getConfigVersion() { return configVersion; }
+    public void setConfigVersion(Long configVersion) { this.configVersion = configVersion; }
 
     public BankProvider getPreferredBank() { return preferredBank; }
     public void setPreferredBank(BankProvider preferredBank) { this.preferredBank = preferredBank; }
 
+    public RateLimitTier getRateLimitTier() { return rateLimitTier; }
+    public void setRateLimitTier(RateLimitTier rateLimitTier) { this.rateLimitTier = rateLimitTier; }
+
     public enum OperationMode {
         GATEWAY_ONLY,
         FULL_PROCESSOR,
         HYBRID
     }
     
+    public enum RateLimitTier {
+        STANDARD,
+        PREMIUM,
+        ENTERPRISE
+    }
+
     public enum BankProvider {
         HDFC("HDFC Bank"),
         ICICI("ICICI Bank"),
@@ -0,0 +1,56 @@
+package com.paymentgateway.merchant.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.paymentgateway.merchant.dto.MerchantConfigRequest;
+
+import java.math.BigDecimal;
+
+/**
+ * How and when a merchant is paid out, stored as JSONB in merchants.settlement_config
+ */
+public final class SettlementConfig {
+    private final String settlementMode; // DIRECT, POOLED
+    private final String settlementCycle; // T+0, T+1, T+2
+    private final boolean autoSettlement;
+    private final BigDecimal minimumSettlementAmount;
+    private final String settlementAccount;
+
+    @JsonCreator
+    public SettlementConfig(@JsonProperty("settlementMode") String settlementMode,
+                            @JsonProperty("settlementCycle") String settlementCycle,
+                            @JsonProperty("autoSettlement") boolean autoSettlement,
+                            @JsonProperty("minimumSettlementAmount") BigDecimal minimumSettlementAmount,
+                            @JsonProperty("settlementAccount") String settlementAccount) {
+        this.settlementMode = settlementMode;
+        this.settlementCycle = settlementCycle;
+        this.autoSettlement = autoSettlement;
+        this.minimumSettlementAmount = minimumSettlementAmount;
+        this.settlementAccount = settlementAccount;
+    }
+
+    public static SettlementConfig from(MerchantConfigRequest.SettlementConfigDto dto) {
+        return new SettlementConfig(dto.getSettlementMode(), dto.getSettlementCycle(), dto.isAutoSettlement(),
+            dto.getMinimumSettlementAmount(), dto.getSettlementAccount());
+    }
+
+    public MerchantConfigRequest.SettlementConfigDto toDto() {
+        MerchantConfigRequest.SettlementConfigDto dto = new MerchantConfigRequest.SettlementConfigDto();
+        dto.setSettlementMode(settlementMode);
+        dto.setSettlementCycle(settlementCycle);
+        dto.setAutoSettlement(autoSettlement);
+        dto.setMinimumSettlementAmount(minimumSettlementAmount);
+        dto.setSettlementAccount(settlementAccount);
+        return dto;
+    }
+
+    public String getSettlementMode() { return settlementMode; }
+
+    public String getSettlementCycle() { return settlementCycle; }
+
+    public boolean isAutoSettlement() { return autoSettlement; }
+
+    public BigDecimal getMinimumSettlementAmount() { return minimumSettlementAmount; }
+
+    public String getSettlementAccount() { return settlementAccount; }
+}
@@ -0,0 +1,25 @@
+package com.paymentgateway.merchant.repository;
+
+import com.paymentgateway.merchant.entity.ApiKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ApiKeyRepository extends JpaRepository<ApiKey, Long> {
+    /**
+     * Keys that still authenticate: active and not past the end of a rotation grace period
+     */
+    @Query("SELECT k FROM ApiKey k WHERE k.merchantId = :merchantId AND k.isActive = true " +
+           "AND (k.expiresAt IS NULL OR k.expiresAt > :now) ORDER BY k.createdAt DESC")
+    List<ApiKey> findUsable(@Param("merchantId") Long merchantId, @Param("now") LocalDateTime now);
+
+    Optional<ApiKey> findByIdAndMerchantId(Long id, Long merchantId);
+
+    Optional<ApiKey> findByKeyHash(String keyHash);
+}
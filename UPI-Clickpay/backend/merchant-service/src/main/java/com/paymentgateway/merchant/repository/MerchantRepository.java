@@ -0,0 +1,16 @@
+package com.paymentgateway.merchant.repository;
+
+import com.paymentgateway.merchant.entity.Merchant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MerchantRepository extends JpaRepository<Merchant, Long> {
+    Optional<Merchant> findByUserId(Long userId);
+    Optional<Merchant> findByApiKey(String apiKey);
+    List<Merchant> findByUserIdIn(Collection<Long> userIds);
+}
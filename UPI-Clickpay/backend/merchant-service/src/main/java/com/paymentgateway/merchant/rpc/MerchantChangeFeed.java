@@ -0,0 +1,142 @@
+package com.paymentgateway.merchant.rpc;
+
+import com.paymentgateway.common.rpc.merchant.MerchantChange;
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.service.MerchantConfigCache;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server side of MerchantDirectory.WatchMerchants. One connection LISTENs on the channel
+ * the merchants trigger notifies, so an update made through any instance, or directly in
+ * the database, reaches the subscribers of every instance. Each change also refreshes this
+ * instance's config cache before it is sent.
+ *
+ * Subscribers are never buffered for: one whose stream is not ready for more is ended with
+ * RESOURCE_EXHAUSTED, and all are ended with UNAVAILABLE whenever the LISTEN connection is
+ * re-established, since changes may have been missed meanwhile. Either way the client
+ * resubscribes and drops its copy.
+ */
+@Component
+public class MerchantChangeFeed {
+
+    public static final String CHANNEL = "merchant_config_changes";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MerchantConfigCache merchantConfigCache;
+
+    private final Set<ServerCallStreamObserver<MerchantChange>> subscribers = ConcurrentHashMap.newKeySet();
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        listenerThread = new Thread(this::listen, "merchant-change-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+        for (ServerCallStreamObserver<MerchantChange> subscriber : subscribers) {
+            end(subscriber, Status.UNAVAILABLE.withDescription("merchant-service shutting down"));
+        }
+    }
+
+    public void subscribe(ServerCallStreamObserver<MerchantChange> subscriber) {
+        subscriber.setOnCancelHandler(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        // An empty change tells the client it is subscribed and may start caching
+        subscriber.onNext(MerchantChange.getDefaultInstance());
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                for (ServerCallStreamObserver<MerchantChange> subscriber : subscribers) {
+                    end(subscriber, Status.UNAVAILABLE.withDescription("Change feed restarted"));
+                }
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        publish(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                System.out.println("Merchant change listener disconnected, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void publish(String payload) {
+        MerchantConfigSnapshot snapshot;
+        try {
+            snapshot = merchantConfigCache.reload(Long.valueOf(payload));
+        } catch (RuntimeException e) {
+            System.out.println("Skipping merchant change " + payload + ": " + e.getMessage());
+            return;
+        }
+        MerchantChange change = MerchantChange.newBuilder()
+            .setMerchant(MerchantDirectoryService.toMessage(snapshot))
+            .build();
+
+        for (ServerCallStreamObserver<MerchantChange> subscriber : subscribers) {
+            if (!subscriber.isReady()) {
+                end(subscriber, Status.RESOURCE_EXHAUSTED.withDescription("Subscriber is not keeping up"));
+                continue;
+            }
+            try {
+                subscriber.onNext(change);
+            } catch (RuntimeException e) {
+                // Cancelled between the check and the send
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    private void end(ServerCallStreamObserver<MerchantChange> subscriber, Status status) {
+        subscribers.remove(subscriber);
+        try {
+            subscriber.onError(status.asRuntimeException());
+        } catch (RuntimeException e) {
+            // Already cancelled by the client
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.paymentgateway.merchant.rpc;
+
+import com.paymentgateway.common.rpc.merchant.BankProvider;
+import com.paymentgateway.common.rpc.merchant.BatchGetMerchantsRequest;
+import com.paymentgateway.common.rpc.merchant.BatchGetMerchantsResponse;
+import com.paymentgateway.common.rpc.merchant.GetMerchantRequest;
+import com.paymentgateway.common.rpc.merchant.MerchantChange;
+import com.paymentgateway.common.rpc.merchant.MerchantDirectoryGrpc;
+import com.paymentgateway.common.rpc.merchant.MerchantInfo;
+import com.paymentgateway.common.rpc.merchant.OperationMode;
+import com.paymentgateway.common.rpc.merchant.WatchMerchantsRequest;
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.service.MerchantConfigCache;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The MerchantDirectory gRPC service. Lookups are served from {@link MerchantConfigCache},
+ * so a payment-service lookup normally costs no database query here either.
+ */
+@Component
+public class MerchantDirectoryService extends MerchantDirectoryGrpc.MerchantDirectoryImplBase {
+
+    private static final int MAX_BATCH = 1000;
+
+    @Autowired
+    private MerchantConfigCache merchantConfigCache;
+
+    @Autowired
+    private MerchantChangeFeed merchantChangeFeed;
+
+    @Override
+    public void getMerchant(GetMerchantRequest request, StreamObserver<MerchantInfo> responseObserver) {
+        MerchantConfigSnapshot snapshot;
+        try {
+            snapshot = merchantConfigCache.get(request.getMerchantId());
+        } catch (DataAccessException e) {
+            responseObserver.onError(Status.UNAVAILABLE.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        } catch (RuntimeException e) {
+            responseObserver.onError(Status.NOT_FOUND
+                .withDescription("Merchant not found: " + request.getMerchantId()).asRuntimeException());
+            return;
+        }
+        responseObserver.onNext(toMessage(snapshot));
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void batchGetMerchants(BatchGetMerchantsRequest request,
+                                  StreamObserver<BatchGetMerchantsResponse> responseObserver) {
+        if (request.getMerchantIdsCount() > MAX_BATCH) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                .withDescription("At most " + MAX_BATCH + " merchants per batch").asRuntimeException());
+            return;
+        }
+        Set<Long> merchantIds = new LinkedHashSet<>(request.getMerchantIdsList());
+        Map<Long, MerchantConfigSnapshot> found;
+        try {
+            found = merchantConfigCache.getAll(merchantIds);
+        } catch (DataAccessException e) {
+            responseObserver.onError(Status.UNAVAILABLE.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+
+        BatchGetMerchantsResponse.Builder response = BatchGetMerchantsResponse.newBuilder();
+        for (Long merchantId : merchantIds) {
+            MerchantConfigSnapshot snapshot = found.get(merchantId);
+            if (snapshot != null) {
+                response.addMerchants(toMessage(snapshot));
+            } else {
+                response.addNotFound(merchantId);
+            }
+        }
+        responseObserver.onNext(response.build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void watchMerchants(WatchMerchantsRequest request, StreamObserver<MerchantChange> responseObserver) {
+        merchantChangeFeed.subscribe((ServerCallStreamObserver<MerchantChange>) responseObserver);
+    }
+
+    static MerchantInfo toMessage(MerchantConfigSnapshot snapshot) {
+        MerchantInfo.Builder info = MerchantInfo.newBuilder()
+            .setMerchantId(snapshot.getMerchantId())
+            .setActive(snapshot.isActive())
+            .setConfigVersion(snapshot.getVersion());
+        // Proto strings cannot be null; unset reads back as ""
+        if (snapshot.getBusinessName() != null) {
+            info.setBusinessName(snapshot.getBusinessName());
+        }
+        if (snapshot.getUpiId() != null) {
+            info.setUpiId(snapshot.getUpiId());
+        }
+        if (snapshot.getWebhookUrl() != null) {
+            info.setWebhookUrl(snapshot.getWebhookUrl());
+        }
+        if (snapshot.getPreferredBank() != null) {
+            info.setPreferredBank(BankProvider.valueOf(snapshot.getPreferredBank().name()));
+        }
+        if (snapshot.getOperationMode() != null) {
+            info.setOperationMode(OperationMode.valueOf(snapshot.getOperationMode().name()));
+        }
+        return info.build();
+    }
+}
@@ -0,0 +1,70 @@
+package com.paymentgateway.merchant.rpc;
+
+import com.paymentgateway.common.rpc.InternalRpc;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcServerInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC endpoint for internal callers, next to the REST API on its own port. Calls are
+ * observed like HTTP requests (grpc.server timers and a span continuing the caller's trace).
+ */
+@Component
+public class MerchantRpcServer {
+
+    @Value("${merchant.rpc.port:9082}")
+    private int port;
+
+    @Value("${gateway.internal-secret:}")
+    private String internalSecret;
+
+    @Autowired
+    private MerchantDirectoryService merchantDirectoryService;
+
+    @Autowired(required = false)
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    private Server server;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (internalSecret == null || internalSecret.isBlank()) {
+            // Like the REST side ignoring gateway headers: no secret, no unauthenticated access.
+            // payment-service falls back to the REST lookups.
+            System.out.println("gateway.internal-secret is not set; Merchant RPC is not started");
+            return;
+        }
+        server = NettyServerBuilder.forPort(port)
+            // Interceptors run last-added first: observe, then check the secret
+            .addService(ServerInterceptors.intercept(merchantDirectoryService,
+                InternalRpc.secretServerInterceptor(internalSecret),
+                new ObservationGrpcServerInterceptor(observationRegistry)))
+            // Clients ping every 30s to keep their one connection open
+            .permitKeepAliveTime(20, TimeUnit.SECONDS)
+            .permitKeepAliveWithoutCalls(true)
+            .build()
+            .start();
+        System.out.println("Merchant RPC listening on port " + port);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (server == null) {
+            return;
+        }
+        server.shutdown();
+        if (!server.awaitTermination(5, TimeUnit.SECONDS)) {
+            server.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.paymentgateway.merchant.service;
+
+import com.paymentgateway.common.security.ApiKeyDigests;
+import com.paymentgateway.merchant.dto.ApiKeyResponse;
+import com.paymentgateway.merchant.entity.ApiKey;
+import com.paymentgateway.merchant.entity.Merchant;
+import com.paymentgateway.merchant.repository.ApiKeyRepository;
+import com.paymentgateway.merchant.repository.MerchantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Issues, rotates and revokes merchant API keys. payment-service picks up every change
+ * through the api_keys trigger's NOTIFY, so nothing here has to call it.
+ */
+@Service
+public class ApiKeyService {
+
+    private static final String DEFAULT_SCOPES = "payments:write,payments:read";
+
+    @Autowired
+    private ApiKeyRepository apiKeyRepository;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Value("${merchant.api-keys.max-active:5}")
+    private int maxActiveKeys;
+
+    @Value("${merchant.api-keys.rotation-grace-hours:24}")
+    private long rotationGraceHours;
+
+    @Transactional(readOnly = true)
+    public List<ApiKeyResponse> listKeys(Long userId) {
+        return apiKeyRepository.findUsable(merchantFor(userId).getId(), LocalDateTime.now())
+            .stream()
+            .map(ApiKeyResponse::new)
+            .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public ApiKeyResponse issueKey(Long userId, String scopes) {
+        Merchant merchant = merchantFor(userId);
+        // Keys whose rotation grace period has ended no longer count
+        if (apiKeyRepository.findUsable(merchant.getId(), LocalDateTime.now()).size() >= maxActiveKeys) {
+            throw new RuntimeException("Too many active API keys; revoke one first");
+        }
+
+        String rawKey = ApiKeyDigests.generate();
+        ApiKey key = new ApiKey(merchant.getId(), ApiKeyDigests.digest(rawKey), ApiKeyDigests.displayPrefix(rawKey),
+            scopes != null && !scopes.isBlank() ? scopes : DEFAULT_SCOPES);
+        key = apiKeyRepository.save(key);
+
+        ApiKeyResponse response = new ApiKeyResponse(key);
+        response.setApiKey(rawKey);
+        return response;
+    }
+
+    /**
+     * Issue a replacement with the same scopes. The old key keeps working for the grace
+     * period so the merchant can roll the new one out without downtime.
+     */
+    @Transactional
+    public ApiKeyResponse rotateKey(Long userId, Long keyId) {
+        ApiKey old = keyFor(userId, keyId);
+        LocalDateTime graceEnd = LocalDateTime.now().plusHours(rotationGraceHours);
+        if (old.getExpiresAt() == null || old.getExpiresAt().isAfter(graceEnd)) {
+            old.setExpiresAt(graceEnd);
+            apiKeyRepository.save(old);
+        }
+        return issueKey(userId, old.getScopes());
+    }
+
+    @Transactional
+    public void revokeKey(Long userId, Long keyId) {
+        ApiKey key = keyFor(userId, keyId);
+        key.setIsActive(false);
+        apiKeyRepository.save(key);
+    }
+
+    /**
+     * The merchant (user id) a usable key belongs to, so api-gateway can rate-limit API-key
+     * callers under their merchant's budget and tier
+     */
+    @Transactional(readOnly = true)
+    public Long merchantUserIdForKey(String keyHash) {
+        LocalDateTime now = LocalDateTime.now();
+        return apiKeyRepository.findByKeyHash(keyHash)
+            .filter(key -> Boolean.TRUE.equals(key.getIsActive()))
+            .filter(key -> key.getExpiresAt() == null || key.getExpiresAt().isAfter(now))
+            .flatMap(key -> merchantRepository.findById(key.getMerchantId()))
+            .map(Merchant::getUserId)
+            .orElseThrow(() -> new RuntimeException("API key not found"));
+    }
+
+    private ApiKey keyFor(Long userId, Long keyId) {
+        return apiKeyRepository.findByIdAndMerchantId(keyId, merchantFor(userId).getId())
+            .filter(ApiKey::getIsActive)
+            .orElseThrow(() -> new RuntimeException("API key not found"));
+    }
+
+    private Merchant merchantFor(Long userId) {
+        return merchantRepository.findByUserId(userId)
+            .orElseThrow(() -> new RuntimeException("Merchant not found"));
+    }
+}
@@ -0,0 +1,162 @@
+package com.paymentgateway.merchant.service;
+
+import com.paymentgateway.merchant.billing.BillingEngine;
+import com.paymentgateway.merchant.billing.BillingTotals;
+import com.paymentgateway.merchant.billing.FeeSchedule;
+import com.paymentgateway.merchant.billing.ReferenceFeeCalculator;
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.dto.MonthlyInvoice;
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.Merchant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Monthly invoicing: streams the month's successful payments out of Postgres in merchant
+ * order, bills them with {@link BillingEngine} and stores one invoice per merchant.
+ */
+@Service
+public class BillingService {
+
+    // Amounts are converted to paise in the query so no BigDecimal is created per row
+    private static final String SELECT_MONTH_PAYMENTS =
+        "SELECT merchant_id, (amount * 100)::BIGINT AS amount_paise FROM payments " +
+        "WHERE status = 'SUCCESS' AND created_at >= ? AND created_at < ? ORDER BY merchant_id";
+
+    private static final String UPSERT_INVOICE =
+        "INSERT INTO invoices (merchant_id, billing_month, operation_mode, transaction_count, volume, " +
+        "transaction_fees, percentage_fees, monthly_fee, total_fees) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (merchant_id, billing_month) DO UPDATE SET operation_mode = EXCLUDED.operation_mode, " +
+        "transaction_count = EXCLUDED.transaction_count, volume = EXCLUDED.volume, " +
+        "transaction_fees = EXCLUDED.transaction_fees, percentage_fees = EXCLUDED.percentage_fees, " +
+        "monthly_fee = EXCLUDED.monthly_fee, total_fees = EXCLUDED.total_fees, created_at = CURRENT_TIMESTAMP";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BillingEngine billingEngine;
+
+    @Autowired
+    private MerchantConfigService merchantConfigService;
+
+    // HYBRID merchants pay the percentage fee only on transactions below this amount (rupees)
+    @Value("${billing.hybrid.gateway-threshold:2000.00}")
+    private BigDecimal hybridGatewayThreshold;
+
+    @Value("${billing.fetch-size:10000}")
+    private int fetchSize;
+
+    public List<MonthlyInvoice> runMonth(YearMonth month) {
+        long thresholdPaise = FeeSchedule.toPaise(hybridGatewayThreshold);
+        Map<Long, MerchantConfigSnapshot> configs = new ConcurrentHashMap<>();
+        Map<Long, FeeSchedule> schedules = new ConcurrentHashMap<>();
+
+        // Every active merchant owes the monthly fee, even without transactions
+        for (Long merchantId : jdbcTemplate.queryForList("SELECT user_id FROM merchants WHERE is_active = TRUE", Long.class)) {
+            configs.put(merchantId, merchantConfigService.getConfigSnapshot(merchantId));
+        }
+
+        BillingEngine.StreamingRun run = billingEngine.startRun(
+            merchantId -> schedules.computeIfAbsent(merchantId,
+                id -> FeeSchedule.of(modeOf(config(configs, id)), feesOf(config(configs, id)), thresholdPaise)),
+            merchantId -> new ReferenceFeeCalculator(
+                modeOf(config(configs, merchantId)), feesOf(config(configs, merchantId)), thresholdPaise));
+
+        // Postgres only streams with a cursor inside a transaction
+        transactionTemplate.execute(status -> {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_MONTH_PAYMENTS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+                ps.setTimestamp(2, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+                return ps;
+            }, rs -> {
+                run.accept(rs.getLong(1), rs.getLong(2));
+            });
+            return null;
+        });
+        Map<Long, BillingTotals> totals = run.finish();
+
+        List<MonthlyInvoice> invoices = new ArrayList<>();
+        TreeSet<Long> merchantIds = new TreeSet<>(configs.keySet());
+        merchantIds.addAll(totals.keySet());
+        for (Long merchantId : merchantIds) {
+            MerchantConfigSnapshot config = config(configs, merchantId);
+            invoices.add(new MonthlyInvoice(merchantId, month.toString(), modeOf(config),
+                totals.getOrDefault(merchantId, new BillingTotals()),
+                FeeSchedule.toPaise(feesOf(config).getMonthlyFee())));
+        }
+
+        saveInvoices(invoices);
+        return invoices;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlyInvoice> getInvoices(Long merchantId) {
+        return jdbcTemplate.query(
+            "SELECT merchant_id, billing_month, operation_mode, transaction_count, volume, transaction_fees, " +
+            "percentage_fees, monthly_fee FROM invoices WHERE merchant_id = ? ORDER BY billing_month DESC",
+            (rs, rowNum) -> {
+                MonthlyInvoice invoice = new MonthlyInvoice();
+                invoice.setMerchantId(rs.getLong("merchant_id"));
+                invoice.setBillingMonth(rs.getString("billing_month"));
+                invoice.setOperationMode(Merchant.OperationMode.valueOf(rs.getString("operation_mode")));
+                invoice.setTransactionCount(rs.getLong("transaction_count"));
+                invoice.setVolumePaise(FeeSchedule.toPaise(rs.getBigDecimal("volume")));
+                invoice.setTransactionFeesPaise(FeeSchedule.toPaise(rs.getBigDecimal("transaction_fees")));
+                invoice.setPercentageFeesPaise(FeeSchedule.toPaise(rs.getBigDecimal("percentage_fees")));
+                invoice.setMonthlyFeePaise(FeeSchedule.toPaise(rs.getBigDecimal("monthly_fee")));
+                return invoice;
+            },
+            merchantId);
+    }
+
+    private void saveInvoices(List<MonthlyInvoice> invoices) {
+        jdbcTemplate.batchUpdate(UPSERT_INVOICE, invoices, 1000, (ps, invoice) -> {
+            ps.setLong(1, invoice.getMerchantId());
+            ps.setString(2, invoice.getBillingMonth());
+            ps.setString(3, invoice.getOperationMode().name());
+            ps.setLong(4, invoice.getTransactionCount());
+            ps.setBigDecimal(5, BigDecimal.valueOf(invoice.getVolumePaise(), 2));
+            ps.setBigDecimal(6, BigDecimal.valueOf(invoice.getTransactionFeesPaise(), 2));
+            ps.setBigDecimal(7, BigDecimal.valueOf(invoice.getPercentageFeesPaise(), 2));
+            ps.setBigDecimal(8, BigDecimal.valueOf(invoice.getMonthlyFeePaise(), 2));
+            ps.setBigDecimal(9, invoice.getTotalFees());
+        });
+    }
+
+    private MerchantConfigSnapshot config(Map<Long, MerchantConfigSnapshot> configs, Long merchantId) {
+        // Merchants deactivated during the month still get billed for it
+        return configs.computeIfAbsent(merchantId, merchantConfigService::getConfigSnapshot);
+    }
+
+    private Merchant.OperationMode modeOf(MerchantConfigSnapshot config) {
+        return config.getOperationMode() != null ? config.getOperationMode() : Merchant.OperationMode.FULL_PROCESSOR;
+    }
+
+    private FeeStructure feesOf(MerchantConfigSnapshot config) {
+        return config.getFeeStructure() != null
+            ? config.getFeeStructure()
+            : merchantConfigService.createDefaultFeeStructure(modeOf(config));
+    }
+}
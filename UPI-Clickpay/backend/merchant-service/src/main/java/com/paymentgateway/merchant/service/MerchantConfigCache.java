@@ -0,0 +1,102 @@
+package com.paymentgateway.merchant.service;
+
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.repository.MerchantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed merchant configuration keyed by the merchant's user id. Reads return the cached
+ * immutable snapshot; the row is only loaded (and its JSONB decoded) on a miss, after an
+ * update, or once the TTL has passed in case another instance changed it.
+ */
+@Service
+public class MerchantConfigCache {
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Value("${merchant.config-cache.ttl:5m}")
+    private Duration ttl;
+
+    private final ConcurrentHashMap<Long, MerchantConfigSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    public MerchantConfigSnapshot get(Long merchantId) {
+        MerchantConfigSnapshot snapshot = snapshots.get(merchantId);
+        if (snapshot != null && System.currentTimeMillis() - snapshot.getLoadedAtMillis() <= ttl.toMillis()) {
+            return snapshot;
+        }
+        return load(merchantId);
+    }
+
+    /**
+     * Snapshots for the given merchants, loading every miss with one query
+     * @return found merchants only; unknown ids are left out
+     */
+    public Map<Long, MerchantConfigSnapshot> getAll(Collection<Long> merchantIds) {
+        Map<Long, MerchantConfigSnapshot> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (Long merchantId : merchantIds) {
+            MerchantConfigSnapshot snapshot = snapshots.get(merchantId);
+            if (snapshot != null && now - snapshot.getLoadedAtMillis() <= ttl.toMillis()) {
+                found.put(merchantId, snapshot);
+            } else {
+                misses.add(merchantId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            merchantRepository.findByUserIdIn(misses).forEach(merchant -> {
+                MerchantConfigSnapshot loaded = new MerchantConfigSnapshot(merchant, now);
+                found.put(merchant.getUserId(), snapshots.merge(merchant.getUserId(), loaded,
+                    (current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current));
+            });
+        }
+        return found;
+    }
+
+    /**
+     * Load the merchant's row again, e.g. after another instance reported a change
+     */
+    public MerchantConfigSnapshot reload(Long merchantId) {
+        snapshots.remove(merchantId);
+        return load(merchantId);
+    }
+
+    /**
+     * Drop the entry once the surrounding transaction commits, so a concurrent reader
+     * cannot re-cache the old row between the update and the commit
+     */
+    public void invalidate(Long merchantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.remove(merchantId);
+                }
+            });
+        }
+        snapshots.remove(merchantId);
+    }
+
+    private MerchantConfigSnapshot load(Long merchantId) {
+        MerchantConfigSnapshot loaded = merchantRepository.findByUserId(merchantId)
+            .map(merchant -> new MerchantConfigSnapshot(merchant, System.currentTimeMillis()))
+            .orElseThrow(() -> new RuntimeException("Merchant not found"));
+
+        // Never replace a newer version with an older one loaded concurrently
+        return snapshots.merge(merchantId, loaded,
+            (current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current);
+    }
+}
@@ -1,14 +1,20 @@
 package com.paymentgateway.merchant.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymentgateway.common.dto.RateLimitPolicy;
+import com.paymentgateway.merchant.config.RateLimitTierProperties;
 import com.paymentgateway.merchant.dto.MerchantConfigRequest;
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.entity.BankConfig;
+import com.paymentgateway.merchant.entity.FeeStructure;
 import com.paymentgateway.merchant.entity.Merchant;
+import com.paymentgateway.merchant.entity.SettlementConfig;
 import com.paymentgateway.merchant.repository.MerchantRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,7 +25,10 @@ public class MerchantConfigService {
     private MerchantRepository merchantRepository;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private MerchantConfigCache merchantConfigCache;
+
+    @Autowired
+    private RateLimitTierProperties rateLimitTierProperties;
 
     @Transactional
     public void updateMerchantConfiguration(Long merchantId, MerchantConfigRequest request) {
@@ -36,12 +45,7 @@ public class MerchantConfigService {
 
         // Update fee structure
         if (request.getFeeStructure() != null) {
-            try {
-                String feeStructureJson = objectMapper.writeValueAsString(request.getFeeStructure());
-                merchant.setFeeStructure(feeStructureJson);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to serialize fee structure", e);
-            }
+            merchant.setFeeStructure(FeeStructure.from(request.getFeeStructure()));
         } else {
             // Set default fee structure based on operation mode
             merchant.setFeeStructure(createDefaultFeeStructure(request.getOperationMode()));
@@ -49,90 +53,43 @@ public class MerchantConfigService {
 
         // Update bank configuration
         if (request.getBankConfig() != null) {
-            try {
-                String bankConfigJson = objectMapper.writeValueAsString(request.getBankConfig());
-                merchant.setBankConfig(bankConfigJson);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to serialize bank configuration", e);
-            }
+            merchant.setBankConfig(BankConfig.from(request.getBankConfig()));
         }
 
         // Update settlement configuration
         if (request.getSettlementConfig() != null) {
-            try {
-                String settlementConfigJson = objectMapper.writeValueAsString(request.getSettlementConfig());
-                merchant.setSettlementConfig(settlementConfigJson);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to serialize settlement configuration", e);
-            }
+            merchant.setSettlementConfig(SettlementConfig.from(request.getSettlementConfig()));
         }
 
         merchantRepository.save(merchant);
+        merchantConfigCache.invalidate(merchantId);
     }
 
     public MerchantConfigRequest getMerchantConfiguration(Long merchantId) {
-        Merchant merchant = merchantRepository.findByUserId(merchantId)
-            .orElseThrow(() -> new RuntimeException("Merchant not found"));
-
-        MerchantConfigRequest config = new MerchantConfigRequest();
-        config.setOperationMode(merchant.getOperationMode());
-        config.setPreferredBank(merchant.getPreferredBank());
-
-        try {
-            if (merchant.getFeeStructure() != null) {
-                MerchantConfigRequest.FeeStructureDto feeStructure = 
-                    objectMapper.readValue(merchant.getFeeStructure(), MerchantConfigRequest.FeeStructureDto.class);
-                config.setFeeStructure(feeStructure);
-            }
-
-            if (merchant.getBankConfig() != null) {
-                MerchantConfigRequest.BankConfigDto bankConfig = 
-                    objectMapper.readValue(merchant.getBankConfig(), MerchantConfigRequest.BankConfigDto.class);
-                config.setBankConfig(bankConfig);
-            }
-
-            if (merchant.getSettlementConfig() != null) {
-                MerchantConfigRequest.SettlementConfigDto settlementConfig = 
-                    objectMapper.readValue(merchant.getSettlementConfig(), MerchantConfigRequest.SettlementConfigDto.class);
-                config.setSettlementConfig(settlementConfig);
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to deserialize merchant configuration", e);
-        }
+        return merchantConfigCache.get(merchantId).toRequest();
+    }
 
-        return config;
+    /**
+     * Typed configuration for use on hot paths; the returned snapshot is immutable and cached
+     */
+    public MerchantConfigSnapshot getConfigSnapshot(Long merchantId) {
+        return merchantConfigCache.get(merchantId);
     }
 
-    private String createDefaultFeeStructure(Merchant.OperationMode operationMode) {
-        try {
-            MerchantConfigRequest.FeeStructureDto feeStructure = new MerchantConfigRequest.FeeStructureDto();
-            
-            switch (operationMode) {
-                case GATEWAY_ONLY:
-                    feeStructure.setSetupFee(BigDecimal.ZERO);
-                    feeStructure.setMonthlyFee(new BigDecimal("2000"));
-                    feeStructure.setTransactionFee(new BigDecimal("2.00"));
-                    feeStructure.setPercentageFee(BigDecimal.ZERO);
-                    break;
-                    
-                case FULL_PROCESSOR:
-                    feeStructure.setSetupFee(new BigDecimal("5000"));
-                    feeStructure.setMonthlyFee(new BigDecimal("1000"));
-                    feeStructure.setTransactionFee(new BigDecimal("2.00"));
-                    feeStructure.setPercentageFee(new BigDecimal("1.5"));
-                    break;
-                    
-                case HYBRID:
-                    feeStructure.setSetupFee(new BigDecimal("2500"));
-                    feeStructure.setMonthlyFee(new BigDecimal("1500"));
-                    feeStructure.setTransactionFee(new BigDecimal("2.00"));
-                    feeStructure.setPercentageFee(new BigDecimal("0.75")); // Average
-                    break;
-            }
-            
-            return objectMapper.writeValueAsString(feeStructure);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to create default fee structure", e);
+    FeeStructure createDefaultFeeStructure(Merchant.OperationMode operationMode) {
+        switch (operationMode) {
+            case GATEWAY_ONLY:
+                return new FeeStructure(BigDecimal.ZERO, new BigDecimal("2000"), new BigDecimal("2.00"), BigDecimal.ZERO);
+
+            case FULL_PROCESSOR:
+                return new FeeStructure(new BigDecimal("5000"), new BigDecimal("1000"), new BigDecimal("2.00"), new BigDecimal("1.5"));
+
+            case HYBRID:
+                // Average percentage
+                return new FeeStructure(new BigDecimal("2500"), new BigDecimal("1500"), new BigDecimal("2.00"), new BigDecimal("0.75"));
+
+            default:
+                throw new RuntimeException("Unknown operation mode: " + operationMode);
         }
     }
 
@@ -142,7 +99,7 @@ public class MerchantConfigService {
         
         Map<String, Object> estimate = new HashMap<>();
         
-        int transactions = monthlyVolume.divide(avgTransactionSize, 0, BigDecimal.ROUND_UP).intValue();
+        int transactions = monthlyVolume.divide(avgTransactionSize, 0, RoundingMode.UP).intValue();
         
         BigDecimal setupFee = BigDecimal.ZERO;
         BigDecimal monthlyFee = BigDecimal.ZERO;
@@ -176,7 +133,7 @@ public class MerchantConfigService {
         }
         
         BigDecimal totalMonthlyFee = monthlyFee.add(transactionFees).add(percentageFees);
-        BigDecimal effectiveRate = totalMonthlyFee.divide(monthlyVolume, 4, BigDecimal.ROUND_HALF_UP)
+        BigDecimal effectiveRate = totalMonthlyFee.divide(monthlyVolume, 4, RoundingMode.HALF_UP)
                                                  .multiply(new BigDecimal("100"));
         
         estimate.put("setupFee", setupFee);
@@ -210,6 +167,7 @@ public class MerchantConfigService {
         return true;
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getMerchantInfo(Long merchantId) {
         Merchant merchant = merchantRepository.findById(merchantId)
             .orElseThrow(() -> new RuntimeException("Merchant not found"));
@@ -225,4 +183,19 @@ public class MerchantConfigService {
 
         return info;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gateway rate limits for a merchant, resolved from its tier
+     */
+    @Transactional(readOnly = true)
+    public RateLimitPolicy getRateLimitPolicy(Long merchantId) {
+        Merchant merchant = merchantRepository.findByUserId(merchantId)
+            .orElseThrow(() -> new RuntimeException("Merchant not found"));
+
+        Merchant.RateLimitTier tier = merchant.getRateLimitTier() != null
+            ? merchant.getRateLimitTier()
+            : Merchant.RateLimitTier.STANDARD;
+
+        return new RateLimitPolicy(merchantId, tier.name(), rateLimitTierProperties.limitsFor(tier));
+    }
+}
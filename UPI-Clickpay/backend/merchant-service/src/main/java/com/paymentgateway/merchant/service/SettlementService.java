@@ -0,0 +1,384 @@
+package com.paymentgateway.merchant.service;
+
+import com.paymentgateway.common.jobs.JobCoordinator;
+import com.paymentgateway.merchant.billing.FeeSchedule;
+import com.paymentgateway.merchant.dto.MerchantConfigSnapshot;
+import com.paymentgateway.merchant.dto.SettlementSummary;
+import com.paymentgateway.merchant.entity.FeeStructure;
+import com.paymentgateway.merchant.entity.Merchant;
+import com.paymentgateway.merchant.entity.SettlementConfig;
+import com.paymentgateway.merchant.settlement.PaymentChunk;
+import com.paymentgateway.merchant.settlement.SettlementCycle;
+import com.paymentgateway.merchant.settlement.SettlementEngine;
+import com.paymentgateway.merchant.settlement.SettlementPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settlement runs: streams the payments and refunds that are due under each merchant's
+ * settlement_config, nets fees and refunds per merchant on {@link SettlementEngine},
+ * then totals the batches and writes the payout file for the bank.
+ */
+@Service
+public class SettlementService {
+
+    // Everything in the lookback window that still has a due entry, in merchant order.
+    // Amounts are converted to paise in the query so no BigDecimal is created per row.
+    private static final String SELECT_UNSETTLED =
+        "SELECT p.id, p.merchant_id, p.status, (p.amount * 100)::BIGINT, " +
+        "COALESCE((p.refund_amount * 100)::BIGINT, 0), p.completed_at, p.refunded_at, " +
+        "EXISTS (SELECT 1 FROM settlement_line_items li WHERE li.payment_id = p.id AND li.entry_type = 'PAYMENT'), " +
+        "EXISTS (SELECT 1 FROM settlement_line_items li WHERE li.payment_id = p.id AND li.entry_type = 'REFUND') " +
+        "FROM payments p " +
+        "WHERE p.status IN ('SUCCESS', 'REFUNDED') AND p.completed_at < ? " +
+        "AND (p.completed_at >= ? OR p.refunded_at >= ?) " +
+        "AND (NOT EXISTS (SELECT 1 FROM settlement_line_items li WHERE li.payment_id = p.id AND li.entry_type = 'PAYMENT') " +
+        "OR (p.status = 'REFUNDED' AND NOT EXISTS " +
+        "(SELECT 1 FROM settlement_line_items li WHERE li.payment_id = p.id AND li.entry_type = 'REFUND'))) " +
+        "ORDER BY p.merchant_id, p.id";
+
+    // A completed date starts a new generation, so late entries get new batches and a new
+    // file; an interrupted one resumes its current generation
+    private static final String UPSERT_RUN =
+        "INSERT INTO settlement_runs (settlement_date, status) VALUES (?, 'RUNNING') " +
+        "ON CONFLICT (settlement_date) DO UPDATE SET status = 'RUNNING', started_at = CURRENT_TIMESTAMP, " +
+        "completed_at = NULL, error_message = NULL, generation = CASE WHEN settlement_runs.status = 'COMPLETED' " +
+        "THEN settlement_runs.generation + 1 ELSE settlement_runs.generation END RETURNING id, generation";
+
+    private static final String TOTAL_BATCHES =
+        "UPDATE settlement_batches b SET gross_amount = t.gross, refund_amount = t.refunds, fee_amount = t.fees, " +
+        "net_amount = t.gross - t.refunds - t.fees, item_count = t.items FROM (" +
+        "SELECT li.batch_id, " +
+        "COALESCE(SUM(li.amount) FILTER (WHERE li.entry_type = 'PAYMENT'), 0) AS gross, " +
+        "COALESCE(SUM(li.amount) FILTER (WHERE li.entry_type = 'REFUND'), 0) AS refunds, " +
+        "SUM(li.fee) AS fees, COUNT(*) AS items " +
+        "FROM settlement_line_items li JOIN settlement_batches sb ON sb.id = li.batch_id " +
+        "WHERE sb.run_id = ? AND sb.generation = ? GROUP BY li.batch_id) t WHERE b.id = t.batch_id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SettlementEngine settlementEngine;
+
+    @Autowired
+    private MerchantConfigService merchantConfigService;
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    @Value("${settlement.enabled:true}")
+    private boolean enabled;
+
+    @Value("${settlement.chunk-size:8192}")
+    private int chunkSize;
+
+    @Value("${settlement.fetch-size:10000}")
+    private int fetchSize;
+
+    // Payments completed or refunded earlier than this are assumed settled
+    @Value("${settlement.lookback-days:30}")
+    private int lookbackDays;
+
+    @Value("${settlement.payout-dir:./settlements}")
+    private String payoutDir;
+
+    @Value("${billing.hybrid.gateway-threshold:2000.00}")
+    private BigDecimal hybridGatewayThreshold;
+
+    // Every merchant-service node fires the cron; only the settlement job's leader runs it
+    @Scheduled(cron = "${settlement.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jobCoordinator.leader("settlement").runIfLeader(() -> {
+                SettlementSummary summary = runSettlement(LocalDate.now(), false);
+                System.out.println("Settlement for " + summary.getSettlementDate() + " paid " + summary.getBatchesPaid()
+                    + " merchants from " + summary.getLineItems() + " line items in " + summary.getDurationMs() + " ms");
+            });
+        } catch (Exception e) {
+            System.out.println("Scheduled settlement failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Settle everything due on the given date. Re-running a date resumes an interrupted
+     * run, or pays late entries for a completed one in a new generation with its own batches
+     * and payout file; batches in a written payout file are PAID and never paid again.
+     * @param includeManual also settle merchants that have autoSettlement switched off
+     */
+    public SettlementSummary runSettlement(LocalDate settlementDate, boolean includeManual) {
+        long started = System.currentTimeMillis();
+        Map<Long, SettlementPlan> plans = loadPlans(settlementDate, includeManual);
+        long[] run = jdbcTemplate.queryForObject(UPSERT_RUN,
+            (rs, rowNum) -> new long[] {rs.getLong(1), rs.getInt(2)}, Date.valueOf(settlementDate));
+        long runId = run[0];
+        int generation = (int) run[1];
+
+        try {
+            long latestCutoff = plans.values().stream().mapToLong(SettlementPlan::getCutoffMillis).max().orElse(0L);
+            long lineItems = 0;
+            if (!plans.isEmpty()) {
+                lineItems = streamDueEntries(runId, generation, plans, latestCutoff,
+                    settlementDate.minusDays(lookbackDays));
+            }
+
+            jdbcTemplate.update(TOTAL_BATCHES, runId, generation);
+            List<SettlementSummary.Batch> batches = closeBatches(runId, generation, plans);
+            Path payoutFile = writePayoutFile(settlementDate, runId, generation, batches);
+            markPaid(runId, batches, payoutFile);
+
+            SettlementSummary summary = new SettlementSummary(runId, settlementDate.toString(), plans.size(),
+                lineItems, batches, payoutFile.toString());
+            summary.setDurationMs(System.currentTimeMillis() - started);
+            return summary;
+        } catch (RuntimeException e) {
+            jdbcTemplate.update("UPDATE settlement_runs SET status = 'FAILED', error_message = ? WHERE id = ?",
+                e.getMessage(), runId);
+            throw e;
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<SettlementSummary.Batch> getBatches(Long merchantId) {
+        return jdbcTemplate.query(
+            "SELECT b.id, b.merchant_id, b.status, b.gross_amount, b.refund_amount, b.fee_amount, b.net_amount, " +
+            "b.item_count, r.settlement_date FROM settlement_batches b JOIN settlement_runs r ON r.id = b.run_id " +
+            "WHERE b.merchant_id = ? ORDER BY r.settlement_date DESC",
+            (rs, rowNum) -> {
+                SettlementSummary.Batch batch = readBatch(rs);
+                batch.setSettlementDate(rs.getDate("settlement_date").toString());
+                return batch;
+            },
+            merchantId);
+    }
+
+    private Map<Long, SettlementPlan> loadPlans(LocalDate settlementDate, boolean includeManual) {
+        long thresholdPaise = FeeSchedule.toPaise(hybridGatewayThreshold);
+        Map<Long, SettlementPlan> plans = new HashMap<>();
+
+        for (Long merchantId : jdbcTemplate.queryForList("SELECT user_id FROM merchants WHERE is_active = TRUE", Long.class)) {
+            MerchantConfigSnapshot config = merchantConfigService.getConfigSnapshot(merchantId);
+            Merchant.OperationMode mode = config.getOperationMode() != null
+                ? config.getOperationMode() : Merchant.OperationMode.FULL_PROCESSOR;
+            SettlementConfig settlement = config.getSettlementConfig();
+
+            // GATEWAY_ONLY and DIRECT merchants are paid by their own bank, not by us
+            if (mode == Merchant.OperationMode.GATEWAY_ONLY || settlement == null
+                    || "DIRECT".equalsIgnoreCase(settlement.getSettlementMode())) {
+                continue;
+            }
+            if (!settlement.isAutoSettlement() && !includeManual) {
+                continue;
+            }
+
+            FeeStructure fees = config.getFeeStructure() != null
+                ? config.getFeeStructure() : merchantConfigService.createDefaultFeeStructure(mode);
+            LocalDateTime cutoff = SettlementCycle.of(settlement).cutoff(settlementDate);
+            plans.put(merchantId, new SettlementPlan(
+                merchantId,
+                FeeSchedule.of(mode, fees, thresholdPaise),
+                Timestamp.valueOf(cutoff).getTime(),
+                FeeSchedule.toPaise(settlement.getMinimumSettlementAmount()),
+                settlement.getSettlementAccount()
+            ));
+        }
+        return plans;
+    }
+
+    /**
+     * Single reader, many writers: the cursor is read on this thread and handed to the
+     * engine one merchant-chunk at a time.
+     * @return line items written
+     */
+    private long streamDueEntries(long runId, int generation, Map<Long, SettlementPlan> plans, long latestCutoff,
+                                  LocalDate windowStart) {
+        SettlementEngine.Run run = settlementEngine.startRun(runId, generation);
+        Timestamp windowStartTs = Timestamp.valueOf(windowStart.atStartOfDay());
+
+        // Postgres only streams with a cursor inside a transaction
+        transactionTemplate.executeWithoutResult(status -> {
+            PaymentChunk[] current = new PaymentChunk[1];
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_UNSETTLED,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, new Timestamp(latestCutoff));
+                ps.setTimestamp(2, windowStartTs);
+                ps.setTimestamp(3, windowStartTs);
+                return ps;
+            }, rs -> {
+                SettlementPlan plan = plans.get(rs.getLong(2));
+                if (plan == null) {
+                    return;
+                }
+                long cutoff = plan.getCutoffMillis();
+
+                Timestamp completedAt = rs.getTimestamp(6);
+                long amount = !rs.getBoolean(8) && completedAt.getTime() < cutoff ? rs.getLong(4) : 0L;
+
+                Timestamp refundedAt = rs.getTimestamp(7);
+                long refund = "REFUNDED".equals(rs.getString(3)) && !rs.getBoolean(9)
+                    && refundedAt != null && refundedAt.getTime() < cutoff ? rs.getLong(5) : 0L;
+
+                if (amount == 0 && refund == 0) {
+                    return;
+                }
+                PaymentChunk chunk = current[0];
+                if (chunk == null || chunk.getPlan() != plan || chunk.isFull()) {
+                    if (chunk != null) {
+                        run.submit(chunk);
+                    }
+                    chunk = new PaymentChunk(plan, chunkSize);
+                    current[0] = chunk;
+                }
+                chunk.add(rs.getLong(1), amount, refund);
+            });
+            if (current[0] != null) {
+                run.submit(current[0]);
+            }
+        });
+
+        run.finish();
+        return run.getItemsWritten();
+    }
+
+    /**
+     * Batches under the merchant's minimum, or in debit after refunds, are not paid. Their
+     * line items are released so the entries roll into the next cycle.
+     */
+    private List<SettlementSummary.Batch> closeBatches(long runId, int generation, Map<Long, SettlementPlan> plans) {
+        List<SettlementSummary.Batch> batches = jdbcTemplate.query(
+            "SELECT id, merchant_id, status, gross_amount, refund_amount, fee_amount, net_amount, item_count " +
+            "FROM settlement_batches WHERE run_id = ? AND generation = ? AND status IN ('OPEN', 'READY') " +
+            "ORDER BY merchant_id",
+            (rs, rowNum) -> readBatch(rs),
+            runId, generation);
+
+        List<Long> carried = new ArrayList<>();
+        for (SettlementSummary.Batch batch : batches) {
+            SettlementPlan plan = plans.get(batch.getMerchantId());
+            long minimum = plan != null ? Math.max(1L, plan.getMinimumPayoutPaise()) : 1L;
+            if (batch.getNetPaise() < minimum) {
+                batch.setStatus("CARRIED_FORWARD");
+                carried.add(batch.getBatchId());
+            } else {
+                batch.setStatus("READY");
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("DELETE FROM settlement_line_items WHERE batch_id = ?", carried, 1000,
+                (ps, batchId) -> ps.setLong(1, batchId));
+            jdbcTemplate.batchUpdate("UPDATE settlement_batches SET status = ? WHERE id = ?", batches, 1000,
+                (ps, batch) -> {
+                    ps.setString(1, batch.getStatus());
+                    ps.setLong(2, batch.getBatchId());
+                });
+        });
+        return batches;
+    }
+
+    /**
+     * Each generation gets its own file, and an existing file is never replaced: the bank may
+     * already have taken it. One left by a run that died before marking its batches PAID has
+     * to be reconciled by hand.
+     */
+    private Path writePayoutFile(LocalDate settlementDate, long runId, int generation,
+                                 List<SettlementSummary.Batch> batches) {
+        Path file = Paths.get(payoutDir, "payouts-" + settlementDate
+            + (generation > 0 ? "-" + generation : "") + ".csv");
+        if (Files.exists(file)) {
+            throw new RuntimeException("Payout file " + file + " already exists and may have been delivered;"
+                + " reconcile run " + runId + " generation " + generation + " before re-running");
+        }
+        Map<Long, String> accounts = new HashMap<>();
+        jdbcTemplate.query("SELECT id, settlement_account FROM settlement_batches WHERE run_id = ? AND generation = ?",
+            rs -> { accounts.put(rs.getLong(1), rs.getString(2)); }, runId, generation);
+
+        try {
+            Files.createDirectories(file.getParent());
+            // Written to a temporary file and moved so the bank never picks up a partial file
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write("batch_id,merchant_id,settlement_account,gross,refunds,fees,net,currency\n");
+                StringBuilder line = new StringBuilder(128);
+                for (SettlementSummary.Batch batch : batches) {
+                    if (!"READY".equals(batch.getStatus())) {
+                        continue;
+                    }
+                    line.setLength(0);
+                    line.append(batch.getBatchId()).append(',')
+                        .append(batch.getMerchantId()).append(',')
+                        .append(accounts.getOrDefault(batch.getBatchId(), "")).append(',')
+                        .append(BigDecimal.valueOf(batch.getGrossPaise(), 2).toPlainString()).append(',')
+                        .append(BigDecimal.valueOf(batch.getRefundPaise(), 2).toPlainString()).append(',')
+                        .append(BigDecimal.valueOf(batch.getFeePaise(), 2).toPlainString()).append(',')
+                        .append(BigDecimal.valueOf(batch.getNetPaise(), 2).toPlainString()).append(",INR\n");
+                    out.append(line);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write payout file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    // The batches in the file are paid from here on; later runs of the date never touch them
+    private void markPaid(long runId, List<SettlementSummary.Batch> batches, Path payoutFile) {
+        List<SettlementSummary.Batch> paid = batches.stream()
+            .filter(batch -> "READY".equals(batch.getStatus()))
+            .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate("UPDATE settlement_batches SET status = 'PAID' WHERE id = ?", paid, 1000,
+                (ps, batch) -> ps.setLong(1, batch.getBatchId()));
+            jdbcTemplate.update("UPDATE settlement_runs SET status = 'COMPLETED', completed_at = CURRENT_TIMESTAMP, " +
+                "payout_file = ? WHERE id = ?", payoutFile.toString(), runId);
+        });
+        paid.forEach(batch -> batch.setStatus("PAID"));
+    }
+
+    private SettlementSummary.Batch readBatch(ResultSet rs) throws SQLException {
+        SettlementSummary.Batch batch = new SettlementSummary.Batch();
+        batch.setBatchId(rs.getLong("id"));
+        batch.setMerchantId(rs.getLong("merchant_id"));
+        batch.setStatus(rs.getString("status"));
+        batch.setGrossPaise(FeeSchedule.toPaise(rs.getBigDecimal("gross_amount")));
+        batch.setRefundPaise(FeeSchedule.toPaise(rs.getBigDecimal("refund_amount")));
+        batch.setFeePaise(FeeSchedule.toPaise(rs.getBigDecimal("fee_amount")));
+        batch.setNetPaise(FeeSchedule.toPaise(rs.getBigDecimal("net_amount")));
+        batch.setItemCount(rs.getLong("item_count"));
+        return batch;
+    }
+}
@@ -0,0 +1,39 @@
+package com.paymentgateway.merchant.settlement;
+
+/**
+ * Up to a fixed number of one merchant's unsettled entries, column-wise. A row can
+ * carry a payment credit, a refund debit, or both.
+ */
+public class PaymentChunk {
+    final SettlementPlan plan;
+    final long[] paymentIds;
+    final long[] amountsPaise;      // 0 when the payment itself is already settled or not yet due
+    final long[] refundsPaise;      // 0 when there is no refund due
+    int size;
+
+    public PaymentChunk(SettlementPlan plan, int capacity) {
+        this.plan = plan;
+        this.paymentIds = new long[capacity];
+        this.amountsPaise = new long[capacity];
+        this.refundsPaise = new long[capacity];
+    }
+
+    public void add(long paymentId, long amountPaise, long refundPaise) {
+        paymentIds[size] = paymentId;
+        amountsPaise[size] = amountPaise;
+        refundsPaise[size] = refundPaise;
+        size++;
+    }
+
+    public boolean isFull() {
+        return size == paymentIds.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public SettlementPlan getPlan() { return plan; }
+
+    public int getSize() { return size; }
+}
@@ -0,0 +1,52 @@
+package com.paymentgateway.merchant.settlement;
+
+import com.paymentgateway.merchant.entity.SettlementConfig;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * T+n settlement: a run for settlement date D pays out everything completed before
+ * the start of D - n + 1. T+0 covers D itself, T+1 covers up to the end of D - 1.
+ */
+public final class SettlementCycle {
+
+    public static final SettlementCycle T_PLUS_1 = new SettlementCycle(1);
+
+    private final int lagDays;
+
+    private SettlementCycle(int lagDays) {
+        this.lagDays = lagDays;
+    }
+
+    /**
+     * @param cycle "T+0", "T+1", "T+2"; null or blank means T+1
+     */
+    public static SettlementCycle parse(String cycle) {
+        if (cycle == null || cycle.isBlank()) {
+            return T_PLUS_1;
+        }
+        String normalized = cycle.trim().toUpperCase();
+        if (!normalized.startsWith("T+")) {
+            throw new IllegalArgumentException("Unsupported settlement cycle: " + cycle);
+        }
+        int days = Integer.parseInt(normalized.substring(2));
+        if (days < 0 || days > 7) {
+            throw new IllegalArgumentException("Unsupported settlement cycle: " + cycle);
+        }
+        return new SettlementCycle(days);
+    }
+
+    public static SettlementCycle of(SettlementConfig config) {
+        return parse(config != null ? config.getSettlementCycle() : null);
+    }
+
+    /**
+     * Exclusive upper bound on completion time for a run on the given date
+     */
+    public LocalDateTime cutoff(LocalDate settlementDate) {
+        return settlementDate.minusDays(lagDays - 1L).atStartOfDay();
+    }
+
+    public int getLagDays() { return lagDays; }
+}
@@ -0,0 +1,159 @@
+package com.paymentgateway.merchant.settlement;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Turns chunks of unsettled payments into settlement line items on a pool of workers.
+ * Each chunk is written in its own transaction, so a committed chunk is a checkpoint:
+ * a restarted run skips everything that already has a line item.
+ */
+@Component
+public class SettlementEngine {
+
+    // A PAID batch is never reopened; a generation that already paid out fails the run instead
+    private static final String UPSERT_BATCH =
+        "INSERT INTO settlement_batches (run_id, merchant_id, generation, status, settlement_account) " +
+        "VALUES (?, ?, ?, 'OPEN', ?) ON CONFLICT (run_id, merchant_id, generation) DO UPDATE SET status = 'OPEN', " +
+        "settlement_account = EXCLUDED.settlement_account WHERE settlement_batches.status <> 'PAID' RETURNING id";
+
+    // A line item that already exists was written by an earlier attempt and is left alone
+    private static final String INSERT_LINE_ITEM =
+        "INSERT INTO settlement_line_items (batch_id, payment_id, entry_type, amount, fee) VALUES (?, ?, ?, ?, ?) " +
+        "ON CONFLICT (payment_id, entry_type) DO NOTHING";
+
+    // 0 = one worker per core
+    @Value("${settlement.parallelism:0}")
+    private int parallelism;
+
+    // Chunks read ahead of the workers; bounds memory however large the cycle is
+    @Value("${settlement.max-pending-chunks:0}")
+    private int maxPendingChunks;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService workers;
+    private int workerCount;
+
+    @PostConstruct
+    void init() {
+        workerCount = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    public Run startRun(long runId, int generation) {
+        return new Run(runId, generation, maxPendingChunks > 0 ? maxPendingChunks : workerCount * 2);
+    }
+
+    /**
+     * One settlement run in progress. {@link #submit} is called from the single reader
+     * thread and blocks while the workers are behind.
+     */
+    public class Run {
+        private final long runId;
+        private final int generation;
+        private final Semaphore pending;
+        private final Phaser inFlight = new Phaser(1);
+        private final Map<Long, Long> batchIds = new ConcurrentHashMap<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        private final AtomicLong itemsWritten = new AtomicLong();
+
+        Run(long runId, int generation, int maxPending) {
+            this.runId = runId;
+            this.generation = generation;
+            this.pending = new Semaphore(maxPending);
+        }
+
+        public void submit(PaymentChunk chunk) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            throwIfFailed();
+            pending.acquireUninterruptibly();
+            inFlight.register();
+            workers.execute(() -> {
+                try {
+                    if (failure.get() == null) {
+                        write(chunk);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    pending.release();
+                    inFlight.arriveAndDeregister();
+                }
+            });
+        }
+
+        /**
+         * Wait for every submitted chunk
+         * @return merchant id to batch id, for every merchant that got line items
+         */
+        public Map<Long, Long> finish() {
+            inFlight.arriveAndAwaitAdvance();
+            throwIfFailed();
+            return batchIds;
+        }
+
+        public long getItemsWritten() { return itemsWritten.get(); }
+
+        private void write(PaymentChunk chunk) {
+            SettlementPlan plan = chunk.getPlan();
+            long batchId = batchIds.computeIfAbsent(plan.getMerchantId(), merchantId ->
+                jdbcTemplate.queryForObject(UPSERT_BATCH, Long.class, runId, merchantId, generation,
+                    plan.getSettlementAccount()));
+
+            List<Object[]> rows = new ArrayList<>(chunk.size * 2);
+            for (int i = 0; i < chunk.size; i++) {
+                long amount = chunk.amountsPaise[i];
+                if (amount > 0) {
+                    long fee = plan.getFeeSchedule().feeFor(amount);
+                    rows.add(new Object[] {batchId, chunk.paymentIds[i], "PAYMENT",
+                        BigDecimal.valueOf(amount, 2), BigDecimal.valueOf(fee, 2)});
+                }
+                long refund = chunk.refundsPaise[i];
+                if (refund > 0) {
+                    // Fees are not returned on refunds
+                    rows.add(new Object[] {batchId, chunk.paymentIds[i], "REFUND",
+                        BigDecimal.valueOf(refund, 2), BigDecimal.ZERO});
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_LINE_ITEM, rows));
+            itemsWritten.addAndGet(rows.size());
+        }
+
+        private void throwIfFailed() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw new RuntimeException("Settlement run " + runId + " failed: " + e.getMessage(), e);
+            }
+        }
+    }
+}
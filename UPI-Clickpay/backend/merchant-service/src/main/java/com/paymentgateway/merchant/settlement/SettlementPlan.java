@@ -0,0 +1,33 @@
+package com.paymentgateway.merchant.settlement;
+
+import com.paymentgateway.merchant.billing.FeeSchedule;
+
+/**
+ * What one merchant is settled on in a run: its fees, the cycle cutoff and the payout floor
+ */
+public final class SettlementPlan {
+    private final long merchantId;
+    private final FeeSchedule feeSchedule;
+    private final long cutoffMillis;        // exclusive, epoch millis
+    private final long minimumPayoutPaise;
+    private final String settlementAccount;
+
+    public SettlementPlan(long merchantId, FeeSchedule feeSchedule, long cutoffMillis,
+                          long minimumPayoutPaise, String settlementAccount) {
+        this.merchantId = merchantId;
+        this.feeSchedule = feeSchedule;
+        this.cutoffMillis = cutoffMillis;
+        this.minimumPayoutPaise = minimumPayoutPaise;
+        this.settlementAccount = settlementAccount;
+    }
+
+    public long getMerchantId() { return merchantId; }
+
+    public FeeSchedule getFeeSchedule() { return feeSchedule; }
+
+    public long getCutoffMillis() { return cutoffMillis; }
+
+    public long getMinimumPayoutPaise() { return minimumPayoutPaise; }
+
+    public String getSettlementAccount() { return settlementAccount; }
+}
@@ -0,0 +1,323 @@
+package com.paymentgateway.payment.archive;
+
+import com.paymentgateway.common.archive.ArchiveFilter;
+import com.paymentgateway.common.archive.PaymentColumn;
+import com.paymentgateway.common.archive.Segment;
+import com.paymentgateway.common.archive.SegmentWriter;
+import com.paymentgateway.common.jobs.JobCoordinator;
+import com.paymentgateway.payment.shard.ShardContext;
+import com.paymentgateway.payment.shard.ShardDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Moves finished payments older than payment.archive.retention-days out of the payments
+ * table into immutable columnar segment files, one shard at a time, on the leader of the
+ * "payment-archive" job:
+ *
+ *   1. read up to segment-rows old terminal payments in id order
+ *   2. write them as a segment and record it in payment_archive_segments as DELETING
+ *   3. delete them from payments delete-batch-size rows at a time, pausing in between;
+ *      a row changed since step 1 (a late refund) stays and the segment is rewritten without it
+ *   4. mark the segment ARCHIVED
+ *
+ * A run first finishes any segment a previous leader left in DELETING. transaction-service
+ * reads the catalog and the payments table in one snapshot, so no payment is counted twice.
+ */
+@Service
+public class PaymentArchiver {
+
+    public static final String JOB = "payment-archive";
+
+    private static final String SELECT_BATCH =
+        "SELECT " + PaymentColumn.selectList() + " FROM payments " +
+        "WHERE id > ? AND status IN ('SUCCESS', 'FAILED', 'CANCELLED', 'EXPIRED', 'REFUNDED') " +
+        "AND created_at < ? AND COALESCE(updated_at, created_at) < ? AND " + ShardDirectory.OWNED_SLOTS + " " +
+        "AND (shard_slot IS NULL OR NOT shard_slot = ANY (?)) ORDER BY id LIMIT ?";
+
+    // Only rows still as they were archived
+    private static final String DELETE_BATCH =
+        "DELETE FROM payments p USING unnest(?::bigint[], ?::timestamp[]) AS archived(id, updated_at) " +
+        "WHERE p.id = archived.id AND p.updated_at IS NOT DISTINCT FROM archived.updated_at";
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Files no segment refers to (crashed writes, rewritten segments) are removed after this
+    private static final long STALE_FILE_MILLIS = 3_600_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    @Value("${payment.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.archive.directory}")
+    private String directory;
+
+    @Value("${payment.archive.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${payment.archive.segment-rows:50000}")
+    private int segmentRows;
+
+    @Value("${payment.archive.delete-batch-size:500}")
+    private int deleteBatchSize;
+
+    @Value("${payment.archive.delete-pause-ms:50}")
+    private long deletePauseMillis;
+
+    @Value("${payment.archive.fetch-size:5000}")
+    private int fetchSize;
+
+    @Scheduled(fixedDelayString = "${payment.archive.interval-ms:3600000}",
+               initialDelayString = "${payment.archive.initial-delay-ms:120000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jobCoordinator.leader(JOB).runIfLeader(this::archive);
+        } catch (Exception e) {
+            System.out.println("Payment archival failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One pass over every shard. Runs only on the job's leader from the fixed-delay schedule,
+     * so passes never overlap.
+     */
+    public void archive() {
+        long start = System.currentTimeMillis();
+        resumeDeleting();
+        removeStaleFiles();
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int segments = 0;
+        long archived = 0;
+        for (String shard : shardDirectory.shards()) {
+            long afterId = 0;
+            while (true) {
+                // Leadership is only checked when the run starts; stop between segments if it is gone
+                if (!jobCoordinator.leader(JOB).isLeader()) {
+                    System.out.println("Payment archival stopped: no longer the " + JOB + " leader");
+                    return;
+                }
+                long from = afterId;
+                SegmentWriter writer = new SegmentWriter(segmentRows);
+                long lastId = ShardContext.on(shard, () -> readBatch(shard, from, cutoff, writer));
+                if (writer.size() == 0) {
+                    break;
+                }
+                String fileName = shard + "/" + FILE_TIME.format(LocalDateTime.now()) + "-" + lastId + ".seg";
+                long segmentId = publish(shard, fileName, writer);
+                deleteArchived(segmentId, shard, fileName);
+                segments++;
+                archived += writer.size();
+                if (writer.size() < segmentRows) {
+                    break;
+                }
+                afterId = lastId;
+            }
+        }
+        if (segments > 0) {
+            System.out.println("Archived " + archived + " payments older than " + retentionDays + " days into "
+                + segments + " segments in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private long readBatch(String shard, long afterId, LocalDateTime cutoff, SegmentWriter writer) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        long[] lastId = {afterId};
+        ColumnMapRowMapper mapper = new ColumnMapRowMapper();
+        // In a transaction so the rows are streamed fetch-size at a time
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_BATCH);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, afterId);
+            ps.setTimestamp(2, before);
+            ps.setTimestamp(3, before);
+            int next = shardDirectory.bindOwnedSlots(ps, 4, shard);
+            ps.setArray(next, connection.createArrayOf("integer",
+                Arrays.stream(shardDirectory.movingSlots()).boxed().toArray()));
+            ps.setInt(next + 1, segmentRows);
+            return ps;
+        }, rs -> {
+            Map<String, Object> row = mapper.mapRow(rs, writer.size());
+            writer.add(row);
+            lastId[0] = ((Number) row.get("id")).longValue();
+        }));
+        return lastId[0];
+    }
+
+    private long publish(String shard, String fileName, SegmentWriter writer) {
+        try {
+            Path file = root().resolve(fileName);
+            Files.createDirectories(file.getParent());
+            writer.writeTo(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write archive segment " + fileName + ": " + e.getMessage());
+        }
+        return jdbcTemplate.queryForObject(
+            "INSERT INTO payment_archive_segments (file_name, shard, row_count, status) " +
+            "VALUES (?, ?, ?, 'DELETING') RETURNING id", Long.class, fileName, shard, writer.size());
+    }
+
+    /**
+     * Remove a segment's payments from the hot table, then mark it ARCHIVED
+     */
+    private void deleteArchived(long segmentId, String shard, String fileName) {
+        List<Long> ids = new ArrayList<>();
+        List<Timestamp> versions = new ArrayList<>();
+        try {
+            Segment.open(root().resolve(fileName)).scan(ArchiveFilter.all(),
+                EnumSet.of(PaymentColumn.ID, PaymentColumn.UPDATED_AT), row -> {
+                    ids.add((Long) row.get("id"));
+                    versions.add((Timestamp) row.get("updated_at"));
+                });
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read archive segment " + fileName + ": " + e.getMessage());
+        }
+
+        Set<Long> kept = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += deleteBatchSize) {
+            Long[] chunk = ids.subList(from, Math.min(ids.size(), from + deleteBatchSize)).toArray(new Long[0]);
+            Timestamp[] chunkVersions = versions.subList(from, from + chunk.length).toArray(new Timestamp[0]);
+            ShardContext.run(shard, () -> {
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(DELETE_BATCH);
+                    ps.setArray(1, connection.createArrayOf("bigint", chunk));
+                    ps.setArray(2, connection.createArrayOf("timestamp", chunkVersions));
+                    return ps;
+                });
+                kept.addAll(jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement("SELECT id FROM payments WHERE id = ANY (?)");
+                    ps.setArray(1, connection.createArrayOf("bigint", chunk));
+                    return ps;
+                }, (rs, rowNum) -> rs.getLong(1)));
+            });
+            pause();
+        }
+
+        if (!kept.isEmpty() && !rewriteWithout(segmentId, shard, fileName, kept)) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE payment_archive_segments SET status = 'ARCHIVED', archived_at = CURRENT_TIMESTAMP " +
+            "WHERE id = ?", segmentId);
+    }
+
+    /**
+     * Replace the segment with one leaving out payments that changed while being archived;
+     * they stay in the hot table until they are old enough again
+     * @return whether anything is left in the segment
+     */
+    private boolean rewriteWithout(long segmentId, String shard, String fileName, Set<Long> kept) {
+        try {
+            Segment segment = Segment.open(root().resolve(fileName));
+            SegmentWriter writer = new SegmentWriter(segment.getRowCount());
+            segment.scan(ArchiveFilter.all(), EnumSet.allOf(PaymentColumn.class), row -> {
+                if (!kept.contains((Long) row.get("id"))) {
+                    writer.add(row);
+                }
+            });
+            System.out.println("Archive segment " + fileName + ": " + kept.size()
+                + " payments changed while being archived, kept in the payments table");
+            if (writer.size() == 0) {
+                jdbcTemplate.update("DELETE FROM payment_archive_segments WHERE id = ?", segmentId);
+                return false;
+            }
+            String replacement = shard + "/" + FILE_TIME.format(LocalDateTime.now()) + "-" + segmentId + "-rewritten.seg";
+            writer.writeTo(root().resolve(replacement));
+            // The old file stays for readers still scanning it, until removeStaleFiles
+            jdbcTemplate.update("UPDATE payment_archive_segments SET file_name = ?, row_count = ? WHERE id = ?",
+                replacement, writer.size(), segmentId);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to rewrite archive segment " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private void resumeDeleting() {
+        List<Map<String, Object>> pending = jdbcTemplate.queryForList(
+            "SELECT id, shard, file_name FROM payment_archive_segments WHERE status = 'DELETING' ORDER BY id");
+        for (Map<String, Object> segment : pending) {
+            String shard = (String) segment.get("shard");
+            if (!shardDirectory.shards().contains(shard)) {
+                System.out.println("Archive segment " + segment.get("file_name") + " is for unknown shard " + shard + ", skipped");
+                continue;
+            }
+            deleteArchived(((Number) segment.get("id")).longValue(), shard, (String) segment.get("file_name"));
+        }
+    }
+
+    private void removeStaleFiles() {
+        Path root = root();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Set<String> live = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT file_name FROM payment_archive_segments", String.class));
+        long staleBefore = System.currentTimeMillis() - STALE_FILE_MILLIS;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            files.filter(Files::isRegularFile)
+                .filter(file -> !live.contains(root.relativize(file).toString().replace('\\', '/')))
+                .forEach(file -> {
+                    try {
+                        if (Files.getLastModifiedTime(file).toMillis() < staleBefore) {
+                            Files.delete(file);
+                        }
+                    } catch (IOException e) {
+                        System.out.println("Could not remove stale archive file " + file + ": " + e.getMessage());
+                    }
+                });
+        } catch (IOException e) {
+            System.out.println("Could not list archive directory " + root + ": " + e.getMessage());
+        }
+    }
+
+    private Path root() {
+        return Paths.get(directory);
+    }
+
+    private void pause() {
+        if (deletePauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(deletePauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while deleting archived payments");
+        }
+    }
+}
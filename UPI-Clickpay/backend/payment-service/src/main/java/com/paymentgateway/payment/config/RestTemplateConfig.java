@@ -0,0 +1,21 @@
+package com.paymentgateway.payment.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class RestTemplateConfig {
+
+    /**
+     * Shared client for bank and merchant-service calls. Built from Boot's builder so every
+     * request is observed (client span plus traceparent header) like inbound requests are.
+     * Boot offers no builder in the reactive mode, where this client is left unused.
+     */
+    @Bean
+    public RestTemplate restTemplate(ObjectProvider<RestTemplateBuilder> builder) {
+        return builder.getIfAvailable(RestTemplateBuilder::new).build();
+    }
+}
@@ -1,14 +1,17 @@
 package com.paymentgateway.payment.controller;
 
 import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
 import com.paymentgateway.payment.service.WebhookService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/webhooks")
 @CrossOrigin(origins = "*")
 public class BankWebhookController {
@@ -16,87 +19,60 @@ public class BankWebhookController {
     @Autowired
     private WebhookService webhookService;
 
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
     @PostMapping("/hdfc")
     public ResponseEntity<ApiResponse<String>> handleHdfcWebhook(
-            @RequestBody Map<String, Object> payload,
+            @RequestBody String body,
             @RequestHeader(value = "X-HDFC-Signature", required = false) String signature) {
         
-        try {
-            boolean processed = webhookService.processHdfcWebhook(payload, signature);
-            
-            if (processed) {
-                return ResponseEntity.ok(ApiResponse.success("Webhook processed successfully"));
-            } else {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Failed to process webhook"));
-            }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Webhook processing error: " + e.getMessage()));
-        }
+        return handle("hdfc", () -> webhookService.processHdfcWebhook(body, signature));
     }
 
     @PostMapping("/icici")
     public ResponseEntity<ApiResponse<String>> handleIciciWebhook(
-            @RequestBody Map<String, Object> payload,
+            @RequestBody String body,
             @RequestHeader(value = "X-ICICI-Signature", required = false) String signature) {
         
-        try {
-            boolean processed = webhookService.processIciciWebhook(payload, signature);
-            
-            if (processed) {
-                return ResponseEntity.ok(ApiResponse.success("Webhook processed successfully"));
-            } else {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Failed to process webhook"));
-            }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Webhook processing error: " + e.getMessage()));
-        }
+        return handle("icici", () -> webhookService.processIciciWebhook(body, signature));
     }
 
     @PostMapping("/sbi")
     public ResponseEntity<ApiResponse<String>> handleSbiWebhook(
-            @RequestBody Map<String, Object> payload,
+            @RequestBody String body,
             @RequestHeader(value = "X-SBI-Signature", required = false) String signature) {
         
-        try {
-            boolean processed = webhookService.processSbiWebhook(payload, signature);
-            
-            if (processed) {
-                return ResponseEntity.ok(ApiResponse.success("Webhook processed successfully"));
-            } else {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Failed to process webhook"));
-            }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Webhook processing error: " + e.getMessage()));
-        }
+        return handle("sbi", () -> webhookService.processSbiWebhook(body, signature));
     }
 
     @PostMapping("/axis")
     public ResponseEntity<ApiResponse<String>> handleAxisWebhook(
-            @RequestBody Map<String, Object> payload,
+            @RequestBody String body,
             @RequestHeader(value = "X-AXIS-Signature", required = false) String signature) {
         
-        try {
-            boolean processed = webhookService.processAxisWebhook(payload, signature);
-            
-            if (processed) {
-                return ResponseEntity.ok(ApiResponse.success("Webhook processed successfully"));
-            } else {
-                return ResponseEntity.badRequest().body(ApiResponse.error("Failed to process webhook"));
-            }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(ApiResponse.error("Webhook processing error: " + e.getMessage()));
-        }
+        return handle("axis", () -> webhookService.processAxisWebhook(body, signature));
     }
 
     @PostMapping("/generic")
     public ResponseEntity<ApiResponse<String>> handleGenericWebhook(
-            @RequestBody Map<String, Object> payload,
+            @RequestBody String body,
             @RequestHeader(value = "X-Bank-Name", required = false) String bankName,
             @RequestHeader(value = "X-Signature", required = false) String signature) {
         
+        return handle(bankName, () -> webhookService.processGenericWebhook(body, bankName, signature));
+    }
+
+    /**
+     * Run a webhook processor, timing it per bank and outcome
+     */
+    private ResponseEntity<ApiResponse<String>> handle(String bank, Supplier<Boolean> processor) {
+        long start = System.nanoTime();
+        String outcome = PaymentMetrics.OUTCOME_ERROR;
         try {
-            boolean processed = webhookService.processGenericWebhook(payload, bankName, signature);
-            
+            boolean processed = processor.get();
+            outcome = processed ? PaymentMetrics.OUTCOME_SUCCESS : PaymentMetrics.OUTCOME_FAILED;
+
             if (processed) {
                 return ResponseEntity.ok(ApiResponse.success("Webhook processed successfully"));
             } else {
@@ -104,6 +80,8 @@ public class BankWebhookController {
             }
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(ApiResponse.error("Webhook processing error: " + e.getMessage()));
+        } finally {
+            paymentMetrics.recordWebhook(bank, outcome, System.nanoTime() - start);
         }
     }
 
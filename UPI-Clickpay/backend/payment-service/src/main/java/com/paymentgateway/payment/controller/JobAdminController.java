@@ -0,0 +1,42 @@
+package com.paymentgateway.payment.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.jobs.JobCoordinator;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Which payment-service node owns which background job right now
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/jobs")
+@CrossOrigin(origins = "*")
+public class JobAdminController {
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatus(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(jobCoordinator.status()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get job status: " + e.getMessage()));
+        }
+    }
+}
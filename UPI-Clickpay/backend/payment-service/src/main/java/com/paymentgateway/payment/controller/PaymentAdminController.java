@@ -0,0 +1,115 @@
+package com.paymentgateway.payment.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.payment.metrics.LiveStats;
+import com.paymentgateway.payment.shard.ShardedPaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operator views over every merchant's payments, gathered from all shards in parallel
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/admin/payments")
+@CrossOrigin(origins = "*")
+public class PaymentAdminController {
+
+    private static final int MAX_RECENT = 500;
+    private static final int MAX_LIVE_WINDOW = 3600;
+    private static final int LIVE_POINTS = 120;
+
+    @Autowired
+    private ShardedPaymentRepository paymentRepository;
+
+    @Autowired
+    private LiveStats liveStats;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getStats(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(paymentRepository.countByStatus()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get payment stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/recent")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getRecent(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+            if (limit < 1 || limit > MAX_RECENT) {
+                throw new RuntimeException("Limit must be between 1 and " + MAX_RECENT);
+            }
+            return ResponseEntity.ok(ApiResponse.success(paymentRepository.findRecent(limit)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get recent payments: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * TPS, success rate and latency per bank and payment method over the last window seconds,
+     * from memory; cheap enough for a dashboard to poll every second. step is the timeline's
+     * resolution in seconds, by default whatever gives about 120 points.
+     */
+    @GetMapping("/live")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLive(
+            @RequestParam(defaultValue = "300") int window,
+            @RequestParam(required = false) Integer step,
+            @RequestParam(defaultValue = "cluster") String scope,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+            if (window < 1 || window > MAX_LIVE_WINDOW) {
+                throw new RuntimeException("Window must be between 1 and " + MAX_LIVE_WINDOW + " seconds");
+            }
+            int resolution = step != null ? step : Math.max(1, window / LIVE_POINTS);
+            if (resolution < 1 || resolution > window) {
+                throw new RuntimeException("Step must be between 1 and the window");
+            }
+            if (!"cluster".equals(scope) && !"node".equals(scope)) {
+                throw new RuntimeException("Scope must be cluster or node");
+            }
+            return ResponseEntity.ok(ApiResponse.success(liveStats.snapshot("cluster".equals(scope), window, resolution)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get live payment stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/live/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLiveStatus(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(liveStats.status()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get live stats status: " + e.getMessage()));
+        }
+    }
+}
@@ -1,17 +1,21 @@
 package com.paymentgateway.payment.controller;
 
 import com.paymentgateway.common.dto.ApiResponse;
-import com.paymentgateway.common.util.JwtUtil;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
 import com.paymentgateway.payment.dto.PaymentRequest;
 import com.paymentgateway.payment.dto.PaymentResponse;
+import com.paymentgateway.payment.dto.RefundRequest;
 import com.paymentgateway.payment.entity.Payment;
 import com.paymentgateway.payment.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/payments")
 @CrossOrigin(origins = "*")
 public class PaymentController {
@@ -20,15 +24,16 @@ public class PaymentController {
     private PaymentService paymentService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private TrustedIdentityResolver identityResolver;
 
     @PostMapping("/create")
     public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(
             @Valid @RequestBody PaymentRequest request,
-            @RequestHeader("Authorization") String token) {
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
         try {
-            String jwtToken = token.replace("Bearer ", "");
-            Long merchantId = jwtUtil.extractUserId(jwtToken);
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
             
             PaymentResponse response = paymentService.createPayment(merchantId, request);
             return ResponseEntity.ok(ApiResponse.success("Payment created successfully", response));
@@ -47,6 +52,26 @@ public class PaymentController {
         }
     }
 
+    @PostMapping("/{transactionId}/refund")
+    public ResponseEntity<ApiResponse<PaymentResponse>> refundPayment(
+            @PathVariable String transactionId,
+            @Valid @RequestBody RefundRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            Long merchantId = identityResolver.resolveUserId(gatewayUserId, internalAuth, token);
+
+            PaymentResponse response = paymentService.refundPayment(merchantId, transactionId, request.getAmount());
+            if (response.getStatus() != Payment.PaymentStatus.REFUNDED) {
+                return ResponseEntity.badRequest().body(ApiResponse.error("Refund was not accepted by the bank"));
+            }
+            return ResponseEntity.ok(ApiResponse.success("Payment refunded", response));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
     @PostMapping("/webhook/upi")
     public ResponseEntity<ApiResponse<PaymentResponse>> handleUPIWebhook(
             @RequestParam String transactionId,
@@ -68,7 +93,10 @@ public class PaymentController {
         return ResponseEntity.ok(generatePaymentPageHTML(transactionId));
     }
 
-    private String generatePaymentPageHTML(String transactionId) {
+    /**
+     * Also served by the reactive variant's controller
+     */
+    public static String generatePaymentPageHTML(String transactionId) {
         return """
             <!DOCTYPE html>
             <html>
@@ -100,12 +128,12 @@ public class PaymentController {
                 </div>
                 <script>
                     function openUPIApp(provider) {
-                        const upiUrl = 'upi://pay?pa=merchant@upi&am=100.00&tr=""" + transactionId + """&tn=Payment&cu=INR';
+                        const upiUrl = 'upi://pay?pa=merchant@upi&am=100.00&tr={{transactionId}}&tn=Payment&cu=INR';
                         window.location.href = upiUrl;
                     }
                 </script>
             </body>
             </html>
-            """;
+            """.replace("{{transactionId}}", transactionId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.paymentgateway.payment.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.payment.shard.ShardDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Where the payment slots are. Moving them between shards waits until settlement, billing,
+ * reports and analytics can read every shard (see {@link ShardDirectory}).
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "payment.sharding.enabled", havingValue = "true")
+@RequestMapping("/api/admin/shards")
+@CrossOrigin(origins = "*")
+public class ShardAdminController {
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatus(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+
+            return ResponseEntity.ok(ApiResponse.success(shardDirectory.status()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get shard status: " + e.getMessage()));
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.paymentgateway.payment.dto;
 
-import java.math.BigDecimal;
+import com.paymentgateway.common.money.Money;
 
 public class BankPaymentRequest {
     private String merchantId;
     private String transactionId;
-    private BigDecimal amount;
+    private Money amount;
     private String currency;
     private String paymentMethod;
     private String upiId;
@@ -15,7 +15,7 @@ public class BankPaymentRequest {
 
     public BankPaymentRequest() {}
 
-    public BankPaymentRequest(String merchantId, String transactionId, BigDecimal amount, 
+    public BankPaymentRequest(String merchantId, String transactionId, Money amount, 
                              String currency, String paymentMethod, String callbackUrl) {
         this.merchantId = merchantId;
         this.transactionId = transactionId;
@@ -32,8 +32,8 @@ public class BankPaymentRequest {
     public String getTransactionId() { return transactionId; }
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
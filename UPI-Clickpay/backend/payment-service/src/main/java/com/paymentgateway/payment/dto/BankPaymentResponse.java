@@ -1,13 +1,14 @@
 package com.paymentgateway.payment.dto;
 
-import java.math.BigDecimal;
+import com.paymentgateway.common.money.Money;
+
 import java.time.LocalDateTime;
 
 public class BankPaymentResponse {
     private String bankTransactionId;
     private String merchantTransactionId;
     private String status;
-    private BigDecimal amount;
+    private Money amount;
     private String currency;
     private String paymentUrl;
     private String qrCodeData;
@@ -19,7 +20,7 @@ public class BankPaymentResponse {
     public BankPaymentResponse() {}
 
     public BankPaymentResponse(String bankTransactionId, String merchantTransactionId, 
-                              String status, BigDecimal amount, String currency) {
+                              String status, Money amount, String currency) {
         this.bankTransactionId = bankTransactionId;
         this.merchantTransactionId = merchantTransactionId;
         this.status = status;
@@ -38,8 +39,8 @@ public class BankPaymentResponse {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
@@ -1,15 +1,13 @@
 package com.paymentgateway.payment.dto;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.entity.Payment;
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public class PaymentRequest {
+    // Must be positive; more than 2 decimals is rejected while parsing
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
-    private BigDecimal amount;
+    private Money amount;
 
     private String currency = "INR";
 
@@ -23,8 +21,8 @@ public class PaymentRequest {
 
     public PaymentRequest() {}
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
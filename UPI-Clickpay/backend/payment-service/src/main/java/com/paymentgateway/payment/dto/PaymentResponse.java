@@ -1,14 +1,14 @@
 package com.paymentgateway.payment.dto;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.entity.Payment;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class PaymentResponse {
     private Long id;
     private String transactionId;
-    private BigDecimal amount;
+    private Money amount;
     private String currency;
     private Payment.PaymentStatus status;
     private Payment.PaymentMethod paymentMethod;
@@ -19,8 +19,9 @@ public class PaymentResponse {
     private LocalDateTime createdAt;
     private String bankProvider;
     private String bankTransactionId;
-    private BigDecimal refundAmount;
+    private Money refundAmount;
     private LocalDateTime refundedAt;
+    private LocalDateTime expiresAt;
 
     public PaymentResponse() {}
 
@@ -40,6 +41,7 @@ public class PaymentResponse {
         this.bankTransactionId = payment.getBankTransactionId();
         this.refundAmount = payment.getRefundAmount();
         this.refundedAt = payment.getRefundedAt();
+        this.expiresAt = payment.getExpiresAt();
     }
 
     // Getters and setters
@@ -49,8 +51,8 @@ public class PaymentResponse {
     public String getTransactionId() { return transactionId; }
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
@@ -82,9 +84,12 @@ public class PaymentResponse {
     public String getBankTransactionId() { return bankTransactionId; }
     public void setBankTransactionId(String bankTransactionId) { this.bankTransactionId = bankTransactionId; }
 
-    public BigDecimal getRefundAmount() { return refundAmount; }
-    public void setRefundAmount(BigDecimal refundAmount) { this.refundAmount = refundAmount; }
+    public Money getRefundAmount() { return refundAmount; }
+    public void setRefundAmount(Money refundAmount) { this.refundAmount = refundAmount; }
 
     public LocalDateTime getRefundedAt() { return refundedAt; }
     public void setRefundedAt(LocalDateTime refundedAt) { this.refundedAt = refundedAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.paymentgateway.payment.dto;
+
+import com.paymentgateway.common.money.Money;
+import jakarta.validation.constraints.NotNull;
+
+public class RefundRequest {
+    // Between 0.01 and the payment amount
+    @NotNull(message = "Amount is required")
+    private Money amount;
+
+    private String reason;
+
+    // Getters and setters
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+}
@@ -1,10 +1,11 @@
 package com.paymentgateway.payment.entity;
 
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.common.money.MoneyConverter;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -20,8 +21,9 @@ public class Payment {
     @Column(name = "transaction_id", unique = true, nullable = false)
     private String transactionId;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "amount", nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Column(name = "currency", nullable = false)
     private String currency = "INR";
@@ -81,12 +83,25 @@ public class Payment {
     @Column(name = "payment_url")
     private String paymentUrl;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "refund_amount", precision = 10, scale = 2)
-    private BigDecimal refundAmount;
+    private Money refundAmount;
 
     @Column(name = "refunded_at")
     private LocalDateTime refundedAt;
 
+    // PENDING payments are expired at this time by PaymentExpiryService
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Which payment-service node expires this payment; see ExpiryPartitions
+    @Column(name = "expiry_slot")
+    private Integer expirySlot;
+
+    // Which shard slot the payment belongs to, also encoded in the transaction id; see ShardSlots
+    @Column(name = "shard_slot")
+    private Integer shardSlot;
+
     // Constructors
     public Payment() {}
 
@@ -100,8 +115,8 @@ public class Payment {
     public String getTransactionId() { return transactionId; }
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
 
-    public BigDecimal getAmount() { return amount; }
-    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public Money getAmount() { return amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
 
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
@@ -157,14 +172,26 @@ public class Payment {
     public String getPaymentUrl() { return paymentUrl; }
     public void setPaymentUrl(String paymentUrl) { this.paymentUrl = paymentUrl; }
 
-    public BigDecimal getRefundAmount() { return refundAmount; }
-    public void setRefundAmount(BigDecimal refundAmount) { this.refundAmount = refundAmount; }
+    public Money getRefundAmount() { return refundAmount; }
+    public void setRefundAmount(Money refundAmount) { this.refundAmount = refundAmount; }
 
     public LocalDateTime getRefundedAt() { return refundedAt; }
     public void setRefundedAt(LocalDateTime refundedAt) { this.refundedAt = refundedAt; }
 
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public Integer getExpirySlot() { return expirySlot; }
+    public void setExpirySlot(Integer expirySlot) { this.expirySlot = expirySlot; }
+
+    public Integer getShardSlot() { return shardSlot; }
+    public void setShardSlot(Integer shardSlot) { this.shardSlot = shardSlot; }
+
+    /**
+     * REFUNDING is held while a refund is with the bank, so only one refund can be in flight
+     */
     public enum PaymentStatus {
-        PENDING, SUCCESS, FAILED, CANCELLED, EXPIRED, REFUNDED
+        PENDING, SUCCESS, FAILED, CANCELLED, EXPIRED, REFUNDED, REFUNDING
     }
 
     public enum PaymentMethod {
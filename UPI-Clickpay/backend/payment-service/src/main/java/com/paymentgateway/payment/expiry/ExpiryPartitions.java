@@ -0,0 +1,69 @@
+package com.paymentgateway.payment.expiry;
+
+import com.paymentgateway.common.jobs.JobCoordinator;
+import com.paymentgateway.common.jobs.JobPartitions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits payment expiry into a fixed number of slots and hands each slot to exactly one
+ * payment-service node, as the partitions of the "payment-expiry" job. The
+ * {@link JobCoordinator} keeps each live node at its fair share and moves a dead node's
+ * slots to the survivors. Until {@link #register()} this node owns no slots.
+ */
+@Component
+public class ExpiryPartitions {
+
+    public static final String JOB = "payment-expiry";
+
+    @Value("${payment.expiry.slots:64}")
+    private int slotCount;
+
+    @Autowired
+    private JobCoordinator jobCoordinator;
+
+    private volatile JobPartitions partitions;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    /**
+     * Take part in expiry
+     */
+    public void register() {
+        partitions = jobCoordinator.partitioned(JOB, slotCount);
+    }
+
+    /**
+     * Slots acquired and released since the last call
+     */
+    public JobPartitions.Change rebalance() {
+        return partitions.takeChanges();
+    }
+
+    public boolean owns(int slot) {
+        JobPartitions current = partitions;
+        return current != null && current.owns(slot);
+    }
+
+    public int[] ownedSlots() {
+        JobPartitions current = partitions;
+        return current != null ? current.owned() : new int[0];
+    }
+
+    /**
+     * Slot for a payment created on this node: one this node owns, so it goes straight into
+     * the local wheel. A node that owns nothing picks any slot; the owner's sweep finds it.
+     */
+    public int assignSlot() {
+        int[] owned = ownedSlots();
+        if (owned.length == 0) {
+            return ThreadLocalRandom.current().nextInt(slotCount);
+        }
+        return owned[Math.floorMod(nextSlot.getAndIncrement(), owned.length)];
+    }
+
+    public int getSlotCount() { return slotCount; }
+}
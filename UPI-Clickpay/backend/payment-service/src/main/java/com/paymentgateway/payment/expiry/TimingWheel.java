@@ -0,0 +1,141 @@
+package com.paymentgateway.payment.expiry;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of payment ids keyed by deadline. Scheduling is O(1): the
+ * deadline picks a level by how far away it is and a slot by its own bits. Each tick
+ * drains one level-0 slot; when a level wraps, the matching slot of the level above is
+ * cascaded down. With 1s ticks and three 64-slot levels the wheel spans about 3 days;
+ * anything further out waits in an overflow bucket that is re-sorted once per span.
+ *
+ * Entries are never removed: a payment that completes before its deadline is simply
+ * skipped by the conditional UPDATE. Not thread-safe on its own; callers synchronize.
+ */
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+    private static final long SPAN_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Bucket[][] levels = new Bucket[LEVELS][SLOTS];
+    private final Bucket overflow = new Bucket();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                levels[level][slot] = new Bucket();
+            }
+        }
+    }
+
+    /**
+     * @return false if the deadline has already passed; the caller expires it straight away
+     */
+    public boolean schedule(long paymentId, long deadlineMillis) {
+        // Round up so nothing fires before its deadline
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        if (deadlineTick <= currentTick) {
+            return false;
+        }
+        place(paymentId, deadlineTick);
+        size++;
+        return true;
+    }
+
+    /**
+     * Move the wheel to the given time, handing every entry that is now due to the sink
+     */
+    public void advanceTo(long nowMillis, LongConsumer expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Highest level first so cascaded entries land in slots that are drained below
+            if ((currentTick & (SPAN_TICKS - 1)) == 0) {
+                cascade(overflow, expired);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                long levelTick = currentTick >> (SLOT_BITS * level);
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(levels[level][(int) (levelTick & SLOT_MASK)], expired);
+                }
+            }
+            Bucket due = levels[0][(int) (currentTick & SLOT_MASK)];
+            for (int i = 0; i < due.size; i++) {
+                expired.accept(due.ids[i]);
+            }
+            size -= due.size;
+            due.clear();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(long paymentId, long deadlineTick) {
+        long delta = deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                levels[level][(int) ((deadlineTick >> (SLOT_BITS * level)) & SLOT_MASK)].add(paymentId, deadlineTick);
+                return;
+            }
+        }
+        overflow.add(paymentId, deadlineTick);
+    }
+
+    private void cascade(Bucket bucket, LongConsumer expired) {
+        int count = bucket.size;
+        if (count == 0) {
+            return;
+        }
+        // Copy out first: an entry can land back in the same bucket
+        long[] ids = Arrays.copyOf(bucket.ids, count);
+        long[] deadlines = Arrays.copyOf(bucket.deadlineTicks, count);
+        bucket.clear();
+        for (int i = 0; i < count; i++) {
+            if (deadlines[i] <= currentTick) {
+                expired.accept(ids[i]);
+                size--;
+            } else {
+                place(ids[i], deadlines[i]);
+            }
+        }
+    }
+
+    /**
+     * Growable pair of primitive arrays; no object per scheduled payment
+     */
+    private static final class Bucket {
+        long[] ids = new long[4];
+        long[] deadlineTicks = new long[4];
+        int size;
+
+        void add(long id, long deadlineTick) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                deadlineTicks = Arrays.copyOf(deadlineTicks, size * 2);
+            }
+            ids[size] = id;
+            deadlineTicks[size] = deadlineTick;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            // Let a slot that absorbed a burst give the memory back
+            if (ids.length > 1024) {
+                ids = new long[4];
+                deadlineTicks = new long[4];
+            }
+        }
+    }
+}
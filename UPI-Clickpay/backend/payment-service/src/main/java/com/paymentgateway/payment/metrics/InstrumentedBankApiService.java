@@ -0,0 +1,71 @@
+package com.paymentgateway.payment.metrics;
+
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.dto.BankPaymentRequest;
+import com.paymentgateway.payment.dto.BankPaymentResponse;
+import com.paymentgateway.payment.service.BankApiService;
+
+import java.util.function.Supplier;
+
+/**
+ * Times every call into a bank adapter, tagged with the bank, the operation and the outcome,
+ * and wraps it in a "bank.<operation>" span that the adapter's HTTP call nests under
+ */
+public class InstrumentedBankApiService implements BankApiService {
+
+    private final BankApiService delegate;
+    private final PaymentMetrics metrics;
+    private final String bank;
+
+    public InstrumentedBankApiService(BankApiService delegate, PaymentMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.bank = delegate.getBankName();
+    }
+
+    @Override
+    public BankPaymentResponse createPayment(BankPaymentRequest request) {
+        return timed("create", () -> delegate.createPayment(request));
+    }
+
+    @Override
+    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
+        return timed("status", () -> delegate.checkPaymentStatus(bankTransactionId));
+    }
+
+    @Override
+    public BankPaymentResponse refundPayment(String bankTransactionId, Money refundAmount) {
+        return timed("refund", () -> delegate.refundPayment(bankTransactionId, refundAmount));
+    }
+
+    @Override
+    public boolean validateWebhookSignature(String payload, String signature) {
+        long start = System.nanoTime();
+        boolean valid = false;
+        try {
+            valid = metrics.inSpan("bank.verify_signature",
+                () -> delegate.validateWebhookSignature(payload, signature), "bank", bank);
+            return valid;
+        } finally {
+            metrics.recordBankCall(bank, "verify_signature",
+                valid ? PaymentMetrics.OUTCOME_SUCCESS : PaymentMetrics.OUTCOME_FAILED, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String getBankName() {
+        return bank;
+    }
+
+    private BankPaymentResponse timed(String operation, Supplier<BankPaymentResponse> call) {
+        long start = System.nanoTime();
+        String outcome = PaymentMetrics.OUTCOME_ERROR;
+        try {
+            BankPaymentResponse response = metrics.inSpan("bank." + operation, call, "bank", bank);
+            outcome = response != null ? PaymentMetrics.outcomeOf(response.getStatus()) : PaymentMetrics.OUTCOME_FAILED;
+            return response;
+        } finally {
+            metrics.recordBankCall(bank, operation, outcome, System.nanoTime() - start);
+        }
+    }
+}
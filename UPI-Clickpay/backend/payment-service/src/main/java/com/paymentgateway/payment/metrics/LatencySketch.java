@@ -0,0 +1,59 @@
+package com.paymentgateway.payment.metrics;
+
+/**
+ * Log-scale latency buckets, two per power of two from 0.5ms up to about 25s (slower calls
+ * share the last bucket). Percentiles read back as a bucket's upper edge, so they overstate
+ * by at most a third; plenty for a dashboard, and a bucket is one counter.
+ */
+final class LatencySketch {
+
+    static final int BUCKETS = 32;
+
+    // Bucket 0 holds everything under 2^9 microseconds
+    private static final int FIRST_OCTAVE = 9;
+
+    private LatencySketch() {
+    }
+
+    static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        if (micros < (1L << FIRST_OCTAVE)) {
+            return 0;
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int half = (int) (micros >>> (octave - 1)) & 1;
+        return Math.min(BUCKETS - 1, 1 + 2 * (octave - FIRST_OCTAVE) + half);
+    }
+
+    static double upperMillis(int bucket) {
+        if (bucket == 0) {
+            return (1L << FIRST_OCTAVE) / 1000.0;
+        }
+        int octave = FIRST_OCTAVE + (bucket - 1) / 2;
+        int half = (bucket - 1) % 2;
+        return ((1L << octave) + (half + 1) * (1L << (octave - 1))) / 1000.0;
+    }
+
+    /**
+     * @param counts bucket counts starting at counts[offset]
+     * @return null when nothing was measured
+     */
+    static Double percentileMillis(long[] counts, int offset, double quantile) {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts[offset + b];
+        }
+        if (total == 0) {
+            return null;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[offset + b];
+            if (seen >= rank) {
+                return upperMillis(b);
+            }
+        }
+        return upperMillis(BUCKETS - 1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.paymentgateway.payment.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live counters of one bank or payment method. Writers add to one of several stripes of
+ * atomic cells, picked by thread, so concurrent requests rarely touch the same cache line;
+ * once a second the roll thread drains every stripe into this node's {@link SecondRing}.
+ * The cluster ring holds the same rows summed over all nodes.
+ */
+final class LiveSeries {
+
+    static final int REQUESTS = 0;
+    static final int FAILED_REQUESTS = 1;
+    static final int SUCCEEDED = 2;
+    static final int FAILED = 3;
+    static final int LATENCY = 4;
+    static final int FIELDS = LATENCY + LatencySketch.BUCKETS;
+
+    // A cache line of padding between stripes
+    private static final int STRIDE = FIELDS + 8;
+
+    private final String key;
+    private final int stripeMask;
+    private final AtomicLongArray cells;
+    private final SecondRing node = new SecondRing(FIELDS);
+    private final SecondRing cluster;
+
+    LiveSeries(String key, int stripes, boolean clustered) {
+        this.key = key;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * STRIDE);
+        this.cluster = clustered ? new SecondRing(FIELDS) : null;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    SecondRing getNode() {
+        return node;
+    }
+
+    SecondRing getCluster() {
+        return cluster;
+    }
+
+    void recordRequest(boolean failed, long nanos) {
+        int base = stripe();
+        cells.incrementAndGet(base + REQUESTS);
+        if (failed) {
+            cells.incrementAndGet(base + FAILED_REQUESTS);
+        }
+        cells.incrementAndGet(base + LATENCY + LatencySketch.bucket(nanos));
+    }
+
+    void recordCompletion(boolean succeeded) {
+        cells.incrementAndGet(stripe() + (succeeded ? SUCCEEDED : FAILED));
+    }
+
+    /**
+     * Move everything counted since the last roll into the node ring as the given second
+     * @param values scratch of {@link #FIELDS}, left holding what was drained
+     * @return false if nothing was counted
+     */
+    boolean roll(long second, long[] values) {
+        boolean any = false;
+        for (int f = 0; f < FIELDS; f++) {
+            long sum = 0;
+            for (int base = 0; base < cells.length(); base += STRIDE) {
+                if (cells.get(base + f) != 0) {
+                    sum += cells.getAndSet(base + f, 0);
+                }
+            }
+            values[f] = sum;
+            any |= sum != 0;
+        }
+        node.put(second, values);
+        return any;
+    }
+
+    long memoryBytes() {
+        return (long) cells.length() * Long.BYTES + node.memoryBytes() + (cluster != null ? cluster.memoryBytes() : 0);
+    }
+
+    private int stripe() {
+        return ((int) Thread.currentThread().getId() & stripeMask) * STRIDE;
+    }
+}
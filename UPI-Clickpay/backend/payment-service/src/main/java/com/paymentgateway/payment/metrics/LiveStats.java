@@ -0,0 +1,251 @@
+package com.paymentgateway.payment.metrics;
+
+import com.paymentgateway.payment.entity.Payment;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-second traffic of each bank and payment method over the last hour, for the live
+ * operations dashboard, without touching Postgres:
+ *
+ *   - bank series count every call to that bank (create, status, refund), its latency
+ *     and whether it failed
+ *   - method series count payment creations the same way
+ *   - both count payments finishing as SUCCESS, or as FAILED or EXPIRED, for the success rate
+ *
+ * Memory is fixed at startup: one {@link SecondRing} per series (two with the cluster view)
+ * plus a few striped cells, whatever the traffic.
+ */
+@Component
+public class LiveStats {
+
+    private static final List<String> BANKS = List.of("hdfc", "icici", "kotak", "axis", "sbi", "other");
+    private static final String UNKNOWN_METHOD = "unknown";
+
+    @Autowired
+    private LiveStatsCluster cluster;
+
+    @Value("${payment.live-stats.enabled:true}")
+    private boolean enabled;
+
+    private final Map<String, LiveSeries> banks = new LinkedHashMap<>();
+    private final Map<String, LiveSeries> methods = new LinkedHashMap<>();
+    private final List<LiveSeries> all = new ArrayList<>();
+
+    private ScheduledExecutorService roller;
+    private volatile long latestSecond = -1;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        int stripes = Math.min(16, Integer.highestOneBit(cores * 2 - 1));
+        boolean clustered = cluster.isEnabled();
+        for (String bank : BANKS) {
+            banks.put(bank, add(new LiveSeries("bank:" + bank, stripes, clustered)));
+        }
+        for (Payment.PaymentMethod method : Payment.PaymentMethod.values()) {
+            methods.put(method.name(), add(new LiveSeries("method:" + method.name(), stripes, clustered)));
+        }
+        methods.put(UNKNOWN_METHOD, add(new LiveSeries("method:" + UNKNOWN_METHOD, stripes, clustered)));
+
+        roller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Just after each second boundary, so a row is (almost) exactly that second's traffic
+        long untilNextSecond = 1000 - System.currentTimeMillis() % 1000 + 20;
+        roller.scheduleAtFixedRate(this::roll, untilNextSecond, 1000, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (roller != null) {
+            roller.shutdownNow();
+        }
+    }
+
+    void recordBankCall(String bank, String outcome, long nanos) {
+        LiveSeries series = banks.get(PaymentMetrics.bankTag(bank));
+        if (series != null) {
+            series.recordRequest(isFailure(outcome), nanos);
+        }
+    }
+
+    void recordCreate(String method, String outcome, long nanos) {
+        LiveSeries series = methods.getOrDefault(method, methods.get(UNKNOWN_METHOD));
+        if (series != null) {
+            series.recordRequest(isFailure(outcome), nanos);
+        }
+    }
+
+    /**
+     * A payment left PENDING. Only SUCCESS, FAILED and EXPIRED count towards the success rate.
+     */
+    public void recordCompletion(String bankProvider, Payment.PaymentMethod method, Payment.PaymentStatus status) {
+        recordCompletion(bankProvider, method != null ? method.name() : null, status);
+    }
+
+    /**
+     * Same, with the payment method as stored in the payments table
+     */
+    public void recordCompletion(String bankProvider, String paymentMethod, Payment.PaymentStatus status) {
+        if (status != Payment.PaymentStatus.SUCCESS && status != Payment.PaymentStatus.FAILED
+                && status != Payment.PaymentStatus.EXPIRED) {
+            return;
+        }
+        boolean succeeded = status == Payment.PaymentStatus.SUCCESS;
+        LiveSeries bank = banks.get(PaymentMetrics.bankTag(bankProvider));
+        if (bank != null) {
+            bank.recordCompletion(succeeded);
+        }
+        LiveSeries byMethod = methods.getOrDefault(paymentMethod, methods.get(UNKNOWN_METHOD));
+        if (byMethod != null) {
+            byMethod.recordCompletion(succeeded);
+        }
+    }
+
+    /**
+     * Totals and a per-step timeline of each series over the last window seconds
+     * @param clusterScope all nodes, when the cluster view is on; this node otherwise
+     */
+    public Map<String, Object> snapshot(boolean clusterScope, int window, int step) {
+        boolean merged = clusterScope && cluster.isEnabled();
+        long end = merged ? cluster.getMergedSecond() : latestSecond;
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("scope", merged ? "cluster" : "node");
+        if (merged) {
+            snapshot.put("clusterAvailable", cluster.isAvailable());
+        }
+        snapshot.put("window", window);
+        snapshot.put("step", step);
+        if (end < 0) {
+            snapshot.put("to", null);
+            snapshot.put("banks", Map.of());
+            snapshot.put("methods", Map.of());
+            return snapshot;
+        }
+        long from = end - window + 1;
+        snapshot.put("from", Instant.ofEpochSecond(from).toString());
+        snapshot.put("to", Instant.ofEpochSecond(end + 1).toString());
+
+        Map<String, Object> byBank = new LinkedHashMap<>();
+        banks.forEach((bank, series) -> byBank.put(bank, series(series, merged, from, end, step)));
+        Map<String, Object> byMethod = new LinkedHashMap<>();
+        methods.forEach((method, series) -> byMethod.put(method, series(series, merged, from, end, step)));
+        snapshot.put("banks", byBank);
+        snapshot.put("methods", byMethod);
+        return snapshot;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("series", all.size());
+        status.put("memoryBytes", all.stream().mapToLong(LiveSeries::memoryBytes).sum());
+        status.put("latestSecond", latestSecond);
+        status.put("clusterEnabled", cluster.isEnabled());
+        status.put("clusterAvailable", cluster.isAvailable());
+        status.put("clusterSecond", cluster.getMergedSecond());
+        return status;
+    }
+
+    private void roll() {
+        try {
+            long second = System.currentTimeMillis() / 1000 - 1;
+            if (second <= latestSecond) {
+                return;
+            }
+            Map<String, long[]> published = new HashMap<>();
+            long[] drained = new long[LiveSeries.FIELDS];
+            for (LiveSeries series : all) {
+                if (series.roll(second, drained)) {
+                    published.put(series.getKey(), drained.clone());
+                }
+            }
+            latestSecond = second;
+            if (cluster.isEnabled()) {
+                cluster.exchange(second, published, all);
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to roll live payment stats: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> series(LiveSeries series, boolean merged, long from, long end, int step) {
+        SecondRing ring = merged ? series.getCluster() : series.getNode();
+        long[] total = new long[LiveSeries.FIELDS];
+        long[] point = new long[LiveSeries.FIELDS];
+        List<Double> tps = new ArrayList<>();
+        List<Double> successRate = new ArrayList<>();
+        List<Double> p95 = new ArrayList<>();
+        for (long start = from; start <= end; start += step) {
+            long stop = Math.min(end, start + step - 1);
+            Arrays.fill(point, 0);
+            for (long second = start; second <= stop; second++) {
+                ring.addTo(second, point);
+            }
+            for (int f = 0; f < LiveSeries.FIELDS; f++) {
+                total[f] += point[f];
+            }
+            tps.add(round((double) point[LiveSeries.REQUESTS] / (stop - start + 1)));
+            successRate.add(successRate(point));
+            p95.add(LatencySketch.percentileMillis(point, LiveSeries.LATENCY, 0.95));
+        }
+
+        Map<String, Object> timeline = new LinkedHashMap<>();
+        timeline.put("tps", tps);
+        timeline.put("successRate", successRate);
+        timeline.put("p95Ms", p95);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tps", round((double) total[LiveSeries.REQUESTS] / (end - from + 1)));
+        result.put("requests", total[LiveSeries.REQUESTS]);
+        result.put("failedRequests", total[LiveSeries.FAILED_REQUESTS]);
+        result.put("succeeded", total[LiveSeries.SUCCEEDED]);
+        result.put("failed", total[LiveSeries.FAILED]);
+        result.put("successRate", successRate(total));
+        result.put("p50Ms", LatencySketch.percentileMillis(total, LiveSeries.LATENCY, 0.50));
+        result.put("p95Ms", LatencySketch.percentileMillis(total, LiveSeries.LATENCY, 0.95));
+        result.put("p99Ms", LatencySketch.percentileMillis(total, LiveSeries.LATENCY, 0.99));
+        result.put("timeline", timeline);
+        return result;
+    }
+
+    private LiveSeries add(LiveSeries series) {
+        all.add(series);
+        return series;
+    }
+
+    private static boolean isFailure(String outcome) {
+        return PaymentMetrics.OUTCOME_FAILED.equals(outcome) || PaymentMetrics.OUTCOME_ERROR.equals(outcome);
+    }
+
+    // Null while no payment has finished, so an idle bank does not read as 0% successful
+    private static Double successRate(long[] values) {
+        long finished = values[LiveSeries.SUCCEEDED] + values[LiveSeries.FAILED];
+        return finished > 0 ? round((double) values[LiveSeries.SUCCEEDED] / finished) : null;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10000) / 10000.0;
+    }
+}
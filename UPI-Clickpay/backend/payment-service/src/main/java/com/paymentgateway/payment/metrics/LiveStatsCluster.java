@@ -0,0 +1,141 @@
+package com.paymentgateway.payment.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sums every payment-service node's live rows through Redis. After each roll a node adds its
+ * non-zero counters to the hash payment:live:&lt;second&gt; (one pipelined round trip), and
+ * reads seconds back whole once cluster.lag has passed, by which time every node has added
+ * its share. A node that just started, or lost Redis for a while, reads the seconds it
+ * missed the same way, up to an hour back. Traffic to Redis is the same at 1 or 10,000 TPS.
+ */
+@Component
+public class LiveStatsCluster {
+
+    private static final String KEY_PREFIX = "payment:live:";
+    private static final int READ_BATCH = 300;
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Value("${payment.live-stats.cluster.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.live-stats.cluster.lag:2s}")
+    private Duration lag;
+
+    private volatile long mergedSecond = -1;
+    private volatile boolean available = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Latest second summed over all nodes, -1 until the first one is read
+     */
+    public long getMergedSecond() {
+        return mergedSecond;
+    }
+
+    /**
+     * Publish this node's row for one second and pull every second that is now complete
+     * @param published series key to the counters it drained, non-empty series only
+     */
+    void exchange(long second, Map<String, long[]> published, List<LiveSeries> series) {
+        try {
+            if (!published.isEmpty()) {
+                publish(second, published);
+            }
+            long complete = second - lag.toSeconds();
+            long first = Math.max(mergedSecond + 1, complete - SecondRing.SLOTS + 1);
+            for (long from = first; from <= complete; from += READ_BATCH) {
+                long to = Math.min(complete, from + READ_BATCH - 1);
+                pull(from, to, series);
+                mergedSecond = to;
+            }
+            if (!available) {
+                available = true;
+                System.out.println("Live payment stats are merged across nodes again");
+            }
+        } catch (Exception e) {
+            if (available) {
+                available = false;
+                System.out.println("Live payment stats cannot reach Redis, showing this node only: " + e.getMessage());
+            }
+        }
+    }
+
+    private void publish(long second, Map<String, long[]> published) {
+        byte[] key = key(second);
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            published.forEach((seriesKey, values) -> {
+                for (int f = 0; f < values.length; f++) {
+                    if (values[f] != 0) {
+                        connection.hashCommands().hIncrBy(key, field(seriesKey, f), values[f]);
+                    }
+                }
+            });
+            connection.keyCommands().expire(key, SecondRing.SLOTS + 60);
+            return null;
+        });
+    }
+
+    private void pull(long from, long to, List<LiveSeries> series) {
+        List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (long second = from; second <= to; second++) {
+                connection.hashCommands().hGetAll(key(second));
+            }
+            return null;
+        });
+        Map<String, long[]> rows = new HashMap<>();
+        for (LiveSeries s : series) {
+            rows.put(s.getKey(), new long[LiveSeries.FIELDS]);
+        }
+        for (int i = 0; i < hashes.size(); i++) {
+            rows.values().forEach(row -> Arrays.fill(row, 0));
+            if (hashes.get(i) instanceof Map) {
+                ((Map<?, ?>) hashes.get(i)).forEach((field, value) -> add(rows, field.toString(), value.toString()));
+            }
+            for (LiveSeries s : series) {
+                s.getCluster().put(from + i, rows.get(s.getKey()));
+            }
+        }
+    }
+
+    private static void add(Map<String, long[]> rows, String field, String value) {
+        int separator = field.lastIndexOf('|');
+        long[] row = separator > 0 ? rows.get(field.substring(0, separator)) : null;
+        if (row == null) {
+            // A series this node does not know, e.g. from a newer node during a rolling deploy
+            return;
+        }
+        int index = Integer.parseInt(field.substring(separator + 1));
+        if (index < row.length) {
+            row[index] += Long.parseLong(value);
+        }
+    }
+
+    private static byte[] key(long second) {
+        return (KEY_PREFIX + second).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] field(String seriesKey, int index) {
+        return (seriesKey + '|' + index).getBytes(StandardCharsets.UTF_8);
+    }
+}
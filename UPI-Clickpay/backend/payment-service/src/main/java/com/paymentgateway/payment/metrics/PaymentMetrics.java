@@ -0,0 +1,196 @@
+package com.paymentgateway.payment.metrics;
+
+import com.paymentgateway.common.jobs.JobCoordinator;
+import com.paymentgateway.common.jobs.JobPartitions;
+import com.paymentgateway.payment.shard.ShardedPaymentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Timers for the payment hot path. Every tag value comes from a small fixed set (stage,
+ * bank, operation, payment method, outcome); free-form input such as a bank name from a
+ * webhook header is folded into "other" so a caller cannot create new series. Timers
+ * publish percentile histograms, which carry trace exemplars once tracing is enabled.
+ * Stages and bank calls also get a span of their own under the request's trace, so a
+ * slow checkout shows which stage it spent its time in.
+ */
+@Component
+public class PaymentMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_PENDING = "pending";
+    public static final String OUTCOME_FAILED = "failed";
+    public static final String OUTCOME_ERROR = "error";
+
+    private static final Set<String> KNOWN_BANKS = Set.of("hdfc", "icici", "kotak", "axis", "sbi");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final AtomicLong pendingPayments = new AtomicLong();
+
+    @Autowired
+    private ShardedPaymentRepository paymentRepository;
+
+    // Absent in the benchmarks, which construct this directly
+    @Autowired(required = false)
+    private JobCoordinator jobCoordinator;
+
+    private volatile JobPartitions pendingCountJob;
+
+    // Per-second view for the live dashboard; absent in the benchmarks
+    @Autowired(required = false)
+    private LiveStats liveStats;
+
+    // Stays NOOP where no tracer is configured, e.g. in the benchmarks
+    @Autowired(required = false)
+    private Tracer tracer = Tracer.NOOP;
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        // Reported by the node that counts them only, so max() across nodes is the total
+        Gauge.builder("payments.pending", this, PaymentMetrics::pendingCount)
+            .description("Payments in PENDING status across all nodes")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Time one stage of payment creation (merchant_lookup, bank_call, qr_generation, save)
+     */
+    public <T> T timeStage(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        String outcome = OUTCOME_ERROR;
+        try {
+            T result = inSpan("payment.create." + stage, work);
+            outcome = OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            recordStage(stage, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record a stage timed by the caller, for stages that complete asynchronously
+     */
+    public void recordStage(String stage, String outcome, long nanos) {
+        timer("payment.create.stage", "Time spent in each stage of payment creation",
+            "stage", stage, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Run work in a child span of the current trace, tagged with the given key/value pairs
+     */
+    public <T> T inSpan(String name, Supplier<T> work, String... tags) {
+        Span span = tracer.nextSpan().name(name);
+        for (int i = 0; i + 1 < tags.length; i += 2) {
+            span.tag(tags[i], tags[i + 1]);
+        }
+        span.start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            return work.get();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    public void recordCreate(String paymentMethod, String outcome, long nanos) {
+        timer("payment.create", "End-to-end payment creation",
+            "method", paymentMethod, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+        if (liveStats != null) {
+            liveStats.recordCreate(paymentMethod, outcome, nanos);
+        }
+    }
+
+    public void recordBankCall(String bank, String operation, String outcome, long nanos) {
+        timer("payment.bank.requests", "Calls to bank APIs",
+            "bank", bankTag(bank), "operation", operation, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+        // Signature checks are local HMACs, not traffic to the bank
+        if (liveStats != null && !"verify_signature".equals(operation)) {
+            liveStats.recordBankCall(bank, outcome, nanos);
+        }
+    }
+
+    public void recordQrGeneration(long nanos) {
+        timer("payment.qr.generation", "QR code rendering", "outcome", OUTCOME_SUCCESS)
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordWebhook(String bank, String outcome, long nanos) {
+        timer("payment.webhook", "Bank webhook handling",
+            "bank", bankTag(bank), "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gauge over a value owned by another component, e.g. the expiry wheel size
+     */
+    public <T> void gauge(String name, String description, T owner, ToDoubleFunction<T> value) {
+        Gauge.builder(name, owner, value).description(description).register(meterRegistry);
+    }
+
+    /**
+     * Bounded outcome tag for a bank's status string
+     */
+    public static String outcomeOf(String bankStatus) {
+        if ("SUCCESS".equalsIgnoreCase(bankStatus) || "COMPLETED".equalsIgnoreCase(bankStatus)) {
+            return OUTCOME_SUCCESS;
+        }
+        if ("PENDING".equalsIgnoreCase(bankStatus)) {
+            return OUTCOME_PENDING;
+        }
+        return OUTCOME_FAILED;
+    }
+
+    // One indexed count every 30s, on one node, rather than a query per scrape
+    @Scheduled(fixedDelayString = "${payment.metrics.pending-refresh-ms:30000}")
+    public void refreshPendingCount() {
+        try {
+            if (pendingCountJob == null && jobCoordinator != null) {
+                pendingCountJob = jobCoordinator.leader("payment-pending-count");
+            }
+            if (pendingCountJob != null) {
+                pendingCountJob.runIfLeader(() -> pendingPayments.set(paymentRepository.countPending()));
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to refresh pending payment count: " + e.getMessage());
+        }
+    }
+
+    private double pendingCount() {
+        JobPartitions job = pendingCountJob;
+        return job != null && job.isLeader() ? pendingPayments.get() : Double.NaN;
+    }
+
+    static String bankTag(String bank) {
+        if (bank == null) {
+            return "other";
+        }
+        String normalized = bank.trim().toLowerCase(Locale.ROOT);
+        return KNOWN_BANKS.contains(normalized) ? normalized : "other";
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        String key = name + '|' + String.join("|", tags);
+        return timers.computeIfAbsent(key, k -> Timer.builder(name)
+            .description(description)
+            .tags(tags)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+}
@@ -0,0 +1,51 @@
+package com.paymentgateway.payment.metrics;
+
+import java.util.Arrays;
+
+/**
+ * One counter row per second for the last {@link #SLOTS} seconds, in a fixed array reused
+ * round-robin. Only the roll thread writes; readers tolerate a row being replaced under
+ * them, since each slot is tagged with the second it holds and a stale tag reads as zeros.
+ */
+final class SecondRing {
+
+    static final int SLOTS = 3600;
+
+    private final int fields;
+    private final int[] counts;
+    private final long[] seconds = new long[SLOTS];
+
+    SecondRing(int fields) {
+        this.fields = fields;
+        this.counts = new int[SLOTS * fields];
+        Arrays.fill(seconds, -1);
+    }
+
+    void put(long second, long[] values) {
+        int slot = (int) (second % SLOTS);
+        int base = slot * fields;
+        seconds[slot] = -1;
+        for (int f = 0; f < fields; f++) {
+            counts[base + f] = (int) Math.min(Integer.MAX_VALUE, values[f]);
+        }
+        seconds[slot] = second;
+    }
+
+    /**
+     * Add one second's row to into, or nothing if that second is not held
+     */
+    void addTo(long second, long[] into) {
+        int slot = (int) (second % SLOTS);
+        if (seconds[slot] != second) {
+            return;
+        }
+        int base = slot * fields;
+        for (int f = 0; f < fields; f++) {
+            into[f] += counts[base + f];
+        }
+    }
+
+    long memoryBytes() {
+        return (long) counts.length * Integer.BYTES + (long) seconds.length * Long.BYTES;
+    }
+}
@@ -0,0 +1,71 @@
+package com.paymentgateway.payment.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the payment and webhook requests in progress. Netty accepts connections as fast as
+ * they arrive and nothing on a non-blocking path queues on a thread, so without this bound
+ * an overload would pile up in-flight payments until memory ran out. Past the limit callers
+ * get 503 at once; the WebClient and R2DBC pools bound the work behind admitted requests.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class InFlightLimitFilter implements WebFilter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxInFlight;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public InFlightLimitFilter(ReactiveProperties properties, PaymentMetrics paymentMetrics) {
+        this.maxInFlight = properties.getMaxInFlight();
+        paymentMetrics.gauge("payment.reactive.in_flight", "Payment and webhook requests in progress",
+            inFlight, AtomicInteger::get);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!path.startsWith("/api/payments") && !path.startsWith("/api/webhooks")) {
+            return chain.filter(exchange);
+        }
+
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            return reject(exchange.getResponse());
+        }
+        return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response) {
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set("Retry-After", "1");
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(ApiResponse.error("Payment service is at capacity"));
+        } catch (JsonProcessingException e) {
+            return response.setComplete();
+        }
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
@@ -0,0 +1,58 @@
+package com.paymentgateway.payment.reactive;
+
+import com.paymentgateway.payment.dto.BankPaymentResponse;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import com.paymentgateway.payment.service.BankCall;
+import com.paymentgateway.payment.service.BankProtocol;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Runs the bank adapters' {@link BankCall}s on WebClient. Outcomes map exactly as in
+ * {@link BankCall#execute}: a 200 body goes to the adapter's mapping, another 2xx/3xx to
+ * its other-status result, and errors (4xx/5xx, timeouts, a full connection pool) to its
+ * fallback. Timed like {@link com.paymentgateway.payment.metrics.InstrumentedBankApiService}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBankClient {
+
+    @Autowired
+    private WebClient paymentWebClient;
+
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
+    @SuppressWarnings("unchecked")
+    public Mono<BankPaymentResponse> execute(BankProtocol bank, BankCall call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            WebClient.RequestBodySpec request = paymentWebClient.method(call.getMethod())
+                .uri(call.getUrl())
+                .headers(headers -> headers.addAll(call.getHeaders()));
+            WebClient.RequestHeadersSpec<?> exchange = call.getBody() != null ? request.bodyValue(call.getBody()) : request;
+
+            return exchange
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == 200) {
+                        return response.bodyToMono(Map.class).map(body -> call.ok((Map<String, Object>) body));
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createException().flatMap(Mono::error);
+                    }
+                    return response.releaseBody().then(Mono.fromSupplier(call::otherStatus));
+                })
+                // RestTemplate hands the mapping a null body here, which it cannot map either
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Empty response from " + bank.getBankName())))
+                .onErrorResume(e -> Mono.fromSupplier(() -> call.error(e instanceof Exception ? (Exception) e : new RuntimeException(e))))
+                .doOnNext(response -> paymentMetrics.recordBankCall(bank.getBankName(), call.getOperation(),
+                    response != null ? PaymentMetrics.outcomeOf(response.getStatus()) : PaymentMetrics.OUTCOME_FAILED,
+                    System.nanoTime() - start));
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.paymentgateway.payment.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Reactive deployment mode of payment-service, active when the application runs as a
+ * reactive web application (profile "reactive"). Every bean in this package is
+ * conditional on it, so the servlet deployment is unchanged.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ReactiveProperties.class)
+public class ReactiveConfig {
+
+    /**
+     * Boot skips its DataSource auto-configuration once an R2DBC ConnectionFactory exists,
+     * but the JPA side (expiry, API key index, metrics refresh) still needs the Hikari pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    // With replica routing the common ReplicaRoutingConfig builds the pools instead
+    @Bean
+    @ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Client for bank and merchant-service calls. The pool bounds both open connections and
+     * waiters, so a slow bank turns into fast failures instead of an unbounded queue. Built
+     * from Boot's builder to keep the client observation (span plus traceparent header).
+     */
+    @Bean
+    public WebClient paymentWebClient(WebClient.Builder builder, ReactiveProperties properties) {
+        ConnectionProvider connections = ConnectionProvider.builder("payment-http")
+            .maxConnections(properties.getMaxConnections())
+            .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+            .pendingAcquireTimeout(properties.getResponseTimeout())
+            .build();
+        HttpClient httpClient = HttpClient.create(connections)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+            .responseTimeout(properties.getResponseTimeout());
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
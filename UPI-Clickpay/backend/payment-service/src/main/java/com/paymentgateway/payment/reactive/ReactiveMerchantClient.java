@@ -0,0 +1,51 @@
+package com.paymentgateway.payment.reactive;
+
+import com.paymentgateway.payment.rpc.MerchantDirectoryClient;
+import com.paymentgateway.payment.service.MerchantService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Merchant lookup over the non-blocking gRPC stub when RPC is enabled, otherwise over
+ * WebClient with {@link MerchantService}'s mapping. Either way the default merchant is
+ * used when merchant-service cannot answer.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMerchantClient {
+
+    @Autowired
+    private WebClient paymentWebClient;
+
+    @Autowired
+    private MerchantService merchantService;
+
+    @Autowired(required = false)
+    private MerchantDirectoryClient merchantDirectoryClient;
+
+    @SuppressWarnings("unchecked")
+    public Mono<MerchantService.MerchantInfo> getMerchantInfo(Long merchantId) {
+        if (merchantDirectoryClient != null) {
+            return Mono.fromFuture(() -> merchantDirectoryClient.getMerchantAsync(merchantId))
+                .onErrorResume(e -> {
+                    System.out.println("Error fetching merchant info over RPC: " + e.getMessage());
+                    return Mono.fromSupplier(() -> merchantService.getDefaultMerchantInfo(merchantId));
+                });
+        }
+        return paymentWebClient.get()
+            .uri(merchantService.merchantInfoUrl(merchantId))
+            .retrieve()
+            .bodyToMono(Map.class)
+            .map(merchantData -> merchantService.mapToMerchantInfo((Map<String, Object>) merchantData))
+            .onErrorResume(e -> {
+                System.out.println("Error fetching merchant info: " + e.getMessage());
+                return Mono.empty();
+            })
+            .switchIfEmpty(Mono.fromSupplier(() -> merchantService.getDefaultMerchantInfo(merchantId)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.paymentgateway.payment.reactive;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.payment.controller.PaymentController;
+import com.paymentgateway.payment.dto.PaymentRequest;
+import com.paymentgateway.payment.dto.PaymentResponse;
+import com.paymentgateway.payment.dto.RefundRequest;
+import com.paymentgateway.payment.entity.Payment;
+import com.paymentgateway.payment.service.PaymentService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Same endpoints and response bodies as {@link PaymentController}, served on WebFlux
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/payments")
+@CrossOrigin(origins = "*")
+public class ReactivePaymentController {
+
+    @Autowired
+    private ReactivePaymentService paymentService;
+
+    @Autowired
+    private PaymentService blockingPaymentService;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    @PostMapping("/create")
+    public Mono<ResponseEntity<ApiResponse<PaymentResponse>>> createPayment(
+            @Valid @RequestBody PaymentRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        return Mono.fromCallable(() -> identityResolver.resolveUserId(gatewayUserId, internalAuth, token))
+            .flatMap(merchantId -> paymentService.createPayment(merchantId, request))
+            .map(response -> ResponseEntity.ok(ApiResponse.success("Payment created successfully", response)))
+            .onErrorResume(ReactivePaymentController::badRequest);
+    }
+
+    @GetMapping("/status/{transactionId}")
+    public Mono<ResponseEntity<ApiResponse<PaymentResponse>>> getPaymentStatus(@PathVariable String transactionId) {
+        return paymentService.getPaymentStatus(transactionId)
+            .map(response -> ResponseEntity.ok(ApiResponse.success(response)))
+            .onErrorResume(ReactivePaymentController::badRequest);
+    }
+
+    @PostMapping("/{transactionId}/refund")
+    public Mono<ResponseEntity<ApiResponse<PaymentResponse>>> refundPayment(
+            @PathVariable String transactionId,
+            @Valid @RequestBody RefundRequest request,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        return Mono.fromCallable(() -> identityResolver.resolveUserId(gatewayUserId, internalAuth, token))
+            .flatMap(merchantId -> paymentService.refundPayment(merchantId, transactionId, request.getAmount()))
+            .map(response -> {
+                if (response.getStatus() != Payment.PaymentStatus.REFUNDED) {
+                    return ResponseEntity.badRequest().body(ApiResponse.<PaymentResponse>error("Refund was not accepted by the bank"));
+                }
+                return ResponseEntity.ok(ApiResponse.success("Payment refunded", response));
+            })
+            .onErrorResume(ReactivePaymentController::badRequest);
+    }
+
+    /**
+     * Rarely used manual status update; stays on JPA, off the event loop
+     */
+    @PostMapping("/webhook/upi")
+    public Mono<ResponseEntity<ApiResponse<PaymentResponse>>> handleUPIWebhook(
+            @RequestParam String transactionId,
+            @RequestParam String status,
+            @RequestParam(required = false) String bankReference) {
+        return Mono.fromCallable(() -> blockingPaymentService.updatePaymentStatus(
+                transactionId, Payment.PaymentStatus.valueOf(status.toUpperCase()), bankReference))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map(response -> ResponseEntity.ok(ApiResponse.success("Payment status updated", response)))
+            .onErrorResume(ReactivePaymentController::badRequest);
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<String> getPaymentPage(@RequestParam String transactionId) {
+        return ResponseEntity.ok(PaymentController.generatePaymentPageHTML(transactionId));
+    }
+
+    private static <T> Mono<ResponseEntity<ApiResponse<T>>> badRequest(Throwable e) {
+        return Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage())));
+    }
+}
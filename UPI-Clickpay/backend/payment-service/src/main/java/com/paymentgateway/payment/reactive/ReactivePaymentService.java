@@ -0,0 +1,222 @@
+package com.paymentgateway.payment.reactive;
+
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.dto.BankPaymentRequest;
+import com.paymentgateway.payment.dto.PaymentRequest;
+import com.paymentgateway.payment.dto.PaymentResponse;
+import com.paymentgateway.payment.entity.Payment;
+import com.paymentgateway.payment.metrics.LiveStats;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import com.paymentgateway.payment.service.BankApiServiceFactory;
+import com.paymentgateway.payment.service.BankProtocol;
+import com.paymentgateway.payment.service.MerchantService;
+import com.paymentgateway.payment.service.PaymentExpiryService;
+import com.paymentgateway.payment.service.PaymentRules;
+import com.paymentgateway.payment.service.QRCodeService;
+import com.paymentgateway.payment.service.UPIService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking counterpart of {@link com.paymentgateway.payment.service.PaymentService}
+ * for create, status and refund. Every decision comes from {@link PaymentRules} and every
+ * bank request from the adapters' {@link BankProtocol}; only the I/O differs. Local QR
+ * rendering is the one CPU-heavy step and runs on the parallel scheduler.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentService {
+
+    @Autowired
+    private ReactivePaymentStore paymentStore;
+
+    @Autowired
+    private ReactiveBankClient bankClient;
+
+    @Autowired
+    private ReactiveMerchantClient merchantClient;
+
+    @Autowired
+    private BankApiServiceFactory bankApiServiceFactory;
+
+    @Autowired
+    private QRCodeService qrCodeService;
+
+    @Autowired
+    private UPIService upiService;
+
+    @Autowired
+    private PaymentExpiryService paymentExpiryService;
+
+    @Autowired
+    private PaymentRules paymentRules;
+
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
+    @Autowired
+    private LiveStats liveStats;
+
+    public Mono<PaymentResponse> createPayment(Long merchantId, PaymentRequest request) {
+        String method = request.getPaymentMethod() != null ? request.getPaymentMethod().name() : "unknown";
+        // Deferred so a request rejected by the rules is an error signal, timed like any other
+        return timed(Mono.defer(() -> doCreatePayment(merchantId, request)),
+            (outcome, nanos) -> paymentMetrics.recordCreate(method, outcome, nanos));
+    }
+
+    private Mono<PaymentResponse> doCreatePayment(Long merchantId, PaymentRequest request) {
+        Money amount = paymentRules.amountOf(request);
+
+        return stage("merchant_lookup", merchantClient.getMerchantInfo(merchantId)).flatMap(merchantInfo -> {
+            BankProtocol bank = bankApiServiceFactory.getBankProtocol(merchantInfo.getPreferredBank());
+            Payment payment = paymentRules.newPayment(merchantId, request, amount, merchantInfo);
+            BankPaymentRequest bankRequest = paymentRules.bankRequest(payment, request);
+
+            return stage("bank_call", bankClient.execute(bank, bank.createPaymentCall(bankRequest)))
+                .flatMap(bankResponse -> {
+                    if (!paymentRules.applyCreateResponse(payment, bankResponse)) {
+                        return Mono.just(payment);
+                    }
+                    // Fallback to local QR generation
+                    Mono<String> qrCode = Mono.fromCallable(() -> qrCodeService.generateDynamicQRCode(
+                            paymentRules.merchantUpiId(merchantInfo), amount, request.getDescription()))
+                        .subscribeOn(Schedulers.parallel());
+                    return stage("qr_generation", qrCode).map(qr -> {
+                        payment.setQrCodeData(qr);
+                        return payment;
+                    });
+                })
+                .flatMap(ready -> {
+                    if (ready.getPaymentMethod() == Payment.PaymentMethod.UPI_ID) {
+                        upiService.sendPaymentRequest(request.getUpiId(), amount, ready.getTransactionId());
+                    }
+                    return stage("save", paymentStore.insert(ready));
+                })
+                .map(saved -> {
+                    paymentExpiryService.schedule(saved);
+                    return paymentRules.createdResponse(saved, merchantInfo);
+                });
+        });
+    }
+
+    public Mono<PaymentResponse> getPaymentStatus(String transactionId) {
+        return paymentStore.findByTransactionId(transactionId)
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Payment not found")))
+            .flatMap(payment -> {
+                // If payment is still pending and we have a bank transaction ID, check with bank
+                if (payment.getStatus() == Payment.PaymentStatus.PENDING && payment.getBankTransactionId() != null) {
+                    return checkWithBank(payment);
+                }
+                return Mono.just(payment);
+            })
+            .map(PaymentResponse::new);
+    }
+
+    private Mono<Payment> checkWithBank(Payment payment) {
+        return merchantClient.getMerchantInfo(payment.getMerchantId())
+            .flatMap(merchantInfo -> {
+                BankProtocol bank = bankApiServiceFactory.getBankProtocol(merchantInfo.getPreferredBank());
+                return bankClient.execute(bank, bank.statusCall(payment.getBankTransactionId()));
+            })
+            .flatMap(bankStatus -> {
+                Payment.PaymentStatus finalStatus = paymentRules.statusFromBank(bankStatus);
+                if (finalStatus == null) {
+                    return Mono.just(payment);
+                }
+                LocalDateTime now = LocalDateTime.now();
+                return paymentStore.completePending(payment.getId(), finalStatus, now).flatMap(updated -> {
+                    if (updated > 0) {
+                        liveStats.recordCompletion(payment.getBankProvider(), payment.getPaymentMethod(), finalStatus);
+                        payment.setStatus(finalStatus);
+                        payment.setCompletedAt(now);
+                        return Mono.just(payment);
+                    }
+                    // Settled meanwhile by a webhook or expiry; report what was stored
+                    return paymentStore.findByTransactionId(payment.getTransactionId()).defaultIfEmpty(payment);
+                });
+            })
+            .onErrorResume(e -> {
+                System.out.println("Error checking payment status with bank: " + e.getMessage());
+                return Mono.just(payment);
+            });
+    }
+
+    /**
+     * Refund one of the merchant's payments using the appropriate bank API
+     */
+    public Mono<PaymentResponse> refundPayment(Long merchantId, String transactionId, Money refundAmount) {
+        return paymentStore.findByTransactionId(transactionId)
+            .filter(p -> p.getMerchantId().equals(merchantId))
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Payment not found")))
+            .flatMap(payment -> {
+                paymentRules.checkRefundable(payment, refundAmount);
+
+                // Claim it first, so two concurrent refunds cannot both reach the bank
+                return paymentStore.claimRefund(payment.getId(), LocalDateTime.now())
+                    .flatMap(claimed -> claimed == 0
+                        ? Mono.<Payment>error(new RuntimeException("Payment is already being refunded"))
+                        : refundClaimed(payment, refundAmount));
+            })
+            .map(PaymentResponse::new);
+    }
+
+    private Mono<Payment> refundClaimed(Payment payment, Money refundAmount) {
+        return merchantClient.getMerchantInfo(payment.getMerchantId())
+            .switchIfEmpty(Mono.error(() -> new RuntimeException("Merchant not found")))
+            // The bank was not called, so the payment can be refunded again
+            .onErrorResume(e -> {
+                System.out.println("Error processing refund: " + e.getMessage());
+                return paymentStore.releaseRefund(payment.getId(), LocalDateTime.now())
+                    .then(Mono.<MerchantService.MerchantInfo>error(new RuntimeException("Failed to process refund")));
+            })
+            .flatMap(merchantInfo -> {
+                BankProtocol bank = bankApiServiceFactory.getBankProtocol(merchantInfo.getPreferredBank());
+                return bankClient.execute(bank, bank.refundCall(payment.getBankTransactionId(), refundAmount))
+                    .onErrorResume(Exception.class, e -> Mono.just(
+                        paymentRules.refundOutcomeUnknown(payment.getBankTransactionId(), e)));
+            })
+            .flatMap(refundResponse -> {
+                LocalDateTime now = LocalDateTime.now();
+                if (paymentRules.isRefundAccepted(refundResponse)) {
+                    return paymentStore.completeRefund(payment.getId(), refundAmount, now).map(updated -> {
+                        payment.setStatus(Payment.PaymentStatus.REFUNDED);
+                        payment.setRefundAmount(refundAmount);
+                        payment.setRefundedAt(now);
+                        return payment;
+                    });
+                }
+                if (paymentRules.isRefundRejected(refundResponse)) {
+                    return paymentStore.releaseRefund(payment.getId(), now).thenReturn(payment);
+                }
+                System.out.println("Refund of " + payment.getTransactionId() + " has an unknown outcome ("
+                    + refundResponse.getErrorMessage() + "); left REFUNDING for reconciliation");
+                payment.setStatus(Payment.PaymentStatus.REFUNDING);
+                return Mono.just(payment);
+            });
+    }
+
+    private <T> Mono<T> stage(String stage, Mono<T> work) {
+        return timed(work, (outcome, nanos) -> paymentMetrics.recordStage(stage, outcome, nanos));
+    }
+
+    /**
+     * Time from subscription until the result or error
+     */
+    private static <T> Mono<T> timed(Mono<T> work, Recorder recorder) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return work
+                .doOnSuccess(value -> recorder.record(PaymentMetrics.OUTCOME_SUCCESS, System.nanoTime() - start))
+                .doOnError(e -> recorder.record(PaymentMetrics.OUTCOME_ERROR, System.nanoTime() - start));
+        });
+    }
+
+    private interface Recorder {
+        void record(String outcome, long nanos);
+    }
+}
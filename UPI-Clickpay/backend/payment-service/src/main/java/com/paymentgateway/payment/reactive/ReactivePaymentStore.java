@@ -0,0 +1,164 @@
+package com.paymentgateway.payment.reactive;
+
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.common.money.MoneyConverter;
+import com.paymentgateway.payment.entity.Payment;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The payments table over R2DBC, for the reactive create, status and refund flows. Reads
+ * and writes the same columns as the {@link Payment} JPA mapping, including its
+ * {@link MoneyConverter} amounts, so both deployment modes can share a database.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentStore {
+
+    private static final MoneyConverter MONEY = new MoneyConverter();
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    /**
+     * Insert a new payment and fill in its generated id and timestamps
+     */
+    public Mono<Payment> insert(Payment payment) {
+        LocalDateTime now = LocalDateTime.now();
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+            "INSERT INTO payments (merchant_id, transaction_id, amount, currency, status, payment_method, upi_id, " +
+            "upi_provider, qr_code_data, callback_url, description, bank_provider, bank_transaction_id, payment_url, " +
+            "expires_at, expiry_slot, shard_slot, created_at, updated_at) VALUES (:merchantId, :transactionId, :amount, :currency, " +
+            ":status, :paymentMethod, :upiId, :upiProvider, :qrCodeData, :callbackUrl, :description, :bankProvider, " +
+            ":bankTransactionId, :paymentUrl, :expiresAt, :expirySlot, :shardSlot, :now, :now) RETURNING id");
+        spec = bind(spec, "merchantId", payment.getMerchantId(), Long.class);
+        spec = bind(spec, "transactionId", payment.getTransactionId(), String.class);
+        spec = bind(spec, "amount", MONEY.convertToDatabaseColumn(payment.getAmount()), BigDecimal.class);
+        spec = bind(spec, "currency", payment.getCurrency(), String.class);
+        spec = bind(spec, "status", payment.getStatus().name(), String.class);
+        spec = bind(spec, "paymentMethod", payment.getPaymentMethod() != null ? payment.getPaymentMethod().name() : null, String.class);
+        spec = bind(spec, "upiId", payment.getUpiId(), String.class);
+        spec = bind(spec, "upiProvider", payment.getUpiProvider(), String.class);
+        spec = bind(spec, "qrCodeData", payment.getQrCodeData(), String.class);
+        spec = bind(spec, "callbackUrl", payment.getCallbackUrl(), String.class);
+        spec = bind(spec, "description", payment.getDescription(), String.class);
+        spec = bind(spec, "bankProvider", payment.getBankProvider(), String.class);
+        spec = bind(spec, "bankTransactionId", payment.getBankTransactionId(), String.class);
+        spec = bind(spec, "paymentUrl", payment.getPaymentUrl(), String.class);
+        spec = bind(spec, "expiresAt", payment.getExpiresAt(), LocalDateTime.class);
+        spec = bind(spec, "expirySlot", payment.getExpirySlot(), Integer.class);
+        spec = bind(spec, "shardSlot", payment.getShardSlot(), Integer.class);
+        spec = spec.bind("now", now);
+
+        return spec.map(row -> row.get("id", Long.class))
+            .one()
+            .map(id -> {
+                payment.setId(id);
+                payment.setCreatedAt(now);
+                payment.setUpdatedAt(now);
+                return payment;
+            });
+    }
+
+    public Mono<Payment> findByTransactionId(String transactionId) {
+        return databaseClient.sql("SELECT * FROM payments WHERE transaction_id = :transactionId")
+            .bind("transactionId", transactionId)
+            .map((row, metadata) -> toPayment(row))
+            .one();
+    }
+
+    /**
+     * Settle a payment from the bank's status answer, only while it is still PENDING
+     * @return 0 if a webhook or the expiry job got there first
+     */
+    public Mono<Long> completePending(Long id, Payment.PaymentStatus status, LocalDateTime now) {
+        return databaseClient.sql("UPDATE payments SET status = :status, completed_at = :now, updated_at = :now " +
+                "WHERE id = :id AND status = 'PENDING'")
+            .bind("status", status.name())
+            .bind("now", now)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Claim a successful payment for refunding before the bank is asked
+     * @return 0 if it is not SUCCESS, e.g. another refund already holds it
+     */
+    public Mono<Long> claimRefund(Long id, LocalDateTime now) {
+        return databaseClient.sql("UPDATE payments SET status = 'REFUNDING', updated_at = :now " +
+                "WHERE id = :id AND status = 'SUCCESS'")
+            .bind("now", now)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    public Mono<Long> completeRefund(Long id, Money refundAmount, LocalDateTime now) {
+        return databaseClient.sql("UPDATE payments SET status = 'REFUNDED', refund_amount = :refundAmount, " +
+                "refunded_at = :now, updated_at = :now WHERE id = :id AND status = 'REFUNDING'")
+            .bind("refundAmount", MONEY.convertToDatabaseColumn(refundAmount))
+            .bind("now", now)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    /**
+     * Hand a claimed payment back to SUCCESS when the bank refused or the call failed
+     */
+    public Mono<Long> releaseRefund(Long id, LocalDateTime now) {
+        return databaseClient.sql("UPDATE payments SET status = 'SUCCESS', updated_at = :now " +
+                "WHERE id = :id AND status = 'REFUNDING'")
+            .bind("now", now)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated();
+    }
+
+    private static Payment toPayment(Row row) {
+        Payment payment = new Payment();
+        payment.setId(row.get("id", Long.class));
+        payment.setMerchantId(row.get("merchant_id", Long.class));
+        payment.setTransactionId(row.get("transaction_id", String.class));
+        payment.setAmount(MONEY.convertToEntityAttribute(row.get("amount", BigDecimal.class)));
+        payment.setCurrency(row.get("currency", String.class));
+        payment.setStatus(Payment.PaymentStatus.valueOf(row.get("status", String.class)));
+        String paymentMethod = row.get("payment_method", String.class);
+        payment.setPaymentMethod(paymentMethod != null ? Payment.PaymentMethod.valueOf(paymentMethod) : null);
+        payment.setUpiId(row.get("upi_id", String.class));
+        payment.setUpiProvider(row.get("upi_provider", String.class));
+        payment.setBankReference(row.get("bank_reference", String.class));
+        payment.setQrCodeData(row.get("qr_code_data", String.class));
+        payment.setCallbackUrl(row.get("callback_url", String.class));
+        payment.setDescription(row.get("description", String.class));
+        payment.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        payment.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        payment.setCompletedAt(row.get("completed_at", LocalDateTime.class));
+        payment.setCancellationReason(row.get("cancellation_reason", String.class));
+        payment.setFailureReason(row.get("failure_reason", String.class));
+        payment.setCancelledBy(row.get("cancelled_by", String.class));
+        payment.setBankProvider(row.get("bank_provider", String.class));
+        payment.setBankTransactionId(row.get("bank_transaction_id", String.class));
+        payment.setPaymentUrl(row.get("payment_url", String.class));
+        payment.setRefundAmount(MONEY.convertToEntityAttribute(row.get("refund_amount", BigDecimal.class)));
+        payment.setRefundedAt(row.get("refunded_at", LocalDateTime.class));
+        payment.setExpiresAt(row.get("expires_at", LocalDateTime.class));
+        payment.setExpirySlot(row.get("expiry_slot", Integer.class));
+        payment.setShardSlot(row.get("shard_slot", Integer.class));
+        return payment;
+    }
+
+    // R2DBC needs the column type to bind a null
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                          Object value, Class<?> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+}
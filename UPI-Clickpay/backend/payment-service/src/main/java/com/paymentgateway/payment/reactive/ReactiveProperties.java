@@ -0,0 +1,38 @@
+package com.paymentgateway.payment.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "payment.reactive")
+public class ReactiveProperties {
+
+    // Payment and webhook requests being served at once; more are answered 503 right away
+    private int maxInFlight = 2000;
+
+    // Connections the WebClient keeps open across all bank and merchant-service hosts
+    private int maxConnections = 500;
+
+    // Requests allowed to wait for a free connection before failing
+    private int pendingAcquireMaxCount = 1000;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    // Getters and setters
+    public int getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public int getPendingAcquireMaxCount() { return pendingAcquireMaxCount; }
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) { this.pendingAcquireMaxCount = pendingAcquireMaxCount; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getResponseTimeout() { return responseTimeout; }
+    public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+}
@@ -0,0 +1,91 @@
+package com.paymentgateway.payment.reactive;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import com.paymentgateway.payment.service.WebhookService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Bank webhooks in the reactive mode. {@link WebhookService} verifies and settles through
+ * JPA, so each notification runs on the bounded elastic scheduler; webhooks arrive once
+ * per payment, well below the rate of status polls.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/webhooks")
+@CrossOrigin(origins = "*")
+public class ReactiveWebhookController {
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
+    @PostMapping("/hdfc")
+    public Mono<ResponseEntity<ApiResponse<String>>> handleHdfcWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-HDFC-Signature", required = false) String signature) {
+        return handle("hdfc", () -> webhookService.processHdfcWebhook(body, signature));
+    }
+
+    @PostMapping("/icici")
+    public Mono<ResponseEntity<ApiResponse<String>>> handleIciciWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-ICICI-Signature", required = false) String signature) {
+        return handle("icici", () -> webhookService.processIciciWebhook(body, signature));
+    }
+
+    @PostMapping("/sbi")
+    public Mono<ResponseEntity<ApiResponse<String>>> handleSbiWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-SBI-Signature", required = false) String signature) {
+        return handle("sbi", () -> webhookService.processSbiWebhook(body, signature));
+    }
+
+    @PostMapping("/axis")
+    public Mono<ResponseEntity<ApiResponse<String>>> handleAxisWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-AXIS-Signature", required = false) String signature) {
+        return handle("axis", () -> webhookService.processAxisWebhook(body, signature));
+    }
+
+    @PostMapping("/generic")
+    public Mono<ResponseEntity<ApiResponse<String>>> handleGenericWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-Bank-Name", required = false) String bankName,
+            @RequestHeader(value = "X-Signature", required = false) String signature) {
+        return handle(bankName, () -> webhookService.processGenericWebhook(body, bankName, signature));
+    }
+
+    @GetMapping("/test")
+    public ResponseEntity<ApiResponse<String>> testWebhook() {
+        return ResponseEntity.ok(ApiResponse.success("Webhook endpoint is working"));
+    }
+
+    private Mono<ResponseEntity<ApiResponse<String>>> handle(String bank, Callable<Boolean> processor) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return Mono.fromCallable(processor)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(processed -> {
+                    paymentMetrics.recordWebhook(bank,
+                        processed ? PaymentMetrics.OUTCOME_SUCCESS : PaymentMetrics.OUTCOME_FAILED, System.nanoTime() - start);
+                    return processed
+                        ? ResponseEntity.ok(ApiResponse.success("Webhook processed successfully"))
+                        : ResponseEntity.badRequest().body(ApiResponse.<String>error("Failed to process webhook"));
+                })
+                .onErrorResume(e -> {
+                    paymentMetrics.recordWebhook(bank, PaymentMetrics.OUTCOME_ERROR, System.nanoTime() - start);
+                    return Mono.just(ResponseEntity.badRequest().body(ApiResponse.error("Webhook processing error: " + e.getMessage())));
+                });
+        });
+    }
+}
@@ -1,10 +1,13 @@
 package com.paymentgateway.payment.repository;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,14 +16,68 @@ import java.util.Optional;
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByTransactionId(String transactionId);
+
+    /**
+     * findByTransactionId for display only: may be answered by a replica, so the result
+     * must not be saved back
+     */
+    @Transactional(readOnly = true)
+    Optional<Payment> readByTransactionId(String transactionId);
     
+    @Transactional(readOnly = true)
     List<Payment> findByMerchantIdOrderByCreatedAtDesc(Long merchantId);
     
+    @Transactional(readOnly = true)
     @Query("SELECT p FROM Payment p WHERE p.merchantId = :merchantId AND p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.createdAt DESC")
     List<Payment> findByMerchantIdAndDateRange(@Param("merchantId") Long merchantId, 
                                              @Param("startDate") LocalDateTime startDate, 
                                              @Param("endDate") LocalDateTime endDate);
     
+    @Transactional(readOnly = true)
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.merchantId = :merchantId AND p.status = :status")
     Long countByMerchantIdAndStatus(@Param("merchantId") Long merchantId, @Param("status") Payment.PaymentStatus status);
-}
\ No newline at end of file
+
+    /**
+     * Settle a payment from a bank notification, only while it is still PENDING
+     * @return 0 if it had already completed, expired or been cancelled
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = :status, p.bankReference = :bankReference, p.failureReason = :failureReason, " +
+           "p.completedAt = :now, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.PENDING")
+    int completePending(@Param("id") Long id,
+                        @Param("status") Payment.PaymentStatus status,
+                        @Param("bankReference") String bankReference,
+                        @Param("failureReason") String failureReason,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Claim a successful payment for refunding before the bank is asked
+     * @return 0 if it is not SUCCESS, e.g. another refund already holds it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.REFUNDING, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.SUCCESS")
+    int claimRefund(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Mark a claimed payment REFUNDED once the bank has accepted the refund
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.REFUNDED, " +
+           "p.refundAmount = :refundAmount, p.refundedAt = :now, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.REFUNDING")
+    int completeRefund(@Param("id") Long id, @Param("refundAmount") Money refundAmount, @Param("now") LocalDateTime now);
+
+    /**
+     * Hand a claimed payment back to SUCCESS when the bank refused or the call failed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.SUCCESS, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = com.paymentgateway.payment.entity.Payment.PaymentStatus.REFUNDING")
+    int releaseRefund(@Param("id") Long id, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,258 @@
+package com.paymentgateway.payment.rpc;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.paymentgateway.common.rpc.InternalRpc;
+import com.paymentgateway.common.rpc.merchant.BatchGetMerchantsRequest;
+import com.paymentgateway.common.rpc.merchant.BatchGetMerchantsResponse;
+import com.paymentgateway.common.rpc.merchant.GetMerchantRequest;
+import com.paymentgateway.common.rpc.merchant.MerchantChange;
+import com.paymentgateway.common.rpc.merchant.MerchantDirectoryGrpc;
+import com.paymentgateway.common.rpc.merchant.MerchantInfo;
+import com.paymentgateway.common.rpc.merchant.WatchMerchantsRequest;
+import com.paymentgateway.payment.service.BankApiServiceFactory;
+import com.paymentgateway.payment.service.MerchantService;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merchant lookups against merchant-service's MerchantDirectory over one long-lived gRPC
+ * channel. Merchants already fetched are kept locally and refreshed by the WatchMerchants
+ * stream, so a repeat lookup is answered without a call at all. When the stream breaks
+ * the local copy is dropped, since changes may have been missed, and the watch is
+ * re-established with backoff.
+ *
+ * Failures surface as {@link StatusRuntimeException}; {@link MerchantService} decides the fallback.
+ */
+@Component
+@ConditionalOnProperty(name = "merchant.rpc.enabled", havingValue = "true")
+public class MerchantDirectoryClient {
+
+    private static final long MAX_WATCH_BACKOFF_MS = 30_000;
+
+    @Value("${merchant.rpc.target:localhost:9082}")
+    private String target;
+
+    @Value("${merchant.rpc.deadline:2s}")
+    private Duration deadline;
+
+    @Value("${gateway.internal-secret:}")
+    private String internalSecret;
+
+    @Autowired(required = false)
+    private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+
+    private final Map<Long, MerchantService.MerchantInfo> merchants = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService watchScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "merchant-watch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ManagedChannel channel;
+    private MerchantDirectoryGrpc.MerchantDirectoryBlockingStub blockingStub;
+    private MerchantDirectoryGrpc.MerchantDirectoryFutureStub futureStub;
+    private volatile boolean running = true;
+    private volatile boolean watching;
+    private long watchBackoffMs = 1000;
+
+    @PostConstruct
+    public void start() {
+        channel = InternalRpc.channel(target,
+            InternalRpc.secretClientInterceptor(internalSecret),
+            new ObservationGrpcClientInterceptor(observationRegistry));
+        blockingStub = MerchantDirectoryGrpc.newBlockingStub(channel);
+        futureStub = MerchantDirectoryGrpc.newFutureStub(channel);
+        watchScheduler.execute(this::watch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        watchScheduler.shutdownNow();
+        channel.shutdown();
+        if (!channel.awaitTermination(5, TimeUnit.SECONDS)) {
+            channel.shutdownNow();
+        }
+    }
+
+    /**
+     * The merchant, from the local copy when it is being kept fresh
+     */
+    public MerchantService.MerchantInfo getMerchant(Long merchantId) {
+        MerchantService.MerchantInfo cached = cached(merchantId);
+        if (cached != null) {
+            return cached;
+        }
+        MerchantInfo reply = blockingStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+            .getMerchant(GetMerchantRequest.newBuilder().setMerchantId(merchantId).build());
+        return remember(reply);
+    }
+
+    public CompletableFuture<MerchantService.MerchantInfo> getMerchantAsync(Long merchantId) {
+        MerchantService.MerchantInfo cached = cached(merchantId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<MerchantService.MerchantInfo> result = new CompletableFuture<>();
+        Futures.addCallback(
+            futureStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                .getMerchant(GetMerchantRequest.newBuilder().setMerchantId(merchantId).build()),
+            new FutureCallback<>() {
+                @Override
+                public void onSuccess(MerchantInfo reply) {
+                    result.complete(remember(reply));
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            },
+            MoreExecutors.directExecutor());
+        return result;
+    }
+
+    /**
+     * Every merchant found among the ids, keyed by id. Ids not held locally are fetched in one call.
+     */
+    public Map<Long, MerchantService.MerchantInfo> getMerchants(Collection<Long> merchantIds) {
+        Map<Long, MerchantService.MerchantInfo> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long merchantId : merchantIds) {
+            MerchantService.MerchantInfo cached = cached(merchantId);
+            if (cached != null) {
+                found.put(merchantId, cached);
+            } else {
+                missing.add(merchantId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        BatchGetMerchantsResponse reply = blockingStub.withDeadlineAfter(deadline.toMillis(), TimeUnit.MILLISECONDS)
+            .batchGetMerchants(BatchGetMerchantsRequest.newBuilder().addAllMerchantIds(missing).build());
+        for (MerchantInfo merchant : reply.getMerchantsList()) {
+            found.put(merchant.getMerchantId(), remember(merchant));
+        }
+        return found;
+    }
+
+    public boolean isWatching() {
+        return watching;
+    }
+
+    public int getCachedCount() {
+        return merchants.size();
+    }
+
+    private MerchantService.MerchantInfo cached(Long merchantId) {
+        // Without a live watch a cached entry could be stale
+        return watching ? merchants.get(merchantId) : null;
+    }
+
+    private MerchantService.MerchantInfo remember(MerchantInfo reply) {
+        MerchantService.MerchantInfo info = toMerchantInfo(reply);
+        if (watching) {
+            // A reply can race a newer change from the watch; never replace a newer version
+            return merchants.merge(info.getId(), info, MerchantDirectoryClient::newer);
+        }
+        return info;
+    }
+
+    private static MerchantService.MerchantInfo newer(MerchantService.MerchantInfo current,
+                                                      MerchantService.MerchantInfo candidate) {
+        return candidate.getConfigVersion() >= current.getConfigVersion() ? candidate : current;
+    }
+
+    private void watch() {
+        if (!running) {
+            return;
+        }
+        MerchantDirectoryGrpc.newStub(channel).watchMerchants(WatchMerchantsRequest.getDefaultInstance(),
+            new StreamObserver<MerchantChange>() {
+                @Override
+                public void onNext(MerchantChange change) {
+                    if (!change.hasMerchant()) {
+                        // Subscription confirmed; changes from here on will reach us
+                        watching = true;
+                        watchBackoffMs = 1000;
+                        return;
+                    }
+                    MerchantService.MerchantInfo info = toMerchantInfo(change.getMerchant());
+                    // Only refresh what is already held; other merchants are fetched on demand
+                    merchants.computeIfPresent(info.getId(), (id, current) -> newer(current, info));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    watchEnded(Status.fromThrowable(t));
+                }
+
+                @Override
+                public void onCompleted() {
+                    watchEnded(Status.OK);
+                }
+            });
+    }
+
+    private void watchEnded(Status status) {
+        watching = false;
+        merchants.clear();
+        if (!running) {
+            return;
+        }
+        System.out.println("Merchant watch ended (" + status.getCode() + "), resubscribing in " + watchBackoffMs + "ms");
+        try {
+            watchScheduler.schedule(this::watch, watchBackoffMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Scheduler already shut down
+        }
+        watchBackoffMs = Math.min(watchBackoffMs * 2, MAX_WATCH_BACKOFF_MS);
+    }
+
+    static MerchantService.MerchantInfo toMerchantInfo(MerchantInfo reply) {
+        MerchantService.MerchantInfo info = new MerchantService.MerchantInfo();
+        info.setId(reply.getMerchantId());
+        info.setBusinessName(emptyToNull(reply.getBusinessName()));
+        info.setUpiId(emptyToNull(reply.getUpiId()));
+        info.setWebhookUrl(emptyToNull(reply.getWebhookUrl()));
+        info.setConfigVersion(reply.getConfigVersion());
+        switch (reply.getPreferredBank()) {
+            case HDFC -> info.setPreferredBank(BankApiServiceFactory.BankProvider.HDFC);
+            case ICICI -> info.setPreferredBank(BankApiServiceFactory.BankProvider.ICICI);
+            case KOTAK -> info.setPreferredBank(BankApiServiceFactory.BankProvider.KOTAK);
+            // Same default as the REST mapping
+            default -> info.setPreferredBank(BankApiServiceFactory.BankProvider.AXIS);
+        }
+        return info;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
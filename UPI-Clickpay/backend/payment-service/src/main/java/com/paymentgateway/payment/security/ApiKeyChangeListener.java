@@ -0,0 +1,89 @@
+package com.paymentgateway.payment.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * Holds one connection LISTENing on the channel the api_keys and merchants triggers
+ * notify, and applies each change to {@link ApiKeyIndex}. Key changes carry the key's
+ * digest; anything else (a merchant being deactivated) triggers a full reload.
+ */
+@Component
+public class ApiKeyChangeListener {
+
+    public static final String CHANNEL = "api_key_changes";
+
+    private static final Pattern KEY_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ApiKeyIndex apiKeyIndex;
+
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    @PostConstruct
+    public void start() {
+        listenerThread = new Thread(this::listen, "api-key-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything that changed while we were not listening
+                apiKeyIndex.reloadAll();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                System.out.println("API key listener disconnected, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        if (payload != null && KEY_HASH.matcher(payload).matches()) {
+            apiKeyIndex.reloadKey(payload);
+        } else {
+            apiKeyIndex.reloadAll();
+        }
+    }
+}
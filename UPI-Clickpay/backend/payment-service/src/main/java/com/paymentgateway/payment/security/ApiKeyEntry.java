@@ -0,0 +1,32 @@
+package com.paymentgateway.payment.security;
+
+import java.util.Set;
+
+/**
+ * An active API key as held in {@link ApiKeyIndex}; immutable so lookups need no locking
+ */
+public final class ApiKeyEntry {
+    private final Long merchantId;      // merchant's user id, the id payments are recorded under
+    private final Set<String> scopes;
+    private final long expiresAtMillis; // Long.MAX_VALUE if the key does not expire
+
+    public ApiKeyEntry(Long merchantId, Set<String> scopes, long expiresAtMillis) {
+        this.merchantId = merchantId;
+        this.scopes = scopes;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public boolean hasScope(String scope) {
+        return scopes.contains(scope);
+    }
+
+    public Long getMerchantId() { return merchantId; }
+
+    public Set<String> getScopes() { return scopes; }
+
+    public long getExpiresAtMillis() { return expiresAtMillis; }
+}
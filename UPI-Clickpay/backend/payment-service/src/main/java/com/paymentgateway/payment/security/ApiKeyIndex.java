@@ -0,0 +1,126 @@
+package com.paymentgateway.payment.security;
+
+import com.paymentgateway.common.security.ApiKeyDigests;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of active merchant API keys, keyed by SHA-256 digest. Requests are
+ * authenticated with one hash and one map lookup; the database is only read when keys
+ * change, as signalled by {@link ApiKeyChangeListener}, and on a periodic full reload.
+ */
+@Component
+public class ApiKeyIndex {
+
+    public static final String SCOPE_PAYMENTS_WRITE = "payments:write";
+    public static final String SCOPE_PAYMENTS_READ = "payments:read";
+
+    private static final String SELECT_ACTIVE_KEYS =
+        "SELECT k.key_hash, m.user_id, k.scopes, k.expires_at FROM api_keys k " +
+        "JOIN merchants m ON m.id = k.merchant_id " +
+        "WHERE k.is_active = TRUE AND m.is_active = TRUE " +
+        "AND (k.expires_at IS NULL OR k.expires_at > CURRENT_TIMESTAMP)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Map<String, ApiKeyEntry> entries = new ConcurrentHashMap<>();
+
+    // Reloads take turns, so a full reload read before a revocation cannot replace the map
+    // after that key was dropped.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        reloadAll();
+    }
+
+    /**
+     * @return the merchant (user id) the key belongs to
+     * @throws RuntimeException if the key is unknown, revoked, expired or lacks the scope
+     */
+    public Long authenticate(String rawKey, String requiredScope) {
+        if (rawKey == null || rawKey.isBlank()) {
+            throw new RuntimeException("Missing or invalid API key");
+        }
+        ApiKeyEntry entry = entries.get(ApiKeyDigests.digest(rawKey));
+        if (entry == null || entry.isExpired(System.currentTimeMillis())) {
+            throw new RuntimeException("Invalid API key");
+        }
+        if (!entry.hasScope(requiredScope)) {
+            throw new RuntimeException("API key is not allowed to " + requiredScope);
+        }
+        return entry.getMerchantId();
+    }
+
+    /**
+     * Re-read a single key after a change notification
+     */
+    public void reloadKey(String keyHash) {
+        reloadLock.lock();
+        try {
+            List<ApiKeyEntry> found = jdbcTemplate.query(SELECT_ACTIVE_KEYS + " AND k.key_hash = ?", ENTRY_MAPPER, keyHash);
+            if (found.isEmpty()) {
+                entries.remove(keyHash);
+            } else {
+                entries.put(keyHash, found.get(0));
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Full reload; also the safety net for notifications lost while the listener was reconnecting
+     */
+    @Scheduled(fixedDelayString = "${payment.api-keys.reload-interval-ms:300000}",
+               initialDelayString = "${payment.api-keys.reload-interval-ms:300000}")
+    public void reloadAll() {
+        reloadLock.lock();
+        try {
+            Map<String, ApiKeyEntry> snapshot = new ConcurrentHashMap<>();
+            jdbcTemplate.query(SELECT_ACTIVE_KEYS, rs -> {
+                snapshot.put(rs.getString("key_hash"), ENTRY_MAPPER.mapRow(rs, 0));
+            });
+            entries = snapshot;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final RowMapper<ApiKeyEntry> ENTRY_MAPPER = (rs, rowNum) -> {
+        Timestamp expiresAt = rs.getTimestamp("expires_at");
+        return new ApiKeyEntry(
+            rs.getLong("user_id"),
+            parseScopes(rs.getString("scopes")),
+            expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE
+        );
+    };
+
+    private static Set<String> parseScopes(String scopes) {
+        if (scopes == null || scopes.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(scopes.split(","))
+            .map(String::trim)
+            .filter(scope -> !scope.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+}
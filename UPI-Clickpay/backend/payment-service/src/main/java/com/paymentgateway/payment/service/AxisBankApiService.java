@@ -1,7 +1,9 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.dto.BankPaymentRequest;
 import com.paymentgateway.payment.dto.BankPaymentResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -19,7 +21,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Service("axisBankApiService")
-public class AxisBankApiService implements BankApiService {
+public class AxisBankApiService implements BankApiService, BankProtocol {
 
     @Value("${bank.axis.api.url:https://api.axisbank.com}")
     private String bankApiUrl;
@@ -33,122 +35,95 @@ public class AxisBankApiService implements BankApiService {
     @Value("${bank.axis.merchant.id:AXIS_MERCHANT_001}")
     private String merchantId;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
 
     @Override
     public BankPaymentResponse createPayment(BankPaymentRequest request) {
-        try {
-            // Prepare Axis Bank API request
-            Map<String, Object> axisRequest = new HashMap<>();
-            axisRequest.put("merchantId", merchantId);
-            axisRequest.put("orderId", request.getTransactionId());
-            axisRequest.put("amount", request.getAmount().toString());
-            axisRequest.put("currency", request.getCurrency());
-            axisRequest.put("paymentMode", "UPI");
-            axisRequest.put("returnUrl", request.getCallbackUrl());
-            axisRequest.put("description", request.getDescription());
-            
-            if (request.getUpiId() != null) {
-                axisRequest.put("vpa", request.getUpiId());
-            }
-
-            // Add timestamp and checksum
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            axisRequest.put("timestamp", timestamp);
-            axisRequest.put("checksum", generateChecksum(request.getTransactionId(), request.getAmount().toString(), timestamp));
-
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-            headers.set("X-Request-ID", UUID.randomUUID().toString());
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(axisRequest, headers);
-
-            // Make API call to Axis Bank
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/api/v2/payments/initiate", 
-                entity, 
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapAxisResponse(responseBody, request.getTransactionId());
-            } else {
-                return createErrorResponse(request.getTransactionId(), "AXIS_API_ERROR", "Failed to create payment with Axis Bank");
-            }
-
-        } catch (Exception e) {
-            // In case of actual bank API failure, simulate success for demo
-            return simulateSuccessResponse(request);
-        }
+        return createPaymentCall(request).execute(restTemplate);
     }
 
     @Override
-    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                bankApiUrl + "/api/v2/payments/status/" + bankTransactionId,
-                HttpMethod.GET,
-                entity,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapAxisStatusResponse(responseBody);
-            }
-
-        } catch (Exception e) {
-            System.out.println("Error checking payment status with Axis Bank: " + e.getMessage());
+    public BankCall createPaymentCall(BankPaymentRequest request) {
+        // Prepare Axis Bank API request
+        Map<String, Object> axisRequest = new HashMap<>();
+        axisRequest.put("merchantId", merchantId);
+        axisRequest.put("orderId", request.getTransactionId());
+        axisRequest.put("amount", request.getAmount().toPlainString());
+        axisRequest.put("currency", request.getCurrency());
+        axisRequest.put("paymentMode", "UPI");
+        axisRequest.put("returnUrl", request.getCallbackUrl());
+        axisRequest.put("description", request.getDescription());
+        
+        if (request.getUpiId() != null) {
+            axisRequest.put("vpa", request.getUpiId());
         }
 
-        // Return pending status if unable to check
-        BankPaymentResponse response = new BankPaymentResponse();
-        response.setBankTransactionId(bankTransactionId);
-        response.setStatus("PENDING");
-        return response;
+        // Add timestamp and checksum
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        axisRequest.put("timestamp", timestamp);
+        axisRequest.put("checksum", generateChecksum(request.getTransactionId(), request.getAmount().toPlainString(), timestamp));
+
+        // Set headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+        headers.set("X-Request-ID", UUID.randomUUID().toString());
+
+        // Make API call to Axis Bank
+        return new BankCall("create", HttpMethod.POST, bankApiUrl + "/api/v2/payments/initiate", headers, axisRequest)
+            .onOk(responseBody -> mapAxisResponse(responseBody, request.getTransactionId()))
+            .onOtherStatus(() -> createErrorResponse(request.getTransactionId(), "AXIS_API_ERROR", "Failed to create payment with Axis Bank"))
+            // In case of actual bank API failure, simulate success for demo
+            .onError(e -> simulateSuccessResponse(request));
     }
 
     @Override
-    public BankPaymentResponse refundPayment(String bankTransactionId, String refundAmount) {
-        try {
-            Map<String, Object> refundRequest = new HashMap<>();
-            refundRequest.put("transactionId", bankTransactionId);
-            refundRequest.put("refundAmount", refundAmount);
-            refundRequest.put("refundReference", "REF_AXIS_" + UUID.randomUUID().toString().substring(0, 8));
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(refundRequest, headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/api/v2/payments/refund",
-                entity,
-                Map.class
-            );
+    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
+        return statusCall(bankTransactionId).execute(restTemplate);
+    }
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapAxisRefundResponse(responseBody);
-            }
+    @Override
+    public BankCall statusCall(String bankTransactionId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+
+        return new BankCall("status", HttpMethod.GET, bankApiUrl + "/api/v2/payments/status/" + bankTransactionId, headers, null)
+            .onOk(this::mapAxisStatusResponse)
+            // Return pending status if unable to check
+            .onOtherStatus(() -> pendingResponse(bankTransactionId))
+            .onError(e -> {
+                System.out.println("Error checking payment status with Axis Bank: " + e.getMessage());
+                return pendingResponse(bankTransactionId);
+            });
+    }
 
-        } catch (Exception e) {
-            System.out.println("Error processing refund with Axis Bank: " + e.getMessage());
-        }
+    @Override
+    public BankPaymentResponse refundPayment(String bankTransactionId, Money refundAmount) {
+        return refundCall(bankTransactionId, refundAmount).execute(restTemplate);
+    }
 
-        return createErrorResponse(bankTransactionId, "REFUND_FAILED", "Failed to process refund");
+    @Override
+    public BankCall refundCall(String bankTransactionId, Money refundAmount) {
+        Map<String, Object> refundRequest = new HashMap<>();
+        refundRequest.put("transactionId", bankTransactionId);
+        refundRequest.put("refundAmount", refundAmount.toPlainString());
+        refundRequest.put("refundReference", "REF_AXIS_" + UUID.randomUUID().toString().substring(0, 8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+
+        return new BankCall("refund", HttpMethod.POST, bankApiUrl + "/api/v2/payments/refund", headers, refundRequest)
+            .onOk(this::mapAxisRefundResponse)
+            .onOtherStatus(() -> createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown"))
+            .onError(e -> {
+                System.out.println("Error processing refund with Axis Bank: " + e.getMessage());
+                return createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown");
+            });
     }
 
     @Override
@@ -174,7 +149,7 @@ public class AxisBankApiService implements BankApiService {
         response.setStatus("PENDING");
         response.setAmount(request.getAmount());
         response.setCurrency(request.getCurrency());
-        response.setPaymentUrl("upi://pay?pa=merchant@axisbank&am=" + request.getAmount() + "&tr=" + request.getTransactionId());
+        response.setPaymentUrl("upi://pay?pa=merchant@axisbank&am=" + request.getAmount().toPlainString() + "&tr=" + request.getTransactionId());
         response.setCreatedAt(LocalDateTime.now());
         response.setExpiresAt(LocalDateTime.now().plusMinutes(15));
         return response;
@@ -194,7 +169,7 @@ public class AxisBankApiService implements BankApiService {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setBankTransactionId((String) responseBody.get("transactionId"));
         response.setStatus((String) responseBody.get("status"));
-        response.setAmount(new java.math.BigDecimal(responseBody.get("amount").toString()));
+        response.setAmount(Money.parse(responseBody.get("amount").toString()));
         return response;
     }
 
@@ -205,6 +180,13 @@ public class AxisBankApiService implements BankApiService {
         return response;
     }
 
+    private BankPaymentResponse pendingResponse(String bankTransactionId) {
+        BankPaymentResponse response = new BankPaymentResponse();
+        response.setBankTransactionId(bankTransactionId);
+        response.setStatus("PENDING");
+        return response;
+    }
+
     private BankPaymentResponse createErrorResponse(String transactionId, String errorCode, String errorMessage) {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setMerchantTransactionId(transactionId);
@@ -214,7 +196,7 @@ public class AxisBankApiService implements BankApiService {
         return response;
     }
 
-    private String generateChecksum(String orderId, String amount, String timestamp) {
+    String generateChecksum(String orderId, String amount, String timestamp) {
         try {
             String data = merchantId + "|" + orderId + "|" + amount + "|" + timestamp;
             Mac mac = Mac.getInstance("HmacSHA256");
@@ -227,7 +209,7 @@ public class AxisBankApiService implements BankApiService {
         }
     }
 
-    private String generateWebhookSignature(String payload) {
+    String generateWebhookSignature(String payload) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
             SecretKeySpec secretKeySpec = new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
@@ -1,9 +1,16 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.dto.BankPaymentRequest;
 import com.paymentgateway.payment.dto.BankPaymentResponse;
 
 public interface BankApiService {
+
+    /**
+     * Error code of a refund whose outcome is not known: a timeout, a 5xx or an unexpected
+     * status. The bank may still have refunded it, so it must not be retried blindly.
+     */
+    String REFUND_OUTCOME_UNKNOWN = "REFUND_OUTCOME_UNKNOWN";
     
     /**
      * Create a payment request with the bank
@@ -18,10 +25,10 @@ public interface BankApiService {
     /**
      * Refund a payment
      */
-    BankPaymentResponse refundPayment(String bankTransactionId, String refundAmount);
+    BankPaymentResponse refundPayment(String bankTransactionId, Money refundAmount);
     
     /**
-     * Validate webhook signature from bank
+     * Validate webhook signature from bank, computed over the raw request body
      */
     boolean validateWebhookSignature(String payload, String signature);
     
@@ -1,9 +1,14 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.payment.metrics.InstrumentedBankApiService;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @Component
 public class BankApiServiceFactory {
 
@@ -11,17 +16,23 @@ public class BankApiServiceFactory {
     private final BankApiService iciciBankApiService;
     private final BankApiService kotakBankApiService;
     private final BankApiService axisBankApiService;
+    private final Map<BankProvider, BankProtocol> protocols = new EnumMap<>(BankProvider.class);
 
     @Autowired
     public BankApiServiceFactory(
             @Qualifier("hdfcBankApiService") BankApiService hdfcBankApiService,
             @Qualifier("iciciBankApiService") BankApiService iciciBankApiService,
             @Qualifier("kotakBankApiService") BankApiService kotakBankApiService,
-            @Qualifier("axisBankApiService") BankApiService axisBankApiService) {
-        this.hdfcBankApiService = hdfcBankApiService;
-        this.iciciBankApiService = iciciBankApiService;
-        this.kotakBankApiService = kotakBankApiService;
-        this.axisBankApiService = axisBankApiService;
+            @Qualifier("axisBankApiService") BankApiService axisBankApiService,
+            PaymentMetrics paymentMetrics) {
+        this.hdfcBankApiService = new InstrumentedBankApiService(hdfcBankApiService, paymentMetrics);
+        this.iciciBankApiService = new InstrumentedBankApiService(iciciBankApiService, paymentMetrics);
+        this.kotakBankApiService = new InstrumentedBankApiService(kotakBankApiService, paymentMetrics);
+        this.axisBankApiService = new InstrumentedBankApiService(axisBankApiService, paymentMetrics);
+        protocols.put(BankProvider.HDFC, (BankProtocol) hdfcBankApiService);
+        protocols.put(BankProvider.ICICI, (BankProtocol) iciciBankApiService);
+        protocols.put(BankProvider.KOTAK, (BankProtocol) kotakBankApiService);
+        protocols.put(BankProvider.AXIS, (BankProtocol) axisBankApiService);
     }
 
     /**
@@ -71,6 +82,14 @@ public class BankApiServiceFactory {
         }
     }
 
+    /**
+     * The bank's requests and response mappings without its RestTemplate, for the reactive variant
+     */
+    public BankProtocol getBankProtocol(BankProvider bankProvider) {
+        // Default to Axis Bank if no preference specified
+        return protocols.get(bankProvider != null ? bankProvider : BankProvider.AXIS);
+    }
+
     /**
      * Bank provider enum matching the one in Merchant entity
      */
@@ -0,0 +1,95 @@
+package com.paymentgateway.payment.service;
+
+import com.paymentgateway.payment.dto.BankPaymentResponse;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * One request to a bank API and how its outcome becomes a {@link BankPaymentResponse},
+ * independent of the HTTP client. The servlet adapters run it with {@link #execute(RestTemplate)};
+ * the reactive variant runs the same call through WebClient.
+ */
+public class BankCall {
+
+    private final String operation;
+    private final HttpMethod method;
+    private final String url;
+    private final HttpHeaders headers;
+    private final Map<String, Object> body;
+
+    private Function<Map<String, Object>, BankPaymentResponse> onOk;
+    private Supplier<BankPaymentResponse> onOtherStatus;
+    private Function<Exception, BankPaymentResponse> onError;
+
+    public BankCall(String operation, HttpMethod method, String url, HttpHeaders headers, Map<String, Object> body) {
+        this.operation = operation;
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    /**
+     * Mapping for a 200 response body
+     */
+    public BankCall onOk(Function<Map<String, Object>, BankPaymentResponse> onOk) {
+        this.onOk = onOk;
+        return this;
+    }
+
+    /**
+     * Result for any other 2xx or 3xx status
+     */
+    public BankCall onOtherStatus(Supplier<BankPaymentResponse> onOtherStatus) {
+        this.onOtherStatus = onOtherStatus;
+        return this;
+    }
+
+    /**
+     * Result when the call fails: connection errors, 4xx/5xx, or a body that cannot be mapped
+     */
+    public BankCall onError(Function<Exception, BankPaymentResponse> onError) {
+        this.onError = onError;
+        return this;
+    }
+
+    @SuppressWarnings("unchecked")
+    public BankPaymentResponse execute(RestTemplate restTemplate) {
+        try {
+            ResponseEntity<Map> response = restTemplate.exchange(url, method, new HttpEntity<>(body, headers), Map.class);
+            if (response.getStatusCode() == HttpStatus.OK) {
+                return ok(response.getBody());
+            }
+            return otherStatus();
+        } catch (Exception e) {
+            return error(e);
+        }
+    }
+
+    public BankPaymentResponse ok(Map<String, Object> responseBody) {
+        return onOk.apply(responseBody);
+    }
+
+    public BankPaymentResponse otherStatus() {
+        return onOtherStatus.get();
+    }
+
+    public BankPaymentResponse error(Exception e) {
+        return onError.apply(e);
+    }
+
+    // create, status or refund
+    public String getOperation() { return operation; }
+    public HttpMethod getMethod() { return method; }
+    public String getUrl() { return url; }
+    public HttpHeaders getHeaders() { return headers; }
+    public Map<String, Object> getBody() { return body; }
+}
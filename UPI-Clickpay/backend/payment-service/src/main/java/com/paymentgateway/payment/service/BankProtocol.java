@@ -0,0 +1,19 @@
+package com.paymentgateway.payment.service;
+
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.dto.BankPaymentRequest;
+
+/**
+ * A bank's API as requests and response mappings, without the HTTP client. Implemented
+ * by the bank adapters so the servlet and reactive variants speak to banks identically.
+ */
+public interface BankProtocol {
+
+    BankCall createPaymentCall(BankPaymentRequest request);
+
+    BankCall statusCall(String bankTransactionId);
+
+    BankCall refundCall(String bankTransactionId, Money refundAmount);
+
+    String getBankName();
+}
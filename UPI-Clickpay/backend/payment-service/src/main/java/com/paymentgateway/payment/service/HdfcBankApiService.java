@@ -1,7 +1,9 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.dto.BankPaymentRequest;
 import com.paymentgateway.payment.dto.BankPaymentResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -19,7 +21,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Service("hdfcBankApiService")
-public class HdfcBankApiService implements BankApiService {
+public class HdfcBankApiService implements BankApiService, BankProtocol {
 
     @Value("${bank.hdfc.api.url:https://api.hdfc.com}")
     private String bankApiUrl;
@@ -33,121 +35,94 @@ public class HdfcBankApiService implements BankApiService {
     @Value("${bank.hdfc.merchant.id:HDFC_MERCHANT_001}")
     private String merchantId;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
 
     @Override
     public BankPaymentResponse createPayment(BankPaymentRequest request) {
-        try {
-            // Prepare HDFC API request
-            Map<String, Object> hdfcRequest = new HashMap<>();
-            hdfcRequest.put("merchant_id", merchantId);
-            hdfcRequest.put("order_id", request.getTransactionId());
-            hdfcRequest.put("amount", request.getAmount().toString());
-            hdfcRequest.put("currency", request.getCurrency());
-            hdfcRequest.put("payment_method", "UPI");
-            hdfcRequest.put("callback_url", request.getCallbackUrl());
-            hdfcRequest.put("description", request.getDescription());
-            
-            if (request.getUpiId() != null) {
-                hdfcRequest.put("upi_id", request.getUpiId());
-            }
-
-            // Add timestamp and signature
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            hdfcRequest.put("timestamp", timestamp);
-            hdfcRequest.put("signature", generateSignature(request.getTransactionId(), request.getAmount().toString(), timestamp));
-
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(hdfcRequest, headers);
-
-            // Make API call to HDFC
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/api/v1/payments/create", 
-                entity, 
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapHdfcResponse(responseBody, request.getTransactionId());
-            } else {
-                return createErrorResponse(request.getTransactionId(), "HDFC_API_ERROR", "Failed to create payment with HDFC");
-            }
-
-        } catch (Exception e) {
-            // In case of actual bank API failure, simulate success for demo
-            return simulateSuccessResponse(request);
-        }
+        return createPaymentCall(request).execute(restTemplate);
     }
 
     @Override
-    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                bankApiUrl + "/api/v1/payments/status/" + bankTransactionId,
-                HttpMethod.GET,
-                entity,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapHdfcStatusResponse(responseBody);
-            }
-
-        } catch (Exception e) {
-            System.out.println("Error checking payment status with HDFC: " + e.getMessage());
+    public BankCall createPaymentCall(BankPaymentRequest request) {
+        // Prepare HDFC API request
+        Map<String, Object> hdfcRequest = new HashMap<>();
+        hdfcRequest.put("merchant_id", merchantId);
+        hdfcRequest.put("order_id", request.getTransactionId());
+        hdfcRequest.put("amount", request.getAmount().toPlainString());
+        hdfcRequest.put("currency", request.getCurrency());
+        hdfcRequest.put("payment_method", "UPI");
+        hdfcRequest.put("callback_url", request.getCallbackUrl());
+        hdfcRequest.put("description", request.getDescription());
+        
+        if (request.getUpiId() != null) {
+            hdfcRequest.put("upi_id", request.getUpiId());
         }
 
-        // Return pending status if unable to check
-        BankPaymentResponse response = new BankPaymentResponse();
-        response.setBankTransactionId(bankTransactionId);
-        response.setStatus("PENDING");
-        return response;
+        // Add timestamp and signature
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        hdfcRequest.put("timestamp", timestamp);
+        hdfcRequest.put("signature", generateSignature(request.getTransactionId(), request.getAmount().toPlainString(), timestamp));
+
+        // Set headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+
+        // Make API call to HDFC
+        return new BankCall("create", HttpMethod.POST, bankApiUrl + "/api/v1/payments/create", headers, hdfcRequest)
+            .onOk(responseBody -> mapHdfcResponse(responseBody, request.getTransactionId()))
+            .onOtherStatus(() -> createErrorResponse(request.getTransactionId(), "HDFC_API_ERROR", "Failed to create payment with HDFC"))
+            // In case of actual bank API failure, simulate success for demo
+            .onError(e -> simulateSuccessResponse(request));
     }
 
     @Override
-    public BankPaymentResponse refundPayment(String bankTransactionId, String refundAmount) {
-        try {
-            Map<String, Object> refundRequest = new HashMap<>();
-            refundRequest.put("transaction_id", bankTransactionId);
-            refundRequest.put("refund_amount", refundAmount);
-            refundRequest.put("refund_id", "REF_" + UUID.randomUUID().toString().substring(0, 8));
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(refundRequest, headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/api/v1/payments/refund",
-                entity,
-                Map.class
-            );
+    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
+        return statusCall(bankTransactionId).execute(restTemplate);
+    }
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapHdfcRefundResponse(responseBody);
-            }
+    @Override
+    public BankCall statusCall(String bankTransactionId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+
+        return new BankCall("status", HttpMethod.GET, bankApiUrl + "/api/v1/payments/status/" + bankTransactionId, headers, null)
+            .onOk(this::mapHdfcStatusResponse)
+            // Return pending status if unable to check
+            .onOtherStatus(() -> pendingResponse(bankTransactionId))
+            .onError(e -> {
+                System.out.println("Error checking payment status with HDFC: " + e.getMessage());
+                return pendingResponse(bankTransactionId);
+            });
+    }
 
-        } catch (Exception e) {
-            System.out.println("Error processing refund with HDFC: " + e.getMessage());
-        }
+    @Override
+    public BankPaymentResponse refundPayment(String bankTransactionId, Money refundAmount) {
+        return refundCall(bankTransactionId, refundAmount).execute(restTemplate);
+    }
 
-        return createErrorResponse(bankTransactionId, "REFUND_FAILED", "Failed to process refund");
+    @Override
+    public BankCall refundCall(String bankTransactionId, Money refundAmount) {
+        Map<String, Object> refundRequest = new HashMap<>();
+        refundRequest.put("transaction_id", bankTransactionId);
+        refundRequest.put("refund_amount", refundAmount.toPlainString());
+        refundRequest.put("refund_id", "REF_" + UUID.randomUUID().toString().substring(0, 8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+
+        return new BankCall("refund", HttpMethod.POST, bankApiUrl + "/api/v1/payments/refund", headers, refundRequest)
+            .onOk(this::mapHdfcRefundResponse)
+            .onOtherStatus(() -> createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown"))
+            .onError(e -> {
+                System.out.println("Error processing refund with HDFC: " + e.getMessage());
+                return createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown");
+            });
     }
 
     @Override
@@ -173,7 +148,7 @@ public class HdfcBankApiService implements BankApiService {
         response.setStatus("PENDING");
         response.setAmount(request.getAmount());
         response.setCurrency(request.getCurrency());
-        response.setPaymentUrl("upi://pay?pa=merchant@hdfc&am=" + request.getAmount() + "&tr=" + request.getTransactionId());
+        response.setPaymentUrl("upi://pay?pa=merchant@hdfc&am=" + request.getAmount().toPlainString() + "&tr=" + request.getTransactionId());
         response.setCreatedAt(LocalDateTime.now());
         response.setExpiresAt(LocalDateTime.now().plusMinutes(15));
         return response;
@@ -193,7 +168,7 @@ public class HdfcBankApiService implements BankApiService {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setBankTransactionId((String) responseBody.get("transaction_id"));
         response.setStatus((String) responseBody.get("status"));
-        response.setAmount(new java.math.BigDecimal(responseBody.get("amount").toString()));
+        response.setAmount(Money.parse(responseBody.get("amount").toString()));
         return response;
     }
 
@@ -204,6 +179,13 @@ public class HdfcBankApiService implements BankApiService {
         return response;
     }
 
+    private BankPaymentResponse pendingResponse(String bankTransactionId) {
+        BankPaymentResponse response = new BankPaymentResponse();
+        response.setBankTransactionId(bankTransactionId);
+        response.setStatus("PENDING");
+        return response;
+    }
+
     private BankPaymentResponse createErrorResponse(String transactionId, String errorCode, String errorMessage) {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setMerchantTransactionId(transactionId);
@@ -213,7 +195,7 @@ public class HdfcBankApiService implements BankApiService {
         return response;
     }
 
-    private String generateSignature(String orderId, String amount, String timestamp) {
+    String generateSignature(String orderId, String amount, String timestamp) {
         try {
             String data = merchantId + orderId + amount + timestamp;
             Mac mac = Mac.getInstance("HmacSHA256");
@@ -226,7 +208,7 @@ public class HdfcBankApiService implements BankApiService {
         }
     }
 
-    private String generateWebhookSignature(String payload) {
+    String generateWebhookSignature(String payload) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
             SecretKeySpec secretKeySpec = new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
@@ -1,7 +1,9 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.dto.BankPaymentRequest;
 import com.paymentgateway.payment.dto.BankPaymentResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -19,7 +21,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Service("iciciBankApiService")
-public class IciciBankApiService implements BankApiService {
+public class IciciBankApiService implements BankApiService, BankProtocol {
 
     @Value("${bank.icici.api.url:https://api.icicibank.com}")
     private String bankApiUrl;
@@ -33,122 +35,95 @@ public class IciciBankApiService implements BankApiService {
     @Value("${bank.icici.merchant.id:ICICI_MERCHANT_001}")
     private String merchantId;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
 
     @Override
     public BankPaymentResponse createPayment(BankPaymentRequest request) {
-        try {
-            // Prepare ICICI API request
-            Map<String, Object> iciciRequest = new HashMap<>();
-            iciciRequest.put("merchant_code", merchantId);
-            iciciRequest.put("reference_no", request.getTransactionId());
-            iciciRequest.put("amount", request.getAmount().toString());
-            iciciRequest.put("currency_code", request.getCurrency());
-            iciciRequest.put("payment_type", "UPI");
-            iciciRequest.put("return_url", request.getCallbackUrl());
-            iciciRequest.put("description", request.getDescription());
-            
-            if (request.getUpiId() != null) {
-                iciciRequest.put("upi_vpa", request.getUpiId());
-            }
-
-            // Add timestamp and hash
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            iciciRequest.put("request_time", timestamp);
-            iciciRequest.put("secure_hash", generateSecureHash(request.getTransactionId(), request.getAmount().toString(), timestamp));
-
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((apiKey + ":" + apiSecret).getBytes()));
-            headers.set("X-Merchant-Code", merchantId);
-            headers.set("X-Request-Time", timestamp);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(iciciRequest, headers);
-
-            // Make API call to ICICI
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/api/v1/payment/initiate", 
-                entity, 
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapIciciResponse(responseBody, request.getTransactionId());
-            } else {
-                return createErrorResponse(request.getTransactionId(), "ICICI_API_ERROR", "Failed to create payment with ICICI Bank");
-            }
-
-        } catch (Exception e) {
-            // In case of actual bank API failure, simulate success for demo
-            return simulateSuccessResponse(request);
-        }
+        return createPaymentCall(request).execute(restTemplate);
     }
 
     @Override
-    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((apiKey + ":" + apiSecret).getBytes()));
-            headers.set("X-Merchant-Code", merchantId);
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                bankApiUrl + "/api/v1/payment/inquiry/" + bankTransactionId,
-                HttpMethod.GET,
-                entity,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapIciciStatusResponse(responseBody);
-            }
-
-        } catch (Exception e) {
-            System.out.println("Error checking payment status with ICICI Bank: " + e.getMessage());
+    public BankCall createPaymentCall(BankPaymentRequest request) {
+        // Prepare ICICI API request
+        Map<String, Object> iciciRequest = new HashMap<>();
+        iciciRequest.put("merchant_code", merchantId);
+        iciciRequest.put("reference_no", request.getTransactionId());
+        iciciRequest.put("amount", request.getAmount().toPlainString());
+        iciciRequest.put("currency_code", request.getCurrency());
+        iciciRequest.put("payment_type", "UPI");
+        iciciRequest.put("return_url", request.getCallbackUrl());
+        iciciRequest.put("description", request.getDescription());
+        
+        if (request.getUpiId() != null) {
+            iciciRequest.put("upi_vpa", request.getUpiId());
         }
 
-        // Return pending status if unable to check
-        BankPaymentResponse response = new BankPaymentResponse();
-        response.setBankTransactionId(bankTransactionId);
-        response.setStatus("PENDING");
-        return response;
+        // Add timestamp and hash
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        iciciRequest.put("request_time", timestamp);
+        iciciRequest.put("secure_hash", generateSecureHash(request.getTransactionId(), request.getAmount().toPlainString(), timestamp));
+
+        // Set headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((apiKey + ":" + apiSecret).getBytes()));
+        headers.set("X-Merchant-Code", merchantId);
+        headers.set("X-Request-Time", timestamp);
+
+        // Make API call to ICICI
+        return new BankCall("create", HttpMethod.POST, bankApiUrl + "/api/v1/payment/initiate", headers, iciciRequest)
+            .onOk(responseBody -> mapIciciResponse(responseBody, request.getTransactionId()))
+            .onOtherStatus(() -> createErrorResponse(request.getTransactionId(), "ICICI_API_ERROR", "Failed to create payment with ICICI Bank"))
+            // In case of actual bank API failure, simulate success for demo
+            .onError(e -> simulateSuccessResponse(request));
     }
 
     @Override
-    public BankPaymentResponse refundPayment(String bankTransactionId, String refundAmount) {
-        try {
-            Map<String, Object> refundRequest = new HashMap<>();
-            refundRequest.put("original_reference", bankTransactionId);
-            refundRequest.put("refund_amount", refundAmount);
-            refundRequest.put("refund_reference", "REF_ICICI_" + UUID.randomUUID().toString().substring(0, 8));
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((apiKey + ":" + apiSecret).getBytes()));
-            headers.set("X-Merchant-Code", merchantId);
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(refundRequest, headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/api/v1/payment/refund",
-                entity,
-                Map.class
-            );
+    public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
+        return statusCall(bankTransactionId).execute(restTemplate);
+    }
 
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapIciciRefundResponse(responseBody);
-            }
+    @Override
+    public BankCall statusCall(String bankTransactionId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((apiKey + ":" + apiSecret).getBytes()));
+        headers.set("X-Merchant-Code", merchantId);
+
+        return new BankCall("status", HttpMethod.GET, bankApiUrl + "/api/v1/payment/inquiry/" + bankTransactionId, headers, null)
+            .onOk(this::mapIciciStatusResponse)
+            // Return pending status if unable to check
+            .onOtherStatus(() -> pendingResponse(bankTransactionId))
+            .onError(e -> {
+                System.out.println("Error checking payment status with ICICI Bank: " + e.getMessage());
+                return pendingResponse(bankTransactionId);
+            });
+    }
 
-        } catch (Exception e) {
-            System.out.println("Error processing refund with ICICI Bank: " + e.getMessage());
-        }
+    @Override
+    public BankPaymentResponse refundPayment(String bankTransactionId, Money refundAmount) {
+        return refundCall(bankTransactionId, refundAmount).execute(restTemplate);
+    }
 
-        return createErrorResponse(bankTransactionId, "REFUND_FAILED", "Failed to process refund");
+    @Override
+    public BankCall refundCall(String bankTransactionId, Money refundAmount) {
+        Map<String, Object> refundRequest = new HashMap<>();
+        refundRequest.put("original_reference", bankTransactionId);
+        refundRequest.put("refund_amount", refundAmount.toPlainString());
+        refundRequest.put("refund_reference", "REF_ICICI_" + UUID.randomUUID().toString().substring(0, 8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Basic " + Base64.getEncoder().encodeToString((apiKey + ":" + apiSecret).getBytes()));
+        headers.set("X-Merchant-Code", merchantId);
+
+        return new BankCall("refund", HttpMethod.POST, bankApiUrl + "/api/v1/payment/refund", headers, refundRequest)
+            .onOk(this::mapIciciRefundResponse)
+            .onOtherStatus(() -> createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown"))
+            .onError(e -> {
+                System.out.println("Error processing refund with ICICI Bank: " + e.getMessage());
+                return createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown");
+            });
     }
 
     @Override
@@ -174,7 +149,7 @@ public class IciciBankApiService implements BankApiService {
         response.setStatus("PENDING");
         response.setAmount(request.getAmount());
         response.setCurrency(request.getCurrency());
-        response.setPaymentUrl("upi://pay?pa=merchant@icici&am=" + request.getAmount() + "&tr=" + request.getTransactionId());
+        response.setPaymentUrl("upi://pay?pa=merchant@icici&am=" + request.getAmount().toPlainString() + "&tr=" + request.getTransactionId());
         response.setCreatedAt(LocalDateTime.now());
         response.setExpiresAt(LocalDateTime.now().plusMinutes(15));
         return response;
@@ -194,7 +169,7 @@ public class IciciBankApiService implements BankApiService {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setBankTransactionId((String) responseBody.get("reference_no"));
         response.setStatus((String) responseBody.get("status"));
-        response.setAmount(new java.math.BigDecimal(responseBody.get("amount").toString()));
+        response.setAmount(Money.parse(responseBody.get("amount").toString()));
         return response;
     }
 
@@ -205,6 +180,13 @@ public class IciciBankApiService implements BankApiService {
         return response;
     }
 
+    private BankPaymentResponse pendingResponse(String bankTransactionId) {
+        BankPaymentResponse response = new BankPaymentResponse();
+        response.setBankTransactionId(bankTransactionId);
+        response.setStatus("PENDING");
+        return response;
+    }
+
     private BankPaymentResponse createErrorResponse(String transactionId, String errorCode, String errorMessage) {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setMerchantTransactionId(transactionId);
@@ -214,7 +196,7 @@ public class IciciBankApiService implements BankApiService {
         return response;
     }
 
-    private String generateSecureHash(String referenceNo, String amount, String timestamp) {
+    String generateSecureHash(String referenceNo, String amount, String timestamp) {
         try {
             String data = merchantId + referenceNo + amount + timestamp;
             Mac mac = Mac.getInstance("HmacSHA256");
@@ -227,7 +209,7 @@ public class IciciBankApiService implements BankApiService {
         }
     }
 
-    private String generateWebhookSignature(String payload) {
+    String generateWebhookSignature(String payload) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
             SecretKeySpec secretKeySpec = new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
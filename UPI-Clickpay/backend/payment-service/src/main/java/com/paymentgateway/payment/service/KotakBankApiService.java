@@ -1,7 +1,9 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.dto.BankPaymentRequest;
 import com.paymentgateway.payment.dto.BankPaymentResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -19,7 +21,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Service("kotakBankApiService")
-public class KotakBankApiService implements BankApiService {
+public class KotakBankApiService implements BankApiService, BankProtocol {
 
     @Value("${bank.kotak.api.url:https://api.kotak.com}")
     private String bankApiUrl;
@@ -33,125 +35,98 @@ public class KotakBankApiService implements BankApiService {
     @Value("${bank.kotak.merchant.id:KOTAK_MERCHANT_001}")
     private String merchantId;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
 
     @Override
     public BankPaymentResponse createPayment(BankPaymentRequest request) {
-        try {
-            // Prepare Kotak API request
-            Map<String, Object> kotakRequest = new HashMap<>();
-            kotakRequest.put("merchantId", merchantId);
-            kotakRequest.put("transactionId", request.getTransactionId());
-            kotakRequest.put("amount", request.getAmount().toString());
-            kotakRequest.put("currency", request.getCurrency());
-            kotakRequest.put("paymentMethod", "UPI");
-            kotakRequest.put("successUrl", request.getCallbackUrl());
-            kotakRequest.put("failureUrl", request.getCallbackUrl());
-            kotakRequest.put("description", request.getDescription());
-            
-            if (request.getUpiId() != null) {
-                kotakRequest.put("upiHandle", request.getUpiId());
-            }
-
-            // Add timestamp and signature
-            String timestamp = String.valueOf(System.currentTimeMillis());
-            kotakRequest.put("timestamp", timestamp);
-            kotakRequest.put("signature", generateSignature(request.getTransactionId(), request.getAmount().toString(), timestamp));
-
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-            headers.set("X-API-Version", "2.0");
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(kotakRequest, headers);
-
-            // Make API call to Kotak
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/payments/v2/create", 
-                entity, 
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapKotakResponse(responseBody, request.getTransactionId());
-            } else {
-                return createErrorResponse(request.getTransactionId(), "KOTAK_API_ERROR", "Failed to create payment with Kotak Bank");
-            }
+        return createPaymentCall(request).execute(restTemplate);
+    }
 
-        } catch (Exception e) {
-            // In case of actual bank API failure, simulate success for demo
-            return simulateSuccessResponse(request);
+    @Override
+    public BankCall createPaymentCall(BankPaymentRequest request) {
+        // Prepare Kotak API request
+        Map<String, Object> kotakRequest = new HashMap<>();
+        kotakRequest.put("merchantId", merchantId);
+        kotakRequest.put("transactionId", request.getTransactionId());
+        kotakRequest.put("amount", request.getAmount().toPlainString());
+        kotakRequest.put("currency", request.getCurrency());
+        kotakRequest.put("paymentMethod", "UPI");
+        kotakRequest.put("successUrl", request.getCallbackUrl());
+        kotakRequest.put("failureUrl", request.getCallbackUrl());
+        kotakRequest.put("description", request.getDescription());
+        
+        if (request.getUpiId() != null) {
+            kotakRequest.put("upiHandle", request.getUpiId());
         }
+
+        // Add timestamp and signature
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        kotakRequest.put("timestamp", timestamp);
+        kotakRequest.put("signature", generateSignature(request.getTransactionId(), request.getAmount().toPlainString(), timestamp));
+
+        // Set headers
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+        headers.set("X-API-Version", "2.0");
+
+        // Make API call to Kotak
+        return new BankCall("create", HttpMethod.POST, bankApiUrl + "/payments/v2/create", headers, kotakRequest)
+            .onOk(responseBody -> mapKotakResponse(responseBody, request.getTransactionId()))
+            .onOtherStatus(() -> createErrorResponse(request.getTransactionId(), "KOTAK_API_ERROR", "Failed to create payment with Kotak Bank"))
+            // In case of actual bank API failure, simulate success for demo
+            .onError(e -> simulateSuccessResponse(request));
     }
 
     @Override
     public BankPaymentResponse checkPaymentStatus(String bankTransactionId) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-            headers.set("X-API-Version", "2.0");
-
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-
-            ResponseEntity<Map> response = restTemplate.exchange(
-                bankApiUrl + "/payments/v2/status/" + bankTransactionId,
-                HttpMethod.GET,
-                entity,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapKotakStatusResponse(responseBody);
-            }
-
-        } catch (Exception e) {
-            System.out.println("Error checking payment status with Kotak Bank: " + e.getMessage());
-        }
-
-        // Return pending status if unable to check
-        BankPaymentResponse response = new BankPaymentResponse();
-        response.setBankTransactionId(bankTransactionId);
-        response.setStatus("PENDING");
-        return response;
+        return statusCall(bankTransactionId).execute(restTemplate);
     }
 
     @Override
-    public BankPaymentResponse refundPayment(String bankTransactionId, String refundAmount) {
-        try {
-            Map<String, Object> refundRequest = new HashMap<>();
-            refundRequest.put("originalTransactionId", bankTransactionId);
-            refundRequest.put("refundAmount", refundAmount);
-            refundRequest.put("refundId", "REF_KOTAK_" + UUID.randomUUID().toString().substring(0, 8));
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            headers.set("X-Merchant-ID", merchantId);
-            headers.set("X-API-Version", "2.0");
-
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(refundRequest, headers);
-
-            ResponseEntity<Map> response = restTemplate.postForEntity(
-                bankApiUrl + "/payments/v2/refund",
-                entity,
-                Map.class
-            );
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                Map<String, Object> responseBody = response.getBody();
-                return mapKotakRefundResponse(responseBody);
-            }
+    public BankCall statusCall(String bankTransactionId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+        headers.set("X-API-Version", "2.0");
+
+        return new BankCall("status", HttpMethod.GET, bankApiUrl + "/payments/v2/status/" + bankTransactionId, headers, null)
+            .onOk(this::mapKotakStatusResponse)
+            // Return pending status if unable to check
+            .onOtherStatus(() -> pendingResponse(bankTransactionId))
+            .onError(e -> {
+                System.out.println("Error checking payment status with Kotak Bank: " + e.getMessage());
+                return pendingResponse(bankTransactionId);
+            });
+    }
 
-        } catch (Exception e) {
-            System.out.println("Error processing refund with Kotak Bank: " + e.getMessage());
-        }
+    @Override
+    public BankPaymentResponse refundPayment(String bankTransactionId, Money refundAmount) {
+        return refundCall(bankTransactionId, refundAmount).execute(restTemplate);
+    }
 
-        return createErrorResponse(bankTransactionId, "REFUND_FAILED", "Failed to process refund");
+    @Override
+    public BankCall refundCall(String bankTransactionId, Money refundAmount) {
+        Map<String, Object> refundRequest = new HashMap<>();
+        refundRequest.put("originalTransactionId", bankTransactionId);
+        refundRequest.put("refundAmount", refundAmount.toPlainString());
+        refundRequest.put("refundId", "REF_KOTAK_" + UUID.randomUUID().toString().substring(0, 8));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Authorization", "Bearer " + apiKey);
+        headers.set("X-Merchant-ID", merchantId);
+        headers.set("X-API-Version", "2.0");
+
+        return new BankCall("refund", HttpMethod.POST, bankApiUrl + "/payments/v2/refund", headers, refundRequest)
+            .onOk(this::mapKotakRefundResponse)
+            .onOtherStatus(() -> createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown"))
+            .onError(e -> {
+                System.out.println("Error processing refund with Kotak Bank: " + e.getMessage());
+                return createErrorResponse(bankTransactionId, REFUND_OUTCOME_UNKNOWN, "Refund outcome unknown");
+            });
     }
 
     @Override
@@ -177,7 +152,7 @@ public class KotakBankApiService implements BankApiService {
         response.setStatus("PENDING");
         response.setAmount(request.getAmount());
         response.setCurrency(request.getCurrency());
-        response.setPaymentUrl("upi://pay?pa=merchant@kotak&am=" + request.getAmount() + "&tr=" + request.getTransactionId());
+        response.setPaymentUrl("upi://pay?pa=merchant@kotak&am=" + request.getAmount().toPlainString() + "&tr=" + request.getTransactionId());
         response.setCreatedAt(LocalDateTime.now());
         response.setExpiresAt(LocalDateTime.now().plusMinutes(15));
         return response;
@@ -197,7 +172,7 @@ public class KotakBankApiService implements BankApiService {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setBankTransactionId((String) responseBody.get("transactionId"));
         response.setStatus((String) responseBody.get("status"));
-        response.setAmount(new java.math.BigDecimal(responseBody.get("amount").toString()));
+        response.setAmount(Money.parse(responseBody.get("amount").toString()));
         return response;
     }
 
@@ -208,6 +183,13 @@ public class KotakBankApiService implements BankApiService {
         return response;
     }
 
+    private BankPaymentResponse pendingResponse(String bankTransactionId) {
+        BankPaymentResponse response = new BankPaymentResponse();
+        response.setBankTransactionId(bankTransactionId);
+        response.setStatus("PENDING");
+        return response;
+    }
+
     private BankPaymentResponse createErrorResponse(String transactionId, String errorCode, String errorMessage) {
         BankPaymentResponse response = new BankPaymentResponse();
         response.setMerchantTransactionId(transactionId);
@@ -217,7 +199,7 @@ public class KotakBankApiService implements BankApiService {
         return response;
     }
 
-    private String generateSignature(String transactionId, String amount, String timestamp) {
+    String generateSignature(String transactionId, String amount, String timestamp) {
         try {
             String data = merchantId + "|" + transactionId + "|" + amount + "|" + timestamp;
             Mac mac = Mac.getInstance("HmacSHA256");
@@ -230,7 +212,7 @@ public class KotakBankApiService implements BankApiService {
         }
     }
 
-    private String generateWebhookSignature(String payload) {
+    String generateWebhookSignature(String payload) {
         try {
             Mac mac = Mac.getInstance("HmacSHA256");
             SecretKeySpec secretKeySpec = new SecretKeySpec(apiSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
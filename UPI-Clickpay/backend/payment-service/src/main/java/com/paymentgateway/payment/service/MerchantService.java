@@ -1,5 +1,7 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.payment.rpc.MerchantDirectoryClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -8,6 +10,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -16,18 +20,32 @@ public class MerchantService {
     @Value("${merchant.service.url:http://localhost:8082}")
     private String merchantServiceUrl;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
+
+    // Present unless merchant.rpc.enabled=false; lookups then go over REST
+    @Autowired(required = false)
+    private MerchantDirectoryClient merchantDirectoryClient;
 
     /**
      * Get merchant information including preferred bank
      */
     public MerchantInfo getMerchantInfo(Long merchantId) {
+        if (merchantDirectoryClient != null) {
+            try {
+                return merchantDirectoryClient.getMerchant(merchantId);
+            } catch (Exception e) {
+                System.out.println("Error fetching merchant info over RPC: " + e.getMessage());
+                return getDefaultMerchantInfo(merchantId);
+            }
+        }
+
         try {
             HttpHeaders headers = new HttpHeaders();
             HttpEntity<String> entity = new HttpEntity<>(headers);
 
             ResponseEntity<Map> response = restTemplate.exchange(
-                merchantServiceUrl + "/merchants/" + merchantId + "/info",
+                merchantInfoUrl(merchantId),
                 HttpMethod.GET,
                 entity,
                 Map.class
@@ -45,7 +63,34 @@ public class MerchantService {
         return getDefaultMerchantInfo(merchantId);
     }
 
-    private MerchantInfo mapToMerchantInfo(Map<String, Object> merchantData) {
+    /**
+     * Merchant information for several merchants, in one call when RPC is enabled.
+     * Merchants that cannot be found get the default info, as with a single lookup.
+     */
+    public Map<Long, MerchantInfo> getMerchantInfos(Collection<Long> merchantIds) {
+        Map<Long, MerchantInfo> infos = new HashMap<>();
+        if (merchantDirectoryClient != null) {
+            try {
+                infos.putAll(merchantDirectoryClient.getMerchants(merchantIds));
+            } catch (Exception e) {
+                System.out.println("Error fetching merchant infos over RPC: " + e.getMessage());
+            }
+        } else {
+            for (Long merchantId : merchantIds) {
+                infos.put(merchantId, getMerchantInfo(merchantId));
+            }
+        }
+        for (Long merchantId : merchantIds) {
+            infos.computeIfAbsent(merchantId, this::getDefaultMerchantInfo);
+        }
+        return infos;
+    }
+
+    public String merchantInfoUrl(Long merchantId) {
+        return merchantServiceUrl + "/merchants/" + merchantId + "/info";
+    }
+
+    public MerchantInfo mapToMerchantInfo(Map<String, Object> merchantData) {
         MerchantInfo info = new MerchantInfo();
         info.setId(Long.valueOf(merchantData.get("id").toString()));
         info.setBusinessName((String) merchantData.get("businessName"));
@@ -67,7 +112,7 @@ public class MerchantService {
         return info;
     }
 
-    private MerchantInfo getDefaultMerchantInfo(Long merchantId) {
+    public MerchantInfo getDefaultMerchantInfo(Long merchantId) {
         MerchantInfo info = new MerchantInfo();
         info.setId(merchantId);
         info.setBusinessName("Default Merchant");
@@ -85,6 +130,8 @@ public class MerchantService {
         private String upiId;
         private String webhookUrl;
         private BankApiServiceFactory.BankProvider preferredBank;
+        // merchants.config_version, 0 when not known (REST lookups)
+        private long configVersion;
 
         // Getters and setters
         public Long getId() { return id; }
@@ -101,5 +148,8 @@ public class MerchantService {
 
         public BankApiServiceFactory.BankProvider getPreferredBank() { return preferredBank; }
         public void setPreferredBank(BankApiServiceFactory.BankProvider preferredBank) { this.preferredBank = preferredBank; }
+
+        public long getConfigVersion() { return configVersion; }
+        public void setConfigVersion(long configVersion) { this.configVersion = configVersion; }
     }
 }
\ No newline at end of file
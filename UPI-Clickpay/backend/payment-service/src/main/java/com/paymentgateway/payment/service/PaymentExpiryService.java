@@ -0,0 +1,385 @@
+package com.paymentgateway.payment.service;
+
+import com.paymentgateway.common.jobs.JobPartitions;
+import com.paymentgateway.payment.entity.Payment;
+import com.paymentgateway.payment.expiry.ExpiryPartitions;
+import com.paymentgateway.payment.expiry.TimingWheel;
+import com.paymentgateway.payment.metrics.LiveStats;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import com.paymentgateway.payment.shard.ShardContext;
+import com.paymentgateway.payment.shard.ShardDirectory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires PENDING payments at their deadline. Deadlines of the payments in this node's
+ * {@link ExpiryPartitions} slots are kept in a {@link TimingWheel}, filled from the
+ * database whenever a slot is acquired and on every payment created here. A ticker
+ * drains the wheel and applies expirations as batched conditional UPDATEs, which only
+ * touch rows that are still PENDING and in a slot this node owns.
+ *
+ * Payment ids are unique across shards, so one wheel serves them all; each database
+ * statement runs on every shard, limited there to the payment slots the shard owns.
+ * Payments of a slot in the middle of a move are refused by its fence and retried on
+ * the next tick.
+ */
+@Service
+public class PaymentExpiryService {
+
+    private static final String EXPIRE_BATCH =
+        "UPDATE payments SET status = 'EXPIRED', cancellation_reason = ?, cancelled_by = 'SYSTEM', " +
+        "updated_at = ?, completed_at = ? " +
+        "WHERE id = ANY (?) AND status = 'PENDING' AND expires_at <= ? AND expiry_slot = ANY (?) " +
+        "AND " + ShardDirectory.OWNED_SLOTS + " RETURNING id, bank_provider, payment_method";
+
+    private static final String SWEEP_BATCH =
+        "UPDATE payments SET status = 'EXPIRED', cancellation_reason = ?, cancelled_by = 'SYSTEM', " +
+        "updated_at = ?, completed_at = ? WHERE id IN (SELECT id FROM payments WHERE status = 'PENDING' " +
+        "AND expiry_slot = ANY (?) AND expires_at <= ? AND " + ShardDirectory.OWNED_SLOTS + " LIMIT ?) AND status = 'PENDING' " +
+        "RETURNING bank_provider, payment_method";
+
+    private static final String SELECT_PENDING_IN_SLOT =
+        "SELECT id, expires_at FROM payments WHERE status = 'PENDING' AND expiry_slot = ? AND expires_at IS NOT NULL";
+
+    // Pending payments from before expiry slots, or from a larger payment.expiry.slots
+    private static final String RESLOT_PENDING =
+        "UPDATE payments SET expiry_slot = MOD(id, ?) WHERE status = 'PENDING' " +
+        "AND (expiry_slot IS NULL OR expiry_slot < 0 OR expiry_slot >= ?) AND " + ShardDirectory.OWNED_SLOTS;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExpiryPartitions partitions;
+
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
+    @Autowired
+    private LiveStats liveStats;
+
+    @Autowired
+    private ShardDirectory shardDirectory;
+
+    @Value("${payment.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.expiry.ttl:15m}")
+    private Duration ttl;
+
+    @Value("${payment.expiry.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${payment.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.expiry.fetch-size:5000}")
+    private int fetchSize;
+
+    // Guarded by this; the monitor covers wheel operations only, never a database call
+    private TimingWheel wheel;
+    private ScheduledExecutorService ticker;
+
+    // Due ids collected by one tick; only touched on the ticker thread
+    private long[] due = new long[1024];
+    private int dueCount;
+
+    @PostConstruct
+    public void start() {
+        wheel = new TimingWheel(tickMillis, System.currentTimeMillis());
+        if (!enabled) {
+            return;
+        }
+        reslotPending();
+        partitions.register();
+        paymentMetrics.gauge("payment.expiry.tracked", "Pending payments in this node's expiry wheel",
+            this, PaymentExpiryService::trackedCount);
+        paymentMetrics.gauge("payment.expiry.slots", "Expiry slots owned by this node",
+            partitions, p -> p.ownedSlots().length);
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Give every pending payment a slot below the configured count, so some node owns it
+     */
+    private void reslotPending() {
+        int slotCount = partitions.getSlotCount();
+        for (String shard : shardDirectory.shards()) {
+            int moved = ShardContext.on(shard, () -> jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(RESLOT_PENDING);
+                ps.setInt(1, slotCount);
+                ps.setInt(2, slotCount);
+                shardDirectory.bindOwnedSlots(ps, 3, shard);
+                return ps;
+            }));
+            if (moved > 0) {
+                System.out.println("Payment expiry: " + moved + " pending payments on " + shard
+                    + " moved into slots 0-" + (slotCount - 1));
+            }
+        }
+    }
+
+    /**
+     * Deadline for a payment created now, unless the bank gave one
+     */
+    public LocalDateTime defaultExpiry() {
+        return LocalDateTime.now().plus(ttl);
+    }
+
+    /**
+     * Slot to stamp on a new payment; see {@link ExpiryPartitions#assignSlot()}
+     */
+    public int assignSlot() {
+        return partitions.assignSlot();
+    }
+
+    /**
+     * Track a just-saved PENDING payment. O(1); payments in slots owned elsewhere are
+     * left to their owner.
+     */
+    public void schedule(Payment payment) {
+        if (!enabled || payment.getId() == null || payment.getExpiresAt() == null
+                || payment.getExpirySlot() == null || !partitions.owns(payment.getExpirySlot())) {
+            return;
+        }
+        boolean scheduled;
+        synchronized (this) {
+            scheduled = wheel.schedule(payment.getId(), Timestamp.valueOf(payment.getExpiresAt()).getTime());
+        }
+        if (!scheduled) {
+            // Already past its deadline; the next tick picks it up
+            ticker.execute(() -> enqueueDue(payment.getId()));
+        }
+    }
+
+    /**
+     * Load the slots the job coordinator gave this node since the last call, as nodes
+     * come and go
+     */
+    @Scheduled(fixedDelayString = "${payment.expiry.rebalance-interval-ms:10000}")
+    public void rebalance() {
+        if (!enabled) {
+            return;
+        }
+        JobPartitions.Change change = partitions.rebalance();
+        if (change.isReset()) {
+            // Entries for lost slots are harmless (the UPDATE checks ownership) but start clean
+            synchronized (this) {
+                wheel = new TimingWheel(tickMillis, System.currentTimeMillis());
+            }
+        }
+        for (Integer slot : change.getAcquired()) {
+            loadSlot(slot);
+        }
+        if (!change.getAcquired().isEmpty() || !change.getReleased().isEmpty()) {
+            System.out.println("Payment expiry slots: acquired " + change.getAcquired() + ", released "
+                + change.getReleased() + ", now tracking " + trackedCount() + " payments");
+        }
+    }
+
+    /**
+     * Safety net for payments the wheel never saw: ones created by a node that owned no
+     * slots, or saved just as their slot changed hands. Works off the pending-expiry index.
+     */
+    @Scheduled(fixedDelayString = "${payment.expiry.sweep-interval-ms:60000}",
+               initialDelayString = "${payment.expiry.sweep-interval-ms:60000}")
+    public void sweepOverdue() {
+        int[] slots = partitions.ownedSlots();
+        if (!enabled || slots.length == 0) {
+            return;
+        }
+        int expired = 0;
+        for (String shard : shardDirectory.shards()) {
+            expired += ShardContext.on(shard, () -> sweepShard(shard, slots));
+        }
+        if (expired > 0) {
+            System.out.println("Expiry sweep expired " + expired + " overdue payments");
+        }
+    }
+
+    private int sweepShard(String shard, int[] slots) {
+        int expired = 0;
+        int updated;
+        do {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            int[] rows = {0};
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SWEEP_BATCH);
+                ps.setString(1, Payment.CancellationReason.TIMEOUT_EXPIRED.name());
+                ps.setTimestamp(2, now);
+                ps.setTimestamp(3, now);
+                ps.setArray(4, connection.createArrayOf("integer", Arrays.stream(slots).boxed().toArray()));
+                ps.setTimestamp(5, now);
+                int next = shardDirectory.bindOwnedSlots(ps, 6, shard);
+                ps.setInt(next, batchSize);
+                return ps;
+            }, rs -> {
+                liveStats.recordCompletion(rs.getString(1), rs.getString(2), Payment.PaymentStatus.EXPIRED);
+                rows[0]++;
+            });
+            updated = rows[0];
+            expired += updated;
+        } while (updated == batchSize);
+        return expired;
+    }
+
+    public synchronized int trackedCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Rebuild one slot's deadlines from the database
+     */
+    private void loadSlot(int slot) {
+        long nowMillis = System.currentTimeMillis();
+        int[] loaded = new int[1];
+        for (String shard : shardDirectory.shards()) {
+            ShardContext.run(shard, () -> loadSlotFromShard(slot, loaded));
+        }
+        System.out.println("Payment expiry slot " + slot + ": " + loaded[0] + " pending payments loaded in "
+            + (System.currentTimeMillis() - nowMillis) + " ms");
+    }
+
+    private void loadSlotFromShard(int slot, int[] loaded) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_PENDING_IN_SLOT,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setInt(1, slot);
+            return ps;
+        }, rs -> {
+            long paymentId = rs.getLong(1);
+            long deadline = rs.getTimestamp(2).getTime();
+            boolean scheduled;
+            synchronized (this) {
+                scheduled = wheel.schedule(paymentId, deadline);
+            }
+            if (!scheduled) {
+                ticker.execute(() -> enqueueDue(paymentId));
+            }
+            loaded[0]++;
+        }));
+    }
+
+    private void tick() {
+        try {
+            synchronized (this) {
+                wheel.advanceTo(System.currentTimeMillis(), this::enqueueDue);
+            }
+            if (dueCount > 0) {
+                expireDue();
+            }
+        } catch (Exception e) {
+            System.out.println("Payment expiry tick failed: " + e.getMessage());
+        }
+    }
+
+    private void enqueueDue(long paymentId) {
+        if (dueCount == due.length) {
+            due = Arrays.copyOf(due, dueCount * 2);
+        }
+        due[dueCount++] = paymentId;
+    }
+
+    private void expireDue() {
+        int[] slots = partitions.ownedSlots();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int expired = 0;
+        for (int from = 0; from < dueCount; from += batchSize) {
+            long[] ids = Arrays.copyOfRange(due, from, Math.min(dueCount, from + batchSize));
+            List<Long> updated = new ArrayList<>();
+            for (String shard : shardDirectory.shards()) {
+                updated.addAll(ShardContext.on(shard, () -> jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(EXPIRE_BATCH);
+                    Array idArray = connection.createArrayOf("bigint", Arrays.stream(ids).boxed().toArray());
+                    Array slotArray = connection.createArrayOf("integer", Arrays.stream(slots).boxed().toArray());
+                    ps.setString(1, Payment.CancellationReason.TIMEOUT_EXPIRED.name());
+                    ps.setTimestamp(2, now);
+                    ps.setTimestamp(3, now);
+                    ps.setArray(4, idArray);
+                    ps.setTimestamp(5, now);
+                    ps.setArray(6, slotArray);
+                    shardDirectory.bindOwnedSlots(ps, 7, shard);
+                    return ps;
+                }, (rs, rowNum) -> {
+                    liveStats.recordCompletion(rs.getString(2), rs.getString(3), Payment.PaymentStatus.EXPIRED);
+                    return rs.getLong(1);
+                })));
+            }
+            expired += updated.size();
+
+            if (updated.size() < ids.length) {
+                rescheduleStillPending(ids, updated, slots);
+            }
+        }
+        dueCount = 0;
+        if (expired > 0) {
+            System.out.println("Expired " + expired + " pending payments");
+        }
+    }
+
+    /**
+     * Ids the UPDATE skipped are usually already completed. The rest are still PENDING
+     * because this node's clock ran ahead of the deadline; put them back in the wheel.
+     */
+    private void rescheduleStillPending(long[] ids, List<Long> updated, int[] slots) {
+        Set<Long> done = new HashSet<>(updated);
+        Long[] remaining = Arrays.stream(ids).filter(id -> !done.contains(id)).boxed().toArray(Long[]::new);
+        for (String shard : shardDirectory.shards()) {
+            ShardContext.run(shard, () -> reschedule(remaining, slots));
+        }
+    }
+
+    private void reschedule(Long[] remaining, int[] slots) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, expires_at FROM payments WHERE id = ANY (?) AND status = 'PENDING' " +
+                "AND expires_at IS NOT NULL AND expiry_slot = ANY (?)");
+            ps.setArray(1, connection.createArrayOf("bigint", remaining));
+            ps.setArray(2, connection.createArrayOf("integer", Arrays.stream(slots).boxed().toArray()));
+            return ps;
+        }, rs -> {
+            long deadline = rs.getTimestamp(2).getTime();
+            synchronized (this) {
+                // Not yet due by the database's own deadline; at worst one tick later
+                wheel.schedule(rs.getLong(1), Math.max(deadline, System.currentTimeMillis() + tickMillis));
+            }
+        });
+    }
+}
@@ -0,0 +1,177 @@
+package com.paymentgateway.payment.service;
+
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.dto.BankPaymentRequest;
+import com.paymentgateway.payment.dto.BankPaymentResponse;
+import com.paymentgateway.payment.dto.PaymentRequest;
+import com.paymentgateway.payment.dto.PaymentResponse;
+import com.paymentgateway.payment.entity.Payment;
+import com.paymentgateway.payment.shard.ShardSlots;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decisions of the create, status and refund flows that involve no I/O: validating a request,
+ * building the payment and the bank request, and applying the bank's answers. Shared by
+ * {@link PaymentService} and the reactive variant so both behave identically.
+ */
+@Component
+public class PaymentRules {
+
+    @Autowired
+    private PaymentExpiryService paymentExpiryService;
+
+    /**
+     * Amount of a create request in the request's currency
+     */
+    public Money amountOf(PaymentRequest request) {
+        if (!request.getAmount().isPositive()) {
+            throw new RuntimeException("Amount must be greater than 0");
+        }
+        return Money.ofPaise(request.getAmount().getPaise(), request.getCurrency());
+    }
+
+    /**
+     * New PENDING payment, before the bank has been called
+     */
+    public Payment newPayment(Long merchantId, PaymentRequest request, Money amount,
+                              MerchantService.MerchantInfo merchantInfo) {
+        Payment payment = new Payment();
+        payment.setMerchantId(merchantId);
+        int shardSlot = ShardSlots.slotOf(merchantId);
+        payment.setShardSlot(shardSlot);
+        payment.setTransactionId(generateTransactionId(shardSlot));
+        payment.setAmount(amount);
+        payment.setCurrency(amount.getCurrency());
+        payment.setPaymentMethod(request.getPaymentMethod());
+        payment.setStatus(Payment.PaymentStatus.PENDING);
+        payment.setCallbackUrl(request.getCallbackUrl());
+        payment.setDescription(request.getDescription());
+        payment.setBankProvider(merchantInfo.getPreferredBank().name());
+        payment.setExpirySlot(paymentExpiryService.assignSlot());
+        if (request.getPaymentMethod() == Payment.PaymentMethod.UPI_ID) {
+            payment.setUpiId(request.getUpiId());
+        } else if (request.getPaymentMethod() == Payment.PaymentMethod.UPI_INTENT) {
+            payment.setUpiProvider(request.getUpiProvider());
+        }
+        return payment;
+    }
+
+    public BankPaymentRequest bankRequest(Payment payment, PaymentRequest request) {
+        BankPaymentRequest bankRequest = new BankPaymentRequest();
+        bankRequest.setTransactionId(payment.getTransactionId());
+        bankRequest.setAmount(payment.getAmount());
+        bankRequest.setCurrency(payment.getCurrency());
+        bankRequest.setCallbackUrl(request.getCallbackUrl());
+        bankRequest.setDescription(request.getDescription());
+        bankRequest.setUpiId(request.getUpiId());
+        return bankRequest;
+    }
+
+    /**
+     * Take the bank's create answer into the payment
+     * @return true if the bank sent no QR code for a UPI_QR payment, so one must be rendered locally
+     */
+    public boolean applyCreateResponse(Payment payment, BankPaymentResponse bankResponse) {
+        payment.setBankTransactionId(bankResponse.getBankTransactionId());
+        payment.setExpiresAt(bankResponse.getExpiresAt());
+        if (payment.getExpiresAt() == null) {
+            payment.setExpiresAt(paymentExpiryService.defaultExpiry());
+        }
+
+        boolean needsLocalQr = false;
+        switch (payment.getPaymentMethod()) {
+            case UPI_QR:
+                if (bankResponse.getQrCodeData() != null) {
+                    payment.setQrCodeData(bankResponse.getQrCodeData());
+                } else {
+                    needsLocalQr = true;
+                }
+                break;
+            case UPI_INTENT:
+                if (bankResponse.getPaymentUrl() != null) {
+                    payment.setPaymentUrl(bankResponse.getPaymentUrl());
+                }
+                break;
+            default:
+                break;
+        }
+        return needsLocalQr;
+    }
+
+    /**
+     * VPA payments are collected into: the merchant's own, or the preferred bank's default handle
+     */
+    public String merchantUpiId(MerchantService.MerchantInfo merchantInfo) {
+        return merchantInfo.getUpiId() != null
+            ? merchantInfo.getUpiId()
+            : "merchant@" + merchantInfo.getPreferredBank().name().toLowerCase();
+    }
+
+    public PaymentResponse createdResponse(Payment payment, MerchantService.MerchantInfo merchantInfo) {
+        PaymentResponse response = new PaymentResponse(payment);
+        response.setBankProvider(merchantInfo.getPreferredBank().getDisplayName());
+
+        if (payment.getPaymentMethod() == Payment.PaymentMethod.UPI_INTENT && payment.getPaymentUrl() == null) {
+            response.setPaymentUrl(QRCodeService.upiUrl(merchantUpiId(merchantInfo), payment.getAmount(),
+                payment.getTransactionId(), payment.getDescription()));
+        }
+        return response;
+    }
+
+    /**
+     * Final status a PENDING payment moves to on the bank's status answer, or null to stay PENDING
+     */
+    public Payment.PaymentStatus statusFromBank(BankPaymentResponse bankStatus) {
+        if ("SUCCESS".equalsIgnoreCase(bankStatus.getStatus()) || "COMPLETED".equalsIgnoreCase(bankStatus.getStatus())) {
+            return Payment.PaymentStatus.SUCCESS;
+        }
+        if ("FAILED".equalsIgnoreCase(bankStatus.getStatus()) || "CANCELLED".equalsIgnoreCase(bankStatus.getStatus())) {
+            return Payment.PaymentStatus.FAILED;
+        }
+        return null;
+    }
+
+    public void checkRefundable(Payment payment, Money refundAmount) {
+        if (payment.getStatus() != Payment.PaymentStatus.SUCCESS) {
+            throw new RuntimeException("Can only refund successful payments");
+        }
+
+        if (!refundAmount.isPositive() || refundAmount.isGreaterThan(payment.getAmount())) {
+            throw new RuntimeException("Refund amount must be between 0.01 and the payment amount");
+        }
+    }
+
+    public boolean isRefundAccepted(BankPaymentResponse refundResponse) {
+        return "SUCCESS".equalsIgnoreCase(refundResponse.getStatus()) || "COMPLETED".equalsIgnoreCase(refundResponse.getStatus());
+    }
+
+    /**
+     * True only when the bank answered that it did not refund. A refund that is neither
+     * accepted nor rejected stays REFUNDING for reconciliation, since retrying it could pay twice.
+     */
+    public boolean isRefundRejected(BankPaymentResponse refundResponse) {
+        if (BankApiService.REFUND_OUTCOME_UNKNOWN.equals(refundResponse.getErrorCode())) {
+            return false;
+        }
+        String status = refundResponse.getStatus();
+        return "FAILED".equalsIgnoreCase(status) || "REJECTED".equalsIgnoreCase(status)
+            || "DECLINED".equalsIgnoreCase(status);
+    }
+
+    /**
+     * Stand-in for a refund call that threw instead of answering
+     */
+    public BankPaymentResponse refundOutcomeUnknown(String bankTransactionId, Exception cause) {
+        BankPaymentResponse response = new BankPaymentResponse();
+        response.setBankTransactionId(bankTransactionId);
+        response.setStatus("FAILED");
+        response.setErrorCode(BankApiService.REFUND_OUTCOME_UNKNOWN);
+        response.setErrorMessage(cause.getMessage());
+        return response;
+    }
+
+    static String generateTransactionId(int shardSlot) {
+        return ShardSlots.newTransactionId(shardSlot);
+    }
+}
@@ -1,22 +1,26 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.datasource.DataSourceRouting;
+import com.paymentgateway.common.datasource.RecentWrites;
+import com.paymentgateway.common.money.Money;
 import com.paymentgateway.payment.dto.BankPaymentRequest;
 import com.paymentgateway.payment.dto.BankPaymentResponse;
 import com.paymentgateway.payment.dto.PaymentRequest;
 import com.paymentgateway.payment.dto.PaymentResponse;
 import com.paymentgateway.payment.entity.Payment;
-import com.paymentgateway.payment.repository.PaymentRepository;
+import com.paymentgateway.payment.metrics.LiveStats;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import com.paymentgateway.payment.shard.ShardedPaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Service
 public class PaymentService {
 
     @Autowired
-    private PaymentRepository paymentRepository;
+    private ShardedPaymentRepository paymentRepository;
 
     @Autowired
     private QRCodeService qrCodeService;
@@ -30,90 +34,92 @@ public class PaymentService {
     @Autowired
     private MerchantService merchantService;
 
+    @Autowired
+    private PaymentExpiryService paymentExpiryService;
+
+    @Autowired
+    private PaymentRules paymentRules;
+
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
+    @Autowired
+    private LiveStats liveStats;
+
+    // Only with replica routing (datasource.routing.enabled)
+    @Autowired(required = false)
+    private RecentWrites recentWrites;
+
     public PaymentResponse createPayment(Long merchantId, PaymentRequest request) {
+        long start = System.nanoTime();
+        String outcome = PaymentMetrics.OUTCOME_ERROR;
+        try {
+            PaymentResponse response = doCreatePayment(merchantId, request);
+            outcome = PaymentMetrics.OUTCOME_SUCCESS;
+            return response;
+        } finally {
+            String method = request.getPaymentMethod() != null ? request.getPaymentMethod().name() : "unknown";
+            paymentMetrics.recordCreate(method, outcome, System.nanoTime() - start);
+        }
+    }
+
+    private PaymentResponse doCreatePayment(Long merchantId, PaymentRequest request) {
+        Money amount = paymentRules.amountOf(request);
+
         // Get merchant information including preferred bank
-        MerchantService.MerchantInfo merchantInfo = merchantService.getMerchantInfo(merchantId);
+        MerchantService.MerchantInfo merchantInfo = paymentMetrics.timeStage("merchant_lookup",
+            () -> merchantService.getMerchantInfo(merchantId));
         
         // Get the appropriate bank API service based on merchant's preference
         BankApiService bankApiService = bankApiServiceFactory.getBankApiService(merchantInfo.getPreferredBank());
         
-        Payment payment = new Payment();
-        payment.setMerchantId(merchantId);
-        payment.setTransactionId(generateTransactionId());
-        payment.setAmount(request.getAmount());
-        payment.setCurrency(request.getCurrency());
-        payment.setPaymentMethod(request.getPaymentMethod());
-        payment.setStatus(Payment.PaymentStatus.PENDING);
-        payment.setCallbackUrl(request.getCallbackUrl());
-        payment.setDescription(request.getDescription());
-        payment.setBankProvider(merchantInfo.getPreferredBank().name());
-
-        // Create bank payment request
-        BankPaymentRequest bankRequest = new BankPaymentRequest();
-        bankRequest.setTransactionId(payment.getTransactionId());
-        bankRequest.setAmount(request.getAmount());
-        bankRequest.setCurrency(request.getCurrency());
-        bankRequest.setCallbackUrl(request.getCallbackUrl());
-        bankRequest.setDescription(request.getDescription());
-        bankRequest.setUpiId(request.getUpiId());
-
-        // Handle different payment methods
-        switch (request.getPaymentMethod()) {
-            case UPI_QR:
-                // Create payment with bank and get QR code
-                BankPaymentResponse bankResponse = bankApiService.createPayment(bankRequest);
-                if (bankResponse.getQrCodeData() != null) {
-                    payment.setQrCodeData(bankResponse.getQrCodeData());
-                } else {
-                    // Fallback to local QR generation
-                    String qrCode = qrCodeService.generateDynamicQRCode(
-                        merchantInfo.getUpiId() != null ? merchantInfo.getUpiId() : "merchant@" + merchantInfo.getPreferredBank().name().toLowerCase(),
-                        request.getAmount(),
-                        request.getDescription()
-                    );
-                    payment.setQrCodeData(qrCode);
-                }
-                payment.setBankTransactionId(bankResponse.getBankTransactionId());
-                break;
-                
-            case UPI_ID:
-                payment.setUpiId(request.getUpiId());
-                bankRequest.setUpiId(request.getUpiId());
-                BankPaymentResponse upiResponse = bankApiService.createPayment(bankRequest);
-                payment.setBankTransactionId(upiResponse.getBankTransactionId());
-                // Send payment request to UPI ID
-                upiService.sendPaymentRequest(request.getUpiId(), request.getAmount(), payment.getTransactionId());
-                break;
-                
-            case UPI_INTENT:
-                payment.setUpiProvider(request.getUpiProvider());
-                BankPaymentResponse intentResponse = bankApiService.createPayment(bankRequest);
-                payment.setBankTransactionId(intentResponse.getBankTransactionId());
-                if (intentResponse.getPaymentUrl() != null) {
-                    payment.setPaymentUrl(intentResponse.getPaymentUrl());
-                }
-                break;
+        Payment payment = paymentRules.newPayment(merchantId, request, amount, merchantInfo);
+        BankPaymentRequest bankRequest = paymentRules.bankRequest(payment, request);
+
+        BankPaymentResponse bankResponse = paymentMetrics.timeStage("bank_call",
+            () -> bankApiService.createPayment(bankRequest));
+        if (paymentRules.applyCreateResponse(payment, bankResponse)) {
+            // Fallback to local QR generation
+            String qrCode = paymentMetrics.timeStage("qr_generation", () -> qrCodeService.generateDynamicQRCode(
+                paymentRules.merchantUpiId(merchantInfo), amount, request.getDescription()));
+            payment.setQrCodeData(qrCode);
         }
-
-        payment = paymentRepository.save(payment);
-        
-        PaymentResponse response = new PaymentResponse(payment);
-        response.setBankProvider(merchantInfo.getPreferredBank().getDisplayName());
-        
-        if (payment.getPaymentMethod() == Payment.PaymentMethod.UPI_INTENT && payment.getPaymentUrl() == null) {
-            response.setPaymentUrl(generateUPIIntentUrl(payment, merchantInfo));
+        if (payment.getPaymentMethod() == Payment.PaymentMethod.UPI_ID) {
+            // Send payment request to UPI ID
+            upiService.sendPaymentRequest(request.getUpiId(), amount, payment.getTransactionId());
         }
+
+        Payment unsaved = payment;
+        payment = paymentMetrics.timeStage("save", () -> paymentRepository.save(unsaved));
+        recordWrite(payment);
+        paymentExpiryService.schedule(payment);
         
-        return response;
+        return paymentRules.createdResponse(payment, merchantInfo);
     }
 
     public PaymentResponse getPaymentStatus(String transactionId) {
-        Payment payment = paymentRepository.findByTransactionId(transactionId)
-            .orElseThrow(() -> new RuntimeException("Payment not found"));
-        
+        return statusOf(readPayment(transactionId));
+    }
+
+    /**
+     * Status of one of the merchant's payments; another merchant's payment is not found
+     */
+    public PaymentResponse getPaymentStatus(Long merchantId, String transactionId) {
+        Payment payment = readPayment(transactionId);
+        if (!payment.getMerchantId().equals(merchantId)) {
+            throw new RuntimeException("Payment not found");
+        }
+        return statusOf(payment);
+    }
+
+    private PaymentResponse statusOf(Payment payment) {
+        String transactionId = payment.getTransactionId();
         // If payment is still pending and we have a bank transaction ID, check with bank
         if (payment.getStatus() == Payment.PaymentStatus.PENDING && payment.getBankTransactionId() != null) {
             try {
+                // The bank check may update the payment, so work from the primary's copy
+                payment = paymentRepository.findByTransactionId(transactionId).orElse(payment);
+
                 // Get merchant info to determine which bank API to use
                 MerchantService.MerchantInfo merchantInfo = merchantService.getMerchantInfo(payment.getMerchantId());
                 BankApiService bankApiService = bankApiServiceFactory.getBankApiService(merchantInfo.getPreferredBank());
@@ -122,14 +128,20 @@ public class PaymentService {
                 BankPaymentResponse bankStatus = bankApiService.checkPaymentStatus(payment.getBankTransactionId());
                 
                 // Update payment status based on bank response
-                if ("SUCCESS".equalsIgnoreCase(bankStatus.getStatus()) || "COMPLETED".equalsIgnoreCase(bankStatus.getStatus())) {
-                    payment.setStatus(Payment.PaymentStatus.SUCCESS);
-                    payment.setCompletedAt(LocalDateTime.now());
-                    paymentRepository.save(payment);
-                } else if ("FAILED".equalsIgnoreCase(bankStatus.getStatus()) || "CANCELLED".equalsIgnoreCase(bankStatus.getStatus())) {
-                    payment.setStatus(Payment.PaymentStatus.FAILED);
-                    payment.setCompletedAt(LocalDateTime.now());
-                    paymentRepository.save(payment);
+                Payment.PaymentStatus finalStatus = paymentRules.statusFromBank(bankStatus);
+                if (finalStatus != null) {
+                    // Conditional, so an expiry or webhook that got there first is kept and counted once
+                    LocalDateTime now = LocalDateTime.now();
+                    int updated = paymentRepository.completePending(payment, finalStatus,
+                        payment.getBankReference(), payment.getFailureReason(), now);
+                    if (updated > 0) {
+                        payment.setStatus(finalStatus);
+                        payment.setCompletedAt(now);
+                        recordWrite(payment);
+                        liveStats.recordCompletion(payment.getBankProvider(), payment.getPaymentMethod(), finalStatus);
+                    } else {
+                        payment = paymentRepository.findByTransactionId(transactionId).orElse(payment);
+                    }
                 }
             } catch (Exception e) {
                 System.out.println("Error checking payment status with bank: " + e.getMessage());
@@ -142,6 +154,7 @@ public class PaymentService {
     public PaymentResponse updatePaymentStatus(String transactionId, Payment.PaymentStatus status, String bankReference) {
         Payment payment = paymentRepository.findByTransactionId(transactionId)
             .orElseThrow(() -> new RuntimeException("Payment not found"));
+        Payment.PaymentStatus previous = payment.getStatus();
         
         payment.setStatus(status);
         payment.setBankReference(bankReference);
@@ -151,61 +164,81 @@ public class PaymentService {
         }
         
         payment = paymentRepository.save(payment);
+        recordWrite(payment);
+        if (previous == Payment.PaymentStatus.PENDING) {
+            liveStats.recordCompletion(payment.getBankProvider(), payment.getPaymentMethod(), status);
+        }
         return new PaymentResponse(payment);
     }
 
-    private String generateTransactionId() {
-        return "TXN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-    }
-
-    private String generateUPIIntentUrl(Payment payment, MerchantService.MerchantInfo merchantInfo) {
-        String merchantUpiId = merchantInfo.getUpiId() != null ? 
-            merchantInfo.getUpiId() : 
-            "merchant@" + merchantInfo.getPreferredBank().name().toLowerCase();
-            
-        return String.format(
-            "upi://pay?pa=%s&am=%.2f&tr=%s&tn=%s&cu=INR",
-            merchantUpiId,
-            payment.getAmount(),
-            payment.getTransactionId(),
-            payment.getDescription() != null ? payment.getDescription() : "Payment"
-        );
-    }
-
     /**
-     * Refund a payment using the appropriate bank API
+     * Refund one of the merchant's payments using the appropriate bank API
      */
-    public PaymentResponse refundPayment(String transactionId, String refundAmount) {
+    public PaymentResponse refundPayment(Long merchantId, String transactionId, Money refundAmount) {
         Payment payment = paymentRepository.findByTransactionId(transactionId)
+            .filter(p -> p.getMerchantId().equals(merchantId))
             .orElseThrow(() -> new RuntimeException("Payment not found"));
 
-        if (payment.getStatus() != Payment.PaymentStatus.SUCCESS) {
-            throw new RuntimeException("Can only refund successful payments");
+        paymentRules.checkRefundable(payment, refundAmount);
+
+        // Claim it first, so two concurrent refunds cannot both reach the bank
+        if (paymentRepository.claimRefund(payment, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Payment is already being refunded");
         }
 
+        BankApiService bankApiService;
         try {
             // Get merchant info to determine which bank API to use
             MerchantService.MerchantInfo merchantInfo = merchantService.getMerchantInfo(payment.getMerchantId());
-            BankApiService bankApiService = bankApiServiceFactory.getBankApiService(merchantInfo.getPreferredBank());
-
-            // Process refund with bank
-            BankPaymentResponse refundResponse = bankApiService.refundPayment(
-                payment.getBankTransactionId(), 
-                refundAmount
-            );
-
-            if ("SUCCESS".equalsIgnoreCase(refundResponse.getStatus()) || "COMPLETED".equalsIgnoreCase(refundResponse.getStatus())) {
-                payment.setStatus(Payment.PaymentStatus.REFUNDED);
-                payment.setRefundAmount(new java.math.BigDecimal(refundAmount));
-                payment.setRefundedAt(LocalDateTime.now());
-                payment = paymentRepository.save(payment);
-            }
-
+            bankApiService = bankApiServiceFactory.getBankApiService(merchantInfo.getPreferredBank());
         } catch (Exception e) {
+            // The bank was not called, so the payment can be refunded again
             System.out.println("Error processing refund: " + e.getMessage());
+            paymentRepository.releaseRefund(payment, LocalDateTime.now());
             throw new RuntimeException("Failed to process refund");
         }
 
+        // Process refund with bank
+        BankPaymentResponse refundResponse;
+        try {
+            refundResponse = bankApiService.refundPayment(payment.getBankTransactionId(), refundAmount);
+        } catch (Exception e) {
+            refundResponse = paymentRules.refundOutcomeUnknown(payment.getBankTransactionId(), e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (paymentRules.isRefundAccepted(refundResponse)) {
+            paymentRepository.completeRefund(payment, refundAmount, now);
+            payment.setStatus(Payment.PaymentStatus.REFUNDED);
+            payment.setRefundAmount(refundAmount);
+            payment.setRefundedAt(now);
+        } else if (paymentRules.isRefundRejected(refundResponse)) {
+            paymentRepository.releaseRefund(payment, now);
+        } else {
+            System.out.println("Refund of " + transactionId + " has an unknown outcome ("
+                + refundResponse.getErrorMessage() + "); left REFUNDING for reconciliation");
+            payment.setStatus(Payment.PaymentStatus.REFUNDING);
+        }
+        recordWrite(payment);
+
         return new PaymentResponse(payment);
     }
-}
\ No newline at end of file
+
+    /**
+     * The payment for display. With replica routing this is read from a replica that has
+     * caught up with this instance's last write to it; a payment the replica does not have
+     * yet, e.g. one just created through another instance, is read from the primary.
+     */
+    private Payment readPayment(String transactionId) {
+        Long writtenAt = recentWrites != null ? recentWrites.lastWrite(transactionId) : null;
+        return DataSourceRouting.freshAsOf(writtenAt, () -> paymentRepository.readByTransactionId(transactionId))
+            .or(() -> paymentRepository.findByTransactionId(transactionId))
+            .orElseThrow(() -> new RuntimeException("Payment not found"));
+    }
+
+    private void recordWrite(Payment payment) {
+        if (recentWrites != null) {
+            recentWrites.record(payment.getTransactionId());
+        }
+    }
+}
@@ -5,27 +5,27 @@ import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.metrics.PaymentMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.util.Base64;
 import java.util.UUID;
 
 @Service
 public class QRCodeService {
 
-    public String generateUPIQRCode(String merchantUPI, BigDecimal amount, String transactionId, String description) {
+    @Autowired
+    private PaymentMetrics paymentMetrics;
+
+    public String generateUPIQRCode(String merchantUPI, Money amount, String transactionId, String description) {
+        long start = System.nanoTime();
         try {
             // UPI URL format: upi://pay?pa=merchant@upi&pn=MerchantName&am=100.00&tr=TXN123&tn=Description
-            String upiUrl = String.format(
-                "upi://pay?pa=%s&am=%.2f&tr=%s&tn=%s&cu=INR",
-                merchantUPI,
-                amount,
-                transactionId,
-                description != null ? description : "Payment"
-            );
+            String upiUrl = upiUrl(merchantUPI, amount, transactionId, description);
 
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
             BitMatrix bitMatrix = qrCodeWriter.encode(upiUrl, BarcodeFormat.QR_CODE, 300, 300);
@@ -34,15 +34,31 @@ public class QRCodeService {
             MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
             
             byte[] qrCodeBytes = outputStream.toByteArray();
-            return Base64.getEncoder().encodeToString(qrCodeBytes);
+            String encoded = Base64.getEncoder().encodeToString(qrCodeBytes);
+            paymentMetrics.recordQrGeneration(System.nanoTime() - start);
+            return encoded;
             
         } catch (WriterException | IOException e) {
             throw new RuntimeException("Failed to generate QR code", e);
         }
     }
 
-    public String generateDynamicQRCode(String merchantUPI, BigDecimal amount, String description) {
+    public String generateDynamicQRCode(String merchantUPI, Money amount, String description) {
         String transactionId = "TXN" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         return generateUPIQRCode(merchantUPI, amount, transactionId, description);
     }
+
+    /**
+     * upi://pay URI with the amount in canonical two-decimal form
+     */
+    public static String upiUrl(String merchantUPI, Money amount, String transactionId, String description) {
+        StringBuilder url = new StringBuilder(128)
+            .append("upi://pay?pa=").append(merchantUPI)
+            .append("&am=");
+        amount.appendTo(url)
+            .append("&tr=").append(transactionId)
+            .append("&tn=").append(description != null ? description : "Payment")
+            .append("&cu=").append(amount.getCurrency());
+        return url.toString();
+    }
 }
\ No newline at end of file
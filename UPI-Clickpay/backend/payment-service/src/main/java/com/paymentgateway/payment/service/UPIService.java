@@ -1,13 +1,12 @@
 package com.paymentgateway.payment.service;
 
+import com.paymentgateway.common.money.Money;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-
 @Service
 public class UPIService {
 
-    public void sendPaymentRequest(String upiId, BigDecimal amount, String transactionId) {
+    public void sendPaymentRequest(String upiId, Money amount, String transactionId) {
         // This would integrate with actual UPI service providers
         // For now, we'll simulate the request
         
@@ -0,0 +1,176 @@
+package com.paymentgateway.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paymentgateway.common.datasource.RecentWrites;
+import com.paymentgateway.payment.entity.Payment;
+import com.paymentgateway.payment.metrics.LiveStats;
+import com.paymentgateway.payment.shard.ShardedPaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Applies payment notifications from the banks. The raw body is checked against the bank
+ * adapter's webhook signature, an HMAC over the bytes as sent, and only parsed once it
+ * matches. The payment then leaves PENDING through a conditional update, so a retried webhook is a
+ * no-op and a late one cannot revive a payment that has already expired.
+ *
+ * Payload fields (besides "status") per bank:
+ *   HDFC:  transaction_id, order_id, amount, currency, timestamp, failure_reason
+ *   ICICI: reference_no, merchant_reference, amount, currency_code, request_time, failure_reason
+ *   Kotak: transactionId, merchantTransactionId, amount, currency, timestamp, failureReason
+ *   Axis:  transactionId, orderId, amount, currency, timestamp, failureReason
+ */
+@Service
+public class WebhookService {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private BankApiServiceFactory bankApiServiceFactory;
+
+    @Autowired
+    private ShardedPaymentRepository paymentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LiveStats liveStats;
+
+    @Autowired(required = false)
+    private RecentWrites recentWrites;
+
+    public boolean processHdfcWebhook(String body, String signature) {
+        return process("HDFC", body, signature, "transaction_id", "order_id", "failure_reason");
+    }
+
+    public boolean processIciciWebhook(String body, String signature) {
+        return process("ICICI", body, signature, "reference_no", "merchant_reference", "failure_reason");
+    }
+
+    public boolean processKotakWebhook(String body, String signature) {
+        return process("KOTAK", body, signature, "transactionId", "merchantTransactionId", "failureReason");
+    }
+
+    public boolean processAxisWebhook(String body, String signature) {
+        return process("AXIS", body, signature, "transactionId", "orderId", "failureReason");
+    }
+
+    public boolean processSbiWebhook(String body, String signature) {
+        // No SBI adapter, so there is no secret to verify against
+        System.out.println("Rejected SBI webhook: SBI is not integrated");
+        return false;
+    }
+
+    /**
+     * Webhook for a bank without a route of its own, named by the X-Bank-Name header
+     */
+    public boolean processGenericWebhook(String body, String bankName, String signature) {
+        if (bankName == null) {
+            return false;
+        }
+        switch (bankName.trim().toUpperCase()) {
+            case "HDFC":
+                return processHdfcWebhook(body, signature);
+            case "ICICI":
+                return processIciciWebhook(body, signature);
+            case "KOTAK":
+                return processKotakWebhook(body, signature);
+            case "AXIS":
+                return processAxisWebhook(body, signature);
+            case "SBI":
+                return processSbiWebhook(body, signature);
+            default:
+                System.out.println("Rejected webhook from unknown bank: " + bankName);
+                return false;
+        }
+    }
+
+    private boolean process(String bank, String body, String signature,
+                            String bankTransactionField, String orderField, String failureReasonField) {
+        if (body == null || signature == null
+                || !bankApiServiceFactory.getBankApiService(bank).validateWebhookSignature(body, signature)) {
+            System.out.println("Rejected " + bank + " webhook with invalid signature");
+            return false;
+        }
+
+        Map<String, Object> payload = parse(body);
+        if (payload == null) {
+            System.out.println("Rejected " + bank + " webhook with a body that is not a JSON object");
+            return false;
+        }
+
+        String transactionId = text(payload, orderField);
+        String bankTransactionId = text(payload, bankTransactionField);
+        Payment.PaymentStatus status = mapStatus(text(payload, "status"));
+        if (transactionId == null || status == null) {
+            System.out.println("Rejected " + bank + " webhook without order id or known status");
+            return false;
+        }
+
+        Payment payment = paymentRepository.findByTransactionId(transactionId).orElse(null);
+        if (payment == null) {
+            System.out.println(bank + " webhook for unknown payment " + transactionId);
+            return false;
+        }
+        if (bankTransactionId != null && payment.getBankTransactionId() != null
+                && !bankTransactionId.equals(payment.getBankTransactionId())) {
+            System.out.println(bank + " webhook for " + transactionId + " carries another bank transaction " + bankTransactionId);
+            return false;
+        }
+        if (status == Payment.PaymentStatus.PENDING) {
+            return true;
+        }
+
+        String failureReason = status == Payment.PaymentStatus.FAILED ? text(payload, failureReasonField) : null;
+        int updated = paymentRepository.completePending(payment, status, bankTransactionId, failureReason, LocalDateTime.now());
+        if (updated > 0) {
+            liveStats.recordCompletion(payment.getBankProvider(), payment.getPaymentMethod(), status);
+        }
+        if (updated > 0 && recentWrites != null) {
+            // The merchant's next status poll should see this, not a lagging replica's PENDING
+            recentWrites.record(transactionId);
+        }
+        if (updated == 0 && payment.getStatus() != status) {
+            System.out.println(bank + " webhook " + status + " ignored for " + transactionId + ": payment is already " + payment.getStatus());
+        }
+        return true;
+    }
+
+    private Payment.PaymentStatus mapStatus(String bankStatus) {
+        if (bankStatus == null) {
+            return null;
+        }
+        switch (bankStatus.toUpperCase()) {
+            case "SUCCESS":
+            case "COMPLETED":
+                return Payment.PaymentStatus.SUCCESS;
+            case "FAILED":
+            case "DECLINED":
+            case "CANCELLED":
+                return Payment.PaymentStatus.FAILED;
+            case "PENDING":
+                return Payment.PaymentStatus.PENDING;
+            default:
+                return null;
+        }
+    }
+
+    private Map<String, Object> parse(String body) {
+        try {
+            return objectMapper.readValue(body, PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String text(Map<String, Object> payload, String field) {
+        Object value = payload.get(field);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.paymentgateway.payment.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's next connection comes from. Outside {@link #on} it is
+ * the home shard, which also holds everything that is not a payment.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {}
+
+    public static <T> T on(String shard, Supplier<T> work) {
+        String outer = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void run(String shard, Runnable work) {
+        on(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static String current() {
+        return CURRENT.get();
+    }
+}
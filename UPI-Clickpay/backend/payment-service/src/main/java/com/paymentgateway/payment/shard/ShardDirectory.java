@@ -0,0 +1,256 @@
+package com.paymentgateway.payment.shard;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Which shard owns each slot. The map is the payment_shard_slots table on the home shard,
+ * cached here and kept current by the table's NOTIFY trigger. When a slot is first seen
+ * it is placed on the home shard, where its payments were written before sharding.
+ *
+ * Slots stay there for now: settlement, billing, reports and analytics read payments from
+ * the home shard only, so there is no tool to move slots yet, and a node refuses to start
+ * if the map puts any slot elsewhere.
+ *
+ * Without sharding every slot is on the home shard and nothing is read from the database.
+ */
+public class ShardDirectory {
+
+    public static final String CHANNEL = "payment_shard_slots";
+
+    /**
+     * WHERE clause fragment limiting a payments query to the slots a shard owns, for
+     * {@link #bindOwnedSlots}. Rows of a slot that moved away may linger until deleted.
+     */
+    public static final String OWNED_SLOTS = "(? OR shard_slot IS NULL OR shard_slot = ANY (?))";
+
+    private final String home;
+    private final List<String> shards;
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReferenceArray<String> owners = new AtomicReferenceArray<>(ShardSlots.SLOTS);
+    private final AtomicReferenceArray<String> movingTo = new AtomicReferenceArray<>(ShardSlots.SLOTS);
+
+    private volatile boolean running = true;
+    private Thread listenerThread;
+
+    /**
+     * @param dataSource connections to the home shard, or null without sharding
+     */
+    public ShardDirectory(ShardingProperties properties, DataSource dataSource) {
+        this.home = properties.getHomeShard();
+        List<String> names = new ArrayList<>();
+        names.add(home);
+        if (dataSource != null) {
+            properties.getShards().forEach(shard -> names.add(shard.getName()));
+        }
+        this.shards = Collections.unmodifiableList(names);
+        this.jdbcTemplate = dataSource != null ? new JdbcTemplate(dataSource) : null;
+        for (int slot = 0; slot < ShardSlots.SLOTS; slot++) {
+            owners.set(slot, home);
+        }
+    }
+
+    public void start() {
+        if (jdbcTemplate == null) {
+            return;
+        }
+        onHome(() -> jdbcTemplate.update(
+            "INSERT INTO payment_shard_slots (slot, shard) SELECT s, ? FROM generate_series(0, ?) s ON CONFLICT (slot) DO NOTHING",
+            home, ShardSlots.SLOTS - 1));
+        reloadAll();
+        int offHome = ShardSlots.SLOTS - slotsOwnedBy(home).length + movingSlots().length;
+        if (offHome > 0) {
+            throw new RuntimeException(offHome + " payment slots are on other shards or moving, but settlement,"
+                + " billing, reports and analytics read payments from " + home + " only; move them back first");
+        }
+        listenerThread = new Thread(this::listen, "payment-shard-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    public void close() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    public String home() {
+        return home;
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public String shardForMerchant(long merchantId) {
+        return owners.get(ShardSlots.slotOf(merchantId));
+    }
+
+    /**
+     * @param slot a payment's slot, or null for payments from before sharding
+     */
+    public String shardForSlot(Integer slot) {
+        return slot != null ? owners.get(slot) : home;
+    }
+
+    public String shardForTransaction(String transactionId) {
+        return shardForSlot(ShardSlots.slotOf(transactionId));
+    }
+
+    public int[] slotsOwnedBy(String shard) {
+        int[] owned = new int[ShardSlots.SLOTS];
+        int count = 0;
+        for (int slot = 0; slot < ShardSlots.SLOTS; slot++) {
+            if (shard.equals(owners.get(slot))) {
+                owned[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(owned, count);
+    }
+
+    /**
+     * Slots some shard is copying right now; their rows may exist on two shards
+     */
+    public int[] movingSlots() {
+        int[] moving = new int[ShardSlots.SLOTS];
+        int count = 0;
+        for (int slot = 0; slot < ShardSlots.SLOTS; slot++) {
+            if (movingTo.get(slot) != null) {
+                moving[count++] = slot;
+            }
+        }
+        return Arrays.copyOf(moving, count);
+    }
+
+    /**
+     * Bind the two parameters of {@link #OWNED_SLOTS} for a query about to run on the shard
+     * @return the next parameter index
+     */
+    public int bindOwnedSlots(PreparedStatement ps, int index, String shard) throws SQLException {
+        int[] owned = slotsOwnedBy(shard);
+        boolean all = owned.length == ShardSlots.SLOTS;
+        Array slots = ps.getConnection().createArrayOf("integer",
+            all ? new Integer[0] : Arrays.stream(owned).boxed().toArray());
+        ps.setBoolean(index, all);
+        ps.setArray(index + 1, slots);
+        return index + 2;
+    }
+
+    /**
+     * Slot counts per shard, and the slots currently being moved with their target
+     */
+    public Map<String, Object> status() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        shards.forEach(shard -> counts.put(shard, 0));
+        Map<Integer, String> moving = new LinkedHashMap<>();
+        for (int slot = 0; slot < ShardSlots.SLOTS; slot++) {
+            counts.merge(owners.get(slot), 1, Integer::sum);
+            if (movingTo.get(slot) != null) {
+                moving.put(slot, movingTo.get(slot));
+            }
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("home", home);
+        status.put("slots", counts);
+        status.put("moving", moving);
+        return status;
+    }
+
+    /**
+     * Re-read one slot's owner, e.g. after a write was refused by a fence
+     * @return whether the owner changed
+     */
+    public boolean refresh(int slot) {
+        if (jdbcTemplate == null) {
+            return false;
+        }
+        List<String[]> rows = onHome(() -> jdbcTemplate.query(
+            "SELECT shard, moving_to FROM payment_shard_slots WHERE slot = ?",
+            (rs, rowNum) -> new String[] {rs.getString(1), rs.getString(2)}, slot));
+        if (rows.isEmpty() || !shards.contains(rows.get(0)[0])) {
+            return false;
+        }
+        movingTo.set(slot, rows.get(0)[1]);
+        return !rows.get(0)[0].equals(owners.getAndSet(slot, rows.get(0)[0]));
+    }
+
+    private void reloadAll() {
+        ShardContext.run(home, () -> jdbcTemplate.query("SELECT slot, shard, moving_to FROM payment_shard_slots", rs -> {
+            int slot = rs.getInt(1);
+            String shard = rs.getString(2);
+            if (slot < 0 || slot >= ShardSlots.SLOTS) {
+                return;
+            }
+            if (!shards.contains(shard)) {
+                throw new RuntimeException("Payment slot " + slot + " is on shard " + shard
+                    + ", which is not in payment.sharding.shards");
+            }
+            owners.set(slot, shard);
+            movingTo.set(slot, rs.getString(3));
+        }));
+    }
+
+    private void listen() {
+        while (running) {
+            // This thread never sets a ShardContext, so the connection is the home shard's
+            try (Connection connection = jdbcTemplate.getDataSource().getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Moves that finished while we were not listening
+                reloadAll();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(10_000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        apply(notification.getParameter());
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                System.out.println("Payment shard listener disconnected, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String payload) {
+        try {
+            refresh(Integer.parseInt(payload));
+        } catch (NumberFormatException e) {
+            reloadAll();
+        }
+    }
+
+    // Never follow a caller's ShardContext to another shard: the map lives on the home shard
+    private <T> T onHome(Supplier<T> work) {
+        return ShardContext.on(home, work);
+    }
+}
@@ -0,0 +1,45 @@
+package com.paymentgateway.payment.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * One pool per shard; each new connection comes from the {@link ShardContext} shard, or
+ * the home shard outside one. Has to sit behind a LazyConnectionDataSourceProxy so a
+ * transaction's connection is taken inside the context, not when the transaction begins.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final String home;
+    private final Map<String, HikariDataSource> pools;
+
+    /**
+     * @param poolWrapper applied to each pool before it is routed to, e.g. to bound its waiters
+     */
+    public ShardRoutingDataSource(String home, Map<String, HikariDataSource> pools, UnaryOperator<DataSource> poolWrapper) {
+        this.home = home;
+        this.pools = pools;
+        Map<Object, Object> targets = new HashMap<>();
+        pools.forEach((name, pool) -> targets.put(name, poolWrapper.apply(pool)));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(targets.get(home));
+        // An unknown shard name is a bug, never a reason to write to the home shard
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.current();
+        return shard != null ? shard : home;
+    }
+
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
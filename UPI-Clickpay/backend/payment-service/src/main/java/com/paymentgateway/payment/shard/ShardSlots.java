@@ -0,0 +1,61 @@
+package com.paymentgateway.payment.shard;
+
+import java.util.UUID;
+
+/**
+ * Merchants are hashed into a fixed number of slots, and slots (not merchants) are what
+ * live on a shard and move between shards. A payment's transaction id carries its slot,
+ * so it can be routed without knowing the merchant:
+ *
+ *   TXN 1739812345678 S 0A3 F3B2C1
+ *       created ms      slot (hex) random
+ *
+ * Ids from before slots existed have no 'S' after the timestamp and belong to the home shard.
+ */
+public final class ShardSlots {
+
+    public static final int SLOTS = 4096;
+
+    private static final String PREFIX = "TXN";
+    private static final int TIMESTAMP_DIGITS = 13;
+    private static final int MARKER = PREFIX.length() + TIMESTAMP_DIGITS;
+
+    private ShardSlots() {}
+
+    public static int slotOf(long merchantId) {
+        return (int) Long.remainderUnsigned(mix(merchantId), SLOTS);
+    }
+
+    public static String newTransactionId(int slot) {
+        return PREFIX + System.currentTimeMillis() + 'S' + String.format("%03X", slot)
+            + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+    }
+
+    /**
+     * @return the slot encoded in the id, or null for an id without one
+     */
+    public static Integer slotOf(String transactionId) {
+        if (transactionId == null || transactionId.length() < MARKER + 4 || transactionId.charAt(MARKER) != 'S'
+                || !transactionId.startsWith(PREFIX)) {
+            return null;
+        }
+        try {
+            int slot = Integer.parseInt(transactionId.substring(MARKER + 1, MARKER + 4), 16);
+            return slot < SLOTS ? slot : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 64-bit finalizer (from MurmurHash3): consecutive merchant ids land in unrelated slots
+     */
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
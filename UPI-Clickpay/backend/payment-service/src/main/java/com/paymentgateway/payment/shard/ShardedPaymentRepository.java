@@ -0,0 +1,217 @@
+package com.paymentgateway.payment.shard;
+
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.payment.entity.Payment;
+import com.paymentgateway.payment.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link PaymentRepository} on the shard that owns each payment. A payment is located by
+ * the slot in its transaction id, so single-payment reads and writes touch one shard.
+ * Writes refused because their slot is being moved are retried against the slot's new
+ * owner for up to payment.sharding.move-write-wait. Queries over all merchants run on
+ * every shard in parallel and are merged here.
+ */
+@Component
+public class ShardedPaymentRepository {
+
+    private static final String FENCED = "PS001";
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ShardDirectory directory;
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ExecutorService scatterExecutor;
+
+    @PostConstruct
+    public void start() {
+        scatterExecutor = Executors.newFixedThreadPool(Math.max(1, properties.getScatterThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "payment-shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scatterExecutor.shutdownNow();
+    }
+
+    public Payment save(Payment payment) {
+        return write(slotOf(payment), () -> paymentRepository.save(payment));
+    }
+
+    public Optional<Payment> findByTransactionId(String transactionId) {
+        return read(transactionId, () -> paymentRepository.findByTransactionId(transactionId));
+    }
+
+    /**
+     * See {@link PaymentRepository#readByTransactionId}
+     */
+    public Optional<Payment> readByTransactionId(String transactionId) {
+        return read(transactionId, () -> paymentRepository.readByTransactionId(transactionId));
+    }
+
+    public int completePending(Payment payment, Payment.PaymentStatus status, String bankReference,
+                               String failureReason, LocalDateTime now) {
+        return write(slotOf(payment), () -> paymentRepository.completePending(
+            payment.getId(), status, bankReference, failureReason, now));
+    }
+
+    public int claimRefund(Payment payment, LocalDateTime now) {
+        return write(slotOf(payment), () -> paymentRepository.claimRefund(payment.getId(), now));
+    }
+
+    public int completeRefund(Payment payment, Money refundAmount, LocalDateTime now) {
+        return write(slotOf(payment), () -> paymentRepository.completeRefund(payment.getId(), refundAmount, now));
+    }
+
+    public int releaseRefund(Payment payment, LocalDateTime now) {
+        return write(slotOf(payment), () -> paymentRepository.releaseRefund(payment.getId(), now));
+    }
+
+    /**
+     * Payment counts by status over all shards
+     */
+    public Map<String, Long> countByStatus() {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        scatter(shard -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT status, COUNT(*) FROM payments WHERE " + ShardDirectory.OWNED_SLOTS + " GROUP BY status");
+            directory.bindOwnedSlots(ps, 1, shard);
+            return ps;
+        }, (rs, rowNum) -> Map.entry(rs.getString(1), rs.getLong(2))))
+            .values().forEach(counts -> counts.forEach(count -> totals.merge(count.getKey(), count.getValue(), Long::sum)));
+        return totals;
+    }
+
+    public long countPending() {
+        return scatter(shard -> jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT COUNT(*) FROM payments WHERE status = 'PENDING' AND " + ShardDirectory.OWNED_SLOTS);
+            directory.bindOwnedSlots(ps, 1, shard);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1)).get(0)).values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * The newest payments over all shards, for operators; one row per payment with its shard
+     */
+    public List<Map<String, Object>> findRecent(int limit) {
+        List<Map<String, Object>> recent = new ArrayList<>();
+        scatter(shard -> {
+            List<Map<String, Object>> rows = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                    "SELECT transaction_id, merchant_id, amount, currency, status, payment_method, bank_provider, " +
+                    "created_at FROM payments WHERE " + ShardDirectory.OWNED_SLOTS + " ORDER BY created_at DESC LIMIT ?");
+                int next = directory.bindOwnedSlots(ps, 1, shard);
+                ps.setInt(next, limit);
+                return ps;
+            }, new ColumnMapRowMapper());
+            rows.forEach(row -> row.put("shard", shard));
+            return rows;
+        }).values().forEach(recent::addAll);
+        recent.sort(Comparator.comparing((Map<String, Object> row) -> (Timestamp) row.get("created_at"),
+            Comparator.nullsLast(Comparator.reverseOrder())));
+        return recent.size() > limit ? new ArrayList<>(recent.subList(0, limit)) : recent;
+    }
+
+    /**
+     * Run the query on every shard at once
+     * @return each shard's result, in {@link ShardDirectory#shards()} order
+     */
+    public <T> Map<String, T> scatter(Function<String, T> query) {
+        Map<String, Future<T>> pending = new LinkedHashMap<>();
+        for (String shard : directory.shards()) {
+            pending.put(shard, scatterExecutor.submit(() -> ShardContext.on(shard, () -> query.apply(shard))));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Future<T>> entry : pending.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                pending.values().forEach(future -> future.cancel(true));
+                throw new RuntimeException("Query on shard " + entry.getKey() + " failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted waiting for shard " + entry.getKey());
+            }
+        }
+        return results;
+    }
+
+    private Optional<Payment> read(String transactionId, Supplier<Optional<Payment>> query) {
+        Integer slot = ShardSlots.slotOf(transactionId);
+        Optional<Payment> payment = ShardContext.on(directory.shardForSlot(slot), query);
+        // Missed because the slot moved and this node has not heard yet
+        if (payment.isEmpty() && slot != null && directory.refresh(slot)) {
+            payment = ShardContext.on(directory.shardForSlot(slot), query);
+        }
+        return payment;
+    }
+
+    private <T> T write(Integer slot, Supplier<T> work) {
+        long deadline = System.currentTimeMillis() + properties.getMoveWriteWait().toMillis();
+        while (true) {
+            try {
+                return ShardContext.on(directory.shardForSlot(slot), work);
+            } catch (RuntimeException e) {
+                if (slot == null || !isFenced(e) || System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+            }
+            // The slot is mid-move: wait for the new owner to be recorded
+            if (!directory.refresh(slot)) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted waiting for payment slot " + slot + " to move");
+                }
+            }
+        }
+    }
+
+    private static Integer slotOf(Payment payment) {
+        return payment.getShardSlot() != null ? payment.getShardSlot() : ShardSlots.slotOf(payment.getTransactionId());
+    }
+
+    private static boolean isFenced(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && FENCED.equals(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
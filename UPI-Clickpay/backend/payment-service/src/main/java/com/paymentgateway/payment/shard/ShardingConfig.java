@@ -0,0 +1,86 @@
+package com.paymentgateway.payment.shard;
+
+import com.paymentgateway.common.threads.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Payment sharding (payment.sharding.enabled). Payments are spread over several Postgres
+ * databases by merchant; spring.datasource is the home shard and keeps everything else.
+ * With sharding off the directory maps every slot to the home shard and the single
+ * auto-configured pool is used as before.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ShardDirectory shardDirectory(ShardingProperties properties, DataSource dataSource) {
+        return new ShardDirectory(properties, properties.isEnabled() ? dataSource : null);
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "payment.sharding.enabled", havingValue = "true")
+    static class ShardedDataSourceConfig {
+
+        @Bean(destroyMethod = "close")
+        public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ShardingProperties properties,
+                                                             Environment environment,
+                                                             ApplicationContext context) {
+            // Both would replace the DataSource, and neither knows about the other's pools
+            if (environment.getProperty("datasource.routing.enabled", Boolean.class, false)) {
+                throw new RuntimeException("payment.sharding and datasource.routing cannot be enabled together");
+            }
+            // R2DBC writes payments straight to spring.r2dbc, which is a single database
+            if (context instanceof ReactiveWebApplicationContext) {
+                throw new RuntimeException("payment.sharding is not supported in the reactive profile");
+            }
+
+            Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+            HikariDataSource home = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(home));
+            home.setPoolName(properties.getHomeShard());
+            pools.put(properties.getHomeShard(), home);
+
+            for (ShardingProperties.Shard shard : properties.getShards()) {
+                if (shard.getName() == null || shard.getUrl() == null || pools.containsKey(shard.getName())) {
+                    throw new RuntimeException("Every payment.sharding.shards entry needs a unique name and a url");
+                }
+                HikariDataSource pool = new HikariDataSource();
+                pool.setPoolName(shard.getName());
+                pool.setJdbcUrl(shard.getUrl());
+                pool.setUsername(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.determineUsername());
+                pool.setPassword(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.determinePassword());
+                pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+                pool.setMaximumPoolSize(shard.getMaxPoolSize());
+                pools.put(shard.getName(), pool);
+            }
+            // The shard pools are not beans, so in virtual-thread mode each is bounded here
+            // rather than by VirtualThreadConfig, which leaves the routing DataSource alone
+            return new ShardRoutingDataSource(properties.getHomeShard(), pools,
+                pool -> BoundedDataSource.forPool(pool, environment));
+        }
+
+        @Primary
+        @Bean
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+    }
+}
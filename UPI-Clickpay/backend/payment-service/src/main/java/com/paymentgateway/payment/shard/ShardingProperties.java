@@ -0,0 +1,67 @@
+package com.paymentgateway.payment.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "payment.sharding")
+public class ShardingProperties {
+
+    // Spread payments over the shards below; off, everything stays in spring.datasource
+    private boolean enabled = false;
+
+    // Name of the spring.datasource database, which also keeps merchants, keys and the slot map
+    private String homeShard = "shard-0";
+
+    // Shards besides the home shard, each initialized with database/payment-shard.sql
+    private List<Shard> shards = new ArrayList<>();
+
+    // How long a write retries while its slot is being cut over to another shard
+    private Duration moveWriteWait = Duration.ofSeconds(5);
+
+    // Threads for cross-shard queries
+    private int scatterThreads = 8;
+
+    // Getters and setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getHomeShard() { return homeShard; }
+    public void setHomeShard(String homeShard) { this.homeShard = homeShard; }
+
+    public List<Shard> getShards() { return shards; }
+    public void setShards(List<Shard> shards) { this.shards = shards; }
+
+    public Duration getMoveWriteWait() { return moveWriteWait; }
+    public void setMoveWriteWait(Duration moveWriteWait) { this.moveWriteWait = moveWriteWait; }
+
+    public int getScatterThreads() { return scatterThreads; }
+    public void setScatterThreads(int scatterThreads) { this.scatterThreads = scatterThreads; }
+
+    public static class Shard {
+        private String name;
+        private String url;
+        // Default to spring.datasource's credentials
+        private String username;
+        private String password;
+        private int maxPoolSize = 10;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public int getMaxPoolSize() { return maxPoolSize; }
+        public void setMaxPoolSize(int maxPoolSize) { this.maxPoolSize = maxPoolSize; }
+    }
+}
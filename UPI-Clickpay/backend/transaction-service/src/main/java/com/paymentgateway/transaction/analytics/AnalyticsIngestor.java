@@ -0,0 +1,221 @@
+package com.paymentgateway.transaction.analytics;
+
+import com.paymentgateway.common.archive.ArchiveFilter;
+import com.paymentgateway.common.archive.PaymentColumn;
+import com.paymentgateway.common.archive.Segment;
+import com.paymentgateway.common.money.Money;
+import com.paymentgateway.transaction.archive.ArchiveCatalog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link AnalyticsStore} in step with Postgres. At startup it loads the archive
+ * segments and the payments table from one snapshot; after that it polls for payments
+ * whose updated_at moved past the last one seen, re-reading analytics.overlap of margin
+ * for transactions that committed late. Reading a payment twice only overwrites its row.
+ * All ingestion runs on one thread, which is the store's only writer.
+ */
+@Component
+public class AnalyticsIngestor {
+
+    private static final Set<PaymentColumn> ARCHIVE_COLUMNS = EnumSet.of(PaymentColumn.ID, PaymentColumn.MERCHANT_ID,
+        PaymentColumn.AMOUNT, PaymentColumn.STATUS, PaymentColumn.PAYMENT_METHOD, PaymentColumn.BANK_PROVIDER,
+        PaymentColumn.CREATED_AT, PaymentColumn.COMPLETED_AT);
+
+    private static final String SELECT =
+        "SELECT id, merchant_id, amount, status, payment_method, bank_provider, created_at, completed_at, updated_at " +
+        "FROM payments";
+
+    private static final String SELECT_CHANGED = SELECT + " WHERE (updated_at, id) > (?, ?) ORDER BY updated_at, id LIMIT ?";
+
+    @Autowired
+    private AnalyticsStore store;
+
+    @Autowired
+    private ArchiveCatalog archiveCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${analytics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analytics.ingest-interval-ms:1000}")
+    private long intervalMillis;
+
+    @Value("${analytics.batch-size:10000}")
+    private int batchSize;
+
+    @Value("${analytics.fetch-size:10000}")
+    private int fetchSize;
+
+    @Value("${analytics.overlap:5s}")
+    private Duration overlap;
+
+    private ScheduledExecutorService ingest;
+    private TransactionTemplate snapshotTemplate;
+
+    // Only touched on the ingest thread, apart from the reads in status()
+    private volatile boolean loaded;
+    private volatile LocalDateTime watermark;
+    private volatile long lastPollAt;
+    private volatile long ingested;
+
+    @PostConstruct
+    public void start() {
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+        if (!enabled) {
+            return;
+        }
+        ingest = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analytics-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ingest.scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ingest != null) {
+            ingest.shutdownNow();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("loaded", loaded);
+        status.put("watermark", watermark);
+        status.put("lastPollAgoMs", lastPollAt > 0 ? System.currentTimeMillis() - lastPollAt : null);
+        status.put("rowsIngested", ingested);
+        return status;
+    }
+
+    private void poll() {
+        try {
+            if (!loaded) {
+                loadAll();
+            } else {
+                pollChanges();
+            }
+            lastPollAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            System.out.println("Analytics ingestion failed: " + e.getMessage());
+        }
+    }
+
+    private void loadAll() {
+        long start = System.currentTimeMillis();
+        LocalDateTime[] newest = {LocalDateTime.of(1970, 1, 1, 0, 0)};
+        // One snapshot, so payments archived meanwhile are read from exactly one tier
+        snapshotTemplate.executeWithoutResult(status -> {
+            for (Segment segment : archiveCatalog.load().getSegments()) {
+                try {
+                    segment.scan(ArchiveFilter.all(), ARCHIVE_COLUMNS, this::ingestArchived);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to read archive segment " + segment.getPath() + ": " + e.getMessage());
+                }
+            }
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, rs -> {
+                LocalDateTime updatedAt = ingestLive(rs);
+                if (updatedAt != null && updatedAt.isAfter(newest[0])) {
+                    newest[0] = updatedAt;
+                }
+            });
+        });
+        watermark = newest[0];
+        loaded = true;
+        System.out.println("Analytics store loaded " + ingested + " payments in "
+            + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void pollChanges() {
+        Timestamp[] after = {Timestamp.valueOf(watermark.minus(overlap))};
+        long[] afterId = {0};
+        LocalDateTime[] newest = {watermark};
+        int read;
+        do {
+            int[] count = {0};
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SELECT_CHANGED);
+                ps.setTimestamp(1, after[0]);
+                ps.setLong(2, afterId[0]);
+                ps.setInt(3, batchSize);
+                return ps;
+            }, rs -> {
+                LocalDateTime updatedAt = ingestLive(rs);
+                after[0] = rs.getTimestamp("updated_at");
+                afterId[0] = rs.getLong("id");
+                if (updatedAt.isAfter(newest[0])) {
+                    newest[0] = updatedAt;
+                }
+                count[0]++;
+            });
+            read = count[0];
+        } while (read == batchSize);
+        watermark = newest[0];
+    }
+
+    /**
+     * @return the payment's updated_at
+     */
+    private LocalDateTime ingestLive(ResultSet rs) throws SQLException {
+        store.upsert(rs.getLong("id"), rs.getLong("merchant_id"), paise(rs.getBigDecimal("amount")),
+            rs.getString("status"), rs.getString("payment_method"), rs.getString("bank_provider"),
+            time(rs.getTimestamp("created_at")), time(rs.getTimestamp("completed_at")));
+        ingested++;
+        return time(rs.getTimestamp("updated_at"));
+    }
+
+    private void ingestArchived(Map<String, Object> row) {
+        store.upsert((Long) row.get("id"), (Long) row.get("merchant_id"), paise((BigDecimal) row.get("amount")),
+            (String) row.get("status"), (String) row.get("payment_method"), (String) row.get("bank_provider"),
+            time((Timestamp) row.get("created_at")), time((Timestamp) row.get("completed_at")));
+        ingested++;
+    }
+
+    private static long paise(BigDecimal amount) {
+        return amount != null ? Money.of(amount, Money.INR).getPaise() : 0;
+    }
+
+    private static LocalDateTime time(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
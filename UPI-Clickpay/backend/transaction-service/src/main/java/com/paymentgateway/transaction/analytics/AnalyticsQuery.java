@@ -0,0 +1,46 @@
+package com.paymentgateway.transaction.analytics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A group-by over payments created in [from, to): count, amount and, when percentileOf is
+ * set, p50/p95/p99 of the amount or of the time to complete
+ */
+public class AnalyticsQuery {
+
+    public enum Metric { AMOUNT, LATENCY }
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<Dimension> groupBy;
+    private final Long merchantId;
+    private final String status;
+    private final Metric percentileOf;
+    private final int limit;
+
+    public AnalyticsQuery(LocalDateTime from, LocalDateTime to, List<Dimension> groupBy, Long merchantId,
+                          String status, Metric percentileOf, int limit) {
+        this.from = from;
+        this.to = to;
+        this.groupBy = groupBy;
+        this.merchantId = merchantId;
+        this.status = status;
+        this.percentileOf = percentileOf;
+        this.limit = limit;
+    }
+
+    public LocalDateTime getFrom() { return from; }
+
+    public LocalDateTime getTo() { return to; }
+
+    public List<Dimension> getGroupBy() { return groupBy; }
+
+    public Long getMerchantId() { return merchantId; }
+
+    public String getStatus() { return status; }
+
+    public Metric getPercentileOf() { return percentileOf; }
+
+    public int getLimit() { return limit; }
+}
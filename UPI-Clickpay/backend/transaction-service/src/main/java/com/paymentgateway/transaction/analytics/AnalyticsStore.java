@@ -0,0 +1,392 @@
+package com.paymentgateway.transaction.analytics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Payments held column by column in memory, so dashboard and admin aggregates never query
+ * Postgres. Rows live in {@link ColumnChunk}s addressed by payment id and are filled and
+ * kept current by {@link AnalyticsIngestor}.
+ *
+ * A query works one chunk at a time in three tight loops over primitive arrays: the
+ * filters produce a selection vector, the group key is built one column at a time, then
+ * count, amount and histogram are added per key. Chunks whose zone map misses the time
+ * range are skipped, and the rest are spread over analytics.parallelism threads, each
+ * with its own {@link GroupTable}.
+ */
+@Component
+public class AnalyticsStore {
+
+    // Timestamps are int seconds from here, which lasts until 2088
+    private static final long EPOCH_SECONDS = LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final int MAX_TIME_BUCKETS = 100_000;
+
+    @Value("${analytics.parallelism:0}")
+    private int parallelism;
+
+    private final Dictionary statuses = new Dictionary();
+    private final Dictionary methods = new Dictionary();
+    private final Dictionary banks = new Dictionary();
+    private final MerchantCodes merchants = new MerchantCodes();
+
+    // The index is the ingest thread's; queries read the published array
+    private final Map<Long, ColumnChunk> chunkIndex = new HashMap<>();
+    private volatile ColumnChunk[] chunks = new ColumnChunk[0];
+    private volatile long rows;
+
+    private ExecutorService scanners;
+    private int threads;
+
+    /**
+     * Filters and group-by of one query, resolved to column codes
+     */
+    private static class Plan {
+        int from;
+        int to;
+        int statusCode = -1;
+        int merchantCode = -1;
+        int statusLimit = 256;
+        int methodLimit = 256;
+        int bankLimit = 256;
+        int merchantLimit = Integer.MAX_VALUE;
+        Dimension[] dimensions;
+        long[] radix;
+        long keySpace = 1;
+        AnalyticsQuery.Metric metric;
+        boolean empty;
+    }
+
+    @PostConstruct
+    public void start() {
+        threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        scanners = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analytics-scan-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        scanners.shutdownNow();
+    }
+
+    /**
+     * Add or overwrite one payment; only from the ingest thread
+     */
+    void upsert(long id, long merchantId, long amountPaise, String status, String method, String bank,
+                LocalDateTime createdAt, LocalDateTime completedAt) {
+        if (createdAt == null || status == null) {
+            return;
+        }
+        long number = id >> ColumnChunk.SHIFT;
+        ColumnChunk chunk = chunkIndex.get(number);
+        if (chunk == null) {
+            chunk = new ColumnChunk(number);
+            chunkIndex.put(number, chunk);
+            ColumnChunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+            grown[grown.length - 1] = chunk;
+            Arrays.sort(grown, Comparator.comparingLong(c -> c.number));
+            chunks = grown;
+        }
+        int row = (int) (id & ColumnChunk.MASK);
+        int created = seconds(createdAt);
+        chunk.amountPaise[row] = amountPaise;
+        chunk.createdSeconds[row] = created;
+        chunk.latencyMillis[row] = completedAt == null ? -1
+            : (int) Math.min(Integer.MAX_VALUE, Math.max(0, Duration.between(createdAt, completedAt).toMillis()));
+        chunk.merchant[row] = merchants.code(merchantId);
+        chunk.method[row] = (byte) methods.code(method);
+        chunk.bank[row] = (byte) banks.code(bank);
+        if (created < chunk.minCreated) {
+            chunk.minCreated = created;
+        }
+        if (created > chunk.maxCreated) {
+            chunk.maxCreated = created;
+        }
+        // Status goes last: it is what makes the row visible to queries
+        if (chunk.status[row] == 0) {
+            rows++;
+        }
+        chunk.status[row] = (byte) statuses.code(status);
+    }
+
+    public Map<String, Object> query(AnalyticsQuery query) {
+        long start = System.nanoTime();
+        Plan plan = plan(query);
+        List<ColumnChunk> candidates = new ArrayList<>();
+        ColumnChunk[] all = chunks;
+        if (!plan.empty) {
+            for (ColumnChunk chunk : all) {
+                if (chunk.overlaps(plan.from, plan.to)) {
+                    candidates.add(chunk);
+                }
+            }
+        }
+
+        boolean histograms = plan.metric != null;
+        GroupTable result = new GroupTable(plan.keySpace, histograms);
+        int taskCount = Math.min(threads, candidates.size());
+        List<Future<GroupTable>> tasks = new ArrayList<>(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            int first = t;
+            tasks.add(scanners.submit(() -> {
+                GroupTable table = new GroupTable(plan.keySpace, histograms);
+                int[] selection = new int[ColumnChunk.SIZE];
+                long[] keys = new long[ColumnChunk.SIZE];
+                // Striped so every thread gets old and new chunks alike
+                for (int c = first; c < candidates.size(); c += taskCount) {
+                    scan(candidates.get(c), plan, table, selection, keys);
+                }
+                return table;
+            }));
+        }
+        for (Future<GroupTable> task : tasks) {
+            try {
+                result.merge(task.get());
+            } catch (ExecutionException e) {
+                tasks.forEach(other -> other.cancel(true));
+                throw new RuntimeException("Analytics scan failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted waiting for analytics scan");
+            }
+        }
+
+        // In key order: by the first group-by dimension, then the next
+        TreeMap<Long, Map<String, Object>> byKey = new TreeMap<>();
+        long[] matched = new long[1];
+        result.forEach((key, count, amountPaise, histogram) -> {
+            byKey.put(key, group(plan, key, count, amountPaise, histogram));
+            matched[0] += count;
+        });
+        List<Map<String, Object>> groups = new ArrayList<>(Math.min(byKey.size(), query.getLimit()));
+        for (Map<String, Object> group : byKey.values()) {
+            if (groups.size() == query.getLimit()) {
+                break;
+            }
+            groups.add(group);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("groups", groups);
+        response.put("groupCount", byKey.size());
+        response.put("rowsMatched", matched[0]);
+        response.put("chunksScanned", candidates.size());
+        response.put("chunksSkipped", all.length - candidates.size());
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000.0);
+        return response;
+    }
+
+    public Map<String, Object> status() {
+        ColumnChunk[] all = chunks;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("rows", rows);
+        status.put("chunks", all.length);
+        status.put("memoryBytes", (long) all.length * ColumnChunk.SIZE * ColumnChunk.ROW_BYTES);
+        status.put("merchants", merchants.size());
+        status.put("scanThreads", threads);
+        return status;
+    }
+
+    private void scan(ColumnChunk chunk, Plan plan, GroupTable table, int[] selection, long[] keys) {
+        byte[] status = chunk.status;
+        byte[] method = chunk.method;
+        byte[] bank = chunk.bank;
+        int[] created = chunk.createdSeconds;
+        int[] merchant = chunk.merchant;
+        long[] amount = chunk.amountPaise;
+
+        int selected = 0;
+        for (int row = 0; row < ColumnChunk.SIZE; row++) {
+            int code = status[row] & 0xFF;
+            int time = created[row];
+            int merchantCode = merchant[row];
+            if (code != 0 && code < plan.statusLimit && (plan.statusCode < 0 || code == plan.statusCode)
+                    && time >= plan.from && time < plan.to
+                    && merchantCode < plan.merchantLimit && (plan.merchantCode < 0 || merchantCode == plan.merchantCode)
+                    && (method[row] & 0xFF) < plan.methodLimit && (bank[row] & 0xFF) < plan.bankLimit) {
+                selection[selected++] = row;
+            }
+        }
+        if (selected == 0) {
+            return;
+        }
+
+        Arrays.fill(keys, 0, selected, 0L);
+        for (int d = 0; d < plan.dimensions.length; d++) {
+            long radix = plan.radix[d];
+            switch (plan.dimensions[d]) {
+                case MERCHANT:
+                    for (int i = 0; i < selected; i++) {
+                        keys[i] = keys[i] * radix + merchant[selection[i]];
+                    }
+                    break;
+                case STATUS:
+                    for (int i = 0; i < selected; i++) {
+                        keys[i] = keys[i] * radix + (status[selection[i]] & 0xFF);
+                    }
+                    break;
+                case METHOD:
+                    for (int i = 0; i < selected; i++) {
+                        keys[i] = keys[i] * radix + (method[selection[i]] & 0xFF);
+                    }
+                    break;
+                case BANK:
+                    for (int i = 0; i < selected; i++) {
+                        keys[i] = keys[i] * radix + (bank[selection[i]] & 0xFF);
+                    }
+                    break;
+                default:
+                    int bucketSeconds = plan.dimensions[d].bucketSeconds();
+                    for (int i = 0; i < selected; i++) {
+                        keys[i] = keys[i] * radix + (created[selection[i]] - plan.from) / bucketSeconds;
+                    }
+            }
+        }
+
+        if (plan.metric == AnalyticsQuery.Metric.LATENCY) {
+            int[] latency = chunk.latencyMillis;
+            for (int i = 0; i < selected; i++) {
+                table.add(keys[i], amount[selection[i]], latency[selection[i]]);
+            }
+        } else if (plan.metric == AnalyticsQuery.Metric.AMOUNT) {
+            for (int i = 0; i < selected; i++) {
+                table.add(keys[i], amount[selection[i]], amount[selection[i]]);
+            }
+        } else {
+            for (int i = 0; i < selected; i++) {
+                table.add(keys[i], amount[selection[i]], -1);
+            }
+        }
+    }
+
+    private Plan plan(AnalyticsQuery query) {
+        Plan plan = new Plan();
+        plan.from = seconds(query.getFrom());
+        plan.to = seconds(query.getTo());
+        plan.metric = query.getPercentileOf();
+        if (query.getStatus() != null) {
+            plan.statusCode = statuses.find(query.getStatus());
+            plan.empty |= plan.statusCode < 0;
+        }
+        if (query.getMerchantId() != null) {
+            plan.merchantCode = merchants.find(query.getMerchantId());
+            plan.empty |= plan.merchantCode < 0;
+        }
+
+        List<Dimension> dimensions = query.getGroupBy();
+        plan.dimensions = dimensions.toArray(new Dimension[0]);
+        plan.radix = new long[plan.dimensions.length];
+        for (int d = 0; d < plan.dimensions.length; d++) {
+            long radix;
+            // Codes handed out after the plan was made are left out rather than break the key
+            switch (plan.dimensions[d]) {
+                case MERCHANT:
+                    radix = merchants.size();
+                    plan.merchantLimit = (int) radix;
+                    break;
+                case STATUS:
+                    radix = statuses.size();
+                    plan.statusLimit = (int) radix;
+                    break;
+                case METHOD:
+                    radix = methods.size();
+                    plan.methodLimit = (int) radix;
+                    break;
+                case BANK:
+                    radix = banks.size();
+                    plan.bankLimit = (int) radix;
+                    break;
+                default:
+                    int bucketSeconds = plan.dimensions[d].bucketSeconds();
+                    radix = Math.max(1, ((long) plan.to - plan.from + bucketSeconds - 1) / bucketSeconds);
+                    if (radix > MAX_TIME_BUCKETS) {
+                        throw new RuntimeException("Too many " + plan.dimensions[d].name().toLowerCase()
+                            + " buckets; group by a coarser time or narrow the range");
+                    }
+            }
+            plan.radix[d] = Math.max(1, radix);
+            try {
+                plan.keySpace = Math.multiplyExact(plan.keySpace, plan.radix[d]);
+            } catch (ArithmeticException e) {
+                throw new RuntimeException("Too many groups; group by fewer dimensions");
+            }
+        }
+        return plan;
+    }
+
+    private Map<String, Object> group(Plan plan, long key, long count, long amountPaise, int[] histogram) {
+        Object[] values = new Object[plan.dimensions.length];
+        for (int d = plan.dimensions.length - 1; d >= 0; d--) {
+            int code = (int) (key % plan.radix[d]);
+            key /= plan.radix[d];
+            switch (plan.dimensions[d]) {
+                case MERCHANT:
+                    values[d] = merchants.merchantId(code);
+                    break;
+                case STATUS:
+                    values[d] = statuses.value(code);
+                    break;
+                case METHOD:
+                    values[d] = methods.value(code);
+                    break;
+                case BANK:
+                    values[d] = banks.value(code);
+                    break;
+                default:
+                    values[d] = time(plan.from + (long) code * plan.dimensions[d].bucketSeconds());
+            }
+        }
+        Map<String, Object> group = new LinkedHashMap<>();
+        for (int d = 0; d < values.length; d++) {
+            group.put(plan.dimensions[d].name().toLowerCase(), values[d]);
+        }
+        group.put("count", count);
+        group.put("amount", BigDecimal.valueOf(amountPaise, 2));
+        if (plan.metric != null) {
+            long measured = histogram != null ? Arrays.stream(histogram).asLongStream().sum() : 0;
+            for (double quantile : PERCENTILES) {
+                // Latency of a group with nothing completed yet is unknown
+                Object reported = null;
+                if (measured > 0) {
+                    long value = LogHistogram.percentile(histogram, measured, quantile);
+                    reported = plan.metric == AnalyticsQuery.Metric.AMOUNT ? BigDecimal.valueOf(value, 2) : value;
+                }
+                group.put("p" + Math.round(quantile * 100), reported);
+            }
+        }
+        return group;
+    }
+
+    static int seconds(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneOffset.UTC) - EPOCH_SECONDS;
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE - 1, seconds));
+    }
+
+    private static LocalDateTime time(long seconds) {
+        return LocalDateTime.ofEpochSecond(EPOCH_SECONDS + seconds, 0, ZoneOffset.UTC);
+    }
+}
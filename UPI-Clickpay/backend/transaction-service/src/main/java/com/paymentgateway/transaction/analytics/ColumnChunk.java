@@ -0,0 +1,39 @@
+package com.paymentgateway.transaction.analytics;
+
+/**
+ * 65536 consecutive payment ids, one primitive array per column. A payment's row is its
+ * id's low 16 bits, so ingesting a change is an overwrite in place and needs no index.
+ * Status code 0 marks ids with no payment. Only the ingest thread writes; a query may see
+ * a row mid-update, which dashboards can live with.
+ */
+final class ColumnChunk {
+
+    static final int SHIFT = 16;
+    static final int SIZE = 1 << SHIFT;
+    static final int MASK = SIZE - 1;
+
+    // Bytes per row over all columns
+    static final int ROW_BYTES = Long.BYTES + 3 * Integer.BYTES + 3;
+
+    final long number;
+    final long[] amountPaise = new long[SIZE];
+    final int[] createdSeconds = new int[SIZE];
+    // completed_at - created_at, or -1 while not completed
+    final int[] latencyMillis = new int[SIZE];
+    final int[] merchant = new int[SIZE];
+    final byte[] status = new byte[SIZE];
+    final byte[] method = new byte[SIZE];
+    final byte[] bank = new byte[SIZE];
+
+    // Zone map: queries skip the chunk when their time range misses it
+    volatile int minCreated = Integer.MAX_VALUE;
+    volatile int maxCreated = Integer.MIN_VALUE;
+
+    ColumnChunk(long number) {
+        this.number = number;
+    }
+
+    boolean overlaps(int fromSeconds, int toSeconds) {
+        return maxCreated >= fromSeconds && minCreated < toSeconds;
+    }
+}
@@ -0,0 +1,61 @@
+package com.paymentgateway.transaction.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Codes for the values of one low-cardinality column (status, method, bank). Code 0 is
+ * null, or no payment at all in the status column. Written by the ingest thread only;
+ * queries read through the volatile array.
+ */
+final class Dictionary {
+
+    static final int MAX_CODE = 255;
+    static final String OTHER = "(other)";
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private volatile String[] values = {null};
+
+    int code(String value) {
+        if (value == null) {
+            return 0;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        String[] current = values;
+        // A byte column cannot tell more values apart; the rest share one code
+        if (current.length > MAX_CODE) {
+            return code(OTHER);
+        }
+        String[] grown = new String[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = value;
+        codes.put(value, current.length);
+        values = grown;
+        return current.length;
+    }
+
+    /**
+     * Code of a value for filtering, or -1 if no payment has it
+     */
+    int find(String value) {
+        String[] current = values;
+        for (int code = 1; code < current.length; code++) {
+            if (current[code].equalsIgnoreCase(value)) {
+                return code;
+            }
+        }
+        return -1;
+    }
+
+    String value(int code) {
+        String[] current = values;
+        return code < current.length ? current[code] : null;
+    }
+
+    int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,16 @@
+package com.paymentgateway.transaction.analytics;
+
+/**
+ * What analytics queries can group by
+ */
+public enum Dimension {
+    MERCHANT, STATUS, METHOD, BANK, HOUR, DAY;
+
+    boolean isTime() {
+        return this == HOUR || this == DAY;
+    }
+
+    int bucketSeconds() {
+        return this == HOUR ? 3600 : 86400;
+    }
+}
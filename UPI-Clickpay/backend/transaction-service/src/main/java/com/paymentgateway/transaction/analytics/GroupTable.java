@@ -0,0 +1,118 @@
+package com.paymentgateway.transaction.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count, amount and optionally a {@link LogHistogram} per group, keyed by the packed group
+ * key. Key spaces up to DENSE_LIMIT are arrays indexed by the key itself; larger ones use
+ * open addressing. Each scan thread fills its own table and the tables are merged at the end.
+ */
+final class GroupTable {
+
+    interface GroupConsumer {
+        void accept(long key, long count, long amountPaise, int[] histogram);
+    }
+
+    static final int DENSE_LIMIT = 1 << 16;
+    private static final long EMPTY = -1;
+
+    private final boolean dense;
+    private final boolean histograms;
+    private long[] keys;
+    private long[] counts;
+    private long[] sums;
+    private int[][] buckets;
+    private int size;
+
+    GroupTable(long keySpace, boolean histograms) {
+        this.dense = keySpace <= DENSE_LIMIT;
+        this.histograms = histograms;
+        allocate(dense ? (int) Math.max(1, keySpace) : 1024);
+    }
+
+    void add(long key, long amountPaise, long metric) {
+        int slot = dense ? (int) key : slot(key);
+        counts[slot]++;
+        sums[slot] += amountPaise;
+        if (histograms && metric >= 0) {
+            int[] histogram = buckets[slot];
+            if (histogram == null) {
+                histogram = new int[LogHistogram.BUCKETS];
+                buckets[slot] = histogram;
+            }
+            histogram[LogHistogram.bucket(metric)]++;
+        }
+    }
+
+    void merge(GroupTable other) {
+        other.forEach((key, count, amountPaise, histogram) -> {
+            int slot = dense ? (int) key : slot(key);
+            counts[slot] += count;
+            sums[slot] += amountPaise;
+            if (histogram != null) {
+                if (buckets[slot] == null) {
+                    buckets[slot] = histogram.clone();
+                } else {
+                    int[] mine = buckets[slot];
+                    for (int b = 0; b < mine.length; b++) {
+                        mine[b] += histogram[b];
+                    }
+                }
+            }
+        });
+    }
+
+    void forEach(GroupConsumer consumer) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                consumer.accept(dense ? slot : keys[slot], counts[slot], sums[slot], histograms ? buckets[slot] : null);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash();
+            return slot(key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        long[] oldSums = sums;
+        int[][] oldBuckets = buckets;
+        allocate(oldKeys.length * 2);
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] != EMPTY) {
+                int slot = slot(oldKeys[old]);
+                counts[slot] = oldCounts[old];
+                sums[slot] = oldSums[old];
+                buckets[slot] = oldBuckets[old];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        counts = new long[capacity];
+        sums = new long[capacity];
+        buckets = new int[capacity][];
+        size = 0;
+        if (!dense) {
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.paymentgateway.transaction.analytics;
+
+/**
+ * Fixed log-linear buckets for percentiles: 8 per power of two, so a percentile is within
+ * about 6% of the true value while a group's histogram stays 488 ints whatever the count.
+ */
+final class LogHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private LogHistogram() {}
+
+    static int bucket(long value) {
+        if (value < SUB) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB - 1);
+        return (exponent - SUB_BITS + 1) * SUB + sub;
+    }
+
+    /**
+     * Middle of the bucket's range
+     */
+    static long value(int bucket) {
+        if (bucket < SUB) {
+            return bucket;
+        }
+        int exponent = bucket / SUB + SUB_BITS - 1;
+        long width = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (bucket % SUB) * width + width / 2;
+    }
+
+    static long percentile(int[] counts, long total, double quantile) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return value(bucket);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.paymentgateway.transaction.analytics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense int codes for merchant ids, so the merchant column is an int[] and grouping by
+ * merchant can index arrays. Written by the ingest thread only; queries look codes up.
+ */
+final class MerchantCodes {
+
+    private final Map<Long, Integer> codes = new ConcurrentHashMap<>();
+    private volatile long[] merchantIds = new long[1024];
+    private volatile int size;
+
+    int code(long merchantId) {
+        Integer code = codes.get(merchantId);
+        if (code != null) {
+            return code;
+        }
+        long[] ids = merchantIds;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            merchantIds = ids;
+        }
+        ids[size] = merchantId;
+        codes.put(merchantId, size);
+        return size++;
+    }
+
+    /**
+     * Code for filtering, or -1 for a merchant with no payments
+     */
+    int find(long merchantId) {
+        Integer code = codes.get(merchantId);
+        return code != null ? code : -1;
+    }
+
+    long merchantId(int code) {
+        return merchantIds[code];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,103 @@
+package com.paymentgateway.transaction.archive;
+
+import com.paymentgateway.common.archive.ArchiveFilter;
+import com.paymentgateway.common.archive.PaymentColumn;
+import com.paymentgateway.common.archive.Segment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The payment archive as payment-service's archiver left it: the segments listed in
+ * payment_archive_segments, read from the shared archive.directory. Segment files never
+ * change, so each one's footer is read once and kept.
+ */
+@Component
+public class ArchiveCatalog {
+
+    /**
+     * Segments at one point in time, oldest first
+     */
+    public static class Snapshot {
+        private final List<Segment> segments;
+        private final Set<String> deletingTransactionIds;
+
+        Snapshot(List<Segment> segments, Set<String> deletingTransactionIds) {
+            this.segments = segments;
+            this.deletingTransactionIds = deletingTransactionIds;
+        }
+
+        public List<Segment> getSegments() { return segments; }
+
+        // Archived but possibly still in the payments table too; the archived copy counts
+        public Set<String> getDeletingTransactionIds() { return deletingTransactionIds; }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${archive.directory}")
+    private String directory;
+
+    private final Map<String, Segment> opened = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> deletingIds = new ConcurrentHashMap<>();
+
+    /**
+     * Read the catalog. Call it in the same transaction as the payments table query so both
+     * see the archiver at the same step.
+     */
+    public Snapshot load() {
+        List<String[]> rows = jdbcTemplate.query(
+            "SELECT file_name, status FROM payment_archive_segments ORDER BY id",
+            (rs, rowNum) -> new String[] {rs.getString(1), rs.getString(2)});
+        List<Segment> segments = new ArrayList<>(rows.size());
+        Set<String> listed = new HashSet<>();
+        Set<String> deleting = new HashSet<>();
+        for (String[] row : rows) {
+            Segment segment = opened.computeIfAbsent(row[0], this::open);
+            segments.add(segment);
+            listed.add(row[0]);
+            if ("DELETING".equals(row[1])) {
+                deleting.addAll(deletingIds.computeIfAbsent(row[0], fileName -> transactionIds(segment)));
+            }
+        }
+        // Forget segments that were rewritten or removed
+        opened.keySet().retainAll(listed);
+        deletingIds.keySet().retainAll(listed);
+        segments.sort(Comparator.comparingLong(segment -> segment.min(PaymentColumn.CREATED_AT)));
+        return new Snapshot(segments, Collections.unmodifiableSet(deleting));
+    }
+
+    private Segment open(String fileName) {
+        try {
+            return Segment.open(Paths.get(directory).resolve(fileName));
+        } catch (IOException e) {
+            throw new RuntimeException("Archive segment " + fileName + " is not readable under " + directory
+                + ": " + e.getMessage());
+        }
+    }
+
+    private static Set<String> transactionIds(Segment segment) {
+        Set<String> ids = new HashSet<>();
+        try {
+            segment.scan(ArchiveFilter.all(), EnumSet.of(PaymentColumn.TRANSACTION_ID),
+                row -> ids.add((String) row.get("transaction_id")));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read archive segment " + segment.getPath() + ": " + e.getMessage());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,110 @@
+package com.paymentgateway.transaction.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.transaction.analytics.AnalyticsIngestor;
+import com.paymentgateway.transaction.analytics.AnalyticsQuery;
+import com.paymentgateway.transaction.analytics.AnalyticsStore;
+import com.paymentgateway.transaction.analytics.Dimension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interactive group-by queries over every payment, answered from the in-memory analytics store
+ */
+@RestController
+@RequestMapping("/api/transactions/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private static final int MAX_LIMIT = 10000;
+
+    @Autowired
+    private AnalyticsStore analyticsStore;
+
+    @Autowired
+    private AnalyticsIngestor analyticsIngestor;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    /**
+     * e.g. ?from=2024-01-01T00:00&to=2024-02-01T00:00&groupBy=bank,status&percentileOf=latency
+     */
+    @GetMapping("/query")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> query(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) Long merchantId,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String percentileOf,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            if (!to.isAfter(from)) {
+                throw new RuntimeException("to must be after from");
+            }
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new RuntimeException("limit must be between 1 and " + MAX_LIMIT);
+            }
+            if (!analyticsIngestor.isLoaded()) {
+                throw new RuntimeException("Analytics store is still loading");
+            }
+            Long scope = identityResolver.resolveMerchantScope(merchantId, gatewayUserId, gatewayRole, internalAuth, token);
+            AnalyticsQuery query = new AnalyticsQuery(from, to, dimensions(groupBy), scope,
+                status == null || status.isBlank() ? null : status.trim(),
+                percentileOf == null || percentileOf.isBlank() ? null
+                    : AnalyticsQuery.Metric.valueOf(percentileOf.trim().toUpperCase()),
+                limit);
+            return ResponseEntity.ok(ApiResponse.success(analyticsStore.query(query)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to run analytics query: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/status")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getStatus(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            identityResolver.requireAdmin(gatewayRole, internalAuth, token);
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("store", analyticsStore.status());
+            status.put("ingest", analyticsIngestor.status());
+            return ResponseEntity.ok(ApiResponse.success(status));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get analytics status: " + e.getMessage()));
+        }
+    }
+
+    private static List<Dimension> dimensions(String groupBy) {
+        List<Dimension> dimensions = new ArrayList<>();
+        if (groupBy == null || groupBy.isBlank()) {
+            return dimensions;
+        }
+        for (String name : groupBy.split(",")) {
+            Dimension dimension = Dimension.valueOf(name.trim().toUpperCase());
+            if (dimensions.contains(dimension)) {
+                throw new RuntimeException("Duplicate groupBy dimension " + name.trim());
+            }
+            dimensions.add(dimension);
+        }
+        return dimensions;
+    }
+}
@@ -0,0 +1,92 @@
+package com.paymentgateway.transaction.controller;
+
+import com.paymentgateway.common.dto.ApiResponse;
+import com.paymentgateway.common.security.GatewayHeaders;
+import com.paymentgateway.common.security.TrustedIdentityResolver;
+import com.paymentgateway.transaction.service.PaymentReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Payment reports for merchants and admins; live and archived payments alike
+ */
+@RestController
+@RequestMapping("/api/transactions/reports")
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    private static final int MAX_DAYS = 366;
+
+    @Autowired
+    private PaymentReportService reportService;
+
+    @Autowired
+    private TrustedIdentityResolver identityResolver;
+
+    @GetMapping("/summary")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long merchantId,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            checkRange(from, to);
+            Long scope = identityResolver.resolveMerchantScope(merchantId, gatewayUserId, gatewayRole, internalAuth, token);
+            return ResponseEntity.ok(ApiResponse.success(reportService.summary(scope, from, to)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to build payment summary: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<?> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long merchantId,
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestHeader(value = GatewayHeaders.USER_ID, required = false) String gatewayUserId,
+            @RequestHeader(value = GatewayHeaders.USER_ROLE, required = false) String gatewayRole,
+            @RequestHeader(value = GatewayHeaders.INTERNAL_SECRET, required = false) String internalAuth) {
+        try {
+            checkRange(from, to);
+            Long scope = identityResolver.resolveMerchantScope(merchantId, gatewayUserId, gatewayRole, internalAuth, token);
+            StreamingResponseBody body = output -> {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 65536);
+                reportService.export(scope, from, to, writer);
+                writer.flush();
+            };
+            return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments-" + from + "-" + to + ".csv\"")
+                .body(body);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to export payments: " + e.getMessage()));
+        }
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("to must not be before from");
+        }
+        if (from.plusDays(MAX_DAYS).isBefore(to)) {
+            throw new RuntimeException("Reports cover at most " + MAX_DAYS + " days");
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.paymentgateway.transaction.service;
+
+import com.paymentgateway.common.archive.ArchiveFilter;
+import com.paymentgateway.common.archive.PaymentColumn;
+import com.paymentgateway.common.archive.Segment;
+import com.paymentgateway.transaction.archive.ArchiveCatalog;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Payment reports and exports over both tiers: the live payments table and the archive
+ * segments. The catalog and the table are read in one repeatable-read transaction, so a
+ * payment being archived at the same time is counted exactly once. Archive scans read
+ * only the columns a report needs, from segments whose min/max entries overlap it.
+ */
+@Service
+public class PaymentReportService {
+
+    private static final Set<PaymentColumn> EXPORT_COLUMNS = EnumSet.of(
+        PaymentColumn.TRANSACTION_ID, PaymentColumn.MERCHANT_ID, PaymentColumn.AMOUNT, PaymentColumn.CURRENCY,
+        PaymentColumn.STATUS, PaymentColumn.PAYMENT_METHOD, PaymentColumn.BANK_PROVIDER, PaymentColumn.BANK_REFERENCE,
+        PaymentColumn.CREATED_AT, PaymentColumn.COMPLETED_AT, PaymentColumn.REFUND_AMOUNT, PaymentColumn.REFUNDED_AT);
+
+    private static final String EXPORT_SELECT = EXPORT_COLUMNS.stream()
+        .map(PaymentColumn::getName).collect(Collectors.joining(", "));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchiveCatalog archiveCatalog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reports.fetch-size:5000}")
+    private int fetchSize;
+
+    private TransactionTemplate snapshotTemplate;
+
+    @PostConstruct
+    public void init() {
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Count and amount per status of the payments created from one day to another, inclusive
+     * @param merchantId null for every merchant
+     */
+    public Map<String, Object> summary(Long merchantId, LocalDate from, LocalDate to) {
+        Map<String, Long> counts = new TreeMap<>();
+        Map<String, BigDecimal> amounts = new TreeMap<>();
+        long[] hotRows = new long[1];
+
+        ArchiveCatalog.Snapshot archive = snapshotTemplate.execute(status -> {
+            ArchiveCatalog.Snapshot snapshot = archiveCatalog.load();
+            jdbcTemplate.query(connection -> hotQuery(connection,
+                "SELECT status, COUNT(*), COALESCE(SUM(amount), 0) FROM payments", " GROUP BY status",
+                merchantId, from, to, snapshot), rs -> {
+                    String paymentStatus = rs.getString(1);
+                    counts.merge(paymentStatus, rs.getLong(2), Long::sum);
+                    amounts.merge(paymentStatus, rs.getBigDecimal(3), BigDecimal::add);
+                    hotRows[0] += rs.getLong(2);
+                });
+            return snapshot;
+        });
+
+        ArchiveFilter filter = archiveFilter(merchantId, from, to);
+        long archivedRows = 0;
+        int scanned = 0;
+        for (Segment segment : archive.getSegments()) {
+            if (!segment.mayMatch(filter)) {
+                continue;
+            }
+            scanned++;
+            archivedRows += scan(segment, filter, EnumSet.of(PaymentColumn.STATUS, PaymentColumn.AMOUNT), row -> {
+                String paymentStatus = (String) row.get("status");
+                counts.merge(paymentStatus, 1L, Long::sum);
+                amounts.merge(paymentStatus, (BigDecimal) row.get("amount"), BigDecimal::add);
+            });
+        }
+
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        counts.forEach((paymentStatus, count) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", count);
+            entry.put("amount", amounts.get(paymentStatus));
+            byStatus.put(paymentStatus, entry);
+        });
+        Map<String, Object> sources = new LinkedHashMap<>();
+        sources.put("liveRows", hotRows[0]);
+        sources.put("archivedRows", archivedRows);
+        sources.put("segments", archive.getSegments().size());
+        sources.put("segmentsScanned", scanned);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("merchantId", merchantId);
+        summary.put("from", from);
+        summary.put("to", to);
+        summary.put("count", counts.values().stream().mapToLong(Long::longValue).sum());
+        summary.put("amount", amounts.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        summary.put("byStatus", byStatus);
+        summary.put("sources", sources);
+        return summary;
+    }
+
+    /**
+     * Every payment created from one day to another as CSV, archived ones first
+     * @return rows written
+     */
+    public long export(Long merchantId, LocalDate from, LocalDate to, Writer out) {
+        writeLine(out, EXPORT_SELECT);
+        ArchiveFilter filter = archiveFilter(merchantId, from, to);
+        long[] rows = new long[1];
+        snapshotTemplate.executeWithoutResult(status -> {
+            ArchiveCatalog.Snapshot snapshot = archiveCatalog.load();
+            for (Segment segment : snapshot.getSegments()) {
+                rows[0] += scan(segment, filter, EXPORT_COLUMNS, row -> writeRow(out, row));
+            }
+            ColumnMapRowMapper mapper = new ColumnMapRowMapper();
+            jdbcTemplate.query(connection -> hotQuery(connection, "SELECT " + EXPORT_SELECT + " FROM payments",
+                " ORDER BY created_at", merchantId, from, to, snapshot), rs -> {
+                    writeRow(out, mapper.mapRow(rs, 0));
+                    rows[0]++;
+                });
+        });
+        return rows[0];
+    }
+
+    private PreparedStatement hotQuery(Connection connection, String select, String tail, Long merchantId,
+                                       LocalDate from, LocalDate to, ArchiveCatalog.Snapshot snapshot) throws SQLException {
+        String sql = select + " WHERE created_at >= ? AND created_at < ?"
+            + (merchantId != null ? " AND merchant_id = ?" : "")
+            + (snapshot.getDeletingTransactionIds().isEmpty() ? "" : " AND NOT (transaction_id = ANY (?))")
+            + tail;
+        PreparedStatement ps = connection.prepareStatement(sql);
+        ps.setFetchSize(fetchSize);
+        int index = 1;
+        ps.setTimestamp(index++, Timestamp.valueOf(from.atStartOfDay()));
+        ps.setTimestamp(index++, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        if (merchantId != null) {
+            ps.setLong(index++, merchantId);
+        }
+        if (!snapshot.getDeletingTransactionIds().isEmpty()) {
+            ps.setArray(index, connection.createArrayOf("varchar", snapshot.getDeletingTransactionIds().toArray()));
+        }
+        return ps;
+    }
+
+    private static ArchiveFilter archiveFilter(Long merchantId, LocalDate from, LocalDate to) {
+        return new ArchiveFilter(merchantId, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    private static int scan(Segment segment, ArchiveFilter filter, Set<PaymentColumn> columns,
+                            Consumer<Map<String, Object>> consumer) {
+        try {
+            return segment.scan(filter, columns, consumer);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read archive segment " + segment.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeRow(Writer out, Map<String, Object> row) {
+        StringBuilder line = new StringBuilder();
+        for (PaymentColumn column : EXPORT_COLUMNS) {
+            if (line.length() > 0) {
+                line.append(',');
+            }
+            Object value = row.get(column.getName());
+            if (value != null) {
+                appendCsv(line, value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString());
+            }
+        }
+        writeLine(out, line.toString());
+    }
+
+    private static void appendCsv(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static void writeLine(Writer out, String line) {
+        try {
+            out.write(line);
+            out.write('\n');
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write export: " + e.getMessage());
+        }
+    }
+}
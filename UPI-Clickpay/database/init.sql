@@ -57,21 +57,108 @@ CREATE TABLE IF NOT EXISTS transactions (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
--- API Keys table
+-- API Keys table (only the SHA-256 digest of each key is stored)
 CREATE TABLE IF NOT EXISTS api_keys (
     id BIGSERIAL PRIMARY KEY,
     merchant_id BIGINT NOT NULL REFERENCES merchants(id),
-    api_key VARCHAR(255) UNIQUE NOT NULL,
+    key_hash CHAR(64) UNIQUE NOT NULL,
+    key_prefix VARCHAR(12),
+    scopes VARCHAR(255) DEFAULT 'payments:write,payments:read',
     is_active BOOLEAN DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     expires_at TIMESTAMP
 );
 
+-- Monthly invoices produced by merchant-service billing (amounts in rupees)
+CREATE TABLE IF NOT EXISTS invoices (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL REFERENCES merchants(user_id),
+    billing_month CHAR(7) NOT NULL,
+    operation_mode VARCHAR(20) NOT NULL,
+    transaction_count BIGINT NOT NULL,
+    volume DECIMAL(18,2) NOT NULL,
+    transaction_fees DECIMAL(16,2) NOT NULL,
+    percentage_fees DECIMAL(16,2) NOT NULL,
+    monthly_fee DECIMAL(12,2) NOT NULL,
+    total_fees DECIMAL(16,2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (merchant_id, billing_month)
+);
+
+-- Columns payment-service added through JPA; settlement reads refunds directly
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS bank_provider VARCHAR(20);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS bank_transaction_id VARCHAR(100);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS payment_url VARCHAR(500);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS refund_amount DECIMAL(10,2);
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS refunded_at TIMESTAMP;
+-- Pending payments expire at expires_at; expiry_slot says which payment-service node expires them
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS expiry_slot INTEGER;
+UPDATE payments SET expires_at = created_at + INTERVAL '15 minutes' WHERE status = 'PENDING' AND expires_at IS NULL;
+-- payment-service gives pending payments a slot at startup, from its configured slot count
+
+-- Settlement: one run per settlement date, one batch per merchant per run, and one line
+-- item per settled payment or refund. Line items are unique so a restarted run never
+-- pays the same payment twice. Amounts in rupees.
+CREATE TABLE IF NOT EXISTS settlement_runs (
+    id BIGSERIAL PRIMARY KEY,
+    settlement_date DATE UNIQUE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP,
+    payout_file VARCHAR(500),
+    error_message TEXT
+);
+
+CREATE TABLE IF NOT EXISTS settlement_batches (
+    id BIGSERIAL PRIMARY KEY,
+    run_id BIGINT NOT NULL REFERENCES settlement_runs(id),
+    merchant_id BIGINT NOT NULL REFERENCES merchants(user_id),
+    status VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    gross_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    refund_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    fee_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    net_amount DECIMAL(18,2) NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    settlement_account VARCHAR(100),
+    UNIQUE (run_id, merchant_id)
+);
+
+CREATE TABLE IF NOT EXISTS settlement_line_items (
+    id BIGSERIAL PRIMARY KEY,
+    batch_id BIGINT NOT NULL REFERENCES settlement_batches(id),
+    payment_id BIGINT NOT NULL REFERENCES payments(id),
+    entry_type VARCHAR(10) NOT NULL, -- PAYMENT, REFUND
+    amount DECIMAL(12,2) NOT NULL,
+    fee DECIMAL(12,2) NOT NULL DEFAULT 0,
+    UNIQUE (payment_id, entry_type)
+);
+
+-- Re-running a completed date settles late entries in a new generation: new batches and a
+-- new payout file. READY batches are written to the payout file, then PAID for good.
+ALTER TABLE settlement_runs ADD COLUMN IF NOT EXISTS generation INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE settlement_batches ADD COLUMN IF NOT EXISTS generation INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE settlement_batches DROP CONSTRAINT IF EXISTS settlement_batches_run_id_merchant_id_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_settlement_batches_run_merchant_generation
+    ON settlement_batches(run_id, merchant_id, generation);
+UPDATE settlement_batches b SET status = 'PAID' FROM settlement_runs r
+    WHERE r.id = b.run_id AND r.status = 'COMPLETED' AND b.status = 'READY';
+
 -- Indexes for better performance
 CREATE INDEX IF NOT EXISTS idx_payments_merchant_id ON payments(merchant_id);
 CREATE INDEX IF NOT EXISTS idx_payments_transaction_id ON payments(transaction_id);
 CREATE INDEX IF NOT EXISTS idx_payments_status ON payments(status);
 CREATE INDEX IF NOT EXISTS idx_payments_created_at ON payments(created_at);
+-- Billing reads a month of successful payments in merchant order
+CREATE INDEX IF NOT EXISTS idx_payments_success_merchant_created ON payments(merchant_id, created_at) WHERE status = 'SUCCESS';
+-- Expiry loads and sweeps pending payments one slot at a time
+CREATE INDEX IF NOT EXISTS idx_payments_pending_expiry ON payments(expiry_slot, expires_at) WHERE status = 'PENDING';
+-- Settlement scans recently completed or refunded payments
+CREATE INDEX IF NOT EXISTS idx_payments_settleable_completed ON payments(completed_at) WHERE status IN ('SUCCESS', 'REFUNDED');
+CREATE INDEX IF NOT EXISTS idx_payments_refunded_at ON payments(refunded_at) WHERE status = 'REFUNDED';
+-- Change feed for transaction-service's analytics store
+CREATE INDEX IF NOT EXISTS idx_payments_updated_at ON payments(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_settlement_line_items_batch ON settlement_line_items(batch_id);
 CREATE INDEX IF NOT EXISTS idx_transactions_merchant_id ON transactions(merchant_id);
 CREATE INDEX IF NOT EXISTS idx_transactions_created_at ON transactions(created_at);
 
@@ -85,15 +172,155 @@ INSERT INTO users (username, email, password, role)
 VALUES ('testmerchant', 'merchant@test.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'MERCHANT')
 ON CONFLICT (username) DO NOTHING;
 
+-- Tokens issued before a password change are no longer accepted
+ALTER TABLE users ADD COLUMN IF NOT EXISTS password_changed_at TIMESTAMP;
+
 -- Add new columns to merchants table for operation modes
 ALTER TABLE merchants ADD COLUMN IF NOT EXISTS operation_mode VARCHAR(20) DEFAULT 'FULL_PROCESSOR';
-ALTER TABLE merchants ADD COLUMN IF NOT EXISTS fee_structure TEXT;
-ALTER TABLE merchants ADD COLUMN IF NOT EXISTS bank_config TEXT;
-ALTER TABLE merchants ADD COLUMN IF NOT EXISTS settlement_config TEXT;
+ALTER TABLE merchants ADD COLUMN IF NOT EXISTS fee_structure JSONB;
+ALTER TABLE merchants ADD COLUMN IF NOT EXISTS bank_config JSONB;
+ALTER TABLE merchants ADD COLUMN IF NOT EXISTS settlement_config JSONB;
+-- Earlier schemas stored these as TEXT
+ALTER TABLE merchants ALTER COLUMN fee_structure TYPE JSONB USING fee_structure::jsonb;
+ALTER TABLE merchants ALTER COLUMN bank_config TYPE JSONB USING bank_config::jsonb;
+ALTER TABLE merchants ALTER COLUMN settlement_config TYPE JSONB USING settlement_config::jsonb;
+ALTER TABLE merchants ADD COLUMN IF NOT EXISTS config_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE merchants ADD COLUMN IF NOT EXISTS preferred_bank VARCHAR(20) DEFAULT 'AXIS';
+ALTER TABLE merchants ADD COLUMN IF NOT EXISTS rate_limit_tier VARCHAR(20) DEFAULT 'STANDARD';
+
+-- Earlier schemas stored api_keys in plain text; keep only their digests
+ALTER TABLE api_keys ADD COLUMN IF NOT EXISTS key_hash CHAR(64);
+ALTER TABLE api_keys ADD COLUMN IF NOT EXISTS key_prefix VARCHAR(12);
+ALTER TABLE api_keys ADD COLUMN IF NOT EXISTS scopes VARCHAR(255) DEFAULT 'payments:write,payments:read';
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'api_keys' AND column_name = 'api_key') THEN
+        UPDATE api_keys
+        SET key_hash = encode(sha256(convert_to(api_key, 'UTF8')), 'hex'),
+            key_prefix = left(api_key, 12)
+        WHERE key_hash IS NULL;
+        ALTER TABLE api_keys DROP COLUMN api_key;
+    END IF;
+END $$;
+UPDATE api_keys SET scopes = 'payments:write,payments:read' WHERE scopes IS NULL;
+ALTER TABLE api_keys ALTER COLUMN key_hash SET NOT NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_api_keys_key_hash ON api_keys (key_hash);
 
 -- Insert merchant record for test merchant
 INSERT INTO merchants (user_id, business_name, api_key, upi_id, operation_mode)
 SELECT u.id, 'Test Business', 'test_api_key_123', 'testmerchant@upi', 'FULL_PROCESSOR'
 FROM users u 
 WHERE u.username = 'testmerchant'
-ON CONFLICT (user_id) DO NOTHING;
\ No newline at end of file
+ON CONFLICT (user_id) DO NOTHING;
+-- Test merchant's API key ('test_api_key_123'), stored as its digest
+INSERT INTO api_keys (merchant_id, key_hash, key_prefix)
+SELECT m.id, encode(sha256('test_api_key_123'::bytea), 'hex'), 'test_api_key'
+FROM merchants m
+JOIN users u ON u.id = m.user_id
+WHERE u.username = 'testmerchant'
+ON CONFLICT (key_hash) DO NOTHING;
+
+-- payment-service keeps an in-memory key index and LISTENs here for changes.
+-- Key changes carry the digest; merchant activation changes ask for a full reload.
+CREATE OR REPLACE FUNCTION notify_api_key_change() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_TABLE_NAME = 'api_keys' THEN
+        PERFORM pg_notify('api_key_changes', COALESCE(NEW.key_hash, OLD.key_hash));
+    ELSE
+        PERFORM pg_notify('api_key_changes', 'merchant:' || COALESCE(NEW.id, OLD.id));
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS api_keys_notify ON api_keys;
+CREATE TRIGGER api_keys_notify
+    AFTER INSERT OR UPDATE OR DELETE ON api_keys
+    FOR EACH ROW EXECUTE FUNCTION notify_api_key_change();
+
+DROP TRIGGER IF EXISTS merchants_api_key_notify ON merchants;
+CREATE TRIGGER merchants_api_key_notify
+    AFTER UPDATE OF is_active ON merchants
+    FOR EACH ROW EXECUTE FUNCTION notify_api_key_change();
+
+-- merchant-service LISTENs here to refresh its config cache and to push the change to
+-- internal subscribers (MerchantDirectory.WatchMerchants). The payload is the user id.
+CREATE OR REPLACE FUNCTION notify_merchant_config_change() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('merchant_config_changes', NEW.user_id::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS merchants_config_notify ON merchants;
+CREATE TRIGGER merchants_config_notify
+    AFTER UPDATE ON merchants
+    FOR EACH ROW EXECUTE FUNCTION notify_merchant_config_change();
+
+-- Payment sharding (payment-service payment.sharding). Merchants hash into 4096 slots and
+-- each slot lives on one shard; this database is the home shard and keeps the slot map.
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS shard_slot INTEGER;
+CREATE INDEX IF NOT EXISTS idx_payments_shard_slot ON payments(shard_slot, id);
+
+CREATE TABLE IF NOT EXISTS payment_shard_slots (
+    slot INTEGER PRIMARY KEY,
+    shard VARCHAR(50) NOT NULL,
+    moving_to VARCHAR(50),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Every payment-service node LISTENs here; the payload is the slot whose owner changed
+CREATE OR REPLACE FUNCTION notify_payment_shard_slot() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('payment_shard_slots', NEW.slot::text);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS payment_shard_slots_notify ON payment_shard_slots;
+CREATE TRIGGER payment_shard_slots_notify
+    AFTER INSERT OR UPDATE ON payment_shard_slots
+    FOR EACH ROW EXECUTE FUNCTION notify_payment_shard_slot();
+
+-- A slot being moved off a shard is fenced there: writes to its payments fail with
+-- SQLSTATE PS001 and the writer retries against the slot's new owner.
+-- Kept in step with database/payment-shard.sql.
+CREATE TABLE IF NOT EXISTS payment_slot_fences (
+    slot INTEGER PRIMARY KEY,
+    fenced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE FUNCTION check_payment_slot_fence() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM payment_slot_fences WHERE slot = NEW.shard_slot) THEN
+        RAISE EXCEPTION 'payment slot % is moving to another shard', NEW.shard_slot USING ERRCODE = 'PS001';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS payments_slot_fence ON payments;
+CREATE TRIGGER payments_slot_fence
+    BEFORE INSERT OR UPDATE ON payments
+    FOR EACH ROW WHEN (NEW.shard_slot IS NOT NULL)
+    EXECUTE FUNCTION check_payment_slot_fence();
+
+-- Finished payments older than payment.archive.retention-days are moved to columnar segment
+-- files (see com.paymentgateway.payment.archive.PaymentArchiver). A segment is DELETING
+-- while its payments are being removed from the payments table and ARCHIVED after;
+-- transaction-service reports read both tiers against this catalog.
+CREATE TABLE IF NOT EXISTS payment_archive_segments (
+    id BIGSERIAL PRIMARY KEY,
+    file_name VARCHAR(255) UNIQUE NOT NULL,
+    shard VARCHAR(50) NOT NULL,
+    row_count INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'DELETING',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    archived_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_payment_archive_segments_deleting ON payment_archive_segments(id) WHERE status = 'DELETING';
+
+-- Archived payments leave the payments table, so rows that point at them keep only the id
+ALTER TABLE transactions DROP CONSTRAINT IF EXISTS transactions_payment_id_fkey;
+ALTER TABLE settlement_line_items DROP CONSTRAINT IF EXISTS settlement_line_items_payment_id_fkey;
@@ -0,0 +1,66 @@
+-- Schema for an additional payment shard (payment-service payment.sharding.shards).
+-- The home shard is the init.sql database; a shard only holds payments, so there are no
+-- foreign keys to merchants here. Run with the shard's number, which keeps payment ids
+-- unique across shards:
+--
+--   psql -d paymentgateway_shard1 -v shard_number=1 -f payment-shard.sql
+
+CREATE TABLE IF NOT EXISTS payments (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    transaction_id VARCHAR(100) UNIQUE NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    currency VARCHAR(3) DEFAULT 'INR',
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    payment_method VARCHAR(20),
+    upi_id VARCHAR(100),
+    upi_provider VARCHAR(50),
+    bank_reference VARCHAR(100),
+    qr_code_data TEXT,
+    callback_url VARCHAR(500),
+    description TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP,
+    cancellation_reason VARCHAR(255),
+    failure_reason VARCHAR(255),
+    cancelled_by VARCHAR(255),
+    bank_provider VARCHAR(20),
+    bank_transaction_id VARCHAR(100),
+    payment_url VARCHAR(500),
+    refund_amount DECIMAL(10,2),
+    refunded_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    expiry_slot INTEGER,
+    shard_slot INTEGER
+);
+
+-- Ids from the home shard stay below 10^15
+SELECT setval('payments_id_seq', GREATEST(:shard_number::bigint * 1000000000000000, (SELECT COALESCE(MAX(id), 1) FROM payments)));
+
+CREATE INDEX IF NOT EXISTS idx_payments_merchant_id ON payments(merchant_id);
+CREATE INDEX IF NOT EXISTS idx_payments_status ON payments(status);
+CREATE INDEX IF NOT EXISTS idx_payments_created_at ON payments(created_at);
+CREATE INDEX IF NOT EXISTS idx_payments_pending_expiry ON payments(expiry_slot, expires_at) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_payments_shard_slot ON payments(shard_slot, id);
+
+-- Same fence as in init.sql
+CREATE TABLE IF NOT EXISTS payment_slot_fences (
+    slot INTEGER PRIMARY KEY,
+    fenced_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE FUNCTION check_payment_slot_fence() RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM payment_slot_fences WHERE slot = NEW.shard_slot) THEN
+        RAISE EXCEPTION 'payment slot % is moving to another shard', NEW.shard_slot USING ERRCODE = 'PS001';
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS payments_slot_fence ON payments;
+CREATE TRIGGER payments_slot_fence
+    BEFORE INSERT OR UPDATE ON payments
+    FOR EACH ROW WHEN (NEW.shard_slot IS NOT NULL)
+    EXECUTE FUNCTION check_payment_slot_fence();